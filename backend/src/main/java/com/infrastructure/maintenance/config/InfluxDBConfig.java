@@ -2,9 +2,15 @@ package com.infrastructure.maintenance.config;
 
 import com.influxdb.client.InfluxDBClient;
 import com.influxdb.client.InfluxDBClientFactory;
+import com.influxdb.client.reactive.InfluxDBClientReactive;
+import com.influxdb.client.reactive.InfluxDBClientReactiveFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 public class InfluxDBConfig {
@@ -21,11 +27,31 @@ public class InfluxDBConfig {
     @Value("${influxdb.bucket:sensor-data}")
     private String bucket;
 
+    // Retention tiers: raw points, then 1-minute and 1-hour mean rollups
+    @Value("${influxdb.tiers.enabled:true}")
+    private boolean tiersEnabled;
+
+    @Value("${influxdb.tiers.raw-retention-days:7}")
+    private int rawRetentionDays;
+
+    @Value("${influxdb.tiers.minute-retention-days:90}")
+    private int minuteRetentionDays;
+
+    @Value("${influxdb.tiers.hour-retention-days:1825}")
+    private int hourRetentionDays;
+
     @Bean
     public InfluxDBClient influxDBClient() {
         return InfluxDBClientFactory.create(influxDbUrl, token.toCharArray(), org, bucket);
     }
 
+    // Publisher-based query/write API for the reactive profile's Netty endpoints
+    @Bean
+    @Profile("reactive")
+    public InfluxDBClientReactive influxDBClientReactive() {
+        return InfluxDBClientReactiveFactory.create(influxDbUrl, token.toCharArray(), org, bucket);
+    }
+
     public String getBucket() {
         return bucket;
     }
@@ -33,4 +59,45 @@ public class InfluxDBConfig {
     public String getOrg() {
         return org;
     }
-}
\ No newline at end of file
+
+    public boolean isTiersEnabled() {
+        return tiersEnabled;
+    }
+
+    /**
+     * Storage tiers ordered from finest to coarsest resolution. The raw tier is the
+     * configured bucket itself; rollup tiers live in sibling buckets.
+     */
+    public List<RetentionTier> getTiers() {
+        return List.of(
+                new RetentionTier("raw", bucket, Duration.ZERO, Duration.ofDays(rawRetentionDays)),
+                new RetentionTier("1m", bucket + "-1m", Duration.ofMinutes(1), Duration.ofDays(minuteRetentionDays)),
+                new RetentionTier("1h", bucket + "-1h", Duration.ofHours(1), Duration.ofDays(hourRetentionDays))
+        );
+    }
+
+    public static class RetentionTier {
+        private final String name;
+        private final String bucket;
+        private final Duration resolution;
+        private final Duration retention;
+
+        public RetentionTier(String name, String bucket, Duration resolution, Duration retention) {
+            this.name = name;
+            this.bucket = bucket;
+            this.resolution = resolution;
+            this.retention = retention;
+        }
+
+        public String getName() { return name; }
+        public String getBucket() { return bucket; }
+        public Duration getResolution() { return resolution; }
+        public Duration getRetention() { return retention; }
+        public boolean isRaw() { return resolution.isZero(); }
+
+        /** Flux duration literal for this tier's rollup window, e.g. "1m". */
+        public String getFluxWindow() {
+            return resolution.toMinutes() % 60 == 0 ? resolution.toHours() + "h" : resolution.toMinutes() + "m";
+        }
+    }
+}
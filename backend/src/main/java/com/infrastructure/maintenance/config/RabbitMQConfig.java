@@ -16,11 +16,13 @@ public class RabbitMQConfig {
 
     // Queue names
     public static final String SENSOR_DATA_QUEUE = "sensor-data-queue";
+    public static final String SENSOR_DATA_BATCH_QUEUE = "sensor-data-batch-queue";
     public static final String MAINTENANCE_PREDICTION_QUEUE = "maintenance-prediction-queue";
     public static final String ALERT_NOTIFICATION_QUEUE = "alert-notification-queue";
 
     // Routing keys
     public static final String SENSOR_DATA_ROUTING_KEY = "sensor.data.received";
+    public static final String SENSOR_DATA_BATCH_ROUTING_KEY = "sensor.data.batch";
     public static final String MAINTENANCE_PREDICTION_ROUTING_KEY = "maintenance.prediction.generated";
     public static final String ALERT_ROUTING_KEY = "alert.notification";
 
@@ -41,6 +43,11 @@ public class RabbitMQConfig {
         return QueueBuilder.durable(SENSOR_DATA_QUEUE).build();
     }
 
+    @Bean
+    public Queue sensorDataBatchQueue() {
+        return QueueBuilder.durable(SENSOR_DATA_BATCH_QUEUE).build();
+    }
+
     @Bean
     public Queue maintenancePredictionQueue() {
         return QueueBuilder.durable(MAINTENANCE_PREDICTION_QUEUE).build();
@@ -60,6 +67,14 @@ public class RabbitMQConfig {
                 .with(SENSOR_DATA_ROUTING_KEY);
     }
 
+    @Bean
+    public Binding sensorDataBatchBinding() {
+        return BindingBuilder
+                .bind(sensorDataBatchQueue())
+                .to(sensorDataExchange())
+                .with(SENSOR_DATA_BATCH_ROUTING_KEY);
+    }
+
     @Bean
     public Binding maintenancePredictionBinding() {
         return BindingBuilder
@@ -89,4 +104,4 @@ public class RabbitMQConfig {
         template.setMessageConverter(jsonMessageConverter());
         return template;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package com.infrastructure.maintenance.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.List;
+
+/**
+ * Reactive profile. Starts a Reactor Netty server on {@code reactive.server.port} next to the
+ * servlet container, serving the router functions declared by {@code @Profile("reactive")}
+ * components: a few event-loop threads carry any number of idle or streaming connections.
+ * Everything else (auth, admin, CRUD) stays on the servlet stack.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    @Value("${reactive.server.port:8081}")
+    private int port;
+
+    @Value("${reactive.r2dbc.url:r2dbc:h2:mem:///infrastructure_db}")
+    private String r2dbcUrl;
+
+    @Value("${spring.datasource.username:sa}")
+    private String username;
+
+    @Value("${spring.datasource.password:}")
+    private String password;
+
+    // Only the DatabaseClient is a bean: a ConnectionFactory bean would make Boot's DataSource
+    // auto-configuration back off and take JPA down with it
+    @Bean
+    public DatabaseClient reactiveDatabaseClient() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        return DatabaseClient.create(ConnectionFactories.get(options));
+    }
+
+    @Bean(destroyMethod = "disposeNow")
+    public DisposableServer reactiveServer(List<RouterFunction<ServerResponse>> routes, ObjectMapper objectMapper) {
+        RouterFunction<ServerResponse> router = routes.stream()
+                .reduce(RouterFunction::and)
+                .orElseThrow(() -> new IllegalStateException("No reactive routes defined"));
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        HttpHandler handler = RouterFunctions.toHttpHandler(router, strategies);
+        return HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(handler))
+                .bindNow();
+    }
+}
@@ -0,0 +1,98 @@
+package com.infrastructure.maintenance.controller;
+
+import com.infrastructure.maintenance.service.AlertAggregator;
+import com.infrastructure.maintenance.service.DataQualityService;
+import com.infrastructure.maintenance.service.DegradationService;
+import com.infrastructure.maintenance.service.FleetRiskSweepService;
+import com.infrastructure.maintenance.service.FluxQueryBenchmarkService;
+import com.infrastructure.maintenance.service.PredictionScheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*")
+public class AdminController {
+
+    @Autowired
+    private FluxQueryBenchmarkService queryBenchmarkService;
+
+    @Autowired
+    private FleetRiskSweepService fleetRiskSweepService;
+
+    @Autowired
+    private AlertAggregator alertAggregator;
+
+    @Autowired
+    private DataQualityService dataQualityService;
+
+    @Autowired
+    private PredictionScheduler predictionScheduler;
+
+    @Autowired
+    private DegradationService degradationService;
+
+    @GetMapping("/influx/query-benchmark")
+    public ResponseEntity<Map<String, Object>> benchmarkHistoryQuery(
+            @RequestParam String assetId,
+            @RequestParam String sensorType,
+            @RequestParam(defaultValue = "-24h") String timeRange,
+            @RequestParam(defaultValue = "1000") int iterations) {
+        try {
+            return ResponseEntity.ok(queryBenchmarkService.compareHistoryQuery(
+                    assetId, sensorType, timeRange, Math.max(1, iterations)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/fleet-sweep")
+    public ResponseEntity<FleetRiskSweepService.SweepStatus> startFleetSweep() {
+        return ResponseEntity.accepted().body(fleetRiskSweepService.start());
+    }
+
+    @GetMapping("/fleet-sweep")
+    public ResponseEntity<FleetRiskSweepService.SweepStatus> getFleetSweepStatus() {
+        FleetRiskSweepService.SweepStatus status = fleetRiskSweepService.getStatus();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/fleet-sweep")
+    public ResponseEntity<FleetRiskSweepService.SweepStatus> cancelFleetSweep() {
+        FleetRiskSweepService.SweepStatus status = fleetRiskSweepService.cancel();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/alerts/aggregation")
+    public ResponseEntity<Map<String, Object>> getAlertAggregationStats() {
+        return ResponseEntity.ok(alertAggregator.getStats());
+    }
+
+    @GetMapping("/data-quality")
+    public ResponseEntity<Map<String, Object>> getDataQualityStatus() {
+        return ResponseEntity.ok(dataQualityService.getStatus());
+    }
+
+    @PostMapping("/data-quality/reload")
+    public ResponseEntity<Map<String, Object>> reloadDataQualityRules() {
+        try {
+            dataQualityService.reload();
+            return ResponseEntity.ok(dataQualityService.getStatus());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    @GetMapping("/prediction-schedule")
+    public ResponseEntity<Map<String, Object>> getPredictionScheduleStats() {
+        return ResponseEntity.ok(predictionScheduler.getStats());
+    }
+
+    @GetMapping("/degradation")
+    public ResponseEntity<Map<String, Object>> getDegradationStats() {
+        return ResponseEntity.ok(degradationService.getStats());
+    }
+}
@@ -1,11 +1,18 @@
 package com.infrastructure.maintenance.controller;
 
+import com.infrastructure.maintenance.dto.AssetSummary;
+import com.infrastructure.maintenance.dto.CursorPage;
 import com.infrastructure.maintenance.model.InfrastructureAsset;
+import com.infrastructure.maintenance.service.AssetImportService;
 import com.infrastructure.maintenance.service.InfrastructureAssetService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +30,9 @@ public class InfrastructureController {
     @Autowired
     private InfrastructureAssetService assetService;
 
+    @Autowired
+    private AssetImportService assetImportService;
+
     @PostMapping("/assets")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
     public ResponseEntity<InfrastructureAsset> createAsset(@Valid @RequestBody InfrastructureAsset asset) {
@@ -30,6 +40,27 @@ public class InfrastructureController {
         return ResponseEntity.ok(createdAsset);
     }
 
+    @PostMapping(value = "/assets/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<AssetImportService.ImportJob> importAssets(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            HttpServletRequest request) {
+        try {
+            AssetImportService.ImportFormat format = contentType.startsWith("text/csv")
+                    ? AssetImportService.ImportFormat.CSV : AssetImportService.ImportFormat.NDJSON;
+            return ResponseEntity.accepted().body(assetImportService.startImport(request.getInputStream(), format));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/assets/import/{jobId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<AssetImportService.ImportJob> getImport(@PathVariable String jobId) {
+        AssetImportService.ImportJob job = assetImportService.getJob(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
     @GetMapping("/assets")
     public ResponseEntity<Page<InfrastructureAsset>> getAllAssets(
             @RequestParam(defaultValue = "0") int page,
@@ -77,6 +108,56 @@ public class InfrastructureController {
         return ResponseEntity.ok(assets);
     }
 
+    // Cursor-paginated summary listings: no count query, constant cost per page
+
+    @GetMapping("/assets/summaries")
+    public ResponseEntity<CursorPage<AssetSummary>> getAssetSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(assetService.getAssetSummaries(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/assets/summaries/type/{type}")
+    public ResponseEntity<CursorPage<AssetSummary>> getAssetSummariesByType(
+            @PathVariable String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(assetService.getAssetSummariesByType(type, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/assets/summaries/status/{status}")
+    public ResponseEntity<CursorPage<AssetSummary>> getAssetSummariesByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            InfrastructureAsset.AssetStatus assetStatus = InfrastructureAsset.AssetStatus.valueOf(status.toUpperCase());
+            return ResponseEntity.ok(assetService.getAssetSummariesByStatus(assetStatus, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/assets/summaries/high-priority")
+    public ResponseEntity<CursorPage<AssetSummary>> getHighPriorityAssetSummaries(
+            @RequestParam(defaultValue = "5") Integer priority,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(assetService.getHighPriorityAssetSummaries(priority, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/assets/nearby")
     public ResponseEntity<List<InfrastructureAsset>> getAssetsNearLocation(
             @RequestParam Double latitude,
@@ -91,11 +172,15 @@ public class InfrastructureController {
     public ResponseEntity<InfrastructureAsset> updateAsset(
             @PathVariable Long id,
             @Valid @RequestBody InfrastructureAsset assetDetails) {
-        InfrastructureAsset updatedAsset = assetService.updateAsset(id, assetDetails);
-        if (updatedAsset != null) {
-            return ResponseEntity.ok(updatedAsset);
+        try {
+            InfrastructureAsset updatedAsset = assetService.updateAsset(id, assetDetails);
+            if (updatedAsset != null) {
+                return ResponseEntity.ok(updatedAsset);
+            }
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
-        return ResponseEntity.notFound().build();
     }
 
     @PatchMapping("/assets/{assetId}/status")
@@ -112,6 +197,8 @@ public class InfrastructureController {
                 return ResponseEntity.ok(updatedAsset);
             }
             return ResponseEntity.notFound().build();
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -130,6 +217,8 @@ public class InfrastructureController {
                 return ResponseEntity.ok(updatedAsset);
             }
             return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
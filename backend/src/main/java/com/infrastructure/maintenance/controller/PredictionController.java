@@ -1,5 +1,6 @@
 package com.infrastructure.maintenance.controller;
 
+import com.infrastructure.maintenance.model.LatestAssetPrediction;
 import com.infrastructure.maintenance.model.MaintenancePrediction;
 import com.infrastructure.maintenance.service.PredictionEngineService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -52,4 +53,59 @@ public class PredictionController {
         List<MaintenancePrediction> predictions = predictionEngineService.getPredictionsInDateRange(startDate, endDate);
         return ResponseEntity.ok(predictions);
     }
-}
\ No newline at end of file
+
+    // Keyset-paginated variants: pass back the predictionDate/id of the last row as the cursor
+
+    @GetMapping("/asset/{assetId}/page")
+    public ResponseEntity<List<MaintenancePrediction>> getPredictionsForAssetPage(
+            @PathVariable String assetId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorDate,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "50") int size) {
+        List<MaintenancePrediction> predictions =
+                predictionEngineService.getPredictionsForAsset(assetId, cursorDate, cursorId, size);
+        if (predictions != null) {
+            return ResponseEntity.ok(predictions);
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/asset/{assetId}/latest")
+    public ResponseEntity<LatestAssetPrediction> getLatestPrediction(@PathVariable String assetId) {
+        return predictionEngineService.getLatestPrediction(assetId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/high-risk/page")
+    public ResponseEntity<List<MaintenancePrediction>> getHighRiskPredictionsPage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorDate,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(predictionEngineService.getHighRiskPredictions(cursorDate, cursorId, size));
+    }
+
+    @GetMapping("/current/{riskLevel}")
+    public ResponseEntity<List<LatestAssetPrediction>> getCurrentPredictionsByRisk(
+            @PathVariable String riskLevel,
+            @RequestParam(required = false) Long afterAssetRef,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            MaintenancePrediction.RiskLevel level = MaintenancePrediction.RiskLevel.valueOf(riskLevel.toUpperCase());
+            return ResponseEntity.ok(predictionEngineService.getCurrentPredictionsByRisk(level, afterAssetRef, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/date-range/page")
+    public ResponseEntity<List<MaintenancePrediction>> getPredictionsInDateRangePage(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorDate,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(predictionEngineService.getPredictionsInDateRange(
+                startDate, endDate, cursorDate, cursorId, size));
+    }
+}
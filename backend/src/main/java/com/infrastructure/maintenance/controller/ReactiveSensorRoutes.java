@@ -0,0 +1,124 @@
+package com.infrastructure.maintenance.controller;
+
+import com.infrastructure.maintenance.security.ReactiveJwtAuthorization;
+import com.infrastructure.maintenance.service.IngestAdmissionService;
+import com.infrastructure.maintenance.service.ReactiveSensorDataService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Netty-served routes of the reactive profile, on the same paths and with the same roles as
+ * their SensorController / InfrastructureController counterparts.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveSensorRoutes {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_MAP =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private ReactiveSensorDataService sensorDataService;
+
+    @Autowired
+    private ReactiveJwtAuthorization authorization;
+
+    @Autowired
+    private IngestAdmissionService admissionService;
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveSensorIngestRoutes() {
+        return RouterFunctions.route()
+                .POST("/api/sensors/data", this::recordSensorData)
+                .filter(authorization.requireRole("ADMIN", "MANAGER", "SENSOR"))
+                .build();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveSensorQueryRoutes() {
+        return RouterFunctions.route()
+                .GET("/api/sensors/data/{assetId}/history", this::getSensorDataHistory)
+                .GET("/api/infrastructure/assets/asset-id/{assetId}", this::getAssetByAssetId)
+                .filter(authorization.requireRole())
+                .build();
+    }
+
+    private Mono<ServerResponse> recordSensorData(ServerRequest request) {
+        String client = "sub:" + request.attribute(ReactiveJwtAuthorization.USERNAME_ATTRIBUTE).orElse("");
+        long retryAfter = admissionService.isEnabled() ? admissionService.tryAdmit(client, IngestAdmissionService.Kind.SINGLE) : 0;
+        if (retryAfter > 0) {
+            return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", Long.toString(retryAfter))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("error", "Too many sensor data requests", "retryAfterSeconds", retryAfter));
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean failed = new AtomicBoolean();
+        return request.bodyToMono(JSON_MAP)
+                .flatMap(body -> sensorDataService.recordSensorData(
+                        (String) body.get("assetId"),
+                        (String) body.get("sensorId"),
+                        (String) body.get("sensorType"),
+                        parseValue(body.get("value")),
+                        (String) body.get("unit")))
+                .flatMap(sensorData -> ServerResponse.ok().bodyValue(sensorData))
+                // Invalid readings are the client's fault; store and broker failures are not, and
+                // count against the concurrency limit like the servlet path's 5xx responses
+                .doOnError(e -> failed.set(!(e instanceof IllegalArgumentException)))
+                .onErrorResume(IllegalArgumentException.class, e -> ServerResponse.badRequest().build())
+                // A dependency guard in fail mode refused the reading, as on the servlet endpoint
+                .onErrorResume(RejectedExecutionException.class,
+                        e -> ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE).build())
+                .doFinally(signal -> {
+                    if (admissionService.isEnabled()) {
+                        admissionService.complete(IngestAdmissionService.Kind.SINGLE, System.nanoTime() - start, failed.get());
+                    }
+                });
+    }
+
+    private static Double parseValue(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Sensor value cannot be null");
+        }
+        return Double.valueOf(value.toString());
+    }
+
+    /** Newline-delimited JSON by default; server-sent events when the client accepts them. */
+    private Mono<ServerResponse> getSensorDataHistory(ServerRequest request) {
+        Flux<Map<String, Object>> records;
+        try {
+            records = sensorDataService.getSensorDataHistory(
+                    request.pathVariable("assetId"),
+                    request.queryParam("sensorType").orElseThrow(() -> new IllegalArgumentException("sensorType is required")),
+                    request.queryParam("timeRange").orElse("-24h"))
+                    .map(record -> record.getValues());
+        } catch (Exception e) {
+            return ServerResponse.badRequest().build();
+        }
+        MediaType mediaType = request.headers().accept().contains(MediaType.TEXT_EVENT_STREAM)
+                ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON;
+        return ServerResponse.ok().contentType(mediaType).body(records, JSON_MAP);
+    }
+
+    private Mono<ServerResponse> getAssetByAssetId(ServerRequest request) {
+        return sensorDataService.getAssetSummary(request.pathVariable("assetId"))
+                .flatMap(asset -> ServerResponse.ok().bodyValue(asset))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+}
@@ -1,14 +1,29 @@
 package com.infrastructure.maintenance.controller;
 
+import com.infrastructure.maintenance.dto.BulkSensorData;
 import com.infrastructure.maintenance.model.SensorData;
 import com.infrastructure.maintenance.service.SensorDataService;
+import com.infrastructure.maintenance.service.SensorExportService;
+import com.infrastructure.maintenance.service.SensorExportWriter;
+import com.infrastructure.maintenance.storage.ReadingBlock;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/sensors")
@@ -18,6 +33,12 @@ public class SensorController {
     @Autowired
     private SensorDataService sensorDataService;
 
+    @Autowired
+    private SensorExportService sensorExportService;
+
+    @Value("${ingest.batch.max-block-kb:4096}")
+    private int maxBlockKb;
+
     @PostMapping("/data")
     public ResponseEntity<SensorData> recordSensorData(@RequestBody Map<String, Object> sensorRequest) {
         try {
@@ -29,6 +50,8 @@ public class SensorController {
 
             SensorData sensorData = sensorDataService.recordSensorData(assetId, sensorId, sensorType, value, unit);
             return ResponseEntity.ok(sensorData);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -38,14 +61,46 @@ public class SensorController {
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('SENSOR')")
     public ResponseEntity<String> recordSensorDataBatch(@RequestBody List<Map<String, Object>> sensorRequests) {
         try {
-            // Convert request maps to SensorData objects
-            // This is a simplified implementation
-            return ResponseEntity.ok("Batch sensor data recorded successfully");
+            List<SensorData> sensorDataList = sensorDataService.parseBatchRequest(sensorRequests);
+            sensorDataService.recordSensorDataBatch(sensorDataList);
+            return ResponseEntity.ok("Batch sensor data recorded successfully: " + sensorDataList.size() + " readings");
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Sensor data cannot be recorded right now: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error recording batch sensor data: " + e.getMessage());
         }
     }
 
+    // Same batch as a binary reading block (see ReadingBlock), decoded without an object per field
+    @PostMapping(value = "/data/batch", consumes = ReadingBlock.CONTENT_TYPE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('SENSOR')")
+    public ResponseEntity<String> recordSensorDataBlock(HttpServletRequest request) {
+        try {
+            byte[] block = readBody(request, maxBlockKb * 1024);
+            if (block == null) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body("Reading block exceeds " + maxBlockKb + " KB");
+            }
+            int recorded = sensorDataService.recordSensorDataBlock(ByteBuffer.wrap(block));
+            return ResponseEntity.ok("Batch sensor data recorded successfully: " + recorded + " readings");
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Sensor data cannot be recorded right now: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error recording batch sensor data: " + e.getMessage());
+        }
+    }
+
+    // Null when the body is larger than maxBytes; never buffers more than maxBytes + 1
+    private static byte[] readBody(HttpServletRequest request, int maxBytes) throws IOException {
+        if (request.getContentLengthLong() > maxBytes) {
+            return null;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxBytes + 1);
+        return body.length > maxBytes ? null : body;
+    }
+
     @GetMapping("/data/{assetId}/history")
     public ResponseEntity<List<com.influxdb.query.FluxRecord>> getSensorDataHistory(
             @PathVariable String assetId,
@@ -71,6 +126,78 @@ public class SensorController {
         }
     }
 
+    @PostMapping("/data/bulk-query")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<BulkSensorData> getBulkSensorData(@RequestBody Map<String, Object> queryRequest) {
+        try {
+            List<String> assetIds = (List<String>) queryRequest.get("assetIds");
+            List<String> sensorTypes = (List<String>) queryRequest.get("sensorTypes");
+            String timeRange = (String) queryRequest.getOrDefault("timeRange", "-24h");
+            String aggregationWindow = (String) queryRequest.getOrDefault("aggregationWindow", "5m");
+
+            BulkSensorData data = sensorDataService.getBulkSensorData(assetIds, sensorTypes, timeRange, aggregationWindow);
+            return ResponseEntity.ok(data);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/exports")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<SensorExportService.ExportJob> startExport(@RequestBody Map<String, Object> exportRequest) {
+        try {
+            return ResponseEntity.accepted().body(
+                    sensorExportService.startExport(sensorExportService.parseRequest(exportRequest)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/exports/{jobId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<SensorExportService.ExportJob> getExport(@PathVariable String jobId) {
+        SensorExportService.ExportJob job = sensorExportService.getJob(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/exports/{jobId}/download")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<Resource> downloadExport(@PathVariable String jobId) {
+        SensorExportService.ExportJob job = sensorExportService.getJob(jobId);
+        if (job == null || job.getState() != SensorExportService.ExportState.COMPLETED) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(SensorExportWriter.CONTENT_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.file().getFileName() + "\"")
+                .body(new FileSystemResource(job.file()));
+    }
+
+    @DeleteMapping("/exports/{jobId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<SensorExportService.ExportJob> cancelExport(@PathVariable String jobId) {
+        SensorExportService.ExportJob job = sensorExportService.cancelOrDelete(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    // Streams the export straight into the response instead of writing a file first
+    @PostMapping("/exports/stream")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public void streamExport(@RequestBody Map<String, Object> exportRequest, HttpServletResponse response) throws Exception {
+        SensorExportService.ExportRequest request;
+        try {
+            request = sensorExportService.parseRequest(exportRequest);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        response.setContentType(SensorExportWriter.CONTENT_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"sensor-export" + SensorExportWriter.FILE_EXTENSION + "\"");
+        sensorExportService.writeExport(request, response.getOutputStream(),
+                new SensorExportService.ExportJob("stream", request));
+    }
+
     // Simple endpoint for sensor health simulation
     @PostMapping("/simulate/{assetId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
@@ -0,0 +1,47 @@
+package com.infrastructure.maintenance.dto;
+
+import com.infrastructure.maintenance.model.InfrastructureAsset;
+
+import java.time.LocalDateTime;
+
+/**
+ * Slim read-only view of an asset for listings. Built directly by JPQL constructor
+ * expressions, so it never touches the lazy sensorData association or the description.
+ */
+public class AssetSummary {
+
+    private final Long id;
+    private final String assetId;
+    private final String name;
+    private final String type;
+    private final Double latitude;
+    private final Double longitude;
+    private final InfrastructureAsset.AssetStatus status;
+    private final Integer maintenancePriority;
+    private final LocalDateTime nextScheduledMaintenance;
+
+    public AssetSummary(Long id, String assetId, String name, String type,
+                        Double latitude, Double longitude, InfrastructureAsset.AssetStatus status,
+                        Integer maintenancePriority, LocalDateTime nextScheduledMaintenance) {
+        this.id = id;
+        this.assetId = assetId;
+        this.name = name;
+        this.type = type;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.status = status;
+        this.maintenancePriority = maintenancePriority;
+        this.nextScheduledMaintenance = nextScheduledMaintenance;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getAssetId() { return assetId; }
+    public String getName() { return name; }
+    public String getType() { return type; }
+    public Double getLatitude() { return latitude; }
+    public Double getLongitude() { return longitude; }
+    public InfrastructureAsset.AssetStatus getStatus() { return status; }
+    public Integer getMaintenancePriority() { return maintenancePriority; }
+    public LocalDateTime getNextScheduledMaintenance() { return nextScheduledMaintenance; }
+}
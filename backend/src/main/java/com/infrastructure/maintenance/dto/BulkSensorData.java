@@ -0,0 +1,42 @@
+package com.infrastructure.maintenance.dto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar result of a multi-asset, multi-sensor-type query: per asset, one shared
+ * timestamp column and one value column per sensor type (null where a type has no
+ * reading in that window).
+ */
+public class BulkSensorData {
+
+    private final String timeRange;
+    private final String aggregationWindow;
+    private final List<AssetSeries> assets;
+
+    public BulkSensorData(String timeRange, String aggregationWindow, List<AssetSeries> assets) {
+        this.timeRange = timeRange;
+        this.aggregationWindow = aggregationWindow;
+        this.assets = assets;
+    }
+
+    public String getTimeRange() { return timeRange; }
+    public String getAggregationWindow() { return aggregationWindow; }
+    public List<AssetSeries> getAssets() { return assets; }
+
+    public static class AssetSeries {
+        private final String assetId;
+        private final long[] time; // epoch millis
+        private final Map<String, Double[]> values = new LinkedHashMap<>();
+
+        public AssetSeries(String assetId, long[] time) {
+            this.assetId = assetId;
+            this.time = time;
+        }
+
+        public String getAssetId() { return assetId; }
+        public long[] getTime() { return time; }
+        public Map<String, Double[]> getValues() { return values; }
+    }
+}
@@ -0,0 +1,22 @@
+package com.infrastructure.maintenance.dto;
+
+/**
+ * Time-ordered readings of one sensor type held in primitive arrays. Only the first
+ * {@code length} slots are valid.
+ */
+public class SensorSeries {
+
+    private final long[] times; // epoch millis
+    private final double[] values;
+    private final int length;
+
+    public SensorSeries(long[] times, double[] values, int length) {
+        this.times = times;
+        this.values = values;
+        this.length = length;
+    }
+
+    public long[] getTimes() { return times; }
+    public double[] getValues() { return values; }
+    public int getLength() { return length; }
+}
@@ -3,12 +3,21 @@ package com.infrastructure.maintenance.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Entity
-@Table(name = "infrastructure_assets")
+@Table(name = "infrastructure_assets", indexes = {
+        @Index(name = "idx_asset_type_id", columnList = "type, id"),
+        @Index(name = "idx_asset_status_id", columnList = "status, id"),
+        @Index(name = "idx_asset_priority_id", columnList = "maintenance_priority, id")
+})
 public class InfrastructureAsset {
 
     @Id
@@ -48,6 +57,12 @@ public class InfrastructureAsset {
     @Column(name = "maintenance_priority")
     private Integer maintenancePriority = 0; // 0 = low, 10 = critical
 
+    // Bumped by JPA on save and by the conditional updates in InfrastructureAssetRepository
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version = 0L;
+
     @OneToMany(mappedBy = "asset", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<SensorData> sensorData;
 
@@ -100,10 +115,29 @@ public class InfrastructureAsset {
     public Integer getMaintenancePriority() { return maintenancePriority; }
     public void setMaintenancePriority(Integer maintenancePriority) { this.maintenancePriority = maintenancePriority; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public List<SensorData> getSensorData() { return sensorData; }
     public void setSensorData(List<SensorData> sensorData) { this.sensorData = sensorData; }
 
     public enum AssetStatus {
-        OPERATIONAL, MAINTENANCE_REQUIRED, UNDER_MAINTENANCE, OUT_OF_SERVICE, CRITICAL
+        OPERATIONAL, MAINTENANCE_REQUIRED, UNDER_MAINTENANCE, OUT_OF_SERVICE, CRITICAL;
+
+        private static final Map<AssetStatus, Set<AssetStatus>> TRANSITIONS = new EnumMap<>(AssetStatus.class);
+
+        static {
+            TRANSITIONS.put(OPERATIONAL, EnumSet.of(MAINTENANCE_REQUIRED, UNDER_MAINTENANCE, OUT_OF_SERVICE, CRITICAL));
+            TRANSITIONS.put(MAINTENANCE_REQUIRED, EnumSet.of(OPERATIONAL, UNDER_MAINTENANCE, OUT_OF_SERVICE, CRITICAL));
+            TRANSITIONS.put(UNDER_MAINTENANCE, EnumSet.of(OPERATIONAL, OUT_OF_SERVICE, CRITICAL));
+            // A critical asset must be worked on or taken out of service before it can be cleared
+            TRANSITIONS.put(CRITICAL, EnumSet.of(UNDER_MAINTENANCE, OUT_OF_SERVICE));
+            TRANSITIONS.put(OUT_OF_SERVICE, EnumSet.of(UNDER_MAINTENANCE));
+        }
+
+        /** Whether an asset in this status may move to {@code next}; staying put is always allowed. */
+        public boolean canTransitionTo(AssetStatus next) {
+            return next == this || TRANSITIONS.get(this).contains(next);
+        }
     }
 }
\ No newline at end of file
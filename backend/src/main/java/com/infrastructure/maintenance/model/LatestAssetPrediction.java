@@ -0,0 +1,70 @@
+package com.infrastructure.maintenance.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per asset pointing at its most recent prediction, so "current risk"
+ * lookups never have to scan the prediction history.
+ */
+@Entity
+@Table(name = "latest_asset_predictions", indexes = {
+        @Index(name = "idx_latest_prediction_risk", columnList = "risk_level, asset_ref")
+})
+public class LatestAssetPrediction {
+
+    @Id
+    @Column(name = "asset_ref")
+    private Long assetRef;
+
+    @JsonIgnore
+    @OneToOne(fetch = FetchType.LAZY)
+    @MapsId
+    @JoinColumn(name = "asset_ref")
+    private InfrastructureAsset asset;
+
+    @JsonIgnore
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "prediction_id")
+    private MaintenancePrediction prediction;
+
+    @Column(name = "prediction_date")
+    private LocalDateTime predictionDate;
+
+    @Column(name = "predicted_failure_date")
+    private LocalDateTime predictedFailureDate;
+
+    @Column(name = "confidence_score")
+    private Double confidenceScore;
+
+    @Column(name = "risk_level")
+    @Enumerated(EnumType.STRING)
+    private MaintenancePrediction.RiskLevel riskLevel;
+
+    // Constructors
+    public LatestAssetPrediction() {}
+
+    // Getters and Setters
+    public Long getAssetRef() { return assetRef; }
+    public void setAssetRef(Long assetRef) { this.assetRef = assetRef; }
+
+    public InfrastructureAsset getAsset() { return asset; }
+    public void setAsset(InfrastructureAsset asset) { this.asset = asset; }
+
+    public MaintenancePrediction getPrediction() { return prediction; }
+    public void setPrediction(MaintenancePrediction prediction) { this.prediction = prediction; }
+
+    public LocalDateTime getPredictionDate() { return predictionDate; }
+    public void setPredictionDate(LocalDateTime predictionDate) { this.predictionDate = predictionDate; }
+
+    public LocalDateTime getPredictedFailureDate() { return predictedFailureDate; }
+    public void setPredictedFailureDate(LocalDateTime predictedFailureDate) { this.predictedFailureDate = predictedFailureDate; }
+
+    public Double getConfidenceScore() { return confidenceScore; }
+    public void setConfidenceScore(Double confidenceScore) { this.confidenceScore = confidenceScore; }
+
+    public MaintenancePrediction.RiskLevel getRiskLevel() { return riskLevel; }
+    public void setRiskLevel(MaintenancePrediction.RiskLevel riskLevel) { this.riskLevel = riskLevel; }
+}
@@ -7,7 +7,11 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "maintenance_predictions")
+@Table(name = "maintenance_predictions", indexes = {
+        @Index(name = "idx_prediction_asset_date", columnList = "asset_id, prediction_date, id"),
+        @Index(name = "idx_prediction_risk_date", columnList = "risk_level, prediction_date, id"),
+        @Index(name = "idx_prediction_failure_date", columnList = "predicted_failure_date, id")
+})
 public class MaintenancePrediction {
 
     @Id
@@ -0,0 +1,21 @@
+package com.infrastructure.maintenance.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** One prediction through an inference engine; the payload is the number of feature values sent. */
+@Name("maintenance.InferenceCall")
+@Label("Inference Call")
+@Description("Wait for one prediction from the selected InferenceEngine, remote or in-JVM")
+public class InferenceCallEvent extends PayloadEvent {
+
+    @Label("Engine")
+    public String engine;
+
+    @Label("Asset Id")
+    public String assetId;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
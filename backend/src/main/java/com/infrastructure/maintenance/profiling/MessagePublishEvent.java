@@ -0,0 +1,18 @@
+package com.infrastructure.maintenance.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** One message handed to the broker or in-process bus; the payload is the serialized body in bytes. */
+@Name("maintenance.MessagePublish")
+@Label("Message Publish")
+@Description("Conversion and publishing of one event through the MessageBus")
+public class MessagePublishEvent extends PayloadEvent {
+
+    @Label("Exchange")
+    public String exchange;
+
+    @Label("Routing Key")
+    public String routingKey;
+}
@@ -0,0 +1,22 @@
+package com.infrastructure.maintenance.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the hot-path JFR events: a duration plus a payload size whose unit each event
+ * describes. Stack traces are off, since CPU samples already give the call paths. While no
+ * recording enables these events, {@code shouldCommit()} is false and the JIT removes the
+ * timing, so instrumented code costs nothing measurable outside a recording.
+ */
+@Category({"Predictive Maintenance", "Hot Path"})
+@StackTrace(false)
+public abstract class PayloadEvent extends Event {
+
+    @Label("Payload Size")
+    @Description("Readings, points, feature values or bytes; see the event type")
+    public long payloadSize;
+}
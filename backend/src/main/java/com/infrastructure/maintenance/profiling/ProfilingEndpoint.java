@@ -0,0 +1,262 @@
+package com.infrastructure.maintenance.profiling;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin-only JFR profiling at {@code /actuator/profiling}. {@code POST} starts one bounded
+ * recording: JFR's {@code profile} (or {@code default}) settings plus the hot-path events of
+ * this package, stopped after {@code durationSeconds} (at most
+ * {@code profiling.max-duration-seconds}) and kept to {@code profiling.max-size-mb} on disk.
+ * {@code GET} reports the state and, once stopped, per-event count, duration and payload
+ * totals. {@code GET /jfr} returns the recording and {@code GET /collapsed} its CPU samples as
+ * collapsed stacks ({@code root;...;leaf count} per line), the input of flame graph tools; while
+ * recording, both return a snapshot so far. {@code DELETE} stops early. Only the latest
+ * recording is kept under {@code profiling.directory}. No recording runs unless started, and
+ * the custom events are then disabled, so profiling costs nothing while off.
+ */
+@Component
+@WebEndpoint(id = "profiling")
+public class ProfilingEndpoint {
+
+    private static final List<Class<? extends PayloadEvent>> EVENTS = List.of(
+            ReadingIngestEvent.class, StoreWriteEvent.class, MessagePublishEvent.class, InferenceCallEvent.class);
+
+    @Value("${profiling.directory:data/profiling}")
+    private String directory;
+
+    @Value("${profiling.default-duration-seconds:60}")
+    private int defaultDurationSeconds;
+
+    @Value("${profiling.max-duration-seconds:300}")
+    private int maxDurationSeconds;
+
+    @Value("${profiling.max-size-mb:64}")
+    private int maxSizeMb;
+
+    private Recording recording;
+    private Path recordingFile;
+    private Instant startedAt;
+    private Map<String, Object> summary;
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        boolean running = isRunning();
+        status.put("running", running);
+        if (recording != null) {
+            status.put("name", recording.getName());
+            status.put("startedAt", startedAt.toString());
+            status.put("durationSeconds", recording.getDuration().toSeconds());
+        }
+        if (!running && recordingFile != null && Files.exists(recordingFile)) {
+            try {
+                if (summary == null) {
+                    summary = summarize(recordingFile);
+                }
+                status.put("events", summary);
+            } catch (IOException e) {
+                System.err.println("Error reading recording " + recordingFile + ": " + e.getMessage());
+            }
+        }
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable Integer durationSeconds,
+                                                                       @Nullable String settings) {
+        if (isRunning()) {
+            return error("A recording is already running");
+        }
+        int seconds = durationSeconds != null ? durationSeconds : defaultDurationSeconds;
+        if (seconds <= 0 || seconds > maxDurationSeconds) {
+            return error("durationSeconds must be between 1 and " + maxDurationSeconds);
+        }
+        String settingsName = settings != null ? settings : "profile";
+        if (!settingsName.equals("profile") && !settingsName.equals("default")) {
+            return error("settings must be profile or default");
+        }
+
+        try {
+            discardPrevious();
+            Files.createDirectories(Path.of(directory));
+            String name = "profiling-" + System.currentTimeMillis();
+            Path file = Path.of(directory, name + ".jfr");
+
+            Recording started = new Recording(Configuration.getConfiguration(settingsName));
+            started.setName(name);
+            for (Class<? extends PayloadEvent> event : EVENTS) {
+                started.enable(event);
+            }
+            started.setToDisk(true);
+            started.setMaxSize(maxSizeMb * 1024L * 1024L);
+            started.setDuration(Duration.ofSeconds(seconds));
+            started.setDestination(file);
+            started.start();
+
+            recording = started;
+            recordingFile = file;
+            startedAt = Instant.now();
+            summary = null;
+            return new WebEndpointResponse<>(status());
+        } catch (Exception e) {
+            return error("Could not start recording: " + e.getMessage());
+        }
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (isRunning()) {
+            // Writes the recording to its destination
+            recording.stop();
+        }
+        return status();
+    }
+
+    /** The recording ({@code jfr}) or its CPU samples as collapsed stacks ({@code collapsed}). */
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> output(@Selector String format) {
+        if (!format.equals("jfr") && !format.equals("collapsed")) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            Path file = recordingFile;
+            if (isRunning()) {
+                file = Path.of(directory, recording.getName() + "-snapshot.jfr");
+                recording.dump(file);
+            }
+            if (file == null || !Files.exists(file)) {
+                return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+            }
+            if (format.equals("jfr")) {
+                return new WebEndpointResponse<>(new FileSystemResource(file));
+            }
+            return new WebEndpointResponse<>(new ByteArrayResource(collapseStacks(file)));
+        } catch (IOException e) {
+            System.err.println("Error reading recording: " + e.getMessage());
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private void discardPrevious() throws IOException {
+        if (recording != null) {
+            recording.close();
+            Files.deleteIfExists(recordingFile);
+            Files.deleteIfExists(Path.of(directory, recording.getName() + "-snapshot.jfr"));
+            recording = null;
+        }
+    }
+
+    private static WebEndpointResponse<Map<String, Object>> error(String message) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", message);
+        return new WebEndpointResponse<>(body, WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+
+    /** Count, duration and payload totals per custom event type, with the 99th percentile duration. */
+    private static Map<String, Object> summarize(Path file) throws IOException {
+        Map<String, long[]> payloads = new HashMap<>();
+        Map<String, List<Long>> durations = new HashMap<>();
+        try (RecordingFile events = new RecordingFile(file)) {
+            while (events.hasMoreEvents()) {
+                RecordedEvent event = events.readEvent();
+                if (event.hasField("payloadSize")) {
+                    String name = event.getEventType().getName();
+                    payloads.computeIfAbsent(name, n -> new long[1])[0] += event.getLong("payloadSize");
+                    durations.computeIfAbsent(name, n -> new ArrayList<>()).add(event.getDuration().toNanos());
+                }
+            }
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        for (Class<? extends PayloadEvent> eventClass : EVENTS) {
+            String name = EventType.getEventType(eventClass).getName();
+            long[] sorted = durations.getOrDefault(name, List.of()).stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            long total = Arrays.stream(sorted).sum();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", sorted.length);
+            stats.put("totalMs", total / 1e6);
+            stats.put("meanMs", sorted.length > 0 ? total / 1e6 / sorted.length : 0.0);
+            stats.put("p99Ms", sorted.length > 0 ? sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1e6 : 0.0);
+            stats.put("maxMs", sorted.length > 0 ? sorted[sorted.length - 1] / 1e6 : 0.0);
+            stats.put("payloadTotal", payloads.containsKey(name) ? payloads.get(name)[0] : 0L);
+            summary.put(name, stats);
+        }
+        return summary;
+    }
+
+    /** One line per distinct sampled stack, root frame first, most frequent first. */
+    private static byte[] collapseStacks(Path file) throws IOException {
+        Map<String, Long> counts = new HashMap<>();
+        StringBuilder stack = new StringBuilder();
+        try (RecordingFile events = new RecordingFile(file)) {
+            while (events.hasMoreEvents()) {
+                RecordedEvent event = events.readEvent();
+                RecordedStackTrace trace = event.getStackTrace();
+                if (trace == null || !event.getEventType().getName().equals("jdk.ExecutionSample")) {
+                    continue;
+                }
+                List<RecordedFrame> frames = trace.getFrames();
+                stack.setLength(0);
+                for (int i = frames.size() - 1; i >= 0; i--) {
+                    RecordedFrame frame = frames.get(i);
+                    if (stack.length() > 0) {
+                        stack.append(';');
+                    }
+                    stack.append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName());
+                }
+                counts.merge(stack.toString(), 1L, Long::sum);
+            }
+        }
+
+        StringBuilder out = new StringBuilder();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> out.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n'));
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
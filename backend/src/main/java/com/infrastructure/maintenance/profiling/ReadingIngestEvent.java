@@ -0,0 +1,20 @@
+package com.infrastructure.maintenance.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** One call into SensorDataService's ingest path; the payload is the number of readings. */
+@Name("maintenance.ReadingIngest")
+@Label("Reading Ingest")
+@Description("Validation, storage write and event publishing for a reading or a batch")
+public class ReadingIngestEvent extends PayloadEvent {
+
+    @Label("Path")
+    @Description("single, batch or block")
+    public String path;
+
+    @Label("Body Bytes")
+    @Description("Size of an encoded block, 0 otherwise")
+    public long bodyBytes;
+}
@@ -0,0 +1,15 @@
+package com.infrastructure.maintenance.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** A write to the time-series store, flushed synchronously; the payload is the number of points. */
+@Name("maintenance.StoreWrite")
+@Label("Sensor Store Write")
+@Description("Write of readings to the configured SensorDataStore (InfluxDB, embedded or memory)")
+public class StoreWriteEvent extends PayloadEvent {
+
+    @Label("Backend")
+    public String backend;
+}
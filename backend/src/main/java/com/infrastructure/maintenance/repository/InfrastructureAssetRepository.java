@@ -1,11 +1,16 @@
 package com.infrastructure.maintenance.repository;
 
+import com.infrastructure.maintenance.dto.AssetSummary;
 import com.infrastructure.maintenance.model.InfrastructureAsset;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +33,64 @@ public interface InfrastructureAssetRepository extends JpaRepository<Infrastruct
                                                      @Param("lon1") Double longitude, 
                                                      @Param("radiusSquared") Double radiusSquared);
 
+    @Query("SELECT a.status FROM InfrastructureAsset a WHERE a.assetId = :assetId")
+    Optional<InfrastructureAsset.AssetStatus> findStatusByAssetId(@Param("assetId") String assetId);
+
+    // Conditional single-statement updates. Each returns the number of rows changed, so 0 means
+    // the asset is missing or another writer moved its status first and the caller should re-read.
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InfrastructureAsset a SET a.status = :next, a.version = a.version + 1 " +
+           "WHERE a.assetId = :assetId AND a.status = :expected")
+    int compareAndSetStatus(@Param("assetId") String assetId,
+                            @Param("expected") InfrastructureAsset.AssetStatus expected,
+                            @Param("next") InfrastructureAsset.AssetStatus next);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InfrastructureAsset a SET a.status = :next, a.nextScheduledMaintenance = :date, " +
+           "a.version = a.version + 1 WHERE a.assetId = :assetId AND a.status = :expected")
+    int compareAndScheduleMaintenance(@Param("assetId") String assetId,
+                                      @Param("expected") InfrastructureAsset.AssetStatus expected,
+                                      @Param("next") InfrastructureAsset.AssetStatus next,
+                                      @Param("date") LocalDateTime date);
+
+    // Cleared afterwards so the caller's stale copy of the asset is not flushed over the new version
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE InfrastructureAsset a SET a.maintenancePriority = :priority, a.version = a.version + 1 " +
+           "WHERE a.id = :id AND (a.maintenancePriority IS NULL OR a.maintenancePriority <> :priority)")
+    int updatePriorityIfChanged(@Param("id") Long id, @Param("priority") Integer priority);
+
     @Query("SELECT COUNT(a) FROM InfrastructureAsset a WHERE a.status = :status")
     Long countByStatus(@Param("status") InfrastructureAsset.AssetStatus status);
-}
\ No newline at end of file
+
+    // Keyset-paginated summary listings. Pass PageRequest.of(0, size) to bound the page;
+    // the List return type means no count query is issued.
+
+    String SUMMARY_SELECT = "SELECT new com.infrastructure.maintenance.dto.AssetSummary(" +
+            "a.id, a.assetId, a.name, a.type, a.latitude, a.longitude, a.status, " +
+            "a.maintenancePriority, a.nextScheduledMaintenance) FROM InfrastructureAsset a ";
+
+    @Query(SUMMARY_SELECT + "WHERE a.id > :afterId ORDER BY a.id ASC")
+    List<AssetSummary> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE a.type = :type AND a.id > :afterId ORDER BY a.id ASC")
+    List<AssetSummary> findSummariesByTypeAfter(@Param("type") String type,
+                                                @Param("afterId") Long afterId,
+                                                Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE a.status = :status AND a.id > :afterId ORDER BY a.id ASC")
+    List<AssetSummary> findSummariesByStatusAfter(@Param("status") InfrastructureAsset.AssetStatus status,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE a.maintenancePriority >= :minPriority AND " +
+           "(a.maintenancePriority < :cursorPriority OR (a.maintenancePriority = :cursorPriority AND a.id > :cursorId)) " +
+           "ORDER BY a.maintenancePriority DESC, a.id ASC")
+    List<AssetSummary> findHighPrioritySummariesAfter(@Param("minPriority") Integer minPriority,
+                                                      @Param("cursorPriority") Integer cursorPriority,
+                                                      @Param("cursorId") Long cursorId,
+                                                      Pageable pageable);
+}
@@ -0,0 +1,60 @@
+package com.infrastructure.maintenance.repository;
+
+import com.infrastructure.maintenance.model.LatestAssetPrediction;
+import com.infrastructure.maintenance.model.MaintenancePrediction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface LatestAssetPredictionRepository extends JpaRepository<LatestAssetPrediction, Long> {
+
+    // Rows are only written through these MERGEs, which never replace a newer prediction with an
+    // older one. The history rows to merge are selected between the two halves; at most one per asset.
+    String MERGE_FROM_HISTORY = "MERGE INTO latest_asset_predictions l USING (" +
+            "SELECT asset_id, id, prediction_date, predicted_failure_date, confidence_score, risk_level " +
+            "FROM maintenance_predictions p ";
+    String MERGE_ON_ASSET = ") p ON l.asset_ref = p.asset_id " +
+            "WHEN MATCHED AND (l.prediction_date IS NULL OR l.prediction_date < p.prediction_date) THEN UPDATE SET " +
+            "prediction_id = p.id, prediction_date = p.prediction_date, " +
+            "predicted_failure_date = p.predicted_failure_date, confidence_score = p.confidence_score, " +
+            "risk_level = p.risk_level " +
+            "WHEN NOT MATCHED THEN INSERT (asset_ref, prediction_id, prediction_date, predicted_failure_date, " +
+            "confidence_score, risk_level) VALUES (p.asset_id, p.id, p.prediction_date, " +
+            "p.predicted_failure_date, p.confidence_score, p.risk_level)";
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = MERGE_FROM_HISTORY + "WHERE p.id = :predictionId" + MERGE_ON_ASSET, nativeQuery = true)
+    int mergePrediction(@Param("predictionId") Long predictionId);
+
+    // Assets with predictions but no row here; lets startup skip the backfill once every asset has one
+    @Query(value = "SELECT COUNT(*) FROM infrastructure_assets a " +
+            "WHERE NOT EXISTS (SELECT 1 FROM latest_asset_predictions l WHERE l.asset_ref = a.id) " +
+            "AND EXISTS (SELECT 1 FROM maintenance_predictions p WHERE p.asset_id = a.id)", nativeQuery = true)
+    long countAssetsMissingLatest();
+
+    // Newest history row of each asset without a row here, for predictions stored before this table existed
+    @Transactional
+    @Modifying
+    @Query(value = MERGE_FROM_HISTORY + "WHERE NOT EXISTS (SELECT 1 FROM latest_asset_predictions e " +
+            "WHERE e.asset_ref = p.asset_id) AND NOT EXISTS (SELECT 1 FROM maintenance_predictions n " +
+            "WHERE n.asset_id = p.asset_id AND (n.prediction_date > p.prediction_date OR " +
+            "(n.prediction_date = p.prediction_date AND n.id > p.id)))" + MERGE_ON_ASSET, nativeQuery = true)
+    int backfillFromHistory();
+
+    // Holds the asset row until commit, so concurrent merges for one asset run one after the other
+    // and the second sees the first's row instead of inserting a duplicate
+    @Query(value = "SELECT id FROM infrastructure_assets WHERE id = :assetRef FOR UPDATE", nativeQuery = true)
+    Long lockAsset(@Param("assetRef") Long assetRef);
+
+    @Query("SELECT l FROM LatestAssetPrediction l WHERE l.riskLevel = :riskLevel AND l.assetRef > :afterAssetRef ORDER BY l.assetRef ASC")
+    List<LatestAssetPrediction> findByRiskLevelAfter(@Param("riskLevel") MaintenancePrediction.RiskLevel riskLevel,
+                                                     @Param("afterAssetRef") Long afterAssetRef,
+                                                     Pageable pageable);
+}
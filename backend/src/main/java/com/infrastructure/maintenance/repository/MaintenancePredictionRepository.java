@@ -2,6 +2,7 @@ package com.infrastructure.maintenance.repository;
 
 import com.infrastructure.maintenance.model.MaintenancePrediction;
 import com.infrastructure.maintenance.model.InfrastructureAsset;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -29,4 +30,31 @@ public interface MaintenancePredictionRepository extends JpaRepository<Maintenan
     List<MaintenancePrediction> findHighConfidencePredictions(@Param("minConfidence") Double minConfidence);
 
     Optional<MaintenancePrediction> findTopByAssetOrderByPredictionDateDesc(InfrastructureAsset asset);
-}
\ No newline at end of file
+
+    // Keyset-paginated variants: pass PageRequest.of(0, size) to bound the page and the
+    // (date, id) of the last row seen as the cursor. Returning List skips the count query.
+
+    @Query("SELECT p FROM MaintenancePrediction p WHERE p.asset = :asset AND " +
+           "(p.predictionDate < :cursorDate OR (p.predictionDate = :cursorDate AND p.id < :cursorId)) " +
+           "ORDER BY p.predictionDate DESC, p.id DESC")
+    List<MaintenancePrediction> findLatestPredictionsByAssetBefore(@Param("asset") InfrastructureAsset asset,
+                                                                  @Param("cursorDate") LocalDateTime cursorDate,
+                                                                  @Param("cursorId") Long cursorId,
+                                                                  Pageable pageable);
+
+    @Query("SELECT p FROM MaintenancePrediction p WHERE p.riskLevel = :riskLevel AND " +
+           "(p.predictionDate < :cursorDate OR (p.predictionDate = :cursorDate AND p.id < :cursorId)) " +
+           "ORDER BY p.predictionDate DESC, p.id DESC")
+    List<MaintenancePrediction> findByRiskLevelBefore(@Param("riskLevel") MaintenancePrediction.RiskLevel riskLevel,
+                                                      @Param("cursorDate") LocalDateTime cursorDate,
+                                                      @Param("cursorId") Long cursorId,
+                                                      Pageable pageable);
+
+    @Query("SELECT p FROM MaintenancePrediction p WHERE p.predictedFailureDate <= :endDate AND " +
+           "(p.predictedFailureDate > :cursorDate OR (p.predictedFailureDate = :cursorDate AND p.id > :cursorId)) " +
+           "ORDER BY p.predictedFailureDate ASC, p.id ASC")
+    List<MaintenancePrediction> findPredictionsInDateRangeAfter(@Param("cursorDate") LocalDateTime cursorDate,
+                                                               @Param("cursorId") Long cursorId,
+                                                               @Param("endDate") LocalDateTime endDate,
+                                                               Pageable pageable);
+}
@@ -0,0 +1,48 @@
+package com.infrastructure.maintenance.repository;
+
+import com.infrastructure.maintenance.dto.AssetSummary;
+import com.infrastructure.maintenance.model.InfrastructureAsset;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC asset lookups for the reactive profile, reading the same table as
+ * {@link InfrastructureAssetRepository}.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveAssetRepository {
+
+    private static final String SUMMARY_SELECT = "SELECT id, asset_id, name, type, latitude, longitude, status, " +
+            "maintenance_priority, next_scheduled_maintenance FROM infrastructure_assets ";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Mono<AssetSummary> findSummaryByAssetId(String assetId) {
+        return databaseClient.sql(SUMMARY_SELECT + "WHERE asset_id = :assetId")
+                .bind("assetId", assetId)
+                .map((row, metadata) -> toSummary(row))
+                .one();
+    }
+
+    private static AssetSummary toSummary(Row row) {
+        String status = row.get("status", String.class);
+        return new AssetSummary(
+                row.get("id", Long.class),
+                row.get("asset_id", String.class),
+                row.get("name", String.class),
+                row.get("type", String.class),
+                row.get("latitude", Double.class),
+                row.get("longitude", Double.class),
+                status != null ? InfrastructureAsset.AssetStatus.valueOf(status) : null,
+                row.get("maintenance_priority", Integer.class),
+                row.get("next_scheduled_maintenance", LocalDateTime.class));
+    }
+}
@@ -0,0 +1,71 @@
+package com.infrastructure.maintenance.security;
+
+import com.infrastructure.maintenance.service.IngestAdmissionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies ingest admission control to sensor writes. Runs after JwtAuthenticationFilter so the
+ * rate limit is keyed by the token subject; unauthenticated requests are keyed by address and
+ * will be refused by authorization anyway.
+ */
+@Component
+public class IngestAdmissionFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private IngestAdmissionService admissionService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!admissionService.isEnabled() || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.equals("/api/sensors/data") && !path.equals("/api/sensors/data/batch");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        IngestAdmissionService.Kind kind = path.equals("/api/sensors/data/batch")
+                ? IngestAdmissionService.Kind.BATCH : IngestAdmissionService.Kind.SINGLE;
+        long retryAfter = admissionService.tryAdmit(clientKey(request), kind);
+        if (retryAfter > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", Long.toString(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many sensor data requests\",\"retryAfterSeconds\":"
+                    + retryAfter + "}");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            admissionService.complete(kind, System.nanoTime() - start, failed);
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && authentication.getName() != null) {
+            return "sub:" + authentication.getName();
+        }
+        return "addr:" + request.getRemoteAddr();
+    }
+}
@@ -53,6 +53,16 @@ public class JwtTokenProvider {
         return claims.get("role", String.class);
     }
 
+    public Date getExpirationFromToken(String token) {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(getSigningKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+
+        return claims.getExpiration();
+    }
+
     public boolean validateToken(String authToken) {
         try {
             Jwts.parserBuilder()
@@ -0,0 +1,52 @@
+package com.infrastructure.maintenance.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import java.util.Set;
+
+/**
+ * Bearer token checks for the reactive profile's router functions, equivalent to what
+ * JwtAuthenticationFilter and the @PreAuthorize rules do on the servlet stack. The subject is
+ * left in the {@link #USERNAME_ATTRIBUTE} request attribute.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveJwtAuthorization {
+
+    public static final String USERNAME_ATTRIBUTE = ReactiveJwtAuthorization.class.getName() + ".username";
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    /** Requires a valid token carrying one of {@code roles}; no roles means any valid token. */
+    public HandlerFilterFunction<ServerResponse, ServerResponse> requireRole(String... roles) {
+        Set<String> allowed = Set.of(roles);
+        return (request, next) -> {
+            String jwt = getJwtFromRequest(request);
+            if (!StringUtils.hasText(jwt) || !tokenProvider.validateToken(jwt)) {
+                return ServerResponse.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            if (!allowed.isEmpty() && !allowed.contains(tokenProvider.getRoleFromToken(jwt))) {
+                return ServerResponse.status(HttpStatus.FORBIDDEN).build();
+            }
+            request.attributes().put(USERNAME_ATTRIBUTE, tokenProvider.getUsernameFromToken(jwt));
+            return next.handle(request);
+        };
+    }
+
+    private String getJwtFromRequest(ServerRequest request) {
+        String bearerToken = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,81 @@
+package com.infrastructure.maintenance.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Concurrency limit that adapts to observed latency with AIMD: every request that completes
+ * within the latency target while the limit is at least half used grows the limit by 1/limit
+ * (about one slot per round trip), and a slow or failed request shrinks it by
+ * {@code backoffRatio}, at most once per target interval so a burst of slow responses
+ * counts as one congestion signal.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(System.nanoTime());
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    long latencyTargetMillis, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMillis);
+        this.backoffRatio = backoffRatio;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+    }
+
+    /**
+     * Claims a slot, or returns false without blocking when the limit is reached. A successful
+     * acquire must be paired with {@link #release}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos, boolean failed) {
+        int used = inFlight.getAndDecrement();
+        if (failed || latencyNanos > latencyTargetNanos) {
+            long now = System.nanoTime();
+            long last = lastDecreaseNanos.get();
+            if (now - last >= latencyTargetNanos && lastDecreaseNanos.compareAndSet(last, now)) {
+                update(limit -> Math.max(minLimit, limit * backoffRatio));
+            }
+        } else if (used * 2 >= getLimit()) {
+            update(limit -> Math.min(maxLimit, limit + 1.0 / limit));
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update(DoubleUnaryOperator change) {
+        while (true) {
+            long bits = limitBits.get();
+            double next = change.applyAsDouble(Double.longBitsToDouble(bits));
+            if (limitBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.infrastructure.maintenance.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deduplicates sensor-driven alerts by (assetId, alertType, sensorId). The first alert for a
+ * key is published immediately; repeats within the sliding window are counted instead, an
+ * escalated alert is published when the count crosses a severity threshold, and one summary
+ * alert per window reports how many were suppressed. Keys are expired by a timing wheel once
+ * a full window passes without a new alert.
+ */
+@Service
+public class AlertAggregator {
+
+    private static final String[] SEVERITIES = {"INFO", "WARNING", "CRITICAL"};
+    private static final int WINDOW_BUCKETS = 6;
+
+    @Autowired
+    private EventPublisher eventPublisher;
+
+    @Value("${alerts.aggregation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${alerts.aggregation.window-ms:60000}")
+    private long windowMs;
+
+    @Value("${alerts.aggregation.tick-ms:1000}")
+    private long tickMs;
+
+    // Window count at which severity is raised one level; ten times this raises it two
+    @Value("${alerts.aggregation.escalate-after:10}")
+    private int escalateAfter;
+
+    private final ConcurrentHashMap<AlertKey, AlertWindow> windows = new ConcurrentHashMap<>();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder summaries = new LongAdder();
+
+    private Queue<AlertKey>[] wheel;
+    private long bucketMs;
+    private volatile long wheelTick;
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    void init() {
+        bucketMs = Math.max(1, windowMs / WINDOW_BUCKETS);
+        // One slot per tick across a window, plus the slot being drained
+        wheel = new Queue[(int) ((windowMs + tickMs - 1) / tickMs) + 2];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        wheelTick = System.currentTimeMillis() / tickMs;
+    }
+
+    public void submit(String assetId, String alertType, String sensorId, String message, String severity) {
+        if (!enabled) {
+            eventPublisher.publishAlert(assetId, alertType, message, severity);
+            return;
+        }
+        received.increment();
+        AlertKey key = new AlertKey(assetId, alertType, sensorId);
+        long now = System.currentTimeMillis();
+
+        while (true) {
+            AlertWindow window = windows.get(key);
+            boolean created = false;
+            if (window == null) {
+                AlertWindow fresh = new AlertWindow(severityLevel(severity), now);
+                window = windows.putIfAbsent(key, fresh);
+                if (window == null) {
+                    window = fresh;
+                    created = true;
+                }
+            }
+
+            window.lastSeen = now;
+            window.lastMessage = message;
+            int count = window.record(now / bucketMs);
+            if (window.closed) {
+                // Lost a race with expiry; start over on a fresh window
+                continue;
+            }
+
+            if (created) {
+                schedule(key, now);
+                publish(new EventPublisher.AlertEvent(assetId, alertType, message, severity), sensorId, 1, now, now);
+                return;
+            }
+
+            int escalated = Math.min(SEVERITIES.length - 1, window.baseLevel
+                    + (count >= escalateAfter ? 1 : 0) + (count >= escalateAfter * 10 ? 1 : 0));
+            int emitted = window.emittedLevel.get();
+            if (escalated > emitted && window.emittedLevel.compareAndSet(emitted, escalated)) {
+                window.sinceLastEmit.set(0);
+                publish(new EventPublisher.AlertEvent(assetId, alertType,
+                        String.format("%s (%d occurrences in %ds)", message, count, windowMs / 1000),
+                        SEVERITIES[escalated]), sensorId, count, window.firstSeen, now);
+            } else {
+                window.sinceLastEmit.incrementAndGet();
+            }
+            return;
+        }
+    }
+
+    /**
+     * Advances the timing wheel, emitting summaries for keys that suppressed alerts during
+     * their window and expiring keys that went quiet.
+     */
+    @Scheduled(fixedDelayString = "${alerts.aggregation.tick-ms:1000}")
+    public void tick() {
+        long target = System.currentTimeMillis() / tickMs;
+        for (long t = wheelTick + 1; t <= target; t++) {
+            Queue<AlertKey> slot = wheel[(int) (t % wheel.length)];
+            AlertKey key;
+            while ((key = slot.poll()) != null) {
+                expireOrSummarize(key, t * tickMs);
+            }
+            wheelTick = t;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeKeys", windows.size());
+        stats.put("received", received.sum());
+        stats.put("published", published.sum());
+        stats.put("summaries", summaries.sum());
+        stats.put("suppressed", received.sum() - published.sum() + summaries.sum());
+        return stats;
+    }
+
+    private void expireOrSummarize(AlertKey key, long now) {
+        AlertWindow window = windows.get(key);
+        if (window == null) {
+            return;
+        }
+        int suppressed = window.sinceLastEmit.getAndSet(0);
+        if (suppressed > 0) {
+            int count = window.count(now / bucketMs);
+            summaries.increment();
+            publish(new EventPublisher.AlertEvent(key.assetId, key.alertType,
+                    String.format("%d further %s alerts suppressed; %d in the last %ds. Latest: %s",
+                            suppressed, key.alertType, count, windowMs / 1000, window.lastMessage),
+                    SEVERITIES[window.emittedLevel.get()]), key.sensorId, count, window.firstSeen, window.lastSeen);
+            schedule(key, now);
+        } else if (now - window.lastSeen >= windowMs) {
+            window.closed = true;
+            windows.remove(key, window);
+            // An alert that slipped in before the close retries on a fresh window; only its
+            // suppressed tally could be lost here, and it is re-read to publish it
+            if (window.sinceLastEmit.get() > 0) {
+                summaries.increment();
+                publish(new EventPublisher.AlertEvent(key.assetId, key.alertType, window.lastMessage,
+                        SEVERITIES[window.emittedLevel.get()]), key.sensorId, window.sinceLastEmit.get(),
+                        window.firstSeen, window.lastSeen);
+            }
+        } else {
+            schedule(key, Math.max(now, window.lastSeen));
+        }
+    }
+
+    private void schedule(AlertKey key, long from) {
+        // Stay within one lap and off the slot tick() may be draining; a key that comes due
+        // early is simply rescheduled
+        long current = wheelTick;
+        long tick = Math.min(Math.max((from + windowMs) / tickMs, current + 2), current + wheel.length);
+        wheel[(int) (tick % wheel.length)].add(key);
+    }
+
+    private void publish(EventPublisher.AlertEvent event, String sensorId, int occurrences, long firstSeen, long lastSeen) {
+        event.setSensorId(sensorId);
+        event.setOccurrences(occurrences);
+        event.setFirstSeen(Instant.ofEpochMilli(firstSeen).toString());
+        event.setLastSeen(Instant.ofEpochMilli(lastSeen).toString());
+        published.increment();
+        eventPublisher.publishAlert(event);
+    }
+
+    private static int severityLevel(String severity) {
+        for (int i = 0; i < SEVERITIES.length; i++) {
+            if (SEVERITIES[i].equalsIgnoreCase(severity)) {
+                return i;
+            }
+        }
+        return 1;
+    }
+
+    private static final class AlertKey {
+        private final String assetId;
+        private final String alertType;
+        private final String sensorId;
+        private final int hash;
+
+        private AlertKey(String assetId, String alertType, String sensorId) {
+            this.assetId = assetId;
+            this.alertType = alertType;
+            this.sensorId = sensorId;
+            this.hash = Objects.hash(assetId, alertType, sensorId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof AlertKey)) return false;
+            AlertKey other = (AlertKey) o;
+            return Objects.equals(assetId, other.assetId)
+                    && Objects.equals(alertType, other.alertType)
+                    && Objects.equals(sensorId, other.sensorId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Per-key state. The sliding window is a ring of bucket counters, each slot packing the
+     * bucket number into the high bits and its count into the low 24 bits, so recording and
+     * counting are plain CAS loops.
+     */
+    private static final class AlertWindow {
+        private static final int COUNT_BITS = 24;
+        private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+        private final int baseLevel;
+        private final long firstSeen;
+        private final AtomicLongArray buckets = new AtomicLongArray(WINDOW_BUCKETS);
+        private final AtomicInteger emittedLevel;
+        private final AtomicInteger sinceLastEmit = new AtomicInteger();
+        private volatile long lastSeen;
+        private volatile String lastMessage;
+        private volatile boolean closed;
+
+        private AlertWindow(int baseLevel, long firstSeen) {
+            this.baseLevel = baseLevel;
+            this.firstSeen = firstSeen;
+            this.lastSeen = firstSeen;
+            this.emittedLevel = new AtomicInteger(baseLevel);
+        }
+
+        private int record(long bucket) {
+            int slot = (int) (bucket % WINDOW_BUCKETS);
+            while (true) {
+                long current = buckets.get(slot);
+                long next = (current >>> COUNT_BITS) == bucket
+                        ? Math.min(current + 1, (bucket << COUNT_BITS) | COUNT_MASK)
+                        : (bucket << COUNT_BITS) | 1;
+                if (buckets.compareAndSet(slot, current, next)) {
+                    break;
+                }
+            }
+            return count(bucket);
+        }
+
+        private int count(long bucket) {
+            int total = 0;
+            for (int i = 0; i < WINDOW_BUCKETS; i++) {
+                long value = buckets.get(i);
+                if (bucket - (value >>> COUNT_BITS) < WINDOW_BUCKETS) {
+                    total += (int) (value & COUNT_MASK);
+                }
+            }
+            return total;
+        }
+    }
+}
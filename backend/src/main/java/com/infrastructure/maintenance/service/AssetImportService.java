@@ -0,0 +1,558 @@
+package com.infrastructure.maintenance.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infrastructure.maintenance.model.InfrastructureAsset;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk asset onboarding from CSV or NDJSON. The upload is spooled to a temporary file and
+ * imported in the background chunk by chunk: rows of the next chunk are parsed and validated in
+ * parallel while the current chunk is inserted with one JDBC batch, and each chunk publishes a
+ * single ASSETS_IMPORTED alert instead of one ASSET_CREATED per asset. Finished jobs are
+ * forgotten {@code asset-import.ttl} after they finish.
+ */
+@Service
+public class AssetImportService {
+
+    static final List<String> COLUMNS = List.of("assetId", "name", "type", "description", "latitude", "longitude",
+            "status", "installationDate", "lastMaintenance", "maintenancePriority");
+
+    private static final String INSERT_SQL = "INSERT INTO infrastructure_assets (asset_id, name, type, description, " +
+            "latitude, longitude, status, installation_date, last_maintenance, maintenance_priority, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${asset-import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${asset-import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${asset-import.ttl:24h}")
+    private String ttl;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "asset-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ImportJob startImport(InputStream body, ImportFormat format) throws IOException {
+        Path spool = Files.createTempFile("asset-import-", format == ImportFormat.CSV ? ".csv" : ".ndjson");
+        Files.copy(body, spool, StandardCopyOption.REPLACE_EXISTING);
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), format);
+        jobs.put(job.id, job);
+        executor.submit(() -> {
+            job.state = ImportState.RUNNING;
+            try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+                runImport(reader, job);
+                job.finish(ImportState.COMPLETED);
+            } catch (Exception e) {
+                job.error = e.getMessage();
+                job.finish(ImportState.FAILED);
+            } finally {
+                try {
+                    Files.deleteIfExists(spool);
+                } catch (IOException e) {
+                    System.err.println("Could not delete import spool file " + spool + ": " + e.getMessage());
+                }
+            }
+        });
+        return job;
+    }
+
+    public ImportJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    /** Forgets finished jobs older than {@code asset-import.ttl}. */
+    @Scheduled(fixedDelayString = "${asset-import.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - FluxDurations.parse(ttl).toMillis();
+        jobs.values().removeIf(job -> job.finishedAt > 0 && job.finishedAt < cutoff);
+    }
+
+    private void runImport(BufferedReader reader, ImportJob job) throws Exception {
+        List<String> header = job.format == ImportFormat.CSV ? readCsvHeader(reader) : null;
+        Set<String> seenInFile = new HashSet<>();
+
+        CompletableFuture<Chunk> pending = null;
+        long rowNumber = 0;
+        List<String> lines = new ArrayList<>(chunkSize);
+        long firstRow = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            rowNumber++;
+            lines.add(line);
+            if (lines.size() == chunkSize) {
+                CompletableFuture<Chunk> next = validateAsync(lines, firstRow, header, job.format);
+                if (pending != null) {
+                    insert(pending.join(), seenInFile, job);
+                }
+                pending = next;
+                lines = new ArrayList<>(chunkSize);
+                firstRow = rowNumber + 1;
+            }
+        }
+        if (!lines.isEmpty()) {
+            CompletableFuture<Chunk> next = validateAsync(lines, firstRow, header, job.format);
+            if (pending != null) {
+                insert(pending.join(), seenInFile, job);
+            }
+            pending = next;
+        }
+        if (pending != null) {
+            insert(pending.join(), seenInFile, job);
+        }
+    }
+
+    private CompletableFuture<Chunk> validateAsync(List<String> lines, long firstRow, List<String> header,
+                                                   ImportFormat format) {
+        return CompletableFuture.supplyAsync(() -> {
+            RowResult[] results = new RowResult[lines.size()];
+            IntStream.range(0, lines.size()).parallel().forEach(i ->
+                    results[i] = validate(lines.get(i), firstRow + i, header, format));
+            return new Chunk(firstRow, results);
+        }, ForkJoinPool.commonPool());
+    }
+
+    private void insert(Chunk chunk, Set<String> seenInFile, ImportJob job) {
+        List<RowResult> valid = new ArrayList<>(chunk.rows.length);
+        for (RowResult row : chunk.rows) {
+            if (row.blank) {
+                continue;
+            }
+            // Chunks are inserted in file order, so the first occurrence of an assetId wins
+            if (row.error == null && !seenInFile.add((String) row.values[0])) {
+                row.error = "Duplicate assetId in file";
+            }
+            if (row.error == null) {
+                valid.add(row);
+            } else {
+                job.reject(row, maxReportedErrors);
+            }
+        }
+
+        // Drop rows whose assetId already exists rather than failing the whole batch
+        if (!valid.isEmpty()) {
+            Set<String> ids = new HashSet<>();
+            valid.forEach(row -> ids.add((String) row.values[0]));
+            Set<String> existing = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                    "SELECT asset_id FROM infrastructure_assets WHERE asset_id IN (:ids)",
+                    new MapSqlParameterSource("ids", ids), String.class));
+            if (!existing.isEmpty()) {
+                List<RowResult> fresh = new ArrayList<>(valid.size());
+                for (RowResult row : valid) {
+                    if (existing.contains((String) row.values[0])) {
+                        row.error = "assetId already exists";
+                        job.reject(row, maxReportedErrors);
+                    } else {
+                        fresh.add(row);
+                    }
+                }
+                valid = fresh;
+            }
+        }
+
+        int imported = 0;
+        if (!valid.isEmpty()) {
+            List<RowResult> rows = valid;
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), this::bind));
+                imported = rows.size();
+            } catch (DataAccessException e) {
+                // Fall back to row-at-a-time so the failure is attributed to its row
+                for (RowResult row : rows) {
+                    try {
+                        jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, row));
+                        imported++;
+                    } catch (DataAccessException rowError) {
+                        row.error = rowError.getMostSpecificCause().getMessage();
+                        job.reject(row, maxReportedErrors);
+                    }
+                }
+            }
+        }
+
+        job.rowsImported += imported;
+        job.rowsRead = chunk.firstRow + chunk.rows.length - 1;
+        job.chunksDone++;
+        publishChunkEvent(chunk, imported, job);
+    }
+
+    private void publishChunkEvent(Chunk chunk, int imported, ImportJob job) {
+        if (imported == 0) {
+            return;
+        }
+        long lastRow = chunk.firstRow + chunk.rows.length - 1;
+        EventPublisher.AlertEvent event = new EventPublisher.AlertEvent(null, "ASSETS_IMPORTED",
+                String.format("Bulk import %s registered %d assets from rows %d-%d", job.id, imported, chunk.firstRow, lastRow),
+                "INFO");
+        event.setOccurrences(imported);
+        try {
+            eventPublisher.publishAlert(event);
+        } catch (Exception e) {
+            job.eventFailures++;
+        }
+    }
+
+    private void bind(PreparedStatement ps, RowResult row) throws java.sql.SQLException {
+        Object[] v = row.values;
+        ps.setString(1, (String) v[0]);
+        ps.setString(2, (String) v[1]);
+        ps.setString(3, (String) v[2]);
+        ps.setString(4, (String) v[3]);
+        ps.setDouble(5, (Double) v[4]);
+        ps.setDouble(6, (Double) v[5]);
+        ps.setString(7, ((InfrastructureAsset.AssetStatus) v[6]).name());
+        setTimestamp(ps, 8, (LocalDateTime) v[7]);
+        setTimestamp(ps, 9, (LocalDateTime) v[8]);
+        ps.setInt(10, (Integer) v[9]);
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws java.sql.SQLException {
+        if (value != null) {
+            ps.setTimestamp(index, Timestamp.valueOf(value));
+        } else {
+            ps.setNull(index, Types.TIMESTAMP);
+        }
+    }
+
+    private List<String> readCsvHeader(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return Collections.emptyList();
+        }
+        List<String> header = parseCsvLine(line.startsWith("\uFEFF") ? line.substring(1) : line);
+        if (!header.contains("assetId")) {
+            throw new IllegalArgumentException("CSV header must name the columns, e.g. " + String.join(",", COLUMNS));
+        }
+        return header;
+    }
+
+    private RowResult validate(String line, long rowNumber, List<String> header, ImportFormat format) {
+        RowResult result = new RowResult(rowNumber);
+        if (line.isBlank()) {
+            result.blank = true;
+            return result;
+        }
+        try {
+            Map<String, String> fields = format == ImportFormat.CSV ? csvFields(line, header) : jsonFields(line);
+            result.assetId = fields.get("assetId");
+            result.values = toColumns(fields);
+        } catch (Exception e) {
+            result.error = e.getMessage();
+        }
+        return result;
+    }
+
+    private Map<String, String> csvFields(String line, List<String> header) {
+        List<String> cells = parseCsvLine(line);
+        if (cells.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " columns but found " + cells.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            fields.put(header.get(i), cells.get(i));
+        }
+        return fields;
+    }
+
+    private Map<String, String> jsonFields(String line) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Each line must be a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (String column : COLUMNS) {
+            JsonNode value = node.get(column);
+            if (value != null && !value.isNull()) {
+                fields.put(column, value.asText());
+            }
+        }
+        return fields;
+    }
+
+    /** Validates one row and converts it to insert parameters in COLUMNS order. */
+    static Object[] toColumns(Map<String, String> fields) {
+        String assetId = required(fields, "assetId");
+        if (assetId.length() > 255) {
+            throw new IllegalArgumentException("assetId is longer than 255 characters");
+        }
+        double latitude = parseDouble(required(fields, "latitude"), "latitude");
+        double longitude = parseDouble(required(fields, "longitude"), "longitude");
+        if (latitude < -90 || latitude > 90) {
+            throw new IllegalArgumentException("latitude must be between -90 and 90");
+        }
+        if (longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("longitude must be between -180 and 180");
+        }
+
+        InfrastructureAsset.AssetStatus status = InfrastructureAsset.AssetStatus.OPERATIONAL;
+        String statusText = optional(fields, "status");
+        if (statusText != null) {
+            try {
+                status = InfrastructureAsset.AssetStatus.valueOf(statusText.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown status: " + statusText);
+            }
+        }
+
+        int priority = 0;
+        String priorityText = optional(fields, "maintenancePriority");
+        if (priorityText != null) {
+            try {
+                priority = Integer.parseInt(priorityText);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("maintenancePriority must be an integer");
+            }
+            if (priority < 0 || priority > 10) {
+                throw new IllegalArgumentException("maintenancePriority must be between 0 and 10");
+            }
+        }
+
+        return new Object[]{
+                assetId,
+                required(fields, "name"),
+                required(fields, "type").toUpperCase(),
+                optional(fields, "description"),
+                latitude,
+                longitude,
+                status,
+                parseDate(optional(fields, "installationDate"), "installationDate"),
+                parseDate(optional(fields, "lastMaintenance"), "lastMaintenance"),
+                priority
+        };
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = optional(fields, name);
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value;
+    }
+
+    private static String optional(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static double parseDouble(String value, String name) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    // Accepts ISO date-times or plain dates (taken as midnight)
+    private static LocalDateTime parseDate(String value, String name) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be an ISO date or date-time");
+        }
+    }
+
+    /** Splits one RFC 4180 line; quoted cells may contain commas and doubled quotes, not newlines. */
+    static List<String> parseCsvLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        cell.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    public enum ImportFormat {
+        CSV, NDJSON
+    }
+
+    public enum ImportState {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private static final class Chunk {
+        private final long firstRow;
+        private final RowResult[] rows;
+
+        private Chunk(long firstRow, RowResult[] rows) {
+            this.firstRow = firstRow;
+            this.rows = rows;
+        }
+    }
+
+    private static final class RowResult {
+        private final long row;
+        private String assetId;
+        private Object[] values;
+        private String error;
+        private boolean blank;
+
+        private RowResult(long row) {
+            this.row = row;
+        }
+    }
+
+    public static class RowError {
+        private final long row;
+        private final String assetId;
+        private final String message;
+
+        public RowError(long row, String assetId, String message) {
+            this.row = row;
+            this.assetId = assetId;
+            this.message = message;
+        }
+
+        public long getRow() { return row; }
+        public String getAssetId() { return assetId; }
+        public String getMessage() { return message; }
+    }
+
+    public static class ImportJob {
+        private final String id;
+        private final ImportFormat format;
+        private final long createdAt = System.currentTimeMillis();
+        private final List<RowError> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile ImportState state = ImportState.QUEUED;
+        private volatile long rowsRead;
+        private volatile long rowsImported;
+        private volatile long rowsRejected;
+        private volatile long chunksDone;
+        private volatile long eventFailures;
+        private volatile long finishedAt;
+        private volatile String error;
+
+        public ImportJob(String id, ImportFormat format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        private void reject(RowResult row, int maxReported) {
+            rowsRejected++;
+            if (errors.size() < maxReported) {
+                errors.add(new RowError(row.row, row.assetId, row.error));
+            }
+        }
+
+        private void finish(ImportState finalState) {
+            finishedAt = System.currentTimeMillis();
+            state = finalState;
+        }
+
+        public String getId() { return id; }
+        public ImportFormat getFormat() { return format; }
+        public ImportState getState() { return state; }
+        public long getRowsRead() { return rowsRead; }
+        public long getRowsImported() { return rowsImported; }
+        public long getRowsRejected() { return rowsRejected; }
+        public long getChunksDone() { return chunksDone; }
+        public long getEventFailures() { return eventFailures; }
+        public String getError() { return error; }
+        public long getDurationMs() { return (finishedAt > 0 ? finishedAt : System.currentTimeMillis()) - createdAt; }
+
+        public List<RowError> getErrors() {
+            synchronized (errors) {
+                return new ArrayList<>(errors);
+            }
+        }
+    }
+}
@@ -0,0 +1,559 @@
+package com.infrastructure.maintenance.service;
+
+import com.infrastructure.maintenance.security.JwtTokenProvider;
+import com.infrastructure.maintenance.storage.ReadingBlock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Binary sensor ingest over persistent TCP connections, next to the HTTP endpoints, for
+ * gateways that would otherwise pay for TLS, headers, a JWT check and JSON parsing per reading.
+ * <p>
+ * Every client frame is {@code u32 length, u8 type, payload}, where length counts the type
+ * byte and payload. The first frame must be {@link #AUTH} carrying a JWT (UTF-8) with role
+ * ADMIN, MANAGER or SENSOR; it is checked once for the connection, which is closed when the
+ * token expires. After that, each
+ * {@link #READINGS} frame carries one {@link ReadingBlock} and is recorded through
+ * {@link SensorDataService#recordSensorDataBlock}, under the same admission control as
+ * {@code POST /api/sensors/data/batch}. Every frame gets one response, in order:
+ * {@code u8 status, u32 value, u16 length, UTF-8 message}, where value is the number of
+ * readings recorded, or the seconds to wait for {@link #REJECTED}.
+ * <p>
+ * One selector thread does all socket I/O. Frame bodies are read into a fixed pool of direct
+ * buffers and decoded in place by the worker threads. A connection stops being read while it
+ * has {@code ingest.binary.max-pending-frames} frames unanswered or no pooled buffer is free,
+ * so a fast sender is slowed down by TCP instead of queueing in the heap. Frames of one
+ * connection are processed in order. The AUTH frame is read into a small heap buffer instead,
+ * and nothing more is read until its token has been accepted, so unauthenticated connections
+ * cannot hold pooled buffers.
+ * <p>
+ * The protocol has no transport security, so the listener binds to loopback by default
+ * ({@code ingest.binary.bind-address}). Enabled with {@code ingest.binary.enabled=true}.
+ */
+@Service
+@ConditionalOnProperty(name = "ingest.binary.enabled", havingValue = "true")
+public class BinaryIngestServer {
+
+    // Client frame types
+    static final byte AUTH = 1;
+    static final byte READINGS = 2;
+
+    // Response statuses
+    static final byte OK = 0;
+    static final byte REJECTED = 1;
+    static final byte ERROR = 2;
+    static final byte UNAUTHORIZED = 3;
+
+    private static final Set<String> INGEST_ROLES = Set.of("ADMIN", "MANAGER", "SENSOR");
+
+    @Autowired
+    private SensorDataService sensorDataService;
+
+    @Autowired
+    private IngestAdmissionService admissionService;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ingest.binary.port:9090}")
+    private int port;
+
+    // Tokens and readings travel in clear text; only widen this on a trusted network or behind TLS termination
+    @Value("${ingest.binary.bind-address:127.0.0.1}")
+    private String bindAddress;
+
+    @Value("${ingest.binary.max-frame-kb:256}")
+    private int maxFrameKb;
+
+    @Value("${ingest.binary.buffer-pool-size:64}")
+    private int bufferPoolSize;
+
+    @Value("${ingest.binary.max-pending-frames:4}")
+    private int maxPendingFrames;
+
+    @Value("${ingest.binary.worker-threads:4}")
+    private int workerThreads;
+
+    @Value("${ingest.binary.auth-timeout-ms:10000}")
+    private long authTimeoutMs;
+
+    @Value("${ingest.binary.max-auth-frame-bytes:4096}")
+    private int maxAuthFrameBytes;
+
+    // Retry hint for frames refused by a dependency in fail mode
+    @Value("${degradation.storage.retry-interval-ms:5000}")
+    private long dependencyRetryMs;
+
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private final List<Connection> connections = new ArrayList<>();
+    // Connections waiting for a pooled buffer; selector thread only
+    private final Queue<Connection> bufferWaiters = new ArrayDeque<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private BufferPool bufferPool;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private ExecutorService workers;
+    private volatile boolean running;
+    // Selector thread only
+    private long nextDeadlineCheck;
+
+    private Counter framesOk;
+    private Counter framesRejected;
+    private Counter framesFailed;
+    private Counter framesUnauthorized;
+    private Counter readingsRecorded;
+    private Counter bytesReceived;
+
+    @PostConstruct
+    public void start() throws IOException {
+        bufferPool = new BufferPool(bufferPoolSize, maxFrameKb * 1024);
+        workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "binary-ingest-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("ingest.binary.connections", connectionCount, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("ingest.binary.buffers.available", bufferPool, BufferPool::available).register(meterRegistry);
+        framesOk = frameCounter("ok");
+        framesRejected = frameCounter("rejected");
+        framesFailed = frameCounter("error");
+        framesUnauthorized = frameCounter("unauthorized");
+        readingsRecorded = Counter.builder("ingest.binary.readings").register(meterRegistry);
+        bytesReceived = Counter.builder("ingest.binary.bytes").register(meterRegistry);
+
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(bindAddress, port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+        selectorThread = new Thread(this::selectLoop, "binary-ingest-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        selector.wakeup();
+        selectorThread.join(5000);
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private Counter frameCounter(String outcome) {
+        return Counter.builder("ingest.binary.frames").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    private void selectLoop() {
+        try {
+            while (running) {
+                selector.select(1000);
+                Runnable task;
+                while ((task = selectorTasks.poll()) != null) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isWritable()) {
+                            connection.write();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            connection.read();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        connection.close();
+                    }
+                }
+                // Deadlines are checked about once a second, not on every selector wakeup
+                long now = System.currentTimeMillis();
+                if (now >= nextDeadlineCheck) {
+                    nextDeadlineCheck = now + 1000;
+                    closeUnauthenticatedAndExpired(now);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Binary ingest listener stopped: " + e.getMessage());
+        } finally {
+            for (Connection connection : new ArrayList<>(connections)) {
+                connection.close();
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Error closing binary ingest listener: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connections.add(connection);
+        connectionCount.incrementAndGet();
+    }
+
+    private void closeUnauthenticatedAndExpired(long now) {
+        for (Connection connection : new ArrayList<>(connections)) {
+            boolean authTimedOut = connection.username == null && connection.openedAt < now - authTimeoutMs;
+            if ((authTimedOut || connection.expiresAt <= now) && connection.pending.get() == 0) {
+                connection.close();
+            }
+        }
+    }
+
+    /** Runs {@code task} on the selector thread. */
+    private void onSelector(Runnable task) {
+        selectorTasks.add(task);
+        selector.wakeup();
+    }
+
+    private void resumeBufferWaiters() {
+        Connection connection;
+        while (bufferPool.available() > 0 && (connection = bufferWaiters.poll()) != null) {
+            try {
+                connection.read();
+            } catch (IOException | RuntimeException e) {
+                connection.close();
+            }
+        }
+    }
+
+    /** Per-connection state. Socket fields are touched by the selector thread only. */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final long openedAt = System.currentTimeMillis();
+        private final ByteBuffer header = ByteBuffer.allocate(5);
+        private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+        // Frames read but not yet answered on the wire
+        private final AtomicInteger pending = new AtomicInteger();
+        private final Queue<Frame> frames = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private SelectionKey key;
+        private ByteBuffer body;
+        private boolean closeAfterWrite;
+        private boolean closed;
+        private boolean authFrameRead;
+        // The AUTH frame is being checked; the connection is not read until it is accepted
+        private boolean awaitingAuth;
+        // Set by the worker that checked the AUTH frame; frames are processed one at a time
+        private volatile String username;
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void read() throws IOException {
+            while (!closed && !closeAfterWrite && !awaitingAuth && pending.get() < maxPendingFrames) {
+                if (header.hasRemaining()) {
+                    if (channel.read(header) < 0) {
+                        close();
+                        return;
+                    }
+                    if (header.hasRemaining()) {
+                        break;
+                    }
+                    int length = header.getInt(0) - 1;
+                    int maxLength = authFrameRead ? bufferPool.bufferBytes : maxAuthFrameBytes;
+                    if (length < 0 || length > maxLength) {
+                        respondAndClose(ERROR, 0, "Frame length " + (length + 1) + " is invalid or over "
+                                + maxLength + " bytes");
+                        return;
+                    }
+                    if (!authFrameRead) {
+                        body = ByteBuffer.allocate(length);
+                    }
+                }
+                if (body == null) {
+                    body = bufferPool.acquire();
+                    if (body == null) {
+                        // The header stays read; reading resumes when a buffer is released
+                        if (!bufferWaiters.contains(this)) {
+                            bufferWaiters.add(this);
+                        }
+                        break;
+                    }
+                    body.limit(header.getInt(0) - 1);
+                }
+                if (body.hasRemaining() && channel.read(body) < 0) {
+                    close();
+                    return;
+                }
+                if (body.hasRemaining()) {
+                    break;
+                }
+                bytesReceived.increment(header.capacity() + body.limit());
+                body.flip();
+                pending.incrementAndGet();
+                submit(new Frame(header.get(4), body, authFrameRead));
+                awaitingAuth = !authFrameRead;
+                authFrameRead = true;
+                body = null;
+                header.clear();
+            }
+            updateInterest();
+        }
+
+        void write() throws IOException {
+            ByteBuffer response;
+            while ((response = outbound.peek()) != null) {
+                channel.write(response);
+                if (response.hasRemaining()) {
+                    break;
+                }
+                outbound.poll();
+                pending.decrementAndGet();
+            }
+            if (outbound.isEmpty() && closeAfterWrite) {
+                close();
+                return;
+            }
+            updateInterest();
+        }
+
+        void updateInterest() {
+            if (closed || !key.isValid()) {
+                return;
+            }
+            boolean waitingForBuffer = body == null && !header.hasRemaining() && bufferPool.available() == 0;
+            int ops = 0;
+            if (!closeAfterWrite && !awaitingAuth && pending.get() < maxPendingFrames && !waitingForBuffer) {
+                ops |= SelectionKey.OP_READ;
+            }
+            if (!outbound.isEmpty()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(ops);
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (body != null && authFrameRead) {
+                bufferPool.release(body);
+                resumeBufferWaiters();
+            }
+            body = null;
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Already gone
+            }
+            connections.remove(this);
+            bufferWaiters.remove(this);
+            connectionCount.decrementAndGet();
+        }
+
+        private void respondAndClose(byte status, int value, String message) {
+            pending.incrementAndGet();
+            outbound.add(response(status, value, message));
+            closeAfterWrite = true;
+            updateInterest();
+        }
+
+        /** Queues a frame for the workers; a connection's frames are processed one at a time. */
+        private void submit(Frame frame) {
+            frames.add(frame);
+            if (draining.compareAndSet(false, true)) {
+                workers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            Frame frame;
+            while ((frame = frames.poll()) != null) {
+                try {
+                    process(frame);
+                } finally {
+                    if (frame.pooled) {
+                        bufferPool.release(frame.body);
+                    }
+                }
+            }
+            draining.set(false);
+            if (!frames.isEmpty() && draining.compareAndSet(false, true)) {
+                workers.execute(this::drain);
+            }
+            onSelector(BinaryIngestServer.this::resumeBufferWaiters);
+        }
+
+        private void process(Frame frame) {
+            if (username == null) {
+                authenticate(frame);
+                return;
+            }
+            if (System.currentTimeMillis() >= expiresAt) {
+                framesUnauthorized.increment();
+                respond(UNAUTHORIZED, 0, "Token expired", true);
+                return;
+            }
+            if (frame.type != READINGS) {
+                framesFailed.increment();
+                respond(ERROR, 0, "Unexpected frame type " + frame.type, false);
+                return;
+            }
+
+            if (admissionService.isEnabled()) {
+                long retryAfter = admissionService.tryAdmit("sub:" + username, IngestAdmissionService.Kind.BATCH);
+                if (retryAfter > 0) {
+                    framesRejected.increment();
+                    respond(REJECTED, (int) retryAfter, "Too many sensor data requests", false);
+                    return;
+                }
+            }
+            long start = System.nanoTime();
+            boolean failed = false;
+            try {
+                int recorded = sensorDataService.recordSensorDataBlock(frame.body);
+                framesOk.increment();
+                readingsRecorded.increment(recorded);
+                respond(OK, recorded, "", false);
+            } catch (RejectedExecutionException e) {
+                // A dependency in fail mode is down, or its outbox is full
+                failed = true;
+                framesRejected.increment();
+                respond(REJECTED, (int) Math.max(1, dependencyRetryMs / 1000), e.getMessage(), false);
+            } catch (RuntimeException e) {
+                framesFailed.increment();
+                respond(ERROR, 0, "Error recording batch sensor data: " + e.getMessage(), false);
+            } finally {
+                // Like the HTTP endpoint's 503s, an unavailable dependency counts as a failure;
+                // malformed blocks are answered like its 400s and do not
+                if (admissionService.isEnabled()) {
+                    admissionService.complete(IngestAdmissionService.Kind.BATCH, System.nanoTime() - start, failed);
+                }
+            }
+        }
+
+        private void authenticate(Frame frame) {
+            String token = frame.type == AUTH ? StandardCharsets.UTF_8.decode(frame.body).toString() : null;
+            if (token == null || !tokenProvider.validateToken(token)
+                    || !INGEST_ROLES.contains(tokenProvider.getRoleFromToken(token))) {
+                framesUnauthorized.increment();
+                respond(UNAUTHORIZED, 0, "Authentication required", true);
+                return;
+            }
+            Date expiration = tokenProvider.getExpirationFromToken(token);
+            expiresAt = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+            username = tokenProvider.getUsernameFromToken(token);
+            framesOk.increment();
+            outbound.add(response(OK, 0, username));
+            onSelector(() -> {
+                awaitingAuth = false;
+                updateInterest();
+            });
+        }
+
+        private void respond(byte status, int value, String message, boolean thenClose) {
+            outbound.add(response(status, value, message));
+            onSelector(() -> {
+                closeAfterWrite |= thenClose;
+                updateInterest();
+            });
+        }
+    }
+
+    private static ByteBuffer response(byte status, int value, String message) {
+        byte[] text = message.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(text.length, 0xFFFF);
+        return ByteBuffer.allocate(1 + 4 + 2 + length)
+                .put(status).putInt(value).putShort((short) length).put(text, 0, length)
+                .flip();
+    }
+
+    private record Frame(byte type, ByteBuffer body, boolean pooled) {}
+
+    /** Fixed set of direct buffers, one per frame body being read or processed. */
+    private static final class BufferPool {
+
+        private final Queue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger available;
+        private final int bufferBytes;
+
+        BufferPool(int size, int bufferBytes) {
+            this.bufferBytes = bufferBytes;
+            for (int i = 0; i < size; i++) {
+                free.add(ByteBuffer.allocateDirect(bufferBytes));
+            }
+            available = new AtomicInteger(size);
+        }
+
+        ByteBuffer acquire() {
+            ByteBuffer buffer = free.poll();
+            if (buffer != null) {
+                available.decrementAndGet();
+                buffer.clear();
+            }
+            return buffer;
+        }
+
+        void release(ByteBuffer buffer) {
+            free.add(buffer);
+            available.incrementAndGet();
+        }
+
+        int available() {
+            return available.get();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.infrastructure.maintenance.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket per client key. Each bucket refills at {@code ratePerSecond} up to
+ * {@code burst} tokens; idle buckets are dropped by {@link #evictIdle} so the map only holds
+ * recently active clients.
+ */
+public class ClientRateLimiter {
+
+    private final double ratePerNano;
+    private final double burst;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public ClientRateLimiter(double ratePerSecond, int burst) {
+        this.ratePerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+    }
+
+    /**
+     * Takes one token for {@code client}. Returns 0 when admitted, otherwise the number of
+     * whole seconds until a token will be available.
+     */
+    public long tryAcquire(String client) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.computeIfAbsent(client, k -> new Bucket(burst, now));
+        synchronized (bucket) {
+            bucket.refill(now, ratePerNano, burst);
+            if (bucket.tokens >= 1.0) {
+                bucket.tokens -= 1.0;
+                return 0;
+            }
+            double waitNanos = (1.0 - bucket.tokens) / ratePerNano;
+            return Math.max(1, (long) Math.ceil(waitNanos / TimeUnit.SECONDS.toNanos(1)));
+        }
+    }
+
+    public int getActiveClients() {
+        return buckets.size();
+    }
+
+    /**
+     * Removes buckets that have refilled completely, since recreating them is equivalent.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.entrySet().removeIf(entry -> {
+            Bucket bucket = entry.getValue();
+            synchronized (bucket) {
+                bucket.refill(now, ratePerNano, burst);
+                return bucket.tokens >= burst;
+            }
+        });
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updatedNanos;
+
+        private Bucket(double tokens, long updatedNanos) {
+            this.tokens = tokens;
+            this.updatedNanos = updatedNanos;
+        }
+
+        private void refill(long now, double ratePerNano, double burst) {
+            tokens = Math.min(burst, tokens + (now - updatedNanos) * ratePerNano);
+            updatedNanos = now;
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.infrastructure.maintenance.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, compiled data quality rules. Rules are declared per (asset type, sensor type),
+ * either of which may be "*"; every combination named in the file is resolved up front by
+ * layering (*,*), then (*,sensor), then (asset,*), then (asset,sensor), so a lookup is two map
+ * probes and one array index. Each resolved rule carries only the checks it enables.
+ *
+ * <pre>
+ * { "rules": [ { "assetType": "*", "sensorType": "TEMPERATURE", "min": -50, "max": 100, "rangePenalty": 0.3 },
+ *              { "assetType": "BRIDGE", "sensorType": "STRAIN", "max": 400, "expectedIntervalMs": 60000 } ] }
+ * </pre>
+ */
+public final class DataQualityRuleSet {
+
+    public static final String WILDCARD = "*";
+
+    /** Check identifiers, used as bit positions in {@link Assessment#getFailedChecks()}. */
+    public enum Check {
+        RANGE, STUCK, SPIKE, SKEW, GAP
+    }
+
+    private final Map<String, Integer> assetTypeIndex;
+    private final Map<String, Integer> sensorTypeIndex;
+    private final int stride;
+    private final Rule[] table;
+    private final List<RuleDefinition> definitions;
+
+    private DataQualityRuleSet(Map<String, Integer> assetTypeIndex, Map<String, Integer> sensorTypeIndex,
+                               Rule[] table, List<RuleDefinition> definitions) {
+        this.assetTypeIndex = assetTypeIndex;
+        this.sensorTypeIndex = sensorTypeIndex;
+        this.stride = sensorTypeIndex.size() + 1;
+        this.table = table;
+        this.definitions = definitions;
+    }
+
+    public static DataQualityRuleSet load(JsonNode root) {
+        JsonNode rules = root.get("rules");
+        if (rules == null || !rules.isArray()) {
+            throw new IllegalArgumentException("Data quality rules must have a \"rules\" array");
+        }
+        List<RuleDefinition> definitions = new ArrayList<>();
+        for (JsonNode node : rules) {
+            definitions.add(RuleDefinition.parse(node));
+        }
+        return compile(definitions);
+    }
+
+    public static DataQualityRuleSet compile(List<RuleDefinition> definitions) {
+        // Index 0 on both axes is the wildcard
+        Map<String, Integer> assetTypes = new HashMap<>();
+        Map<String, Integer> sensorTypes = new HashMap<>();
+        Map<String, RuleDefinition> byKey = new HashMap<>();
+        for (RuleDefinition definition : definitions) {
+            if (!WILDCARD.equals(definition.assetType)) {
+                assetTypes.putIfAbsent(definition.assetType, assetTypes.size() + 1);
+            }
+            if (!WILDCARD.equals(definition.sensorType)) {
+                sensorTypes.putIfAbsent(definition.sensorType, sensorTypes.size() + 1);
+            }
+            if (byKey.putIfAbsent(definition.assetType + "/" + definition.sensorType, definition) != null) {
+                throw new IllegalArgumentException("Duplicate data quality rule for "
+                        + definition.assetType + "/" + definition.sensorType);
+            }
+        }
+
+        List<String> assetNames = names(assetTypes);
+        List<String> sensorNames = names(sensorTypes);
+        int stride = sensorNames.size();
+        Rule[] table = new Rule[assetNames.size() * stride];
+        for (int a = 0; a < assetNames.size(); a++) {
+            for (int s = 0; s < stride; s++) {
+                String asset = assetNames.get(a);
+                String sensor = sensorNames.get(s);
+                RuleDefinition merged = new RuleDefinition(asset, sensor)
+                        .overlay(byKey.get(WILDCARD + "/" + WILDCARD))
+                        .overlay(byKey.get(WILDCARD + "/" + sensor))
+                        .overlay(byKey.get(asset + "/" + WILDCARD))
+                        .overlay(byKey.get(asset + "/" + sensor));
+                table[a * stride + s] = new Rule(merged);
+            }
+        }
+        return new DataQualityRuleSet(assetTypes, sensorTypes, table, List.copyOf(definitions));
+    }
+
+    private static List<String> names(Map<String, Integer> index) {
+        String[] names = new String[index.size() + 1];
+        names[0] = WILDCARD;
+        index.forEach((name, i) -> names[i] = name);
+        return List.of(names);
+    }
+
+    public Rule lookup(String assetType, String sensorType) {
+        return table[index(assetTypeIndex, assetType) * stride + index(sensorTypeIndex, sensorType)];
+    }
+
+    private static int index(Map<String, Integer> index, String type) {
+        if (type == null) {
+            return 0;
+        }
+        Integer i = index.get(type);
+        if (i == null) {
+            i = index.get(type.toUpperCase(Locale.ROOT));
+        }
+        return i != null ? i : 0;
+    }
+
+    public List<RuleDefinition> getDefinitions() {
+        return definitions;
+    }
+
+    public int getResolvedRuleCount() {
+        return table.length;
+    }
+
+    /**
+     * A single enabled check of a resolved rule; returns its score multiplier, 1.0 when it passes.
+     * {@code batch} marks readings uploaded in a batch, which may have been buffered by the sensor.
+     */
+    @FunctionalInterface
+    interface QualityCheck {
+        double apply(SensorState state, double value, long timestampMillis, long nowMillis, boolean batch);
+    }
+
+    /** A resolved rule: the merged thresholds plus the array of checks they enable. */
+    public static final class Rule {
+        private final Check[] checkIds;
+        private final QualityCheck[] checks;
+        private final double stuckTolerance;
+        private final double ewmaAlpha;
+
+        private Rule(RuleDefinition d) {
+            List<Check> ids = new ArrayList<>();
+            List<QualityCheck> list = new ArrayList<>();
+            double tolerance = d.getOrDefault(d.stuckTolerance, 0.0);
+            double rangePenalty = d.getOrDefault(d.rangePenalty, 0.3);
+            if (d.min != null || d.max != null) {
+                double min = d.min != null ? d.min : Double.NEGATIVE_INFINITY;
+                double max = d.max != null ? d.max : Double.POSITIVE_INFINITY;
+                ids.add(Check.RANGE);
+                list.add((state, value, ts, now, batch) -> value < min || value > max || Double.isNaN(value) ? rangePenalty : 1.0);
+            }
+            if (d.stuckCount != null && d.stuckCount > 1) {
+                int stuckCount = d.stuckCount;
+                double penalty = d.getOrDefault(d.stuckPenalty, 0.5);
+                ids.add(Check.STUCK);
+                // repeatRun counts repeats after the first reading, so this reading makes repeatRun + 2 in a row
+                list.add((state, value, ts, now, batch) -> state.samples > 0 && state.repeatRun + 2 >= stuckCount
+                        && Math.abs(value - state.lastValue) <= tolerance ? penalty : 1.0);
+            }
+            if (d.spikeSigmas != null && d.spikeSigmas > 0) {
+                double sigmas = d.spikeSigmas;
+                int warmup = d.spikeWarmup != null ? d.spikeWarmup : 30;
+                double penalty = d.getOrDefault(d.spikePenalty, 0.5);
+                ids.add(Check.SPIKE);
+                list.add((state, value, ts, now, batch) -> {
+                    if (state.samples < warmup) {
+                        return 1.0;
+                    }
+                    double deviation = value - state.mean;
+                    return deviation * deviation > sigmas * sigmas * Math.max(state.variance, 1e-12) ? penalty : 1.0;
+                });
+            }
+            if (d.maxSkewMs != null && d.maxSkewMs > 0) {
+                long maxSkew = d.maxSkewMs;
+                double penalty = d.getOrDefault(d.skewPenalty, 0.5);
+                ids.add(Check.SKEW);
+                // Too far from the ingest clock, or earlier than the sensor's previous reading.
+                // Batches may carry readings stored and forwarded after an outage, so there
+                // only timestamps ahead of the ingest clock count
+                list.add((state, value, ts, now, batch) -> (batch ? ts - now > maxSkew
+                        : Math.abs(now - ts) > maxSkew || (state.samples > 0 && ts < state.lastTimestamp))
+                        ? penalty : 1.0);
+            }
+            if (d.expectedIntervalMs != null && d.expectedIntervalMs > 0) {
+                double maxGap = d.expectedIntervalMs * d.getOrDefault(d.maxGapFactor, 3.0);
+                double penalty = d.getOrDefault(d.gapPenalty, 0.8);
+                ids.add(Check.GAP);
+                // Readings behind the latest one fill a gap rather than open one
+                list.add((state, value, ts, now, batch) -> state.samples > 0 && ts - state.lastTimestamp > maxGap ? penalty : 1.0);
+            }
+            this.checkIds = ids.toArray(new Check[0]);
+            this.checks = list.toArray(new QualityCheck[0]);
+            this.stuckTolerance = tolerance;
+            this.ewmaAlpha = d.getOrDefault(d.ewmaAlpha, 0.05);
+        }
+
+        /** Scores one reading against the sensor's state, then folds the reading into that state. */
+        Assessment evaluate(SensorState state, double value, long timestampMillis, long nowMillis, boolean batch) {
+            double score = 1.0;
+            int failed = 0;
+            for (int i = 0; i < checks.length; i++) {
+                double multiplier = checks[i].apply(state, value, timestampMillis, nowMillis, batch);
+                if (multiplier < 1.0) {
+                    score *= multiplier;
+                    failed |= 1 << checkIds[i].ordinal();
+                }
+            }
+            state.update(value, timestampMillis, stuckTolerance, ewmaAlpha);
+            return new Assessment(Math.max(0.0, Math.min(1.0, score)), failed);
+        }
+
+        public int getCheckCount() {
+            return checks.length;
+        }
+    }
+
+    /**
+     * Per-sensor running state: last reading, length of the current run of repeated values,
+     * and an exponentially weighted mean and variance for spike detection. O(1) per update.
+     */
+    static final class SensorState {
+        long samples;
+        double lastValue;
+        long lastTimestamp;
+        int repeatRun;
+        double mean;
+        double variance;
+        volatile long lastSeenMillis;
+
+        void update(double value, long timestampMillis, double stuckTolerance, double alpha) {
+            if (samples == 0) {
+                mean = value;
+                variance = 0.0;
+            } else {
+                repeatRun = Math.abs(value - lastValue) <= stuckTolerance ? repeatRun + 1 : 0;
+                double delta = value - mean;
+                mean += alpha * delta;
+                variance = (1 - alpha) * (variance + alpha * delta * delta);
+            }
+            lastValue = value;
+            lastTimestamp = Math.max(lastTimestamp, timestampMillis);
+            samples++;
+        }
+    }
+
+    public static final class Assessment {
+        private final double score;
+        private final int failedChecks;
+
+        Assessment(double score, int failedChecks) {
+            this.score = score;
+            this.failedChecks = failedChecks;
+        }
+
+        public double getScore() { return score; }
+        public int getFailedChecks() { return failedChecks; }
+
+        public List<Check> getFailed() {
+            List<Check> failed = new ArrayList<>();
+            for (Check check : Check.values()) {
+                if ((failedChecks & (1 << check.ordinal())) != 0) {
+                    failed.add(check);
+                }
+            }
+            return failed;
+        }
+    }
+
+    /** One entry of the rules file; unset thresholds inherit from the broader rules. */
+    public static final class RuleDefinition {
+        private final String assetType;
+        private final String sensorType;
+        private Double min;
+        private Double max;
+        private Double rangePenalty;
+        private Integer stuckCount;
+        private Double stuckTolerance;
+        private Double stuckPenalty;
+        private Double spikeSigmas;
+        private Integer spikeWarmup;
+        private Double ewmaAlpha;
+        private Double spikePenalty;
+        private Long maxSkewMs;
+        private Double skewPenalty;
+        private Long expectedIntervalMs;
+        private Double maxGapFactor;
+        private Double gapPenalty;
+
+        RuleDefinition(String assetType, String sensorType) {
+            this.assetType = assetType;
+            this.sensorType = sensorType;
+        }
+
+        static RuleDefinition parse(JsonNode node) {
+            RuleDefinition d = new RuleDefinition(
+                    node.path("assetType").asText(WILDCARD).toUpperCase(Locale.ROOT),
+                    node.path("sensorType").asText(WILDCARD).toUpperCase(Locale.ROOT));
+            d.min = doubleOrNull(node, "min");
+            d.max = doubleOrNull(node, "max");
+            d.rangePenalty = penaltyOrNull(node, "rangePenalty");
+            d.stuckCount = node.hasNonNull("stuckCount") ? node.get("stuckCount").asInt() : null;
+            d.stuckTolerance = doubleOrNull(node, "stuckTolerance");
+            d.stuckPenalty = penaltyOrNull(node, "stuckPenalty");
+            d.spikeSigmas = doubleOrNull(node, "spikeSigmas");
+            d.spikeWarmup = node.hasNonNull("spikeWarmup") ? node.get("spikeWarmup").asInt() : null;
+            d.ewmaAlpha = doubleOrNull(node, "ewmaAlpha");
+            d.spikePenalty = penaltyOrNull(node, "spikePenalty");
+            d.maxSkewMs = node.hasNonNull("maxSkewMs") ? node.get("maxSkewMs").asLong() : null;
+            d.skewPenalty = penaltyOrNull(node, "skewPenalty");
+            d.expectedIntervalMs = node.hasNonNull("expectedIntervalMs") ? node.get("expectedIntervalMs").asLong() : null;
+            d.maxGapFactor = doubleOrNull(node, "maxGapFactor");
+            d.gapPenalty = penaltyOrNull(node, "gapPenalty");
+            if (d.min != null && d.max != null && d.min > d.max) {
+                throw new IllegalArgumentException("min > max in data quality rule " + d.assetType + "/" + d.sensorType);
+            }
+            if (d.ewmaAlpha != null && (d.ewmaAlpha <= 0 || d.ewmaAlpha > 1)) {
+                throw new IllegalArgumentException("ewmaAlpha must be in (0, 1] in data quality rule "
+                        + d.assetType + "/" + d.sensorType);
+            }
+            return d;
+        }
+
+        private static Double doubleOrNull(JsonNode node, String field) {
+            return node.hasNonNull(field) ? node.get(field).asDouble() : null;
+        }
+
+        private static Double penaltyOrNull(JsonNode node, String field) {
+            Double penalty = doubleOrNull(node, field);
+            if (penalty != null && (penalty < 0 || penalty > 1)) {
+                throw new IllegalArgumentException(field + " must be between 0 and 1");
+            }
+            return penalty;
+        }
+
+        private RuleDefinition overlay(RuleDefinition other) {
+            if (other == null) {
+                return this;
+            }
+            if (other.min != null) min = other.min;
+            if (other.max != null) max = other.max;
+            if (other.rangePenalty != null) rangePenalty = other.rangePenalty;
+            if (other.stuckCount != null) stuckCount = other.stuckCount;
+            if (other.stuckTolerance != null) stuckTolerance = other.stuckTolerance;
+            if (other.stuckPenalty != null) stuckPenalty = other.stuckPenalty;
+            if (other.spikeSigmas != null) spikeSigmas = other.spikeSigmas;
+            if (other.spikeWarmup != null) spikeWarmup = other.spikeWarmup;
+            if (other.ewmaAlpha != null) ewmaAlpha = other.ewmaAlpha;
+            if (other.spikePenalty != null) spikePenalty = other.spikePenalty;
+            if (other.maxSkewMs != null) maxSkewMs = other.maxSkewMs;
+            if (other.skewPenalty != null) skewPenalty = other.skewPenalty;
+            if (other.expectedIntervalMs != null) expectedIntervalMs = other.expectedIntervalMs;
+            if (other.maxGapFactor != null) maxGapFactor = other.maxGapFactor;
+            if (other.gapPenalty != null) gapPenalty = other.gapPenalty;
+            return this;
+        }
+
+        private double getOrDefault(Double value, double fallback) {
+            return value != null ? value : fallback;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("assetType", assetType);
+            map.put("sensorType", sensorType);
+            putIfSet(map, "min", min);
+            putIfSet(map, "max", max);
+            putIfSet(map, "rangePenalty", rangePenalty);
+            putIfSet(map, "stuckCount", stuckCount);
+            putIfSet(map, "stuckTolerance", stuckTolerance);
+            putIfSet(map, "stuckPenalty", stuckPenalty);
+            putIfSet(map, "spikeSigmas", spikeSigmas);
+            putIfSet(map, "spikeWarmup", spikeWarmup);
+            putIfSet(map, "ewmaAlpha", ewmaAlpha);
+            putIfSet(map, "spikePenalty", spikePenalty);
+            putIfSet(map, "maxSkewMs", maxSkewMs);
+            putIfSet(map, "skewPenalty", skewPenalty);
+            putIfSet(map, "expectedIntervalMs", expectedIntervalMs);
+            putIfSet(map, "maxGapFactor", maxGapFactor);
+            putIfSet(map, "gapPenalty", gapPenalty);
+            return map;
+        }
+
+        private static void putIfSet(Map<String, Object> map, String key, Object value) {
+            if (value != null) {
+                map.put(key, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.infrastructure.maintenance.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infrastructure.maintenance.model.SensorData;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Scores sensor readings against the rules in {@code data-quality.rules-location}. The compiled
+ * {@link DataQualityRuleSet} sits behind a volatile reference: ingest threads read it without
+ * locking and a reload swaps in a whole new table, so a reading is scored by either the old
+ * rules or the new ones, never a mix. The file is re-read when its modification time changes.
+ */
+@Service
+public class DataQualityService {
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${data-quality.rules-location:classpath:data-quality-rules.json}")
+    private String rulesLocation;
+
+    @Value("${data-quality.sensor-idle-ms:3600000}")
+    private long sensorIdleMs;
+
+    private volatile DataQualityRuleSet ruleSet;
+    private volatile long rulesLastModified;
+    private volatile long loadedAt;
+    private final Map<String, DataQualityRuleSet.SensorState> sensors = new ConcurrentHashMap<>();
+    private final AtomicLong assessed = new AtomicLong();
+    private final AtomicLong[] failures = new AtomicLong[DataQualityRuleSet.Check.values().length];
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < failures.length; i++) {
+            failures[i] = new AtomicLong();
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            // Score everything 1.0 rather than refuse ingest
+            System.err.println("Could not load data quality rules from " + rulesLocation + ": " + e.getMessage());
+            ruleSet = DataQualityRuleSet.compile(List.of());
+        }
+    }
+
+    public DataQualityRuleSet.Assessment assess(SensorData sensorData) {
+        return assess(sensorData, false);
+    }
+
+    /**
+     * Scores a reading; {@code batch} readings come from a batch or reading block and may be
+     * backfilled, so they are not scored as skewed for being in the past.
+     */
+    public DataQualityRuleSet.Assessment assess(SensorData sensorData, boolean batch) {
+        String assetType = sensorData.getAsset() != null ? sensorData.getAsset().getType() : null;
+        DataQualityRuleSet.Rule rule = ruleSet.lookup(assetType, sensorData.getSensorType());
+
+        long now = System.currentTimeMillis();
+        long timestamp = sensorData.getTimestamp() != null
+                ? sensorData.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli()
+                : now;
+        String assetId = sensorData.getAsset() != null ? sensorData.getAsset().getAssetId() : "";
+        DataQualityRuleSet.SensorState state = sensors.computeIfAbsent(
+                assetId + '/' + sensorData.getSensorId(), key -> new DataQualityRuleSet.SensorState());
+        state.lastSeenMillis = now;
+
+        DataQualityRuleSet.Assessment assessment;
+        // Per-sensor monitor: readings from one sensor rarely overlap, and different sensors never contend
+        synchronized (state) {
+            assessment = rule.evaluate(state, sensorData.getValue(), timestamp, now, batch);
+        }
+
+        assessed.incrementAndGet();
+        int failed = assessment.getFailedChecks();
+        while (failed != 0) {
+            int check = Integer.numberOfTrailingZeros(failed);
+            failures[check].incrementAndGet();
+            failed &= failed - 1;
+        }
+        return assessment;
+    }
+
+    /** Re-reads and recompiles the rules; on any error the current rules stay in force. */
+    public synchronized DataQualityRuleSet reload() throws IOException {
+        Resource resource = resourceLoader.getResource(rulesLocation);
+        long modified = lastModified(resource);
+        DataQualityRuleSet loaded;
+        try (InputStream in = resource.getInputStream()) {
+            loaded = DataQualityRuleSet.load(objectMapper.readTree(in));
+        }
+        ruleSet = loaded;
+        rulesLastModified = modified;
+        loadedAt = System.currentTimeMillis();
+        return loaded;
+    }
+
+    @Scheduled(fixedDelayString = "${data-quality.reload-check-ms:30000}")
+    public void reloadIfChanged() {
+        long modified = lastModified(resourceLoader.getResource(rulesLocation));
+        if (modified > 0 && modified != rulesLastModified) {
+            try {
+                reload();
+            } catch (Exception e) {
+                System.err.println("Keeping previous data quality rules, reload failed: " + e.getMessage());
+                rulesLastModified = modified;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 300000)
+    public void evictIdleSensors() {
+        long cutoff = System.currentTimeMillis() - sensorIdleMs;
+        sensors.values().removeIf(state -> state.lastSeenMillis < cutoff);
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        DataQualityRuleSet current = ruleSet;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("rulesLocation", rulesLocation);
+        status.put("loadedAt", loadedAt);
+        status.put("resolvedRules", current.getResolvedRuleCount());
+        status.put("trackedSensors", sensors.size());
+        status.put("assessed", assessed.get());
+        Map<String, Long> failed = new LinkedHashMap<>();
+        for (DataQualityRuleSet.Check check : DataQualityRuleSet.Check.values()) {
+            failed.put(check.name(), failures[check.ordinal()].get());
+        }
+        status.put("failedChecks", failed);
+        status.put("rules", current.getDefinitions().stream()
+                .map(DataQualityRuleSet.RuleDefinition::toMap)
+                .collect(Collectors.toList()));
+        return status;
+    }
+}
@@ -0,0 +1,185 @@
+package com.infrastructure.maintenance.service;
+
+import com.infrastructure.maintenance.model.SensorData;
+import com.infrastructure.maintenance.profiling.StoreWriteEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps ingest independent of its two downstream dependencies: the time-series store
+ * ({@code storage}) and the message broker ({@code messaging}). Each is called through a
+ * {@link DependencyGuard} configured under {@code degradation.<dependency>.*}, so a store
+ * outage no longer loses the event and a broker outage no longer fails a reading that was
+ * stored; what happens instead is the dependency's mode.
+ */
+@Service
+public class DegradationService {
+
+    @Autowired
+    private SensorDataStore sensorDataStore;
+
+    @Autowired
+    private MessageBus messageBus;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${degradation.storage.mode:buffer}")
+    private String storageMode;
+
+    @Value("${degradation.storage.overflow:fail}")
+    private String storageOverflow;
+
+    @Value("${degradation.storage.outbox-capacity:100000}")
+    private int storageOutboxCapacity;
+
+    @Value("${degradation.storage.drain-batch-size:1000}")
+    private int storageDrainBatchSize;
+
+    @Value("${degradation.storage.max-concurrent-calls:32}")
+    private int storageMaxConcurrentCalls;
+
+    @Value("${degradation.storage.slow-call-ms:2000}")
+    private long storageSlowCallMs;
+
+    @Value("${degradation.storage.failure-threshold:3}")
+    private int storageFailureThreshold;
+
+    @Value("${degradation.storage.retry-interval-ms:5000}")
+    private long storageRetryIntervalMs;
+
+    @Value("${degradation.messaging.mode:buffer}")
+    private String messagingMode;
+
+    @Value("${degradation.messaging.overflow:drop-oldest}")
+    private String messagingOverflow;
+
+    @Value("${degradation.messaging.outbox-capacity:50000}")
+    private int messagingOutboxCapacity;
+
+    @Value("${degradation.messaging.drain-batch-size:200}")
+    private int messagingDrainBatchSize;
+
+    @Value("${degradation.messaging.max-concurrent-calls:32}")
+    private int messagingMaxConcurrentCalls;
+
+    @Value("${degradation.messaging.slow-call-ms:1000}")
+    private long messagingSlowCallMs;
+
+    @Value("${degradation.messaging.failure-threshold:3}")
+    private int messagingFailureThreshold;
+
+    @Value("${degradation.messaging.retry-interval-ms:5000}")
+    private long messagingRetryIntervalMs;
+
+    private DependencyGuard<SensorData> storage;
+    private DependencyGuard<OutgoingMessage> messaging;
+
+    @PostConstruct
+    public void init() {
+        storage = new DependencyGuard<>("storage", mode(storageMode), overflow(storageOverflow),
+                storageOutboxCapacity, storageDrainBatchSize, storageMaxConcurrentCalls, storageSlowCallMs,
+                storageFailureThreshold, storageRetryIntervalMs, this::writeReadings, meterRegistry);
+        messaging = new DependencyGuard<>("messaging", mode(messagingMode), overflow(messagingOverflow),
+                messagingOutboxCapacity, messagingDrainBatchSize, messagingMaxConcurrentCalls, messagingSlowCallMs,
+                messagingFailureThreshold, messagingRetryIntervalMs, this::publishMessages, meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        storage.close();
+        messaging.close();
+    }
+
+    public void write(SensorData sensorData) {
+        storage.submit(sensorData);
+    }
+
+    public void write(List<SensorData> sensorDataList) {
+        storage.submit(sensorDataList);
+    }
+
+    public void publish(String exchange, String routingKey, Object event) {
+        messaging.submit(new OutgoingMessage(exchange, routingKey, event, null, null));
+    }
+
+    public void publish(String exchange, String routingKey, byte[] body, String contentType) {
+        messaging.submit(new OutgoingMessage(exchange, routingKey, null, body, contentType));
+    }
+
+    /** Publishes several events with one admission decision, e.g. the readings of a batch. */
+    public void publishAll(String exchange, String routingKey, List<?> events) {
+        messaging.submit(events.stream()
+                .map(event -> new OutgoingMessage(exchange, routingKey, event, null, null))
+                .toList());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("storage", storage.getStats());
+        stats.put("messaging", messaging.getStats());
+        return stats;
+    }
+
+    private static DependencyGuard.Mode mode(String value) {
+        return DependencyGuard.Mode.valueOf(enumName(value));
+    }
+
+    private static DependencyGuard.Overflow overflow(String value) {
+        return DependencyGuard.Overflow.valueOf(enumName(value));
+    }
+
+    // buffer, drop-oldest -> BUFFER, DROP_OLDEST
+    private static String enumName(String value) {
+        return value.trim().toUpperCase().replace('-', '_');
+    }
+
+    private void writeReadings(List<SensorData> sensorDataList) {
+        StoreWriteEvent event = new StoreWriteEvent();
+        event.begin();
+        if (sensorDataList.size() == 1) {
+            sensorDataStore.writeSensorData(sensorDataList.get(0));
+        } else {
+            sensorDataStore.writeSensorDataBatch(sensorDataList);
+        }
+        if (event.shouldCommit()) {
+            event.backend = sensorDataStore.getClass().getSimpleName();
+            event.payloadSize = sensorDataList.size();
+            event.commit();
+        }
+    }
+
+    private void publishMessages(List<OutgoingMessage> messages) {
+        for (OutgoingMessage message : messages) {
+            if (message.body != null) {
+                messageBus.publish(message.exchange, message.routingKey, message.body, message.contentType);
+            } else {
+                messageBus.publish(message.exchange, message.routingKey, message.event);
+            }
+        }
+    }
+
+    private static final class OutgoingMessage {
+        final String exchange;
+        final String routingKey;
+        final Object event;
+        final byte[] body;
+        final String contentType;
+
+        OutgoingMessage(String exchange, String routingKey, Object event, byte[] body, String contentType) {
+            this.exchange = exchange;
+            this.routingKey = routingKey;
+            this.event = event;
+            this.body = body;
+            this.contentType = contentType;
+        }
+    }
+}
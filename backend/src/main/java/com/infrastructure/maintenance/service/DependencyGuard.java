@@ -0,0 +1,335 @@
+package com.infrastructure.maintenance.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Calls one downstream dependency on behalf of ingest, and decides what happens to the items
+ * when it cannot take them. While healthy, items go straight to {@code sink} on the caller's
+ * thread, at most {@code maxConcurrentCalls} callers at a time. A dependency that fails or
+ * answers slower than {@code slowCallMillis} {@code failureThreshold} times in a row is marked
+ * degraded, and callers stop waiting on it. The mode then decides what happens to items:
+ * <ul>
+ *   <li>{@link Mode#BUFFER}: queued in a bounded outbox and delivered in order by a background
+ *   drainer, which also probes for recovery every {@code retryIntervalMillis}. Inline calls
+ *   resume once the outbox is empty. A full outbox applies the {@link Overflow} policy.</li>
+ *   <li>{@link Mode#DROP}: discarded and counted. One caller probes the dependency every
+ *   {@code retryIntervalMillis}.</li>
+ *   <li>{@link Mode#FAIL}: the caller gets the dependency's exception, or a
+ *   {@link RejectedExecutionException} without waiting while degraded; probed like DROP.</li>
+ * </ul>
+ * Callers over the concurrency limit are treated as if the dependency were degraded. Items
+ * may be delivered twice when a failed call had partly succeeded.
+ */
+public class DependencyGuard<T> implements AutoCloseable {
+
+    public enum Mode { BUFFER, DROP, FAIL }
+
+    public enum Overflow { DROP_OLDEST, DROP_NEWEST, FAIL }
+
+    private final String name;
+    private final Mode mode;
+    private final Overflow overflow;
+    private final int outboxCapacity;
+    private final int drainBatchSize;
+    private final long slowCallNanos;
+    private final int failureThreshold;
+    private final long retryIntervalMillis;
+    private final Consumer<List<T>> sink;
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+
+    private final ArrayDeque<T> outbox = new ArrayDeque<>();
+    // Outbox size, readable without its lock on the ingest path
+    private volatile int outboxSize;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private volatile boolean healthy = true;
+    private volatile long retryAt;
+    private volatile boolean running = true;
+    private final Thread drainer;
+
+    private final Counter callsOk;
+    private final Counter callsSlow;
+    private final Counter callsFailed;
+    private final Counter itemsBuffered;
+    private final Counter itemsDrained;
+    private final Counter itemsDroppedDegraded;
+    private final Counter itemsDroppedOverflow;
+    private final Counter itemsRejected;
+
+    public DependencyGuard(String name, Mode mode, Overflow overflow, int outboxCapacity, int drainBatchSize,
+                           int maxConcurrentCalls, long slowCallMillis, int failureThreshold,
+                           long retryIntervalMillis, Consumer<List<T>> sink, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.mode = mode;
+        this.overflow = overflow;
+        this.outboxCapacity = outboxCapacity;
+        this.drainBatchSize = drainBatchSize;
+        this.slowCallNanos = slowCallMillis * 1_000_000;
+        this.failureThreshold = failureThreshold;
+        this.retryIntervalMillis = retryIntervalMillis;
+        this.sink = sink;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(maxConcurrentCalls);
+
+        callsOk = Counter.builder("degradation.calls").tag("dependency", name).tag("outcome", "ok")
+                .register(meterRegistry);
+        callsSlow = Counter.builder("degradation.calls").tag("dependency", name).tag("outcome", "slow")
+                .register(meterRegistry);
+        callsFailed = Counter.builder("degradation.calls").tag("dependency", name).tag("outcome", "failed")
+                .register(meterRegistry);
+        itemsBuffered = Counter.builder("degradation.items").tag("dependency", name).tag("outcome", "buffered")
+                .register(meterRegistry);
+        itemsDrained = Counter.builder("degradation.items").tag("dependency", name).tag("outcome", "drained")
+                .register(meterRegistry);
+        itemsDroppedDegraded = Counter.builder("degradation.items").tag("dependency", name)
+                .tag("outcome", "dropped_degraded").register(meterRegistry);
+        itemsDroppedOverflow = Counter.builder("degradation.items").tag("dependency", name)
+                .tag("outcome", "dropped_overflow").register(meterRegistry);
+        itemsRejected = Counter.builder("degradation.items").tag("dependency", name).tag("outcome", "rejected")
+                .register(meterRegistry);
+        Gauge.builder("degradation.outbox.size", this, DependencyGuard::getOutboxSize).tag("dependency", name)
+                .register(meterRegistry);
+        Gauge.builder("degradation.healthy", this, guard -> guard.healthy ? 1 : 0).tag("dependency", name)
+                .register(meterRegistry);
+
+        if (mode == Mode.BUFFER) {
+            drainer = new Thread(this::drainLoop, name + "-outbox");
+            drainer.setDaemon(true);
+            drainer.start();
+        } else {
+            drainer = null;
+        }
+    }
+
+    public void submit(T item) {
+        submit(List.of(item));
+    }
+
+    public void submit(List<T> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        boolean inline;
+        boolean probe = false;
+        if (mode == Mode.BUFFER) {
+            // Once degraded the drainer probes, and new items queue behind the buffered ones
+            inline = healthy && getOutboxSize() == 0;
+        } else {
+            probe = !healthy && System.currentTimeMillis() >= retryAt && probing.compareAndSet(false, true);
+            inline = healthy || probe;
+        }
+        if (inline && permits.tryAcquire()) {
+            try {
+                RuntimeException failure = call(items);
+                if (failure == null) {
+                    return;
+                }
+                divert(items, failure);
+                return;
+            } finally {
+                permits.release();
+                if (probe) {
+                    probing.set(false);
+                }
+            }
+        }
+        if (probe) {
+            probing.set(false);
+        }
+        divert(items, null);
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public int getOutboxSize() {
+        return outboxSize;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", mode.name().toLowerCase());
+        stats.put("overflow", overflow.name().toLowerCase().replace('_', '-'));
+        stats.put("healthy", healthy);
+        stats.put("consecutiveFailures", consecutiveFailures.get());
+        stats.put("inFlightCalls", maxConcurrentCalls - permits.availablePermits());
+        stats.put("outboxSize", getOutboxSize());
+        stats.put("outboxCapacity", outboxCapacity);
+        stats.put("callsOk", (long) callsOk.count());
+        stats.put("callsSlow", (long) callsSlow.count());
+        stats.put("callsFailed", (long) callsFailed.count());
+        stats.put("itemsBuffered", (long) itemsBuffered.count());
+        stats.put("itemsDrained", (long) itemsDrained.count());
+        stats.put("itemsDroppedDegraded", (long) itemsDroppedDegraded.count());
+        stats.put("itemsDroppedOverflow", (long) itemsDroppedOverflow.count());
+        stats.put("itemsRejected", (long) itemsRejected.count());
+        return stats;
+    }
+
+    /** Stops the drainer after one last attempt to deliver the outbox. */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        if (drainer != null) {
+            drainer.interrupt();
+            drainer.join(10_000);
+        }
+    }
+
+    // Returns the failure, or null once the sink has taken the items
+    private RuntimeException call(List<T> items) {
+        long start = System.nanoTime();
+        try {
+            sink.accept(items);
+        } catch (RuntimeException e) {
+            callsFailed.increment();
+            recordFailure(e.getMessage());
+            return e;
+        }
+        if (System.nanoTime() - start > slowCallNanos) {
+            // Delivered, but further callers should not queue up behind it
+            callsSlow.increment();
+            recordFailure("call took " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } else {
+            callsOk.increment();
+            recordSuccess();
+        }
+        return null;
+    }
+
+    private void recordFailure(String reason) {
+        retryAt = System.currentTimeMillis() + retryIntervalMillis;
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold && healthy) {
+            healthy = false;
+            System.err.println("Dependency " + name + " degraded (" + mode.name().toLowerCase() + " mode): " + reason);
+        }
+    }
+
+    private void recordSuccess() {
+        consecutiveFailures.set(0);
+        if (!healthy) {
+            healthy = true;
+            System.err.println("Dependency " + name + " recovered");
+        }
+    }
+
+    private void divert(List<T> items, RuntimeException failure) {
+        switch (mode) {
+            case BUFFER:
+                enqueue(items);
+                break;
+            case DROP:
+                itemsDroppedDegraded.increment(items.size());
+                break;
+            default:
+                itemsRejected.increment(items.size());
+                throw failure != null ? failure
+                        : new RejectedExecutionException("Dependency " + name + " is unavailable");
+        }
+    }
+
+    private void enqueue(List<T> items) {
+        synchronized (outbox) {
+            // Requeued batches can briefly push the outbox past its capacity
+            int free = outboxCapacity - outbox.size();
+            int accepted = items.size();
+            if (items.size() > free) {
+                if (overflow == Overflow.FAIL) {
+                    itemsRejected.increment(items.size());
+                    throw new RejectedExecutionException("Outbox of " + name + " is full");
+                }
+                if (overflow == Overflow.DROP_OLDEST) {
+                    int evict = Math.min(items.size() - free, outbox.size());
+                    for (int i = 0; i < evict; i++) {
+                        outbox.pollFirst();
+                    }
+                    itemsDroppedOverflow.increment(evict);
+                }
+                accepted = Math.max(0, Math.min(items.size(), outboxCapacity - outbox.size()));
+                itemsDroppedOverflow.increment(items.size() - accepted);
+            }
+            // Oldest-first dropping also applies within a batch larger than the outbox
+            outbox.addAll(overflow == Overflow.DROP_OLDEST
+                    ? items.subList(items.size() - accepted, items.size()) : items.subList(0, accepted));
+            outboxSize = outbox.size();
+            itemsBuffered.increment(accepted);
+            outbox.notifyAll();
+        }
+    }
+
+    private void drainLoop() {
+        List<T> batch = new ArrayList<>(drainBatchSize);
+        while (running) {
+            try {
+                synchronized (outbox) {
+                    while (outbox.isEmpty()) {
+                        outbox.wait();
+                    }
+                }
+                synchronized (outbox) {
+                    for (int i = 0; i < drainBatchSize && !outbox.isEmpty(); i++) {
+                        batch.add(outbox.pollFirst());
+                    }
+                    outboxSize = outbox.size();
+                }
+                // A slow dependency is drained at its own pace; only failures back off
+                if (call(batch) == null) {
+                    itemsDrained.increment(batch.size());
+                } else {
+                    requeue(batch);
+                    // Cleared before backing off, or an interrupted sleep would requeue it twice
+                    batch.clear();
+                    Thread.sleep(retryIntervalMillis);
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                requeue(batch);
+                batch.clear();
+                break;
+            }
+        }
+        finalDrain();
+    }
+
+    // Failed batches go back to the front, ahead of newer items
+    private void requeue(List<T> batch) {
+        synchronized (outbox) {
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                outbox.addFirst(batch.get(i));
+            }
+            outboxSize = outbox.size();
+        }
+    }
+
+    private void finalDrain() {
+        List<T> remaining;
+        synchronized (outbox) {
+            remaining = new ArrayList<>(outbox);
+            outbox.clear();
+            outboxSize = 0;
+        }
+        if (remaining.isEmpty()) {
+            return;
+        }
+        if (call(remaining) == null) {
+            itemsDrained.increment(remaining.size());
+        } else {
+            System.err.println("Dependency " + name + ": " + remaining.size() + " buffered items lost on shutdown");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.infrastructure.maintenance.service;
+
+import com.infrastructure.maintenance.model.InfrastructureAsset;
+import com.infrastructure.maintenance.model.MaintenancePrediction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fixed-coefficient logistic scorer for running the backend without the ML engine or a model
+ * file, e.g. in throughput tests. Uses the forest model's feature vector: the further sensor
+ * means sit from their nominal values and the older and longer unmaintained the asset, the
+ * higher the failure probability. The same inputs always give the same prediction, and
+ * scoring completes on the calling thread. Enabled with {@code ml.engine.mode=deterministic}.
+ */
+@Service
+@Order(2)
+public class DeterministicInferenceEngine implements InferenceEngine {
+
+    private static final String MODEL_VERSION = "deterministic-1";
+    private static final double INTERCEPT = -3.0;
+    private static final double SENSOR_DEVIATION_WEIGHT = 12.0;
+    private static final double AGE_MONTH_WEIGHT = 0.015;
+    private static final double UNMAINTAINED_MONTH_WEIGHT = 0.01;
+
+    @Value("${ml.engine.mode:remote}")
+    private String mode;
+
+    @Override
+    public boolean isEnabled() {
+        return "deterministic".equalsIgnoreCase(mode);
+    }
+
+    @Override
+    public CompletableFuture<MaintenancePrediction> predict(InfrastructureAsset asset, Map<String, double[]> sensorFeatures) {
+        return CompletableFuture.completedFuture(Predictions.fromProbability(asset,
+                score(LocalInferenceService.buildFeatures(asset, sensorFeatures)),
+                MODEL_VERSION, "Logistic (deterministic)"));
+    }
+
+    private static double score(double[] features) {
+        int sensors = LocalInferenceService.SENSOR_DEFAULTS.length;
+        double z = INTERCEPT;
+        for (int i = 0; i < sensors; i++) {
+            double range = LocalInferenceService.SENSOR_MAX[i] - LocalInferenceService.SENSOR_MIN[i];
+            z += SENSOR_DEVIATION_WEIGHT * Math.abs(features[i] - LocalInferenceService.SENSOR_DEFAULTS[i]) / range;
+        }
+        z += AGE_MONTH_WEIGHT * features[sensors] + UNMAINTAINED_MONTH_WEIGHT * features[sensors + 1];
+        return 1.0 / (1.0 + Math.exp(-z));
+    }
+}
@@ -0,0 +1,322 @@
+package com.infrastructure.maintenance.service;
+
+import com.infrastructure.maintenance.dto.SensorSeries;
+import com.infrastructure.maintenance.model.SensorData;
+import com.infrastructure.maintenance.storage.BitOutput;
+import com.infrastructure.maintenance.storage.GorillaCodec;
+import com.infrastructure.maintenance.storage.SegmentLog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded, persistent time-series store for single-node deployments without InfluxDB.
+ * Recent points of each series collect in a small uncompressed head; once it holds
+ * {@code storage.embedded.chunk-points} points or its oldest point is
+ * {@code storage.embedded.max-head-age} old, it is sealed into a Gorilla-compressed chunk and
+ * appended to memory-mapped segment files under {@code storage.embedded.directory}. Range reads
+ * decode only the chunks overlapping the range, straight from the mapping. Segments whose
+ * chunks are all older than {@code storage.embedded.retention} are deleted. Heads are sealed on
+ * shutdown; after a crash, points still in a head are lost. Only the value field is kept and
+ * there are no rollup tiers. Enabled with {@code storage.backend=embedded}.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.backend", havingValue = "embedded")
+public class EmbeddedSensorDataStore extends SeriesSensorDataStore<EmbeddedSensorDataStore.Series> {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${storage.embedded.directory:data/timeseries}")
+    private String directory;
+
+    @Value("${storage.embedded.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${storage.embedded.chunk-points:1024}")
+    private int chunkPoints;
+
+    @Value("${storage.embedded.max-head-age:15m}")
+    private String maxHeadAge;
+
+    @Value("${storage.embedded.retention:7d}")
+    private String retention;
+
+    // asset id -> (sensor type + NUL + sensor id) -> series
+    private final Map<String, Map<String, Series>> assets = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSeriesId = new AtomicInteger();
+    private final LongAdder headPoints = new LongAdder();
+    private final LongAdder sealedPoints = new LongAdder();
+
+    private SegmentLog log;
+    private Duration maxHeadAgePeriod;
+    private Duration retentionPeriod;
+
+    @PostConstruct
+    public void init() throws IOException {
+        maxHeadAgePeriod = FluxDurations.parse(maxHeadAge);
+        retentionPeriod = FluxDurations.parse(retention);
+
+        Map<Integer, Series> byId = new ConcurrentHashMap<>();
+        log = new SegmentLog(Path.of(directory), segmentSizeMb * 1024 * 1024);
+        log.open(new SegmentLog.Visitor() {
+            @Override
+            public void series(int id, String assetId, String sensorType, String sensorId, String unit) {
+                Series series = new Series(id, assetId, sensorType, sensorId, unit);
+                assets.computeIfAbsent(assetId, a -> new ConcurrentHashMap<>()).put(sensorType + '\0' + sensorId, series);
+                byId.put(id, series);
+                nextSeriesId.accumulateAndGet(id + 1, Math::max);
+            }
+
+            @Override
+            public void chunk(SegmentLog.Chunk chunk) {
+                byId.get(chunk.getSeriesId()).chunks.add(chunk);
+                sealedPoints.add(chunk.getCount());
+            }
+        });
+
+        Gauge.builder("storage.embedded.series", nextSeriesId, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("storage.embedded.points", this, s -> s.sealedPoints.sum() + s.headPoints.sum())
+                .register(meterRegistry);
+        Gauge.builder("storage.embedded.head.points", headPoints, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("storage.embedded.bytes", log, SegmentLog::getBytesWritten).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        for (Map<String, Series> assetSeries : assets.values()) {
+            for (Series series : assetSeries.values()) {
+                series.seal();
+            }
+        }
+        log.close();
+    }
+
+    @Override
+    public void writeSensorData(SensorData sensorData) {
+        if (sensorData.getValue() == null) {
+            return;
+        }
+        String assetId = sensorData.getAsset().getAssetId();
+        Series series = assets.computeIfAbsent(assetId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(sensorData.getSensorType() + '\0' + sensorData.getSensorId(), key -> {
+                    Series created = new Series(nextSeriesId.getAndIncrement(), assetId,
+                            sensorData.getSensorType(), sensorData.getSensorId(), sensorData.getUnit());
+                    log.appendSeries(created.id, assetId, created.sensorType, created.sensorId, created.unit);
+                    return created;
+                });
+        series.put(epochMillis(sensorData), sensorData.getValue());
+    }
+
+    @Override
+    protected Collection<Series> seriesOf(String assetId) {
+        Map<String, Series> assetSeries = assets.get(assetId);
+        return assetSeries != null ? assetSeries.values() : List.of();
+    }
+
+    @Override
+    protected SensorSeries read(Series series, long from, long to) {
+        return series.read(from, to);
+    }
+
+    @Override
+    protected Collection<String> assetIds() {
+        return assets.keySet();
+    }
+
+    /** Seals heads that have waited too long, drops expired segments and flushes the mapping. */
+    @Scheduled(fixedDelayString = "${storage.embedded.maintenance-interval-ms:60000}")
+    public void maintain() throws IOException {
+        long headCutoff = System.currentTimeMillis() - maxHeadAgePeriod.toMillis();
+        for (Map<String, Series> assetSeries : assets.values()) {
+            for (Series series : assetSeries.values()) {
+                series.sealIfOlderThan(headCutoff);
+            }
+        }
+
+        Set<SegmentLog.Segment> deleted = new HashSet<>(
+                log.deleteSegmentsBefore(Instant.now().minus(retentionPeriod).toEpochMilli()));
+        if (!deleted.isEmpty()) {
+            for (Map<String, Series> assetSeries : assets.values()) {
+                for (Series series : assetSeries.values()) {
+                    series.dropChunks(deleted);
+                }
+            }
+        }
+        log.force();
+    }
+
+    /**
+     * One series: sealed chunks in append order, plus the head of recent points ordered by
+     * time with at most one point per timestamp.
+     */
+    final class Series extends SeriesInfo {
+
+        final int id;
+        private final List<SegmentLog.Chunk> chunks = new ArrayList<>();
+        private long[] headTimes = new long[16];
+        private double[] headValues = new double[16];
+        private int headLength;
+        private long headOpenedAt;
+
+        Series(int id, String assetId, String sensorType, String sensorId, String unit) {
+            super(assetId, sensorType, sensorId, unit);
+            this.id = id;
+        }
+
+        synchronized void put(long time, double value) {
+            int index = headLength;
+            if (headLength > 0 && time <= headTimes[headLength - 1]) {
+                index = Arrays.binarySearch(headTimes, 0, headLength, time);
+                if (index >= 0) {
+                    headValues[index] = value;
+                    return;
+                }
+                index = -index - 1;
+            }
+            if (headLength == headTimes.length) {
+                headTimes = Arrays.copyOf(headTimes, headLength * 2);
+                headValues = Arrays.copyOf(headValues, headLength * 2);
+            }
+            System.arraycopy(headTimes, index, headTimes, index + 1, headLength - index);
+            System.arraycopy(headValues, index, headValues, index + 1, headLength - index);
+            headTimes[index] = time;
+            headValues[index] = value;
+            if (headLength++ == 0) {
+                headOpenedAt = System.currentTimeMillis();
+            }
+            headPoints.increment();
+            if (headLength >= chunkPoints) {
+                seal();
+            }
+        }
+
+        synchronized void sealIfOlderThan(long cutoff) {
+            if (headLength > 0 && headOpenedAt < cutoff) {
+                seal();
+            }
+        }
+
+        synchronized void seal() {
+            if (headLength == 0) {
+                return;
+            }
+            BitOutput out = new BitOutput(headLength * 4);
+            GorillaCodec.encode(headTimes, headValues, 0, headLength, out);
+            chunks.add(log.appendChunk(id, headTimes[0], headTimes[headLength - 1], headLength, out.toByteArray()));
+            headPoints.add(-headLength);
+            sealedPoints.add(headLength);
+            headLength = 0;
+            headTimes = new long[16];
+            headValues = new double[16];
+        }
+
+        synchronized void dropChunks(Set<SegmentLog.Segment> deleted) {
+            chunks.removeIf(chunk -> {
+                if (deleted.contains(chunk.getSegment())) {
+                    sealedPoints.add(-chunk.getCount());
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        /**
+         * Points in [from, to). Chunks and head are normally disjoint and in time order; a late
+         * point can overlap an earlier chunk, and then the newer source wins on equal timestamps.
+         */
+        SensorSeries read(long from, long to) {
+            List<SegmentLog.Chunk> overlapping = new ArrayList<>();
+            SensorSeries head;
+            synchronized (this) {
+                for (SegmentLog.Chunk chunk : chunks) {
+                    if (chunk.getMaxTime() >= from && chunk.getMinTime() < to) {
+                        overlapping.add(chunk);
+                    }
+                }
+                int first = lowerBound(headTimes, headLength, from);
+                int count = Math.max(0, lowerBound(headTimes, headLength, to) - first);
+                head = new SensorSeries(Arrays.copyOfRange(headTimes, first, first + count),
+                        Arrays.copyOfRange(headValues, first, first + count), count);
+            }
+
+            SensorSeries result = null;
+            for (SegmentLog.Chunk chunk : overlapping) {
+                long[] times = new long[chunk.getCount()];
+                double[] values = new double[chunk.getCount()];
+                chunk.decode(times, values);
+                int first = lowerBound(times, times.length, from);
+                int count = Math.max(0, lowerBound(times, times.length, to) - first);
+                SensorSeries slice = first == 0 && count == times.length ? new SensorSeries(times, values, count)
+                        : new SensorSeries(Arrays.copyOfRange(times, first, first + count),
+                                Arrays.copyOfRange(values, first, first + count), count);
+                result = result == null ? slice : mergeNewer(result, slice);
+            }
+            return result == null ? head : mergeNewer(result, head);
+        }
+    }
+
+    private static int lowerBound(long[] times, int length, long time) {
+        int index = Arrays.binarySearch(times, 0, length, time);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /** Merges two time-ordered series; on equal timestamps the point of {@code newer} wins. */
+    private static SensorSeries mergeNewer(SensorSeries older, SensorSeries newer) {
+        if (newer.getLength() == 0) {
+            return older;
+        }
+        if (older.getLength() == 0) {
+            return newer;
+        }
+        long[] a = older.getTimes();
+        long[] b = newer.getTimes();
+        if (a[older.getLength() - 1] < b[0]) {
+            long[] times = Arrays.copyOf(a, older.getLength() + newer.getLength());
+            double[] values = Arrays.copyOf(older.getValues(), times.length);
+            System.arraycopy(b, 0, times, older.getLength(), newer.getLength());
+            System.arraycopy(newer.getValues(), 0, values, older.getLength(), newer.getLength());
+            return new SensorSeries(times, values, times.length);
+        }
+
+        long[] times = new long[older.getLength() + newer.getLength()];
+        double[] values = new double[times.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < older.getLength() || j < newer.getLength()) {
+            if (j == newer.getLength() || (i < older.getLength() && a[i] < b[j])) {
+                times[n] = a[i];
+                values[n++] = older.getValues()[i++];
+            } else {
+                if (i < older.getLength() && a[i] == b[j]) {
+                    i++;
+                }
+                times[n] = b[j];
+                values[n++] = newer.getValues()[j++];
+            }
+        }
+        return new SensorSeries(times, values, n);
+    }
+}
@@ -3,30 +3,74 @@ package com.infrastructure.maintenance.service;
 import com.infrastructure.maintenance.config.RabbitMQConfig;
 import com.infrastructure.maintenance.model.SensorData;
 import com.infrastructure.maintenance.model.MaintenancePrediction;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import com.infrastructure.maintenance.storage.ReadingBlock;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 public class EventPublisher {
 
     @Autowired
-    private RabbitTemplate rabbitTemplate;
+    private DegradationService degradationService;
+
+    // json: one sensor.data.received event per reading; block: one ReadingBlock per batch
+    @Value("${messaging.sensor-data.batch-format:json}")
+    private String batchFormat;
 
     public void publishSensorDataReceived(SensorData sensorData) {
-        SensorDataEvent event = new SensorDataEvent(
+        degradationService.publish(
+                RabbitMQConfig.SENSOR_DATA_EXCHANGE,
+                RabbitMQConfig.SENSOR_DATA_ROUTING_KEY,
+                toSensorDataEvent(sensorData)
+        );
+    }
+
+    /**
+     * Publishes a batch of readings, either as one event per reading or, with
+     * {@code messaging.sensor-data.batch-format=block}, as a single {@link ReadingBlock} on
+     * {@code sensor.data.batch}.
+     */
+    public void publishSensorDataBatch(List<SensorData> sensorDataList) {
+        if (!"block".equals(batchFormat)) {
+            List<SensorDataEvent> events = new ArrayList<>(sensorDataList.size());
+            for (SensorData sensorData : sensorDataList) {
+                events.add(toSensorDataEvent(sensorData));
+            }
+            degradationService.publishAll(RabbitMQConfig.SENSOR_DATA_EXCHANGE, RabbitMQConfig.SENSOR_DATA_ROUTING_KEY,
+                    events);
+            return;
+        }
+        if (sensorDataList.isEmpty()) {
+            return;
+        }
+        ReadingBlock.Writer block = new ReadingBlock.Writer();
+        for (SensorData sensorData : sensorDataList) {
+            block.add(sensorData.getAsset().getAssetId(), sensorData.getSensorId(), sensorData.getSensorType(),
+                    sensorData.getUnit(), sensorData.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli(),
+                    sensorData.getValue());
+        }
+        degradationService.publish(
+                RabbitMQConfig.SENSOR_DATA_EXCHANGE,
+                RabbitMQConfig.SENSOR_DATA_BATCH_ROUTING_KEY,
+                block.toByteArray(),
+                ReadingBlock.CONTENT_TYPE
+        );
+    }
+
+    /** The message body for a received reading; shared with the reactive publisher. */
+    public static SensorDataEvent toSensorDataEvent(SensorData sensorData) {
+        return new SensorDataEvent(
                 sensorData.getSensorId(),
                 sensorData.getSensorType(),
                 sensorData.getValue(),
                 sensorData.getTimestamp().toString(),
                 sensorData.getAsset().getAssetId()
         );
-
-        rabbitTemplate.convertAndSend(
-                RabbitMQConfig.SENSOR_DATA_EXCHANGE,
-                RabbitMQConfig.SENSOR_DATA_ROUTING_KEY,
-                event
-        );
     }
 
     public void publishMaintenancePrediction(MaintenancePrediction prediction) {
@@ -38,7 +82,7 @@ public class EventPublisher {
                 prediction.getRecommendedAction()
         );
 
-        rabbitTemplate.convertAndSend(
+        degradationService.publish(
                 RabbitMQConfig.MAINTENANCE_ALERT_EXCHANGE,
                 RabbitMQConfig.MAINTENANCE_PREDICTION_ROUTING_KEY,
                 event
@@ -46,9 +90,11 @@ public class EventPublisher {
     }
 
     public void publishAlert(String assetId, String alertType, String message, String severity) {
-        AlertEvent event = new AlertEvent(assetId, alertType, message, severity);
+        publishAlert(new AlertEvent(assetId, alertType, message, severity));
+    }
 
-        rabbitTemplate.convertAndSend(
+    public void publishAlert(AlertEvent event) {
+        degradationService.publish(
                 RabbitMQConfig.MAINTENANCE_ALERT_EXCHANGE,
                 RabbitMQConfig.ALERT_ROUTING_KEY,
                 event
@@ -122,6 +168,11 @@ public class EventPublisher {
         private String alertType;
         private String message;
         private String severity;
+        // Set by AlertAggregator for deduplicated sensor alerts
+        private String sensorId;
+        private Integer occurrences;
+        private String firstSeen;
+        private String lastSeen;
 
         public AlertEvent() {}
 
@@ -141,5 +192,13 @@ public class EventPublisher {
         public void setMessage(String message) { this.message = message; }
         public String getSeverity() { return severity; }
         public void setSeverity(String severity) { this.severity = severity; }
+        public String getSensorId() { return sensorId; }
+        public void setSensorId(String sensorId) { this.sensorId = sensorId; }
+        public Integer getOccurrences() { return occurrences; }
+        public void setOccurrences(Integer occurrences) { this.occurrences = occurrences; }
+        public String getFirstSeen() { return firstSeen; }
+        public void setFirstSeen(String firstSeen) { this.firstSeen = firstSeen; }
+        public String getLastSeen() { return lastSeen; }
+        public void setLastSeen(String lastSeen) { this.lastSeen = lastSeen; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+package com.infrastructure.maintenance.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Minimal FlatBuffers encoder, enough for the Arrow IPC metadata written by
+ * {@link SensorExportWriter}. Objects are laid out front to back: a table's vtable, then the
+ * table, then the strings, vectors and tables it references, so every offset points forward
+ * as the format requires. Scalars are aligned to their size and tables to 8 bytes.
+ */
+final class FlatBufferEncoder {
+
+    private byte[] buffer = new byte[512];
+    private int position;
+
+    /** Encodes {@code root} and returns the buffer padded to a multiple of 8 bytes. */
+    static byte[] encode(Table root) {
+        FlatBufferEncoder encoder = new FlatBufferEncoder();
+        encoder.position = 4;
+        int rootPosition = encoder.writeTable(root);
+        encoder.putInt(0, rootPosition);
+        encoder.align(8);
+        return Arrays.copyOf(encoder.buffer, encoder.position);
+    }
+
+    /**
+     * A table under construction. Fields are identified by their id in the schema; a union takes
+     * two ids, its type as a ubyte followed by the value as a table reference.
+     */
+    static final class Table {
+        private final List<Field> fields = new ArrayList<>();
+
+        Table addByte(int id, int value) {
+            return add(id, 1, value, null);
+        }
+
+        Table addBoolean(int id, boolean value) {
+            return add(id, 1, value ? 1 : 0, null);
+        }
+
+        Table addShort(int id, int value) {
+            return add(id, 2, value, null);
+        }
+
+        Table addInt(int id, int value) {
+            return add(id, 4, value, null);
+        }
+
+        Table addLong(int id, long value) {
+            return add(id, 8, value, null);
+        }
+
+        Table addString(int id, String value) {
+            return add(id, 4, 0, value);
+        }
+
+        Table addTable(int id, Table value) {
+            return add(id, 4, 0, value);
+        }
+
+        Table addTables(int id, Table... values) {
+            return add(id, 4, 0, values);
+        }
+
+        /** Vector of structs made of two longs each, given as consecutive pairs. */
+        Table addLongPairs(int id, long[] pairs) {
+            return add(id, 4, 0, pairs);
+        }
+
+        private Table add(int id, int size, long value, Object reference) {
+            fields.add(new Field(id, size, value, reference));
+            return this;
+        }
+    }
+
+    private static final class Field {
+        private final int id;
+        private final int size;
+        private final long value;
+        private final Object reference;
+        private int offset;
+
+        private Field(int id, int size, long value, Object reference) {
+            this.id = id;
+            this.size = size;
+            this.value = value;
+            this.reference = reference;
+        }
+    }
+
+    private int writeTable(Table table) {
+        List<Field> fields = new ArrayList<>(table.fields);
+        // Widest first keeps the inline part free of padding
+        fields.sort((a, b) -> Integer.compare(b.size, a.size));
+        int maxId = -1;
+        int inlineSize = 4;
+        for (Field field : fields) {
+            maxId = Math.max(maxId, field.id);
+            inlineSize = alignUp(inlineSize, field.size);
+            field.offset = inlineSize;
+            inlineSize += field.size;
+        }
+
+        align(2);
+        int vtable = position;
+        putShort(position, 4 + 2 * (maxId + 1));
+        putShort(position + 2, inlineSize);
+        for (Field field : fields) {
+            putShort(position + 4 + 2 * field.id, field.offset);
+        }
+        position += 4 + 2 * (maxId + 1);
+
+        align(8);
+        int start = position;
+        ensureCapacity(start + inlineSize);
+        position = start + inlineSize;
+        putInt(start, start - vtable);
+        for (Field field : fields) {
+            if (field.reference == null) {
+                putScalar(start + field.offset, field.size, field.value);
+            }
+        }
+        for (Field field : fields) {
+            if (field.reference != null) {
+                int target = writeReference(field.reference);
+                putInt(start + field.offset, target - (start + field.offset));
+            }
+        }
+        return start;
+    }
+
+    private int writeReference(Object reference) {
+        if (reference instanceof Table) {
+            return writeTable((Table) reference);
+        }
+        if (reference instanceof String) {
+            byte[] bytes = ((String) reference).getBytes(StandardCharsets.UTF_8);
+            align(4);
+            int start = position;
+            ensureCapacity(start + 4 + bytes.length + 1);
+            putInt(start, bytes.length);
+            System.arraycopy(bytes, 0, buffer, start + 4, bytes.length);
+            buffer[start + 4 + bytes.length] = 0;
+            position = start + 4 + bytes.length + 1;
+            return start;
+        }
+        if (reference instanceof Table[]) {
+            Table[] tables = (Table[]) reference;
+            align(4);
+            int start = position;
+            ensureCapacity(start + 4 + 4 * tables.length);
+            putInt(start, tables.length);
+            position = start + 4 + 4 * tables.length;
+            for (int i = 0; i < tables.length; i++) {
+                int slot = start + 4 + 4 * i;
+                putInt(slot, writeTable(tables[i]) - slot);
+            }
+            return start;
+        }
+        long[] pairs = (long[]) reference;
+        // The length prefix sits right before the 8-byte aligned elements
+        while ((position + 4) % 8 != 0) {
+            ensureCapacity(position + 1);
+            buffer[position++] = 0;
+        }
+        int start = position;
+        ensureCapacity(start + 4 + 8 * pairs.length);
+        putInt(start, pairs.length / 2);
+        for (int i = 0; i < pairs.length; i++) {
+            putScalar(start + 4 + 8 * i, 8, pairs[i]);
+        }
+        position = start + 4 + 8 * pairs.length;
+        return start;
+    }
+
+    private void align(int alignment) {
+        int aligned = alignUp(position, alignment);
+        ensureCapacity(aligned);
+        Arrays.fill(buffer, position, aligned, (byte) 0);
+        position = aligned;
+    }
+
+    private static int alignUp(int value, int alignment) {
+        return (value + alignment - 1) / alignment * alignment;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(size, buffer.length * 2));
+        }
+    }
+
+    private void putShort(int at, int value) {
+        putScalar(at, 2, value);
+    }
+
+    private void putInt(int at, int value) {
+        putScalar(at, 4, value);
+    }
+
+    // FlatBuffers are little-endian
+    private void putScalar(int at, int size, long value) {
+        ensureCapacity(at + size);
+        for (int i = 0; i < size; i++) {
+            buffer[at + i] = (byte) (value >>> (8 * i));
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.infrastructure.maintenance.service;
+
+import com.infrastructure.maintenance.model.MaintenancePrediction;
+import com.infrastructure.maintenance.repository.LatestAssetPredictionRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rule-based risk sweep over the whole fleet, for when the ML engine is unavailable.
+ * Assets are loaded into primitive columns, scored in parallel with fork/join and written
+ * back with batched JDBC inserts. A running sweep can be cancelled at any point.
+ */
+@Service
+public class FleetRiskSweepService {
+
+    static final String ALGORITHM = "FLEET_SWEEP";
+
+    private static final MaintenancePrediction.RiskLevel[] LEVELS = MaintenancePrediction.RiskLevel.values();
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final byte NOT_SCORED = -1;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${fleet-sweep.parallelism:0}")
+    private int parallelism;
+
+    @Value("${fleet-sweep.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${fleet-sweep.anomaly-escalation-threshold:3}")
+    private int anomalyEscalationThreshold;
+
+    // Anomalies seen per asset (primary key) since the previous sweep
+    private final Map<Long, AtomicInteger> recentAnomalies = new ConcurrentHashMap<>();
+
+    private final AtomicReference<SweepStatus> current = new AtomicReference<>();
+    private volatile ForkJoinPool pool;
+
+    public void recordAnomaly(Long assetPk) {
+        recordAnomalies(assetPk, 1);
+    }
+
+    public void recordAnomalies(Long assetPk, int count) {
+        if (assetPk != null && count > 0) {
+            recentAnomalies.computeIfAbsent(assetPk, k -> new AtomicInteger()).addAndGet(count);
+        }
+    }
+
+    /**
+     * Starts a sweep in the background. Returns the running sweep's status unchanged if one
+     * is already in progress.
+     */
+    public synchronized SweepStatus start() {
+        SweepStatus running = current.get();
+        if (running != null && running.state == SweepState.RUNNING) {
+            return running;
+        }
+        SweepStatus status = new SweepStatus();
+        current.set(status);
+        Thread worker = new Thread(() -> run(status), "fleet-risk-sweep");
+        worker.setDaemon(true);
+        worker.start();
+        return status;
+    }
+
+    public SweepStatus cancel() {
+        SweepStatus status = current.get();
+        if (status != null) {
+            status.cancelled.set(true);
+            // Interrupts a load that is blocked in the driver, not just the next row callback
+            Statement statement = status.statement;
+            if (statement != null) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    // Already finished or closed
+                }
+            }
+        }
+        return status;
+    }
+
+    public SweepStatus getStatus() {
+        return current.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cancel();
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private void run(SweepStatus status) {
+        try {
+            AssetColumns columns;
+            try {
+                columns = loadColumns(status);
+            } finally {
+                status.statement = null;
+            }
+            status.assetsLoaded = columns.size;
+            if (status.cancelled.get()) {
+                status.finish(SweepState.CANCELLED);
+                return;
+            }
+
+            byte[] risk = new byte[columns.size];
+            LocalDate today = LocalDate.now();
+            ForkJoinPool forkJoinPool = getPool();
+            forkJoinPool.invoke(new ScoreTask(columns, risk, 0, columns.size, packDate(today), status.cancelled));
+            if (status.cancelled.get()) {
+                status.finish(SweepState.CANCELLED);
+                return;
+            }
+            for (byte level : risk) {
+                if (level != NOT_SCORED) {
+                    status.scoredByLevel[level]++;
+                    status.assetsScored++;
+                }
+            }
+
+            writePredictions(columns, risk, status);
+            status.finish(status.cancelled.get() ? SweepState.CANCELLED : SweepState.COMPLETED);
+        } catch (Exception e) {
+            if (status.cancelled.get()) {
+                // The load stops by throwing or by the cancelled statement failing
+                status.finish(SweepState.CANCELLED);
+                return;
+            }
+            status.error = e.getMessage();
+            status.finish(SweepState.FAILED);
+            System.err.println("Fleet risk sweep failed: " + e.getMessage());
+        }
+    }
+
+    private AssetColumns loadColumns(SweepStatus status) {
+        AssetColumns columns = new AssetColumns(1024);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "SELECT id, installation_date, last_maintenance FROM infrastructure_assets ORDER BY id");
+            ps.setFetchSize(10_000);
+            status.statement = ps;
+            return ps;
+        }, rs -> {
+            if (status.cancelled.get()) {
+                throw new SweepCancelledException();
+            }
+            long id = rs.getLong(1);
+            Timestamp installed = rs.getTimestamp(2);
+            Timestamp maintained = rs.getTimestamp(3);
+            AtomicInteger anomalies = recentAnomalies.get(id);
+            columns.add(id,
+                    installed != null ? packDate(installed.toLocalDateTime().toLocalDate()) : NO_DATE,
+                    maintained != null ? packDate(maintained.toLocalDateTime().toLocalDate()) : NO_DATE,
+                    anomalies != null ? anomalies.get() : 0);
+        });
+        return columns;
+    }
+
+    private void writePredictions(AssetColumns columns, byte[] risk, SweepStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp sweepTime = Timestamp.valueOf(now);
+        Long maxIdBefore = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM maintenance_predictions", Long.class);
+
+        Timestamp[] failureDates = new Timestamp[LEVELS.length];
+        String[] actions = new String[LEVELS.length];
+        for (MaintenancePrediction.RiskLevel level : LEVELS) {
+            failureDates[level.ordinal()] = Timestamp.valueOf(now.plusMonths(Predictions.ageRuleMonthsToFailure(level)));
+            actions[level.ordinal()] = Predictions.recommendedAction(level);
+        }
+
+        String sql = "INSERT INTO maintenance_predictions (asset_id, prediction_date, predicted_failure_date, " +
+                "confidence_score, risk_level, recommended_action, model_version, prediction_algorithm) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        int[] batch = new int[batchSize];
+        int pending = 0;
+        for (int i = 0; i <= columns.size; i++) {
+            if (i < columns.size && risk[i] != NOT_SCORED) {
+                batch[pending++] = i;
+            }
+            if (pending == batchSize || (i == columns.size && pending > 0)) {
+                if (status.cancelled.get()) {
+                    break;
+                }
+                final int count = pending;
+                jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int j) throws SQLException {
+                        int row = batch[j];
+                        int level = risk[row];
+                        ps.setLong(1, columns.ids[row]);
+                        ps.setTimestamp(2, sweepTime);
+                        ps.setTimestamp(3, failureDates[level]);
+                        ps.setDouble(4, Predictions.ageRuleConfidence(LEVELS[level]));
+                        ps.setString(5, LEVELS[level].name());
+                        ps.setString(6, actions[level]);
+                        ps.setString(7, "1.0");
+                        ps.setString(8, ALGORITHM);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return count;
+                    }
+                });
+                status.predictionsWritten += count;
+                consumeAnomalies(columns, batch, count);
+                pending = 0;
+            }
+        }
+
+        // Only one sweep runs at a time, so sweep rows above the starting id are this sweep's.
+        // Assets without a latest row are locked first, as PredictionEngineService does, so a
+        // concurrent first prediction is merged after this one rather than colliding with it.
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            jdbcTemplate.query("SELECT a.id FROM infrastructure_assets a WHERE NOT EXISTS " +
+                    "(SELECT 1 FROM latest_asset_predictions l WHERE l.asset_ref = a.id) FOR UPDATE", rs -> {});
+            jdbcTemplate.update(LatestAssetPredictionRepository.MERGE_FROM_HISTORY +
+                    "WHERE p.id > ? AND p.prediction_algorithm = ?" + LatestAssetPredictionRepository.MERGE_ON_ASSET,
+                    maxIdBefore, ALGORITHM);
+        });
+    }
+
+    // Anomalies are only taken off the counters once they are reflected in a written prediction;
+    // the ones recorded while the sweep ran are kept for the next sweep
+    private void consumeAnomalies(AssetColumns columns, int[] batch, int count) {
+        for (int j = 0; j < count; j++) {
+            int row = batch[j];
+            if (columns.anomalies[row] > 0) {
+                AtomicInteger anomalies = recentAnomalies.get(columns.ids[row]);
+                if (anomalies != null) {
+                    anomalies.addAndGet(-columns.anomalies[row]);
+                }
+            }
+        }
+    }
+
+    private ForkJoinPool getPool() {
+        if (pool == null) {
+            synchronized (this) {
+                if (pool == null) {
+                    int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+                    pool = new ForkJoinPool(threads);
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Same age rule as Predictions.fromAssetAge (over 60 months HIGH, over 36 MEDIUM,
+     * otherwise LOW), escalated one level when maintenance is more than 36 months overdue, one
+     * when recent anomalies reach the threshold and another at ten times the threshold.
+     */
+    byte score(int installed, int maintained, int anomalies, int today) {
+        if (installed == NO_DATE) {
+            return NOT_SCORED;
+        }
+        int months = monthsBetween(installed, today);
+        int level = months > 60 ? 2 : months > 36 ? 1 : 0;
+        if (monthsBetween(maintained != NO_DATE ? maintained : installed, today) > 36) {
+            level++;
+        }
+        if (anomalies >= anomalyEscalationThreshold) {
+            level++;
+        }
+        if (anomalies >= anomalyEscalationThreshold * 10) {
+            level++;
+        }
+        return (byte) Math.min(level, LEVELS.length - 1);
+    }
+
+    // Dates are packed as prolepticMonth * 32 + dayOfMonth so month arithmetic stays in ints
+    static int packDate(LocalDate date) {
+        return (int) (date.getYear() * 12L + date.getMonthValue() - 1) * 32 + date.getDayOfMonth();
+    }
+
+    // Whole months between two packed dates, matching ChronoUnit.MONTHS.between on dates
+    static int monthsBetween(int from, int to) {
+        int months = (to >> 5) - (from >> 5);
+        return (to & 31) < (from & 31) ? months - 1 : months;
+    }
+
+    private final class ScoreTask extends RecursiveAction {
+        private static final int LEAF_SIZE = 16_384;
+
+        private final AssetColumns columns;
+        private final byte[] risk;
+        private final int from;
+        private final int to;
+        private final int today;
+        private final AtomicBoolean cancelled;
+
+        private ScoreTask(AssetColumns columns, byte[] risk, int from, int to, int today, AtomicBoolean cancelled) {
+            this.columns = columns;
+            this.risk = risk;
+            this.from = from;
+            this.to = to;
+            this.today = today;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.get()) {
+                return;
+            }
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    risk[i] = score(columns.installed[i], columns.maintained[i], columns.anomalies[i], today);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScoreTask(columns, risk, from, mid, today, cancelled),
+                      new ScoreTask(columns, risk, mid, to, today, cancelled));
+        }
+    }
+
+    /** Growable primitive columns, one slot per asset. */
+    private static final class AssetColumns {
+        private long[] ids;
+        private int[] installed;
+        private int[] maintained;
+        private int[] anomalies;
+        private int size;
+
+        private AssetColumns(int capacity) {
+            ids = new long[capacity];
+            installed = new int[capacity];
+            maintained = new int[capacity];
+            anomalies = new int[capacity];
+        }
+
+        private void add(long id, int installedDate, int maintainedDate, int anomalyCount) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                installed = Arrays.copyOf(installed, capacity);
+                maintained = Arrays.copyOf(maintained, capacity);
+                anomalies = Arrays.copyOf(anomalies, capacity);
+            }
+            ids[size] = id;
+            installed[size] = installedDate;
+            maintained[size] = maintainedDate;
+            anomalies[size] = anomalyCount;
+            size++;
+        }
+    }
+
+    private static final class SweepCancelledException extends RuntimeException {
+        private SweepCancelledException() {
+            super("Fleet risk sweep cancelled", null, false, false);
+        }
+    }
+
+    public enum SweepState {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    public static class SweepStatus {
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+        private final long startedAt = System.currentTimeMillis();
+        private volatile SweepState state = SweepState.RUNNING;
+        private volatile long finishedAt;
+        private volatile int assetsLoaded;
+        private volatile int assetsScored;
+        private volatile int predictionsWritten;
+        private final int[] scoredByLevel = new int[LEVELS.length];
+        private volatile String error;
+        // Asset query while it is being read, so cancel() can stop it
+        private volatile Statement statement;
+
+        private void finish(SweepState finalState) {
+            finishedAt = System.currentTimeMillis();
+            state = finalState;
+        }
+
+        public SweepState getState() { return state; }
+        public long getDurationMs() { return (finishedAt > 0 ? finishedAt : System.currentTimeMillis()) - startedAt; }
+        public int getAssetsLoaded() { return assetsLoaded; }
+        public int getAssetsScored() { return assetsScored; }
+        public int getPredictionsWritten() { return predictionsWritten; }
+        public String getError() { return error; }
+
+        public Map<String, Integer> getScoredByRiskLevel() {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (MaintenancePrediction.RiskLevel level : LEVELS) {
+                counts.put(level.name(), scoredByLevel[level.ordinal()]);
+            }
+            return counts;
+        }
+    }
+}
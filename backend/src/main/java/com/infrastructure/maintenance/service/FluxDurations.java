@@ -0,0 +1,49 @@
+package com.infrastructure.maintenance.service;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses Flux duration literals such as "-24h", "30d" or "1h30m" into {@link Duration}s.
+ */
+public final class FluxDurations {
+
+    private static final Pattern DURATION = Pattern.compile("-?(\\d+(ns|us|µs|ms|s|mo|m|h|d|w|y))+");
+    private static final Pattern PART = Pattern.compile("(\\d+)(ns|us|µs|ms|s|mo|m|h|d|w|y)");
+
+    private FluxDurations() {}
+
+    public static boolean isDuration(String literal) {
+        return literal != null && DURATION.matcher(literal).matches();
+    }
+
+    /**
+     * Returns the absolute length of the literal; months and years are approximated
+     * as 30 and 365 days.
+     */
+    public static Duration parse(String literal) {
+        if (!isDuration(literal)) {
+            throw new IllegalArgumentException("Invalid Flux duration: " + literal);
+        }
+        Duration total = Duration.ZERO;
+        Matcher m = PART.matcher(literal);
+        while (m.find()) {
+            long n = Long.parseLong(m.group(1));
+            switch (m.group(2)) {
+                case "ns": total = total.plusNanos(n); break;
+                case "us":
+                case "µs": total = total.plusNanos(n * 1_000); break;
+                case "ms": total = total.plusMillis(n); break;
+                case "s": total = total.plusSeconds(n); break;
+                case "m": total = total.plusMinutes(n); break;
+                case "h": total = total.plusHours(n); break;
+                case "d": total = total.plusDays(n); break;
+                case "w": total = total.plusDays(n * 7); break;
+                case "mo": total = total.plusDays(n * 30); break;
+                case "y": total = total.plusDays(n * 365); break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,101 @@
+package com.infrastructure.maintenance.service;
+
+import com.influxdb.client.InfluxDBClient;
+import com.influxdb.query.FluxRecord;
+import com.influxdb.query.FluxTable;
+import com.infrastructure.maintenance.config.InfluxDBConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the legacy String.format history query with the FluxQueryBuilder version:
+ * client-side build cost, server compile/plan/execute time from the Flux query profiler,
+ * and result size.
+ */
+@Service
+public class FluxQueryBenchmarkService {
+
+    private static final String PROFILER_PREAMBLE =
+            "import \"profiler\"\noption profiler.enabledProfilers = [\"query\"]\n";
+
+    @Autowired
+    private InfluxDBClient influxDBClient;
+
+    @Autowired
+    private InfluxDBConfig influxDBConfig;
+
+    public Map<String, Object> compareHistoryQuery(String assetId, String sensorType, String timeRange, int iterations) {
+        String bucket = influxDBConfig.getBucket();
+
+        // Client-side cost of producing the query text
+        long legacyStart = System.nanoTime();
+        String legacy = null;
+        for (int i = 0; i < iterations; i++) {
+            legacy = legacyHistoryQuery(bucket, assetId, sensorType, timeRange);
+        }
+        long legacyNanos = (System.nanoTime() - legacyStart) / iterations;
+
+        long builderStart = System.nanoTime();
+        FluxQueryBuilder.FluxQuery built = null;
+        for (int i = 0; i < iterations; i++) {
+            built = FluxQueryBuilder.from(bucket)
+                    .range(timeRange)
+                    .measurement("sensor_readings")
+                    .assetId(assetId)
+                    .sensorType(sensorType)
+                    .field("value")
+                    .build(false);
+        }
+        long builderNanos = (System.nanoTime() - builderStart) / iterations;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("legacy", profile(legacy, legacyNanos));
+        result.put("builder", profile(built.getText(), builderNanos));
+        return result;
+    }
+
+    private Map<String, Object> profile(String fluxQuery, long buildNanos) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("query", fluxQuery);
+        stats.put("buildNanos", buildNanos);
+
+        long start = System.nanoTime();
+        List<FluxTable> tables = influxDBClient.getQueryApi().query(PROFILER_PREAMBLE + fluxQuery, influxDBConfig.getOrg());
+        stats.put("roundTripMillis", (System.nanoTime() - start) / 1_000_000.0);
+
+        int resultTables = 0;
+        int resultRecords = 0;
+        for (FluxTable table : tables) {
+            List<FluxRecord> records = table.getRecords();
+            if (!records.isEmpty() && "profiler/query".equals(records.get(0).getMeasurement())) {
+                FluxRecord profile = records.get(0);
+                stats.put("compileNanos", profile.getValueByKey("CompileDuration"));
+                stats.put("planNanos", profile.getValueByKey("PlanDuration"));
+                stats.put("executeNanos", profile.getValueByKey("ExecuteDuration"));
+                stats.put("totalNanos", profile.getValueByKey("TotalDuration"));
+                continue;
+            }
+            resultTables++;
+            resultRecords += records.size();
+        }
+        stats.put("resultTables", resultTables);
+        stats.put("resultRecords", resultRecords);
+        return stats;
+    }
+
+    // The pre-builder query, kept only as the benchmark baseline
+    private String legacyHistoryQuery(String bucket, String assetId, String sensorType, String timeRange) {
+        return String.format(
+                "from(bucket: \"%s\") " +
+                        "|> range(start: %s) " +
+                        "|> filter(fn: (r) => r[\"_measurement\"] == \"sensor_readings\") " +
+                        "|> filter(fn: (r) => r[\"asset_id\"] == \"%s\") " +
+                        "|> filter(fn: (r) => r[\"sensor_type\"] == \"%s\") " +
+                        "|> filter(fn: (r) => r[\"_field\"] == \"value\")",
+                bucket, timeRange, assetId, sensorType);
+    }
+}
@@ -0,0 +1,450 @@
+package com.infrastructure.maintenance.service;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Typed builder for the sensor_readings queries. Inputs are validated before anything reaches
+ * InfluxDB, and the query text for each query shape is compiled once and cached.
+ *
+ * <p>Filters are always emitted as a single predicate in tag-index order (measurement, asset,
+ * sensor type, field) so the storage engine can push the whole filter down. Values are bound
+ * either as Flux query parameters ({@code params.x}) or, for servers without parameter support
+ * such as InfluxDB OSS, rendered as escaped literals into the cached template.
+ *
+ * <p>Set filters are rendered as or-chained equality predicates rather than {@code contains()},
+ * because InfluxDB 2.x cannot push {@code contains()} down to the storage engine.
+ */
+public final class FluxQueryBuilder {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z0-9_.:\\-]{1,64}");
+    private static final int MAX_SET_SIZE = 500;
+    private static final Set<String> AGGREGATE_FUNCTIONS = Set.of("mean", "min", "max", "sum", "count", "median", "first", "last");
+
+    private static final Map<String, FluxTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    private final String bucket;
+    private String start;
+    private Instant stop;
+    private String stitchBucket;
+    private Instant stitchBoundary;
+    private String measurement;
+    private String assetId;
+    private String sensorType;
+    private String field;
+    private List<String> assetIds;
+    private List<String> sensorTypes;
+    private List<String> keepColumns;
+    private List<String> groupColumns;
+    private String pivotColumn;
+    private String aggregateEvery;
+    private String aggregateFn;
+    private boolean sortByTime;
+    private String yieldName;
+
+    private FluxQueryBuilder(String bucket) {
+        this.bucket = requireIdentifier("bucket", bucket);
+    }
+
+    public static FluxQueryBuilder from(String bucket) {
+        return new FluxQueryBuilder(bucket);
+    }
+
+    /** Relative duration such as "-24h" or an RFC3339 timestamp. */
+    public FluxQueryBuilder range(String start) {
+        if (!FluxDurations.isDuration(start) && !isTimestamp(start)) {
+            throw new IllegalArgumentException("Invalid range start: " + start);
+        }
+        this.start = start;
+        return this;
+    }
+
+    public FluxQueryBuilder range(String start, Instant stop) {
+        range(start);
+        this.stop = stop;
+        return this;
+    }
+
+    /**
+     * Reads the builder's bucket up to {@code boundary} and {@code rawBucket} after it, joined
+     * with union(). Used to serve recent points that have not been rolled up yet.
+     */
+    public FluxQueryBuilder stitchedWith(String rawBucket, Instant boundary) {
+        this.stitchBucket = requireIdentifier("bucket", rawBucket);
+        this.stitchBoundary = boundary;
+        return this;
+    }
+
+    public FluxQueryBuilder measurement(String measurement) {
+        this.measurement = requireIdentifier("measurement", measurement);
+        return this;
+    }
+
+    public FluxQueryBuilder assetId(String assetId) {
+        this.assetId = requireIdentifier("assetId", assetId);
+        return this;
+    }
+
+    public FluxQueryBuilder sensorType(String sensorType) {
+        this.sensorType = requireIdentifier("sensorType", sensorType);
+        return this;
+    }
+
+    public FluxQueryBuilder assetIds(Collection<String> assetIds) {
+        this.assetIds = requireIdentifiers("assetIds", assetIds);
+        return this;
+    }
+
+    public FluxQueryBuilder sensorTypes(Collection<String> sensorTypes) {
+        this.sensorTypes = requireIdentifiers("sensorTypes", sensorTypes);
+        return this;
+    }
+
+    /** Drops every other column right after filtering, so only these cross the wire. */
+    public FluxQueryBuilder keep(String... columns) {
+        List<String> validated = new ArrayList<>();
+        for (String column : columns) {
+            validated.add(requireIdentifier("keep column", column));
+        }
+        this.keepColumns = validated;
+        return this;
+    }
+
+    /** Regroups before aggregation, e.g. to merge several sensors of one type on an asset. */
+    public FluxQueryBuilder groupBy(String... columns) {
+        List<String> validated = new ArrayList<>();
+        for (String column : columns) {
+            validated.add(requireIdentifier("group column", column));
+        }
+        this.groupColumns = validated;
+        return this;
+    }
+
+    /** Pivots {@code _value} into one column per distinct value of {@code columnKey}, keyed by {@code _time}. */
+    public FluxQueryBuilder pivotOn(String columnKey) {
+        this.pivotColumn = requireIdentifier("pivot column", columnKey);
+        return this;
+    }
+
+    public FluxQueryBuilder field(String field) {
+        this.field = requireIdentifier("field", field);
+        return this;
+    }
+
+    public FluxQueryBuilder aggregateWindow(String every, String fn) {
+        if (!FluxDurations.isDuration(every) || every.startsWith("-") || FluxDurations.parse(every).isZero()) {
+            throw new IllegalArgumentException("Invalid aggregation window: " + every);
+        }
+        if (!AGGREGATE_FUNCTIONS.contains(fn)) {
+            throw new IllegalArgumentException("Unsupported aggregate function: " + fn);
+        }
+        this.aggregateEvery = every;
+        this.aggregateFn = fn;
+        return this;
+    }
+
+    public FluxQueryBuilder sortByTime() {
+        this.sortByTime = true;
+        return this;
+    }
+
+    public FluxQueryBuilder yield(String name) {
+        this.yieldName = requireIdentifier("yield", name);
+        return this;
+    }
+
+    public FluxQuery build(boolean parameterized) {
+        if (start == null) {
+            throw new IllegalStateException("range() is required");
+        }
+        if ((assetId != null && assetIds != null) || (sensorType != null && sensorTypes != null)) {
+            throw new IllegalStateException("Use either a single value or a set filter, not both");
+        }
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("bucket", bucket);
+        params.put("start", start);
+        if (stop != null) params.put("stop", stop.toString());
+        if (stitchBucket != null) {
+            params.put("rawBucket", stitchBucket);
+            params.put("boundary", stitchBoundary.toString());
+        }
+        if (measurement != null) params.put("measurement", measurement);
+        if (assetId != null) params.put("assetId", assetId);
+        if (sensorType != null) params.put("sensorType", sensorType);
+        putIndexed(params, "assetId", assetIds);
+        putIndexed(params, "sensorType", sensorTypes);
+        if (field != null) params.put("field", field);
+        if (aggregateEvery != null) params.put("every", aggregateEvery);
+        if (yieldName != null) params.put("yieldName", yieldName);
+
+        FluxTemplate template = TEMPLATES.computeIfAbsent(shapeKey(), k -> compile());
+        return parameterized
+                ? new FluxQuery(template.getText(), params)
+                : new FluxQuery(template.render(params), Map.of());
+    }
+
+    private String shapeKey() {
+        return (FluxDurations.isDuration(start) ? "d" : "t")
+                + (stop != null ? "S" : "-")
+                + (stitchBucket != null ? "U" : "-")
+                + (measurement != null ? "m" : "-")
+                + (assetId != null ? "a" : "-")
+                + (sensorType != null ? "s" : "-")
+                + (field != null ? "f" : "-")
+                + (assetIds != null ? "A" + assetIds.size() : "-")
+                + (sensorTypes != null ? "T" + sensorTypes.size() : "-")
+                + (keepColumns != null ? "k" + String.join(",", keepColumns) : "-")
+                + (groupColumns != null ? "g" + String.join(",", groupColumns) : "-")
+                + (pivotColumn != null ? "p" + pivotColumn : "-")
+                + (aggregateFn != null ? aggregateFn : "-")
+                + (sortByTime ? "o" : "-")
+                + (yieldName != null ? "y" : "-");
+    }
+
+    private FluxTemplate compile() {
+        FluxTemplate.Builder t = new FluxTemplate.Builder();
+        SlotType startType = FluxDurations.isDuration(start) ? SlotType.DURATION : SlotType.TIME;
+
+        if (stitchBucket == null) {
+            t.text("from(bucket: ").slot("bucket", SlotType.STRING).text(") |> range(start: ").slot("start", startType);
+            if (stop != null) {
+                t.text(", stop: ").slot("stop", SlotType.TIME);
+            }
+            t.text(")");
+            appendFilter(t);
+        } else {
+            t.text("tier = from(bucket: ").slot("bucket", SlotType.STRING)
+                    .text(") |> range(start: ").slot("start", startType)
+                    .text(", stop: ").slot("boundary", SlotType.TIME).text(")");
+            appendFilter(t);
+            t.text("\nrecent = from(bucket: ").slot("rawBucket", SlotType.STRING)
+                    .text(") |> range(start: ").slot("boundary", SlotType.TIME).text(")");
+            appendFilter(t);
+            t.text("\nunion(tables: [tier, recent])");
+        }
+
+        if (keepColumns != null) {
+            t.text(" |> keep(columns: " + columnList(keepColumns) + ")");
+        }
+        if (groupColumns != null) {
+            t.text(" |> group(columns: " + columnList(groupColumns) + ")");
+        }
+        if (aggregateFn != null) {
+            t.text(" |> aggregateWindow(every: ").slot("every", SlotType.DURATION)
+                    .text(", fn: " + aggregateFn + ", createEmpty: false)");
+        }
+        if (pivotColumn != null) {
+            t.text(" |> pivot(rowKey: [\"_time\"], columnKey: [\"" + pivotColumn + "\"], valueColumn: \"_value\")");
+        }
+        if (sortByTime) {
+            t.text(" |> sort(columns: [\"_time\"])");
+        }
+        if (yieldName != null) {
+            t.text(" |> yield(name: ").slot("yieldName", SlotType.STRING).text(")");
+        }
+        return t.build();
+    }
+
+    private void appendFilter(FluxTemplate.Builder t) {
+        // Each entry: column, parameter name, set size (0 for a single value)
+        List<Object[]> predicates = new ArrayList<>();
+        if (measurement != null) predicates.add(new Object[]{"_measurement", "measurement", 0});
+        if (assetId != null) predicates.add(new Object[]{"asset_id", "assetId", 0});
+        if (assetIds != null) predicates.add(new Object[]{"asset_id", "assetId", assetIds.size()});
+        if (sensorType != null) predicates.add(new Object[]{"sensor_type", "sensorType", 0});
+        if (sensorTypes != null) predicates.add(new Object[]{"sensor_type", "sensorType", sensorTypes.size()});
+        if (field != null) predicates.add(new Object[]{"_field", "field", 0});
+        if (predicates.isEmpty()) {
+            return;
+        }
+
+        t.text(" |> filter(fn: (r) => ");
+        for (int i = 0; i < predicates.size(); i++) {
+            String column = (String) predicates.get(i)[0];
+            String param = (String) predicates.get(i)[1];
+            int setSize = (Integer) predicates.get(i)[2];
+            if (i > 0) {
+                t.text(" and ");
+            }
+            if (setSize == 0) {
+                t.text("r[\"" + column + "\"] == ").slot(param, SlotType.STRING);
+                continue;
+            }
+            t.text("(");
+            for (int j = 0; j < setSize; j++) {
+                if (j > 0) {
+                    t.text(" or ");
+                }
+                t.text("r[\"" + column + "\"] == ").slot(param + j, SlotType.STRING);
+            }
+            t.text(")");
+        }
+        t.text(")");
+    }
+
+    private static void putIndexed(Map<String, Object> params, String name, List<String> values) {
+        if (values == null) {
+            return;
+        }
+        for (int i = 0; i < values.size(); i++) {
+            params.put(name + i, values.get(i));
+        }
+    }
+
+    private static String columnList(List<String> columns) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('"').append(columns.get(i)).append('"');
+        }
+        return sb.append(']').toString();
+    }
+
+    private static List<String> requireIdentifiers(String name, Collection<String> values) {
+        if (values == null || values.isEmpty() || values.size() > MAX_SET_SIZE) {
+            throw new IllegalArgumentException(name + " must contain between 1 and " + MAX_SET_SIZE + " values");
+        }
+        List<String> validated = new ArrayList<>();
+        for (String value : values) {
+            String checked = requireIdentifier(name, value);
+            if (!validated.contains(checked)) {
+                validated.add(checked);
+            }
+        }
+        return validated;
+    }
+
+    private static String requireIdentifier(String name, String value) {
+        if (value == null || !IDENTIFIER.matcher(value).matches()) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+        return value;
+    }
+
+    private static boolean isTimestamp(String value) {
+        if (value == null) {
+            return false;
+        }
+        try {
+            Instant.parse(value);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    enum SlotType {
+        STRING, DURATION, TIME
+    }
+
+    /**
+     * Query text plus the parameter map to send alongside it (empty when values were inlined).
+     */
+    public static final class FluxQuery {
+        private final String text;
+        private final Map<String, Object> params;
+
+        FluxQuery(String text, Map<String, Object> params) {
+            this.text = text;
+            this.params = params;
+        }
+
+        public String getText() { return text; }
+        public Map<String, Object> getParams() { return params; }
+        public boolean isParameterized() { return !params.isEmpty(); }
+    }
+
+    /**
+     * A compiled query shape: literal text segments interleaved with typed value slots.
+     */
+    static final class FluxTemplate {
+        private final String[] literals;
+        private final String[] slotNames;
+        private final SlotType[] slotTypes;
+        private final String text;
+
+        private FluxTemplate(String[] literals, String[] slotNames, SlotType[] slotTypes) {
+            this.literals = literals;
+            this.slotNames = slotNames;
+            this.slotTypes = slotTypes;
+
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < slotNames.length; i++) {
+                sb.append(literals[i]);
+                switch (slotTypes[i]) {
+                    case STRING: sb.append("params.").append(slotNames[i]); break;
+                    case DURATION: sb.append("duration(v: params.").append(slotNames[i]).append(")"); break;
+                    case TIME: sb.append("time(v: params.").append(slotNames[i]).append(")"); break;
+                }
+            }
+            sb.append(literals[slotNames.length]);
+            this.text = sb.toString();
+        }
+
+        String getText() {
+            return text;
+        }
+
+        String render(Map<String, Object> params) {
+            StringBuilder sb = new StringBuilder(text.length() + 64);
+            for (int i = 0; i < slotNames.length; i++) {
+                sb.append(literals[i]);
+                String value = String.valueOf(params.get(slotNames[i]));
+                if (slotTypes[i] == SlotType.STRING) {
+                    sb.append('"');
+                    for (int c = 0; c < value.length(); c++) {
+                        char ch = value.charAt(c);
+                        if (ch == '"' || ch == '\\' || ch == '$') {
+                            sb.append('\\');
+                        }
+                        sb.append(ch);
+                    }
+                    sb.append('"');
+                } else {
+                    // Durations and timestamps were validated, so they are safe as bare literals
+                    sb.append(value);
+                }
+            }
+            sb.append(literals[slotNames.length]);
+            return sb.toString();
+        }
+
+        static final class Builder {
+            private final List<String> literals = new ArrayList<>();
+            private final List<String> slotNames = new ArrayList<>();
+            private final List<SlotType> slotTypes = new ArrayList<>();
+            private StringBuilder current = new StringBuilder();
+
+            Builder text(String text) {
+                current.append(text);
+                return this;
+            }
+
+            Builder slot(String name, SlotType type) {
+                literals.add(current.toString());
+                current = new StringBuilder();
+                slotNames.add(name);
+                slotTypes.add(type);
+                return this;
+            }
+
+            FluxTemplate build() {
+                literals.add(current.toString());
+                return new FluxTemplate(literals.toArray(new String[0]),
+                        slotNames.toArray(new String[0]),
+                        slotTypes.toArray(new SlotType[0]));
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.infrastructure.maintenance.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A regression forest exported from the ML engine's scikit-learn backup model by
+ * {@code ml-engine/export_model.py}. All trees are flattened into shared primitive arrays, so
+ * the model is immutable and safe to score from any number of threads.
+ */
+public final class ForestModel {
+
+    private final String version;
+    private final List<String> featureNames;
+    private final int[] treeRoots;
+    private final int[] leftChild;
+    private final int[] rightChild;
+    private final int[] feature;
+    private final double[] threshold;
+    private final double[] value;
+
+    private ForestModel(String version, List<String> featureNames, int[] treeRoots, int[] leftChild,
+                        int[] rightChild, int[] feature, double[] threshold, double[] value) {
+        this.version = version;
+        this.featureNames = featureNames;
+        this.treeRoots = treeRoots;
+        this.leftChild = leftChild;
+        this.rightChild = rightChild;
+        this.feature = feature;
+        this.threshold = threshold;
+        this.value = value;
+    }
+
+    /**
+     * Loads an exported model and replays the parity samples recorded by the exporter,
+     * refusing the model if it was trained on features in a different order than
+     * {@code featureOrder} or if any Java score differs from scikit-learn's by more than 1e-9.
+     */
+    public static ForestModel load(Path path, ObjectMapper objectMapper, List<String> featureOrder) throws IOException {
+        JsonNode root = objectMapper.readTree(path.toFile());
+        List<String> featureNames = objectMapper.convertValue(root.get("feature_names"),
+                objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
+        if (!featureOrder.equals(featureNames)) {
+            throw new IllegalStateException(String.format(
+                    "Model features %s do not match the backend's %s", featureNames, featureOrder));
+        }
+        JsonNode trees = root.get("trees");
+
+        int nodeCount = 0;
+        for (JsonNode tree : trees) {
+            nodeCount += tree.get("feature").size();
+        }
+
+        int[] treeRoots = new int[trees.size()];
+        int[] leftChild = new int[nodeCount];
+        int[] rightChild = new int[nodeCount];
+        int[] feature = new int[nodeCount];
+        double[] threshold = new double[nodeCount];
+        double[] value = new double[nodeCount];
+
+        int offset = 0;
+        for (int t = 0; t < trees.size(); t++) {
+            JsonNode tree = trees.get(t);
+            int size = tree.get("feature").size();
+            treeRoots[t] = offset;
+            for (int n = 0; n < size; n++) {
+                int left = tree.get("children_left").get(n).asInt();
+                int right = tree.get("children_right").get(n).asInt();
+                // Child indexes are tree-local in the export; -1 marks a leaf
+                leftChild[offset + n] = left < 0 ? -1 : left + offset;
+                rightChild[offset + n] = right < 0 ? -1 : right + offset;
+                feature[offset + n] = tree.get("feature").get(n).asInt();
+                threshold[offset + n] = tree.get("threshold").get(n).asDouble();
+                value[offset + n] = tree.get("value").get(n).asDouble();
+            }
+            offset += size;
+        }
+
+        ForestModel model = new ForestModel(root.path("model_version").asText("unknown"), featureNames,
+                treeRoots, leftChild, rightChild, feature, threshold, value);
+        model.verifyParity(root.get("parity_samples"));
+        return model;
+    }
+
+    public double score(double[] features) {
+        double sum = 0.0;
+        for (int root : treeRoots) {
+            sum += value[leaf(root, features)];
+        }
+        return clamp(sum / treeRoots.length);
+    }
+
+    /**
+     * Scores a batch tree by tree, so each tree's nodes stay hot in cache while every row
+     * walks it.
+     */
+    public double[] scoreBatch(double[][] rows) {
+        double[] sums = new double[rows.length];
+        for (int root : treeRoots) {
+            for (int r = 0; r < rows.length; r++) {
+                sums[r] += value[leaf(root, rows[r])];
+            }
+        }
+        for (int r = 0; r < rows.length; r++) {
+            sums[r] = clamp(sums[r] / treeRoots.length);
+        }
+        return sums;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public List<String> getFeatureNames() {
+        return featureNames;
+    }
+
+    private int leaf(int node, double[] features) {
+        while (leftChild[node] != -1) {
+            // scikit-learn compares float32-cast inputs against float64 thresholds
+            double x = (float) features[feature[node]];
+            node = x <= threshold[node] ? leftChild[node] : rightChild[node];
+        }
+        return node;
+    }
+
+    private void verifyParity(JsonNode samples) {
+        if (samples == null || samples.isEmpty()) {
+            throw new IllegalStateException("Model export has no parity samples");
+        }
+        for (JsonNode sample : samples) {
+            JsonNode input = sample.get("features");
+            double[] features = new double[input.size()];
+            for (int i = 0; i < features.length; i++) {
+                features[i] = input.get(i).asDouble();
+            }
+            double expected = sample.get("expected").asDouble();
+            double actual = score(features);
+            if (Math.abs(expected - actual) > 1e-9) {
+                throw new IllegalStateException(String.format(
+                        "Parity check failed: expected %.12f but scored %.12f", expected, actual));
+            }
+        }
+    }
+
+    private static double clamp(double probability) {
+        return Math.max(0.0, Math.min(1.0, probability));
+    }
+}
@@ -0,0 +1,165 @@
+package com.infrastructure.maintenance.service;
+
+import com.infrastructure.maintenance.dto.SensorSeries;
+import com.infrastructure.maintenance.model.SensorData;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-JVM time-series store, so the backend can be benchmarked without InfluxDB. Each series
+ * (asset, sensor type, sensor id) keeps its points in time-ordered primitive arrays, so a
+ * range read is a binary search and an array copy. Only the value field is kept. Points older
+ * than {@code storage.memory.retention} are evicted periodically, and a series that grows past
+ * {@code storage.memory.max-points-per-series} drops its oldest eighth. There are no rollup
+ * tiers: every bucket and range reads raw points. Enabled with {@code storage.backend=memory}.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.backend", havingValue = "memory")
+public class InMemorySensorDataStore extends SeriesSensorDataStore<InMemorySensorDataStore.Series> {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${storage.memory.retention:24h}")
+    private String retention;
+
+    @Value("${storage.memory.max-points-per-series:100000}")
+    private int maxPointsPerSeries;
+
+    // asset id -> (sensor type + NUL + sensor id) -> series
+    private final Map<String, Map<String, Series>> assets = new ConcurrentHashMap<>();
+    private final LongAdder seriesCount = new LongAdder();
+    private final LongAdder pointCount = new LongAdder();
+
+    private Duration retentionPeriod;
+
+    @PostConstruct
+    public void init() {
+        retentionPeriod = FluxDurations.parse(retention);
+        Gauge.builder("storage.memory.series", seriesCount, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("storage.memory.points", pointCount, LongAdder::sum).register(meterRegistry);
+    }
+
+    @Override
+    public void writeSensorData(SensorData sensorData) {
+        if (sensorData.getValue() == null) {
+            return;
+        }
+        String assetId = sensorData.getAsset().getAssetId();
+        Series series = assets.computeIfAbsent(assetId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(sensorData.getSensorType() + '\0' + sensorData.getSensorId(), key -> {
+                    seriesCount.increment();
+                    return new Series(assetId, sensorData.getSensorType(), sensorData.getSensorId(),
+                            sensorData.getUnit());
+                });
+        pointCount.add(series.put(epochMillis(sensorData), sensorData.getValue(), maxPointsPerSeries));
+    }
+
+    @Override
+    protected Collection<Series> seriesOf(String assetId) {
+        Map<String, Series> assetSeries = assets.get(assetId);
+        return assetSeries != null ? assetSeries.values() : List.of();
+    }
+
+    @Override
+    protected SensorSeries read(Series series, long from, long to) {
+        return series.slice(from, to);
+    }
+
+    @Override
+    protected Collection<String> assetIds() {
+        return assets.keySet();
+    }
+
+    @Scheduled(fixedDelayString = "${storage.memory.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long cutoff = Instant.now().minus(retentionPeriod).toEpochMilli();
+        for (Map<String, Series> assetSeries : assets.values()) {
+            for (Series series : assetSeries.values()) {
+                pointCount.add(-series.evictBefore(cutoff));
+            }
+        }
+    }
+
+    /** Points of one series, ordered by time with at most one point per timestamp. */
+    static final class Series extends SeriesInfo {
+
+        private long[] times = new long[16];
+        private double[] values = new double[16];
+        private int length;
+
+        Series(String assetId, String sensorType, String sensorId, String unit) {
+            super(assetId, sensorType, sensorId, unit);
+        }
+
+        /**
+         * Stores a point, replacing one with the same timestamp as InfluxDB does. Returns the
+         * change in point count.
+         */
+        synchronized int put(long time, double value, int maxPoints) {
+            int index = length;
+            if (length > 0 && time <= times[length - 1]) {
+                index = Arrays.binarySearch(times, 0, length, time);
+                if (index >= 0) {
+                    values[index] = value;
+                    return 0;
+                }
+                index = -index - 1;
+            }
+            if (length == times.length) {
+                times = Arrays.copyOf(times, length * 2);
+                values = Arrays.copyOf(values, length * 2);
+            }
+            System.arraycopy(times, index, times, index + 1, length - index);
+            System.arraycopy(values, index, values, index + 1, length - index);
+            times[index] = time;
+            values[index] = value;
+            length++;
+            return length > maxPoints ? 1 - removeFirst(Math.max(1, maxPoints / 8)) : 1;
+        }
+
+        /** Copies the points in [from, to). */
+        synchronized SensorSeries slice(long from, long to) {
+            int first = lowerBound(from);
+            int count = Math.max(0, lowerBound(to) - first);
+            return new SensorSeries(Arrays.copyOfRange(times, first, first + count),
+                    Arrays.copyOfRange(values, first, first + count), count);
+        }
+
+        synchronized int evictBefore(long cutoff) {
+            int removed = removeFirst(lowerBound(cutoff));
+            if (times.length > 16 && length < times.length / 4) {
+                times = Arrays.copyOf(times, Math.max(16, length * 2));
+                values = Arrays.copyOf(values, times.length);
+            }
+            return removed;
+        }
+
+        private int removeFirst(int count) {
+            System.arraycopy(times, count, times, 0, length - count);
+            System.arraycopy(values, count, values, 0, length - count);
+            length -= count;
+            return count;
+        }
+
+        private int lowerBound(long time) {
+            int index = Arrays.binarySearch(times, 0, length, time);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.infrastructure.maintenance.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infrastructure.maintenance.profiling.MessagePublishEvent;
+import com.infrastructure.maintenance.tracing.Span;
+import com.infrastructure.maintenance.tracing.Tracer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.amqp.core.Binding;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process replacement for the RabbitMQ broker, so the backend can be benchmarked without
+ * one. Routes with the queue bindings declared in RabbitMQConfig and topic-exchange matching,
+ * and delivers synchronously on the publishing thread to listeners registered with
+ * {@link #subscribe}. Events are still serialized to JSON when
+ * {@code messaging.memory.serialize} is set, so publishing costs what it does with the
+ * broker's message converter. Enabled with {@code messaging.backend=memory}.
+ */
+@Service
+@ConditionalOnProperty(name = "messaging.backend", havingValue = "memory")
+public class InProcessMessageBus implements MessageBus {
+
+    @Autowired
+    private List<Binding> bindings;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Value("${messaging.memory.serialize:true}")
+    private boolean serialize;
+
+    private final Map<String, QueueState> queues = new LinkedHashMap<>();
+    // exchange + NUL + routing key -> bound queues
+    private final Map<String, List<QueueState>> routes = new ConcurrentHashMap<>();
+    private Counter unroutable;
+    private Counter serializedBytes;
+
+    @PostConstruct
+    public void init() {
+        for (Binding binding : bindings) {
+            if (binding.isDestinationQueue()) {
+                queues.computeIfAbsent(binding.getDestination(), queue -> new QueueState(queue,
+                        Counter.builder("messaging.memory.delivered").tag("queue", queue).register(meterRegistry)));
+            }
+        }
+        unroutable = Counter.builder("messaging.memory.unroutable").register(meterRegistry);
+        serializedBytes = Counter.builder("messaging.memory.serialized.bytes").register(meterRegistry);
+    }
+
+    /** Registers a listener for everything routed to {@code queue}. */
+    public void subscribe(String queue, Consumer<Object> listener) {
+        QueueState state = queues.get(queue);
+        if (state == null) {
+            throw new IllegalArgumentException("Unknown queue: " + queue);
+        }
+        state.listeners.add(listener);
+    }
+
+    @Override
+    public void publish(String exchange, String routingKey, Object event) {
+        MessagePublishEvent publishEvent = new MessagePublishEvent();
+        publishEvent.begin();
+        Span span = tracer.startSpan("in-process publish", Span.Kind.PRODUCER);
+        try {
+            if (serialize) {
+                try {
+                    int length = objectMapper.writeValueAsBytes(event).length;
+                    serializedBytes.increment(length);
+                    publishEvent.payloadSize = length;
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("Could not serialize " + event.getClass().getSimpleName(), e);
+                }
+            }
+
+            deliver(exchange, routingKey, event);
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            end(span, exchange, routingKey, publishEvent.payloadSize);
+        }
+        commit(publishEvent, exchange, routingKey);
+    }
+
+    /** Delivers the body itself to listeners; it is already serialized. */
+    @Override
+    public void publish(String exchange, String routingKey, byte[] body, String contentType) {
+        MessagePublishEvent publishEvent = new MessagePublishEvent();
+        publishEvent.begin();
+        Span span = tracer.startSpan("in-process publish", Span.Kind.PRODUCER);
+        serializedBytes.increment(body.length);
+        try {
+            deliver(exchange, routingKey, body);
+        } finally {
+            end(span, exchange, routingKey, body.length);
+        }
+        publishEvent.payloadSize = body.length;
+        commit(publishEvent, exchange, routingKey);
+    }
+
+    // Listeners run on the publishing thread, so their spans nest under this one
+    private static void end(Span span, String exchange, String routingKey, long bytes) {
+        span.tag("messaging.system", "in-process")
+                .tag("messaging.destination", exchange)
+                .tag("messaging.routing_key", routingKey)
+                .tag("messaging.message.bytes", bytes);
+        span.end();
+    }
+
+    private static void commit(MessagePublishEvent event, String exchange, String routingKey) {
+        if (event.shouldCommit()) {
+            event.exchange = exchange;
+            event.routingKey = routingKey;
+            event.commit();
+        }
+    }
+
+    private void deliver(String exchange, String routingKey, Object event) {
+        List<QueueState> targets = routes.computeIfAbsent(exchange + '\0' + routingKey, key -> route(exchange, routingKey));
+        if (targets.isEmpty()) {
+            unroutable.increment();
+            return;
+        }
+        for (QueueState queue : targets) {
+            queue.delivered.increment();
+            for (Consumer<Object> listener : queue.listeners) {
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    System.err.println("Listener on " + queue.name + " failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private List<QueueState> route(String exchange, String routingKey) {
+        List<QueueState> targets = new ArrayList<>();
+        for (Binding binding : bindings) {
+            QueueState queue = queues.get(binding.getDestination());
+            if (binding.isDestinationQueue() && binding.getExchange().equals(exchange)
+                    && matches(binding.getRoutingKey().split("\\."), 0, routingKey.split("\\."), 0)
+                    && !targets.contains(queue)) {
+                targets.add(queue);
+            }
+        }
+        return targets;
+    }
+
+    // Topic exchange rules: '*' matches one word, '#' zero or more
+    private static boolean matches(String[] pattern, int p, String[] words, int w) {
+        if (p == pattern.length) {
+            return w == words.length;
+        }
+        if (pattern[p].equals("#")) {
+            for (int skip = w; skip <= words.length; skip++) {
+                if (matches(pattern, p + 1, words, skip)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return w < words.length && (pattern[p].equals("*") || pattern[p].equals(words[w]))
+                && matches(pattern, p + 1, words, w + 1);
+    }
+
+    private static final class QueueState {
+        final String name;
+        final Counter delivered;
+        final List<Consumer<Object>> listeners = new CopyOnWriteArrayList<>();
+
+        QueueState(String name, Counter delivered) {
+            this.name = name;
+            this.delivered = delivered;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.infrastructure.maintenance.service;
+
+import com.infrastructure.maintenance.model.InfrastructureAsset;
+import com.infrastructure.maintenance.model.MaintenancePrediction;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Turns an asset's sensor features into a failure prediction. PredictionEngineService uses the
+ * first enabled engine in {@code @Order}: the in-JVM forest ({@code ml.engine.mode=local}),
+ * the deterministic scorer ({@code ml.engine.mode=deterministic}), then the remote ML engine.
+ */
+public interface InferenceEngine {
+
+    boolean isEnabled();
+
+    /**
+     * Completes with an unsaved prediction, or null when none could be made. Completes
+     * exceptionally on failure or timeout.
+     */
+    CompletableFuture<MaintenancePrediction> predict(InfrastructureAsset asset, Map<String, double[]> sensorFeatures);
+}
@@ -1,5 +1,6 @@
 package com.infrastructure.maintenance.service;
 
+import com.influxdb.Cancellable;
 import com.influxdb.client.InfluxDBClient;
 import com.influxdb.client.WriteApiBlocking;
 import com.influxdb.client.domain.WritePrecision;
@@ -7,17 +8,34 @@ import com.influxdb.client.write.Point;
 import com.influxdb.query.FluxRecord;
 import com.influxdb.query.FluxTable;
 import com.infrastructure.maintenance.config.InfluxDBConfig;
+import com.infrastructure.maintenance.dto.BulkSensorData;
+import com.infrastructure.maintenance.dto.SensorSeries;
 import com.infrastructure.maintenance.model.SensorData;
+import com.infrastructure.maintenance.tracing.Span;
+import com.infrastructure.maintenance.tracing.Tracer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 @Service
-public class InfluxDBService {
+@ConditionalOnProperty(name = "storage.backend", havingValue = "influxdb", matchIfMissing = true)
+public class InfluxDBService implements SensorDataStore {
 
     @Autowired
     private InfluxDBClient influxDBClient;
@@ -25,8 +43,50 @@ public class InfluxDBService {
     @Autowired
     private InfluxDBConfig influxDBConfig;
 
+    @Autowired
+    private InfluxRetentionManager retentionManager;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Value("${influxdb.tiers.history-max-points:10000}")
+    private long historyMaxPoints;
+
+    // Query parameters need InfluxDB Cloud; OSS servers get validated values inlined instead
+    @Value("${influxdb.query.parameterized:false}")
+    private boolean parameterizedQueries;
+
+    @Override
     public void writeSensorData(SensorData sensorData) {
-        Point point = Point
+        Point point = toPoint(sensorData);
+
+        WriteApiBlocking writeApi = influxDBClient.getWriteApiBlocking();
+        tracer.inSpan("influxdb write", Span.Kind.CLIENT, span -> {
+            span.tag("db.system", "influxdb").tag("db.points", 1);
+            writeApi.writePoint(influxDBConfig.getBucket(), influxDBConfig.getOrg(), point);
+            return null;
+        });
+    }
+
+    @Override
+    public void writeSensorDataBatch(List<SensorData> sensorDataList) {
+        List<Point> points = new ArrayList<>();
+        
+        for (SensorData sensorData : sensorDataList) {
+            points.add(toPoint(sensorData));
+        }
+
+        WriteApiBlocking writeApi = influxDBClient.getWriteApiBlocking();
+        tracer.inSpan("influxdb write", Span.Kind.CLIENT, span -> {
+            span.tag("db.system", "influxdb").tag("db.points", points.size());
+            writeApi.writePoints(influxDBConfig.getBucket(), influxDBConfig.getOrg(), points);
+            return null;
+        });
+    }
+
+    /** The point a reading is stored as; shared with the reactive write path. */
+    public Point toPoint(SensorData sensorData) {
+        return Point
                 .measurement("sensor_readings")
                 .addTag("sensor_id", sensorData.getSensorId())
                 .addTag("sensor_type", sensorData.getSensorType())
@@ -35,69 +95,243 @@ public class InfluxDBService {
                 .addField("value", sensorData.getValue())
                 .addField("quality_score", sensorData.getQualityScore())
                 .time(sensorData.getTimestamp().toInstant(ZoneOffset.UTC), WritePrecision.MS);
+    }
 
-        WriteApiBlocking writeApi = influxDBClient.getWriteApiBlocking();
-        writeApi.writePoint(influxDBConfig.getBucket(), influxDBConfig.getOrg(), point);
+    @Override
+    public List<FluxRecord> querySensorData(String assetId, String sensorType, String timeRange) {
+        return runQuery(sensorHistoryQuery(assetId, sensorType, timeRange));
     }
 
-    public void writeSensorDataBatch(List<SensorData> sensorDataList) {
-        List<Point> points = new ArrayList<>();
-        
-        for (SensorData sensorData : sensorDataList) {
-            Point point = Point
-                    .measurement("sensor_readings")
-                    .addTag("sensor_id", sensorData.getSensorId())
-                    .addTag("sensor_type", sensorData.getSensorType())
-                    .addTag("asset_id", sensorData.getAsset().getAssetId())
-                    .addTag("unit", sensorData.getUnit())
-                    .addField("value", sensorData.getValue())
-                    .addField("quality_score", sensorData.getQualityScore())
-                    .time(sensorData.getTimestamp().toInstant(ZoneOffset.UTC), WritePrecision.MS);
-            points.add(point);
+    /** History query for one sensor type of an asset, over the tier that fits the range. */
+    public FluxQueryBuilder sensorHistoryQuery(String assetId, String sensorType, String timeRange) {
+        return tieredSource(timeRange, Duration.ZERO, true)
+                .measurement("sensor_readings")
+                .assetId(assetId)
+                .sensorType(sensorType)
+                .field("value");
+    }
+
+    public boolean isParameterizedQueries() {
+        return parameterizedQueries;
+    }
+
+    @Override
+    public List<FluxRecord> getAggregatedSensorData(String assetId, String aggregationWindow) {
+        // The coarsest tier whose resolution still divides into the requested window
+        Duration window = FluxDurations.isDuration(aggregationWindow)
+                ? FluxDurations.parse(aggregationWindow) : Duration.ZERO;
+        FluxQueryBuilder query = tieredSource("-24h", window, false)
+                .measurement("sensor_readings")
+                .assetId(assetId)
+                .field("value")
+                .aggregateWindow(aggregationWindow, "mean")
+                .yield("mean");
+
+        return runQuery(query);
+    }
+
+    /**
+     * Raw readings of one asset over a short window, merged per sensor type into primitive
+     * arrays for feature extraction.
+     */
+    @Override
+    public Map<String, SensorSeries> querySensorSeries(String assetId, String timeRange) {
+        FluxQueryBuilder query = FluxQueryBuilder.from(influxDBConfig.getBucket())
+                .range(timeRange)
+                .measurement("sensor_readings")
+                .assetId(assetId)
+                .field("value")
+                .groupBy("sensor_type")
+                .sortByTime();
+
+        Map<String, SensorSeries> series = new HashMap<>();
+        for (FluxTable table : runTables(query)) {
+            List<FluxRecord> records = table.getRecords();
+            if (records.isEmpty()) {
+                continue;
+            }
+            long[] times = new long[records.size()];
+            double[] values = new double[records.size()];
+            int length = 0;
+            for (FluxRecord record : records) {
+                if (record.getValue() instanceof Number && record.getTime() != null) {
+                    times[length] = record.getTime().toEpochMilli();
+                    values[length] = ((Number) record.getValue()).doubleValue();
+                    length++;
+                }
+            }
+            String sensorType = String.valueOf(records.get(0).getValueByKey("sensor_type"));
+            series.put(sensorType.toUpperCase(), new SensorSeries(times, values, length));
         }
+        return series;
+    }
 
-        WriteApiBlocking writeApi = influxDBClient.getWriteApiBlocking();
-        writeApi.writePoints(influxDBConfig.getBucket(), influxDBConfig.getOrg(), points);
+    /**
+     * Fetches several assets and sensor types with one pivoted query: readings are merged per
+     * (asset, sensor type), averaged per window and returned as one columnar block per asset.
+     */
+    @Override
+    public BulkSensorData queryBulkSensorData(Collection<String> assetIds, Collection<String> sensorTypes,
+                                              String timeRange, String aggregationWindow) {
+        Duration window = FluxDurations.isDuration(aggregationWindow)
+                ? FluxDurations.parse(aggregationWindow) : Duration.ZERO;
+        List<String> types = new ArrayList<>(new LinkedHashSet<>(sensorTypes));
+        FluxQueryBuilder query = tieredSource(timeRange, window, false)
+                .measurement("sensor_readings")
+                .assetIds(assetIds)
+                .sensorTypes(types)
+                .field("value")
+                .groupBy("asset_id", "sensor_type")
+                .aggregateWindow(aggregationWindow, "mean")
+                .pivotOn("sensor_type")
+                .sortByTime();
+
+        List<BulkSensorData.AssetSeries> assets = new ArrayList<>();
+        for (FluxTable table : runTables(query)) {
+            List<FluxRecord> records = table.getRecords();
+            if (records.isEmpty()) {
+                continue;
+            }
+            long[] time = new long[records.size()];
+            for (int i = 0; i < time.length; i++) {
+                time[i] = records.get(i).getTime().toEpochMilli();
+            }
+            BulkSensorData.AssetSeries series = new BulkSensorData.AssetSeries(
+                    String.valueOf(records.get(0).getValueByKey("asset_id")), time);
+            for (String type : types) {
+                if (!records.get(0).getValues().containsKey(type)) {
+                    continue;
+                }
+                Double[] column = new Double[records.size()];
+                for (int i = 0; i < column.length; i++) {
+                    Object value = records.get(i).getValueByKey(type);
+                    column[i] = value instanceof Number ? ((Number) value).doubleValue() : null;
+                }
+                series.getValues().put(type, column);
+            }
+            assets.add(series);
+        }
+        return new BulkSensorData(timeRange, aggregationWindow, assets);
     }
 
-    public List<FluxRecord> querySensorData(String assetId, String sensorType, String timeRange) {
-        String fluxQuery = String.format(
-                "from(bucket: \"%s\") " +
-                        "|> range(start: %s) " +
-                        "|> filter(fn: (r) => r[\"_measurement\"] == \"sensor_readings\") " +
-                        "|> filter(fn: (r) => r[\"asset_id\"] == \"%s\") " +
-                        "|> filter(fn: (r) => r[\"sensor_type\"] == \"%s\") " +
-                        "|> filter(fn: (r) => r[\"_field\"] == \"value\")",
-                influxDBConfig.getBucket(), timeRange, assetId, sensorType);
-
-        List<FluxTable> tables = influxDBClient.getQueryApi().query(fluxQuery, influxDBConfig.getOrg());
-        List<FluxRecord> records = new ArrayList<>();
-        
-        for (FluxTable table : tables) {
-            records.addAll(table.getRecords());
+    /**
+     * Streams the readings of {@code bucket} between {@code start} and {@code stop} to
+     * {@code consumer} as they arrive, one series at a time, without materializing the result.
+     * A null {@code assetIds} reads every asset. Blocks until the query has been consumed, the
+     * consumer throws, or {@code cancelled} turns true.
+     */
+    @Override
+    public void streamSensorReadings(String bucket, Collection<String> assetIds, Instant start, Instant stop,
+                                     BooleanSupplier cancelled, Consumer<FluxRecord> consumer) throws InterruptedException {
+        FluxQueryBuilder query = FluxQueryBuilder.from(bucket)
+                .range(start.toString(), stop)
+                .measurement("sensor_readings");
+        if (assetIds != null) {
+            query.assetIds(assetIds);
+        }
+        FluxQueryBuilder.FluxQuery flux = query.field("value")
+                .keep("_time", "_value", "asset_id", "sensor_type", "sensor_id")
+                .build(parameterizedQueries);
+
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        BiConsumer<Cancellable, FluxRecord> onNext = (cancellable, record) -> {
+            if (done.getCount() == 0) {
+                return;
+            }
+            try {
+                if (cancelled.getAsBoolean()) {
+                    cancellable.cancel();
+                    done.countDown();
+                    return;
+                }
+                consumer.accept(record);
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+                cancellable.cancel();
+                done.countDown();
+            }
+        };
+        Consumer<Throwable> onError = e -> {
+            failure.compareAndSet(null, e);
+            done.countDown();
+        };
+
+        Span span = tracer.startSpan("influxdb stream", Span.Kind.CLIENT);
+        span.tag("db.system", "influxdb").tag("db.statement", flux.getText());
+        try {
+            if (flux.isParameterized()) {
+                influxDBClient.getQueryApi().query(flux.getText(), influxDBConfig.getOrg(), onNext, onError,
+                        done::countDown, flux.getParams());
+            } else {
+                influxDBClient.getQueryApi().query(flux.getText(), influxDBConfig.getOrg(), onNext, onError,
+                        done::countDown);
+            }
+            done.await();
+        } finally {
+            if (failure.get() != null) {
+                span.error(failure.get());
+            }
+            span.end();
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error != null) {
+            throw new IllegalStateException("Sensor export query failed: " + error.getMessage(), error);
         }
-        
-        return records;
     }
 
-    public List<FluxRecord> getAggregatedSensorData(String assetId, String aggregationWindow) {
-        String fluxQuery = String.format(
-                "from(bucket: \"%s\") " +
-                        "|> range(start: -24h) " +
-                        "|> filter(fn: (r) => r[\"_measurement\"] == \"sensor_readings\") " +
-                        "|> filter(fn: (r) => r[\"asset_id\"] == \"%s\") " +
-                        "|> filter(fn: (r) => r[\"_field\"] == \"value\") " +
-                        "|> aggregateWindow(every: %s, fn: mean, createEmpty: false) " +
-                        "|> yield(name: \"mean\")",
-                influxDBConfig.getBucket(), assetId, aggregationWindow);
-
-        List<FluxTable> tables = influxDBClient.getQueryApi().query(fluxQuery, influxDBConfig.getOrg());
+    /**
+     * Starts a query over the storage tier that fits the time range. A zero {@code window}
+     * means raw history, where the tier is chosen to keep the point count bounded.
+     */
+    private FluxQueryBuilder tieredSource(String timeRange, Duration window, boolean history) {
+        String rawBucket = influxDBConfig.getBucket();
+        if (!FluxDurations.isDuration(timeRange)) {
+            return FluxQueryBuilder.from(rawBucket).range(timeRange);
+        }
+
+        Duration range = FluxDurations.parse(timeRange);
+        Duration maxResolution = history ? range.dividedBy(historyMaxPoints) : window;
+        InfluxDBConfig.RetentionTier tier = retentionManager.selectTier(range, maxResolution, !history);
+        if (tier.isRaw()) {
+            return FluxQueryBuilder.from(rawBucket).range(timeRange);
+        }
+
+        // Rolled-up data up to the stitch boundary, raw points after it
+        Instant boundary = retentionManager.getStitchBoundary(tier);
+        if (!boundary.isAfter(Instant.now().minus(range))) {
+            return FluxQueryBuilder.from(rawBucket).range(timeRange);
+        }
+        FluxQueryBuilder builder = FluxQueryBuilder.from(tier.getBucket())
+                .range(timeRange)
+                .stitchedWith(rawBucket, boundary);
+        return history ? builder.sortByTime() : builder;
+    }
+
+    private List<FluxTable> runTables(FluxQueryBuilder builder) {
+        FluxQueryBuilder.FluxQuery query = builder.build(parameterizedQueries);
+        return tracer.inSpan("influxdb query", Span.Kind.CLIENT, span -> {
+            span.tag("db.system", "influxdb").tag("db.statement", query.getText());
+            List<FluxTable> tables = query.isParameterized()
+                    ? influxDBClient.getQueryApi().query(query.getText(), influxDBConfig.getOrg(), query.getParams())
+                    : influxDBClient.getQueryApi().query(query.getText(), influxDBConfig.getOrg());
+            span.tag("db.tables", tables.size());
+            return tables;
+        });
+    }
+
+    private List<FluxRecord> runQuery(FluxQueryBuilder builder) {
+        List<FluxTable> tables = runTables(builder);
         List<FluxRecord> records = new ArrayList<>();
-        
+
         for (FluxTable table : tables) {
             records.addAll(table.getRecords());
         }
-        
+
         return records;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,290 @@
+package com.infrastructure.maintenance.service;
+
+import com.influxdb.client.BucketsApi;
+import com.influxdb.client.InfluxDBClient;
+import com.influxdb.client.domain.Bucket;
+import com.influxdb.client.domain.BucketRetentionRules;
+import com.influxdb.client.domain.Organization;
+import com.influxdb.query.FluxRecord;
+import com.influxdb.query.FluxTable;
+import com.infrastructure.maintenance.config.InfluxDBConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provisions the raw/1m/1h retention buckets and keeps the rollup tiers filled by
+ * periodically running server-side aggregateWindow() |> to() queries over the raw bucket.
+ * Each tier's progress is the newest point in its bucket, so a restart or an outage is caught
+ * up from there, and an empty tier is first backfilled from the raw history. The raw bucket's
+ * retention is only shortened once every tier holds what is about to expire.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.backend", havingValue = "influxdb", matchIfMissing = true)
+public class InfluxRetentionManager {
+
+    @Autowired
+    private InfluxDBClient influxDBClient;
+
+    @Autowired
+    private InfluxDBConfig influxDBConfig;
+
+    // Raw points may arrive a little late; windows are only rolled up once this much time has passed
+    @Value("${influxdb.tiers.rollup-lateness-seconds:60}")
+    private long rollupLatenessSeconds;
+
+    // Number of already-rolled windows re-aggregated each run so late points are picked up
+    @Value("${influxdb.tiers.rollup-catch-up-windows:5}")
+    private int rollupCatchUpWindows;
+
+    // Bounds one rollup query, so a backfill or a long catch-up is spread over several runs
+    @Value("${influxdb.tiers.rollup-max-windows-per-run:10080}")
+    private int rollupMaxWindowsPerRun;
+
+    // Rollup buckets exist and their progress has been read back
+    private volatile boolean tiersReady = false;
+    private volatile boolean rawRetentionApplied = false;
+    private String lastProvisionError;
+
+    // End of the last rolled-up window per tier; reads stitch tier data before it with raw after it
+    private final Map<String, Instant> rolledUpTo = new ConcurrentHashMap<>();
+
+    /** Also retried from every rollup run until it succeeds, so InfluxDB may start after the backend. */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void provisionBuckets() {
+        if (!influxDBConfig.isTiersEnabled() || tiersReady) {
+            return;
+        }
+        try {
+            Organization organization = influxDBClient.getOrganizationsApi().findOrganizations().stream()
+                    .filter(o -> influxDBConfig.getOrg().equals(o.getName()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Organization not found: " + influxDBConfig.getOrg()));
+
+            BucketsApi bucketsApi = influxDBClient.getBucketsApi();
+            InfluxDBConfig.RetentionTier raw = getRawTier();
+            Bucket rawBucket = bucketsApi.findBucketByName(raw.getBucket());
+            if (rawBucket == null) {
+                // Nothing to lose yet, so the raw retention applies straight away
+                bucketsApi.createBucket(raw.getBucket(), retentionRule(raw), organization);
+                rawRetentionApplied = true;
+            }
+            long rawRetentionSeconds = rawBucket != null ? retentionSeconds(rawBucket) : 0;
+
+            for (InfluxDBConfig.RetentionTier tier : influxDBConfig.getTiers()) {
+                if (tier.isRaw()) {
+                    continue;
+                }
+                Bucket bucket = bucketsApi.findBucketByName(tier.getBucket());
+                if (bucket == null) {
+                    bucketsApi.createBucket(tier.getBucket(), retentionRule(tier), organization);
+                } else if (retentionSeconds(bucket) != tier.getRetention().getSeconds()) {
+                    bucket.setRetentionRules(List.of(retentionRule(tier)));
+                    bucketsApi.updateBucket(bucket);
+                }
+                rolledUpTo.put(tier.getName(), readProgress(tier, rawRetentionSeconds));
+            }
+            tiersReady = true;
+            lastProvisionError = null;
+        } catch (Exception e) {
+            // Retried every run; only report a failure once until it changes
+            if (!String.valueOf(e.getMessage()).equals(lastProvisionError)) {
+                lastProvisionError = String.valueOf(e.getMessage());
+                System.err.println("Could not provision InfluxDB retention tiers, queries will use the raw bucket: " + e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${influxdb.tiers.rollup-interval-ms:60000}",
+               initialDelayString = "${influxdb.tiers.rollup-interval-ms:60000}")
+    public synchronized void runRollups() {
+        provisionBuckets();
+        if (!tiersReady) {
+            return;
+        }
+        InfluxDBConfig.RetentionTier raw = getRawTier();
+        for (InfluxDBConfig.RetentionTier tier : influxDBConfig.getTiers()) {
+            if (tier.isRaw()) {
+                continue;
+            }
+            Instant from = rolledUpTo.get(tier.getName());
+            Instant settled = getSettledBoundary(tier);
+            if (!from.isBefore(settled)) {
+                continue;
+            }
+            Instant stop = from.plus(tier.getResolution().multipliedBy(rollupMaxWindowsPerRun));
+            if (stop.isAfter(settled)) {
+                stop = settled;
+            }
+            Instant start = from.minus(tier.getResolution().multipliedBy(rollupCatchUpWindows));
+            String flux = String.format(
+                    "from(bucket: \"%s\") " +
+                            "|> range(start: %s, stop: %s) " +
+                            "|> filter(fn: (r) => r[\"_measurement\"] == \"sensor_readings\") " +
+                            "|> filter(fn: (r) => r[\"_field\"] == \"value\" or r[\"_field\"] == \"quality_score\") " +
+                            "|> aggregateWindow(every: %s, fn: mean, createEmpty: false, timeSrc: \"_start\") " +
+                            "|> to(bucket: \"%s\", org: \"%s\")",
+                    raw.getBucket(), start, stop, tier.getFluxWindow(), tier.getBucket(), influxDBConfig.getOrg());
+            try {
+                influxDBClient.getQueryApi().query(flux, influxDBConfig.getOrg());
+                rolledUpTo.put(tier.getName(), stop);
+            } catch (Exception e) {
+                System.err.println("Rollup into " + tier.getBucket() + " failed: " + e.getMessage());
+            }
+        }
+        if (!rawRetentionApplied) {
+            applyRawRetention();
+        }
+    }
+
+    public boolean isTiersReady() {
+        return tiersReady;
+    }
+
+    /**
+     * Picks the coarsest tier whose resolution does not exceed {@code maxResolution} and whose
+     * retention still covers {@code range}. With {@code aligned} the resolution must also divide
+     * {@code maxResolution} evenly, so re-aggregating the tier into windows of that size never
+     * averages across a window boundary. Falls back to the raw bucket when no rollup tier fits
+     * or the rollup tiers are unavailable.
+     */
+    public InfluxDBConfig.RetentionTier selectTier(Duration range, Duration maxResolution, boolean aligned) {
+        InfluxDBConfig.RetentionTier selected = getRawTier();
+        if (!tiersReady) {
+            return selected;
+        }
+        for (InfluxDBConfig.RetentionTier tier : influxDBConfig.getTiers()) {
+            if (tier.isRaw()) {
+                continue;
+            }
+            boolean fineEnough = tier.getResolution().compareTo(maxResolution) <= 0
+                    && (!aligned || divides(tier.getResolution(), maxResolution));
+            boolean coversRange = tier.getRetention().compareTo(range) >= 0;
+            if (fineEnough && coversRange) {
+                selected = tier;
+            }
+        }
+        // Raw data has expired for part of the range: use the finest rollup tier that still has it,
+        // accepting misaligned windows over returning nothing
+        if (selected.isRaw() && selected.getRetention().compareTo(range) < 0) {
+            for (InfluxDBConfig.RetentionTier tier : influxDBConfig.getTiers()) {
+                if (!tier.isRaw() && tier.getRetention().compareTo(range) >= 0) {
+                    return tier;
+                }
+            }
+        }
+        return selected;
+    }
+
+    private static boolean divides(Duration resolution, Duration window) {
+        long resolutionMillis = resolution.toMillis();
+        return resolutionMillis > 0 && window.toMillis() % resolutionMillis == 0;
+    }
+
+    /**
+     * Instant up to which a rollup tier is complete. Reads stitch the tier's data before this
+     * point with raw data after it; the epoch while the tier has nothing rolled up.
+     */
+    public Instant getStitchBoundary(InfluxDBConfig.RetentionTier tier) {
+        return rolledUpTo.getOrDefault(tier.getName(), Instant.EPOCH);
+    }
+
+    /**
+     * Shortens (or lengthens) the raw bucket's retention to the configured one. Shortening waits
+     * until every rollup tier has rolled up past the new raw horizon, so nothing expires from
+     * the raw bucket before it has a downsampled copy.
+     */
+    private void applyRawRetention() {
+        InfluxDBConfig.RetentionTier raw = getRawTier();
+        try {
+            BucketsApi bucketsApi = influxDBClient.getBucketsApi();
+            Bucket bucket = bucketsApi.findBucketByName(raw.getBucket());
+            long current = retentionSeconds(bucket);
+            long target = raw.getRetention().getSeconds();
+            boolean shrinking = current == 0 || current > target;
+            if (current != target && shrinking) {
+                Instant horizon = Instant.now().minus(raw.getRetention());
+                for (InfluxDBConfig.RetentionTier tier : influxDBConfig.getTiers()) {
+                    if (!tier.isRaw() && getStitchBoundary(tier).isBefore(horizon)) {
+                        return;
+                    }
+                }
+            }
+            if (current != target) {
+                bucket.setRetentionRules(List.of(retentionRule(raw)));
+                bucketsApi.updateBucket(bucket);
+            }
+            rawRetentionApplied = true;
+        } catch (Exception e) {
+            System.err.println("Could not apply retention to " + raw.getBucket() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Where a tier's rollups resume: after the newest window already in its bucket or, for an
+     * empty tier, from the oldest raw data it should hold.
+     */
+    private Instant readProgress(InfluxDBConfig.RetentionTier tier, long rawRetentionSeconds) {
+        Instant oldest = Instant.now().minus(tier.getRetention());
+        String flux = String.format(
+                "from(bucket: \"%s\") " +
+                        "|> range(start: %s) " +
+                        "|> filter(fn: (r) => r[\"_measurement\"] == \"sensor_readings\") " +
+                        "|> last() " +
+                        "|> group() " +
+                        "|> max(column: \"_time\")",
+                tier.getBucket(), oldest);
+        for (FluxTable table : influxDBClient.getQueryApi().query(flux, influxDBConfig.getOrg())) {
+            for (FluxRecord record : table.getRecords()) {
+                if (record.getTime() != null) {
+                    return record.getTime().plus(tier.getResolution());
+                }
+            }
+        }
+        // Raw data cannot be older than the raw bucket's current retention (0 means none)
+        if (rawRetentionSeconds > 0 && rawRetentionSeconds < tier.getRetention().getSeconds()) {
+            oldest = Instant.now().minusSeconds(rawRetentionSeconds);
+        }
+        return alignDown(oldest, tier);
+    }
+
+    // Newest window end that is past the lateness allowance
+    private Instant getSettledBoundary(InfluxDBConfig.RetentionTier tier) {
+        return alignDown(Instant.now().minusSeconds(rollupLatenessSeconds), tier);
+    }
+
+    private static Instant alignDown(Instant instant, InfluxDBConfig.RetentionTier tier) {
+        long step = tier.getResolution().toMillis();
+        long millis = instant.toEpochMilli();
+        return Instant.ofEpochMilli(millis - Math.floorMod(millis, step));
+    }
+
+    private static BucketRetentionRules retentionRule(InfluxDBConfig.RetentionTier tier) {
+        BucketRetentionRules rule = new BucketRetentionRules();
+        rule.setEverySeconds((int) tier.getRetention().getSeconds());
+        return rule;
+    }
+
+    // The server adds shard-group duration and type to the rules, so only the expiry is compared
+    private static long retentionSeconds(Bucket bucket) {
+        return bucket.getRetentionRules().stream()
+                .filter(rule -> rule.getEverySeconds() != null)
+                .mapToLong(BucketRetentionRules::getEverySeconds)
+                .findFirst()
+                .orElse(0);
+    }
+
+    private InfluxDBConfig.RetentionTier getRawTier() {
+        return influxDBConfig.getTiers().get(0);
+    }
+}
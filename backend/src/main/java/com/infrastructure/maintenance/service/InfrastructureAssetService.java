@@ -1,16 +1,24 @@
 package com.infrastructure.maintenance.service;
 
+import com.infrastructure.maintenance.dto.AssetSummary;
+import com.infrastructure.maintenance.dto.CursorPage;
 import com.infrastructure.maintenance.model.InfrastructureAsset;
 import com.infrastructure.maintenance.repository.InfrastructureAssetRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.IntSupplier;
 
 @Service
 @Transactional
@@ -22,8 +30,12 @@ public class InfrastructureAssetService {
     @Autowired
     private EventPublisher eventPublisher;
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_STATUS_ATTEMPTS = 5;
+
     public InfrastructureAsset createAsset(InfrastructureAsset asset) {
         asset.setStatus(InfrastructureAsset.AssetStatus.OPERATIONAL);
+        asset.setVersion(null);
         InfrastructureAsset savedAsset = assetRepository.save(asset);
         
         eventPublisher.publishAlert(
@@ -60,15 +72,78 @@ public class InfrastructureAssetService {
         return assetRepository.findByMaintenancePriorityGreaterThanEqual(priority);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<AssetSummary> getAssetSummaries(String cursor, int size) {
+        int limit = clampPageSize(size);
+        List<AssetSummary> rows = assetRepository.findSummariesAfter(parseIdCursor(cursor), PageRequest.of(0, limit + 1));
+        return CursorPage.of(rows, limit, a -> String.valueOf(a.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<AssetSummary> getAssetSummariesByType(String type, String cursor, int size) {
+        int limit = clampPageSize(size);
+        List<AssetSummary> rows = assetRepository.findSummariesByTypeAfter(
+                type, parseIdCursor(cursor), PageRequest.of(0, limit + 1));
+        return CursorPage.of(rows, limit, a -> String.valueOf(a.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<AssetSummary> getAssetSummariesByStatus(InfrastructureAsset.AssetStatus status,
+                                                              String cursor, int size) {
+        int limit = clampPageSize(size);
+        List<AssetSummary> rows = assetRepository.findSummariesByStatusAfter(
+                status, parseIdCursor(cursor), PageRequest.of(0, limit + 1));
+        return CursorPage.of(rows, limit, a -> String.valueOf(a.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<AssetSummary> getHighPriorityAssetSummaries(Integer priority, String cursor, int size) {
+        int limit = clampPageSize(size);
+        // Cursor is "<priority>:<id>" of the last row; ordering is priority DESC, id ASC
+        int cursorPriority = Integer.MAX_VALUE;
+        long cursorId = 0L;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            cursorPriority = Integer.parseInt(parts[0]);
+            cursorId = Long.parseLong(parts[1]);
+        }
+        List<AssetSummary> rows = assetRepository.findHighPrioritySummariesAfter(
+                priority, cursorPriority, cursorId, PageRequest.of(0, limit + 1));
+        return CursorPage.of(rows, limit, a -> a.getMaintenancePriority() + ":" + a.getId());
+    }
+
+    private long parseIdCursor(String cursor) {
+        return cursor == null || cursor.isBlank() ? 0L : Long.parseLong(cursor);
+    }
+
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
     public List<InfrastructureAsset> getAssetsNearLocation(Double latitude, Double longitude, Double radiusKm) {
         // Simple radius calculation (not accurate for large distances)
         Double radiusSquared = Math.pow(radiusKm / 111.0, 2); // Approximate conversion
         return assetRepository.findAssetsWithinRadius(latitude, longitude, radiusSquared);
     }
 
+    /**
+     * Full update. If the body carries a version it must match the stored one, and a status
+     * change must be an allowed transition; concurrent writers are caught by the entity version.
+     */
     public InfrastructureAsset updateAsset(Long id, InfrastructureAsset assetDetails) {
         return assetRepository.findById(id)
                 .map(asset -> {
+                    if (assetDetails.getVersion() != null && !assetDetails.getVersion().equals(asset.getVersion())) {
+                        throw new ObjectOptimisticLockingFailureException(InfrastructureAsset.class, id);
+                    }
+                    if (assetDetails.getStatus() != null && !asset.getStatus().canTransitionTo(assetDetails.getStatus())) {
+                        throw new IllegalStateException(String.format(
+                                "Asset %s cannot move from %s to %s", asset.getAssetId(), asset.getStatus(), assetDetails.getStatus()));
+                    }
+
                     asset.setName(assetDetails.getName());
                     asset.setDescription(assetDetails.getDescription());
                     asset.setType(assetDetails.getType());
@@ -85,50 +160,87 @@ public class InfrastructureAssetService {
                         asset.setNextScheduledMaintenance(assetDetails.getNextScheduledMaintenance());
                     }
                     
-                    return assetRepository.save(asset);
+                    return assetRepository.saveAndFlush(asset);
                 })
                 .orElse(null);
     }
 
+    /**
+     * Moves an asset to {@code newStatus} with a conditional UPDATE on the status just read,
+     * re-reading and retrying if another writer got there first. Runs outside a surrounding
+     * transaction so each attempt commits on its own and no row lock is held between attempts.
+     *
+     * @throws IllegalStateException if the current status cannot move to {@code newStatus}
+     * @throws OptimisticLockingFailureException if every attempt lost a race
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public InfrastructureAsset updateAssetStatus(String assetId, InfrastructureAsset.AssetStatus newStatus) {
-        return assetRepository.findByAssetId(assetId)
-                .map(asset -> {
-                    InfrastructureAsset.AssetStatus oldStatus = asset.getStatus();
-                    asset.setStatus(newStatus);
-                    
-                    InfrastructureAsset updatedAsset = assetRepository.save(asset);
-                    
-                    // Publish status change event
-                    eventPublisher.publishAlert(
-                            assetId,
-                            "STATUS_CHANGE",
-                            String.format("Asset status changed from %s to %s", oldStatus, newStatus),
-                            newStatus == InfrastructureAsset.AssetStatus.CRITICAL ? "CRITICAL" : "INFO"
-                    );
-                    
-                    return updatedAsset;
-                })
-                .orElse(null);
+        for (int attempt = 0; attempt < MAX_STATUS_ATTEMPTS; attempt++) {
+            Optional<InfrastructureAsset.AssetStatus> current = assetRepository.findStatusByAssetId(assetId);
+            if (current.isEmpty()) {
+                return null;
+            }
+            InfrastructureAsset.AssetStatus oldStatus = current.get();
+            if (!oldStatus.canTransitionTo(newStatus)) {
+                throw new IllegalStateException(String.format(
+                        "Asset %s cannot move from %s to %s", assetId, oldStatus, newStatus));
+            }
+            if (oldStatus == newStatus) {
+                return assetRepository.findByAssetId(assetId).orElse(null);
+            }
+            if (tryUpdate(() -> assetRepository.compareAndSetStatus(assetId, oldStatus, newStatus))) {
+                // Publish status change event
+                eventPublisher.publishAlert(
+                        assetId,
+                        "STATUS_CHANGE",
+                        String.format("Asset status changed from %s to %s", oldStatus, newStatus),
+                        newStatus == InfrastructureAsset.AssetStatus.CRITICAL ? "CRITICAL" : "INFO"
+                );
+                return assetRepository.findByAssetId(assetId).orElse(null);
+            }
+        }
+        throw new OptimisticLockingFailureException("Status of asset " + assetId + " kept changing; gave up after "
+                + MAX_STATUS_ATTEMPTS + " attempts");
     }
 
+    /**
+     * Sets the next maintenance date and moves the asset to MAINTENANCE_REQUIRED where that is
+     * an allowed transition; an asset that is already critical, out of service or under
+     * maintenance keeps its status. Same conditional-update-and-retry scheme as
+     * {@link #updateAssetStatus}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public InfrastructureAsset scheduleMaintenance(String assetId, LocalDateTime scheduledDate) {
-        return assetRepository.findByAssetId(assetId)
-                .map(asset -> {
-                    asset.setNextScheduledMaintenance(scheduledDate);
-                    asset.setStatus(InfrastructureAsset.AssetStatus.MAINTENANCE_REQUIRED);
-                    
-                    InfrastructureAsset updatedAsset = assetRepository.save(asset);
-                    
-                    eventPublisher.publishAlert(
-                            assetId,
-                            "MAINTENANCE_SCHEDULED",
-                            "Maintenance scheduled for " + scheduledDate,
-                            "INFO"
-                    );
-                    
-                    return updatedAsset;
-                })
-                .orElse(null);
+        for (int attempt = 0; attempt < MAX_STATUS_ATTEMPTS; attempt++) {
+            Optional<InfrastructureAsset.AssetStatus> current = assetRepository.findStatusByAssetId(assetId);
+            if (current.isEmpty()) {
+                return null;
+            }
+            InfrastructureAsset.AssetStatus oldStatus = current.get();
+            InfrastructureAsset.AssetStatus newStatus =
+                    oldStatus.canTransitionTo(InfrastructureAsset.AssetStatus.MAINTENANCE_REQUIRED)
+                            ? InfrastructureAsset.AssetStatus.MAINTENANCE_REQUIRED : oldStatus;
+            if (tryUpdate(() -> assetRepository.compareAndScheduleMaintenance(assetId, oldStatus, newStatus, scheduledDate))) {
+                eventPublisher.publishAlert(
+                        assetId,
+                        "MAINTENANCE_SCHEDULED",
+                        "Maintenance scheduled for " + scheduledDate,
+                        "INFO"
+                );
+                return assetRepository.findByAssetId(assetId).orElse(null);
+            }
+        }
+        throw new OptimisticLockingFailureException("Status of asset " + assetId + " kept changing; gave up after "
+                + MAX_STATUS_ATTEMPTS + " attempts");
+    }
+
+    // A lock timeout or concurrent-update error from the database counts as a lost race, like 0 rows
+    private boolean tryUpdate(IntSupplier update) {
+        try {
+            return update.getAsInt() == 1;
+        } catch (ConcurrencyFailureException e) {
+            return false;
+        }
     }
 
     public void deleteAsset(Long id) {
@@ -0,0 +1,138 @@
+package com.infrastructure.maintenance.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for sensor ingest. A request must first get a token from its client's
+ * bucket and then a slot under the adaptive concurrency limit; otherwise it is rejected with a
+ * retry hint instead of queueing on a Tomcat thread behind InfluxDB and RabbitMQ.
+ * <p>
+ * Single readings and batches (JSON batches, reading blocks and binary ingest frames) have
+ * separate concurrency limits and latency targets: a batch of thousands of readings takes far
+ * longer than one reading, and must not shrink the limit that single-reading clients rely on.
+ */
+@Service
+public class IngestAdmissionService {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ingest.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ingest.admission.initial-limit:50}")
+    private int initialLimit;
+
+    @Value("${ingest.admission.min-limit:4}")
+    private int minLimit;
+
+    @Value("${ingest.admission.max-limit:400}")
+    private int maxLimit;
+
+    @Value("${ingest.admission.latency-target-ms:250}")
+    private long latencyTargetMs;
+
+    @Value("${ingest.admission.batch.initial-limit:8}")
+    private int batchInitialLimit;
+
+    @Value("${ingest.admission.batch.min-limit:2}")
+    private int batchMinLimit;
+
+    @Value("${ingest.admission.batch.max-limit:64}")
+    private int batchMaxLimit;
+
+    @Value("${ingest.admission.batch.latency-target-ms:5000}")
+    private long batchLatencyTargetMs;
+
+    @Value("${ingest.admission.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${ingest.admission.client-rate-per-second:50}")
+    private double clientRatePerSecond;
+
+    @Value("${ingest.admission.client-burst:100}")
+    private int clientBurst;
+
+    private final Map<Kind, AdaptiveConcurrencyLimit> concurrencyLimits = new EnumMap<>(Kind.class);
+    private ClientRateLimiter rateLimiter;
+
+    private Counter admitted;
+    private Counter rejectedRate;
+    private Counter rejectedConcurrency;
+    private Timer latency;
+
+    @PostConstruct
+    public void init() {
+        concurrencyLimits.put(Kind.SINGLE,
+                new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyTargetMs, backoffRatio));
+        concurrencyLimits.put(Kind.BATCH,
+                new AdaptiveConcurrencyLimit(batchInitialLimit, batchMinLimit, batchMaxLimit, batchLatencyTargetMs, backoffRatio));
+        rateLimiter = new ClientRateLimiter(clientRatePerSecond, clientBurst);
+
+        admitted = Counter.builder("sensor.ingest.admission")
+                .tag("outcome", "admitted").tag("reason", "none").register(meterRegistry);
+        rejectedRate = Counter.builder("sensor.ingest.admission")
+                .tag("outcome", "rejected").tag("reason", "client_rate").register(meterRegistry);
+        rejectedConcurrency = Counter.builder("sensor.ingest.admission")
+                .tag("outcome", "rejected").tag("reason", "concurrency").register(meterRegistry);
+        latency = Timer.builder("sensor.ingest.latency").register(meterRegistry);
+        for (Map.Entry<Kind, AdaptiveConcurrencyLimit> entry : concurrencyLimits.entrySet()) {
+            String kind = entry.getKey().name().toLowerCase();
+            Gauge.builder("sensor.ingest.concurrency.limit", entry.getValue(), AdaptiveConcurrencyLimit::getLimit)
+                    .tag("kind", kind).register(meterRegistry);
+            Gauge.builder("sensor.ingest.in-flight", entry.getValue(), AdaptiveConcurrencyLimit::getInFlight)
+                    .tag("kind", kind).register(meterRegistry);
+        }
+        Gauge.builder("sensor.ingest.active-clients", rateLimiter, ClientRateLimiter::getActiveClients)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns 0 if the request is admitted, in which case {@link #complete} must be called when
+     * it finishes; otherwise the number of seconds the client should wait before retrying.
+     */
+    public long tryAdmit(String client, Kind kind) {
+        long retryAfter = rateLimiter.tryAcquire(client);
+        if (retryAfter > 0) {
+            rejectedRate.increment();
+            return retryAfter;
+        }
+        if (!concurrencyLimits.get(kind).tryAcquire()) {
+            rejectedConcurrency.increment();
+            return 1;
+        }
+        admitted.increment();
+        return 0;
+    }
+
+    /** Releases the slot; {@code failed} means the server failed (HTTP 5xx), not a rejected request. */
+    public void complete(Kind kind, long latencyNanos, boolean failed) {
+        concurrencyLimits.get(kind).release(latencyNanos, failed);
+        latency.record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleClients() {
+        rateLimiter.evictIdle();
+    }
+
+    public enum Kind {
+        SINGLE, BATCH
+    }
+}
@@ -0,0 +1,179 @@
+package com.infrastructure.maintenance.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infrastructure.maintenance.model.InfrastructureAsset;
+import com.infrastructure.maintenance.model.MaintenancePrediction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process alternative to the Flask /predict call. Scores the exported forest model
+ * directly in the JVM, micro-batching concurrent requests so each batch walks the trees once.
+ * Enabled with {@code ml.engine.mode=local}.
+ */
+@Service
+@Order(1)
+public class LocalInferenceService implements InferenceEngine {
+
+    // LSTMPredictor.feature_names, the column order buildFeatures() fills
+    static final List<String> MODEL_FEATURE_NAMES = List.of("temperature", "vibration", "pressure",
+            "humidity", "strain", "asset_age_months", "months_since_maintenance", "asset_type_encoded");
+    // Defaults and clamping ranges mirror ml-engine/utils/data_preprocessor.py
+    private static final String[] SENSOR_FEATURES = {"temperature", "vibration", "pressure", "humidity", "strain"};
+    static final double[] SENSOR_DEFAULTS = {20.0, 10.0, 101.3, 60.0, 50.0};
+    static final double[] SENSOR_MIN = {-50, 0, 0, 0, 0};
+    static final double[] SENSOR_MAX = {100, 1000, 200, 100, 500};
+    private static final Map<String, Integer> ASSET_TYPE_CODES = Map.of(
+            "BRIDGE", 1, "ROAD", 2, "BUILDING", 3, "TUNNEL", 4);
+    // LSTMPredictor._generate_mock_sensor_data: temperature, vibration, strain per asset type
+    private static final Map<String, double[]> BASELINE_READINGS = Map.of(
+            "BRIDGE", new double[]{20, 15, 60}, "ROAD", new double[]{25, 20, 40},
+            "BUILDING", new double[]{22, 5, 30}, "TUNNEL", new double[]{18, 12, 70});
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${ml.engine.mode:remote}")
+    private String mode;
+
+    @Value("${ml.engine.local.model-path:ml-engine/saved_models/forest_model.json}")
+    private String modelPath;
+
+    @Value("${ml.engine.local.max-batch-size:64}")
+    private int maxBatchSize;
+
+    @Value("${ml.engine.local.max-batch-delay-ms:2}")
+    private long maxBatchDelayMs;
+
+    @Value("${ml.engine.local.timeout-ms:1000}")
+    private long timeoutMs;
+
+    private volatile ForestModel model;
+    private MicroBatcher<double[], Double> batcher;
+
+    @PostConstruct
+    public void init() {
+        if (!"local".equalsIgnoreCase(mode)) {
+            return;
+        }
+        try {
+            model = ForestModel.load(Path.of(modelPath), objectMapper, MODEL_FEATURE_NAMES);
+            batcher = new MicroBatcher<>("local-inference-batcher", maxBatchSize, maxBatchDelayMs,
+                    maxBatchSize * 64, this::scoreBatch);
+        } catch (Exception e) {
+            System.err.println("Local inference disabled, falling back to the ML engine: " + e.getMessage());
+            model = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return model != null;
+    }
+
+    public String getModelVersion() {
+        return model != null ? model.getVersion() : null;
+    }
+
+    @Override
+    public CompletableFuture<MaintenancePrediction> predict(InfrastructureAsset asset, Map<String, double[]> sensorFeatures) {
+        return predictFailureProbability(asset, sensorFeatures)
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .thenApply(probability -> Predictions.fromProbability(asset, probability,
+                        getModelVersion(), "RandomForest (in-JVM)"));
+    }
+
+    public CompletableFuture<Double> predictFailureProbability(InfrastructureAsset asset, Map<String, double[]> sensorFeatures) {
+        return batcher.submit(buildFeatures(asset, sensorFeatures));
+    }
+
+    /**
+     * Feature vector in the order of LSTMPredictor.feature_names: windowed mean per sensor type
+     * (as the ML engine derives from the same request), asset age and time since maintenance in
+     * 30-day months, and the encoded asset type. Like the ML engine, an asset with no samples at
+     * all gets the age-dependent baseline readings instead of the sensor defaults.
+     */
+    static double[] buildFeatures(InfrastructureAsset asset, Map<String, double[]> sensorFeatures) {
+        return buildFeatures(asset, sensorFeatures, LocalDateTime.now());
+    }
+
+    static double[] buildFeatures(InfrastructureAsset asset, Map<String, double[]> sensorFeatures,
+                                  LocalDateTime now) {
+        double[] features = new double[SENSOR_FEATURES.length + 3];
+        System.arraycopy(SENSOR_DEFAULTS, 0, features, 0, SENSOR_DEFAULTS.length);
+
+        LocalDateTime installed = asset.getInstallationDate() != null
+                ? asset.getInstallationDate() : now.minusDays(365);
+        LocalDateTime maintained = asset.getLastMaintenance() != null
+                ? asset.getLastMaintenance() : installed;
+        double ageMonths = ChronoUnit.DAYS.between(installed, now) / 30.0;
+
+        // Any sensor type with samples counts as data, even one the model has no feature for
+        boolean hasData = false;
+        if (sensorFeatures != null) {
+            for (Map.Entry<String, double[]> entry : sensorFeatures.entrySet()) {
+                double[] extracted = entry.getValue();
+                if (extracted[SensorFeatureExtractor.SAMPLE_COUNT] == 0) {
+                    continue;
+                }
+                hasData = true;
+                int index = indexOf(entry.getKey().toLowerCase());
+                if (index >= 0) {
+                    double mean = extracted[SensorFeatureExtractor.MEAN];
+                    features[index] = Math.max(SENSOR_MIN[index], Math.min(SENSOR_MAX[index], mean));
+                }
+            }
+        }
+        String assetType = asset.getType() != null ? asset.getType().toUpperCase() : "";
+        if (!hasData) {
+            double[] baseline = BASELINE_READINGS.getOrDefault(assetType, BASELINE_READINGS.get("BRIDGE"));
+            double aging = Math.min(ageMonths / 120, 1.0);
+            features[0] = baseline[0] + aging * 5;
+            features[1] = baseline[1] + aging * 10;
+            features[4] = baseline[2] + aging * 20;
+        }
+
+        int base = SENSOR_FEATURES.length;
+        features[base] = ageMonths;
+        features[base + 1] = ChronoUnit.DAYS.between(maintained, now) / 30.0;
+        features[base + 2] = ASSET_TYPE_CODES.getOrDefault(assetType, 0);
+        return features;
+    }
+
+    private List<Double> scoreBatch(List<double[]> rows) {
+        double[] scores = model.scoreBatch(rows.toArray(new double[0][]));
+        Double[] boxed = new Double[scores.length];
+        for (int i = 0; i < scores.length; i++) {
+            boxed[i] = scores[i];
+        }
+        return List.of(boxed);
+    }
+
+    private static int indexOf(String sensorFeature) {
+        for (int i = 0; i < SENSOR_FEATURES.length; i++) {
+            if (SENSOR_FEATURES[i].equals(sensorFeature)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
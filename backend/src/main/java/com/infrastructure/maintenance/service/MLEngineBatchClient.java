@@ -0,0 +1,145 @@
+package com.infrastructure.maintenance.service;
+
+import com.infrastructure.maintenance.tracing.Span;
+import com.infrastructure.maintenance.tracing.SpanContext;
+import com.infrastructure.maintenance.tracing.Tracer;
+import com.infrastructure.maintenance.tracing.TracingInterceptor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends prediction requests to the ML engine's /predict/batch endpoint. Concurrent callers
+ * are collected for up to {@code ml.engine.batch.max-delay-ms} or
+ * {@code ml.engine.batch.max-size} requests, so an anomaly storm costs one round trip per
+ * batch instead of one per asset.
+ */
+@Service
+public class MLEngineBatchClient {
+
+    @Value("${ml.engine.url:http://localhost:5000}")
+    private String mlEngineUrl;
+
+    @Value("${ml.engine.batch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ml.engine.batch.max-size:32}")
+    private int maxBatchSize;
+
+    @Value("${ml.engine.batch.max-delay-ms:20}")
+    private long maxDelayMs;
+
+    @Value("${ml.engine.batch.queue-capacity:2048}")
+    private int queueCapacity;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private TracingInterceptor tracingInterceptor;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    private MicroBatcher<BatchItem, Map<String, Object>> batcher;
+
+    @PostConstruct
+    public void init() {
+        if (tracer.isEnabled()) {
+            restTemplate.getInterceptors().add(tracingInterceptor);
+        }
+        if (enabled) {
+            batcher = new MicroBatcher<>("ml-engine-batcher", maxBatchSize, maxDelayMs, queueCapacity, this::postBatch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return batcher != null;
+    }
+
+    public CompletableFuture<Map<String, Object>> predict(Map<String, Object> predictionRequest) {
+        return batcher.submit(new BatchItem(predictionRequest, tracer.currentContext()));
+    }
+
+    /**
+     * Posts one batch. Its span continues the trace of the first sampled caller, and lists the
+     * other callers' traces, so each of them can find the call it waited on.
+     */
+    private List<Map<String, Object>> postBatch(List<BatchItem> items) {
+        SpanContext parent = null;
+        List<String> callerTraces = new ArrayList<>();
+        for (BatchItem item : items) {
+            if (item.caller != null && (parent == null || (!parent.isSampled() && item.caller.isSampled()))) {
+                parent = item.caller;
+            }
+        }
+        List<Map<String, Object>> requests = new ArrayList<>(items.size());
+        for (BatchItem item : items) {
+            requests.add(item.request);
+            if (item.caller != null && item.caller != parent && item.caller.isSampled()) {
+                callerTraces.add(item.caller.getTraceId());
+            }
+        }
+
+        Span span = tracer.startSpan("ml-engine batch", Span.Kind.INTERNAL, parent);
+        span.tag("batch.size", requests.size());
+        if (!callerTraces.isEmpty()) {
+            span.tag("batch.caller_traces", String.join(",", callerTraces));
+        }
+        try {
+            return postRequests(requests);
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private List<Map<String, Object>> postRequests(List<Map<String, Object>> requests) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(Map.of("requests", requests), headers);
+        Map<String, List<Map<String, Object>>> response = restTemplate.exchange(
+                mlEngineUrl + "/predict/batch",
+                HttpMethod.POST,
+                entity,
+                new ParameterizedTypeReference<Map<String, List<Map<String, Object>>>>() {}
+        ).getBody();
+
+        if (response == null || response.get("predictions") == null) {
+            throw new IllegalStateException("ML engine returned no predictions");
+        }
+        return response.get("predictions");
+    }
+
+    private static final class BatchItem {
+        final Map<String, Object> request;
+        final SpanContext caller;
+
+        BatchItem(Map<String, Object> request, SpanContext caller) {
+            this.request = request;
+            this.caller = caller;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.infrastructure.maintenance.service;
+
+/**
+ * Publishes events to a topic exchange. Selected with {@code messaging.backend}: RabbitMQ
+ * ({@code rabbitmq}, the default) or the in-process bus ({@code memory}).
+ */
+public interface MessageBus {
+
+    void publish(String exchange, String routingKey, Object event);
+
+    /** Publishes an already encoded body, such as a {@code ReadingBlock}, as-is. */
+    void publish(String exchange, String routingKey, byte[] body, String contentType);
+}
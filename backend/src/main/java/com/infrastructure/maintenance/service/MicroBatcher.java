@@ -0,0 +1,120 @@
+package com.infrastructure.maintenance.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects concurrent requests for up to {@code maxDelayMillis} or {@code maxBatchSize} items,
+ * hands them to {@code batchFunction} in one call and completes each caller's future with its
+ * own result. The batch function must return results in request order.
+ */
+public class MicroBatcher<I, O> implements AutoCloseable {
+
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Function<List<I>, List<O>> batchFunction;
+    private final BlockingQueue<Pending<I, O>> queue;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public MicroBatcher(String name, int maxBatchSize, long maxDelayMillis, int queueCapacity,
+                        Function<List<I>, List<O>> batchFunction) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.batchFunction = batchFunction;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.worker = new Thread(this::drainLoop, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public CompletableFuture<O> submit(I request) {
+        CompletableFuture<O> future = new CompletableFuture<>();
+        if (!running || !queue.offer(new Pending<>(request, future))) {
+            future.completeExceptionally(new RejectedExecutionException("Batcher queue is full"));
+        }
+        return future;
+    }
+
+    private void drainLoop() {
+        List<Pending<I, O>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending<I, O> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Wait for more requests, but never hold the first one longer than maxDelay
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        break;
+                    }
+                    Pending<I, O> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<Pending<I, O>> batch) {
+        List<I> requests = new ArrayList<>(batch.size());
+        for (Pending<I, O> pending : batch) {
+            requests.add(pending.request);
+        }
+        try {
+            List<O> results = batchFunction.apply(requests);
+            if (results == null || results.size() != batch.size()) {
+                throw new IllegalStateException("Batch function returned " +
+                        (results == null ? 0 : results.size()) + " results for " + batch.size() + " requests");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (Exception e) {
+            for (Pending<I, O> pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+        Pending<I, O> pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new RejectedExecutionException("Batcher is shut down"));
+        }
+    }
+
+    private static final class Pending<I, O> {
+        private final I request;
+        private final CompletableFuture<O> future;
+
+        private Pending(I request, CompletableFuture<O> future) {
+            this.request = request;
+            this.future = future;
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package com.infrastructure.maintenance.service;
 
+import com.infrastructure.maintenance.dto.SensorSeries;
+import com.infrastructure.maintenance.model.LatestAssetPrediction;
 import com.infrastructure.maintenance.model.MaintenancePrediction;
 import com.infrastructure.maintenance.model.InfrastructureAsset;
+import com.infrastructure.maintenance.profiling.InferenceCallEvent;
+import com.infrastructure.maintenance.repository.LatestAssetPredictionRepository;
 import com.infrastructure.maintenance.repository.MaintenancePredictionRepository;
 import com.infrastructure.maintenance.repository.InfrastructureAssetRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -24,45 +30,77 @@ public class PredictionEngineService {
     @Autowired
     private MaintenancePredictionRepository predictionRepository;
 
+    @Autowired
+    private LatestAssetPredictionRepository latestPredictionRepository;
+
     @Autowired
     private InfrastructureAssetRepository assetRepository;
 
     @Autowired
-    private InfluxDBService influxDBService;
+    private SensorDataStore sensorDataStore;
 
     @Autowired
     private EventPublisher eventPublisher;
 
-    @Value("${ml.engine.url:http://localhost:5000}")
-    private String mlEngineUrl;
+    // Ordered by @Order; the remote engine is always enabled and comes last
+    @Autowired
+    private List<InferenceEngine> inferenceEngines;
+
+    @Autowired
+    private SensorFeatureExtractor featureExtractor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${prediction.features.window:-1h}")
+    private String featureWindow;
+
+    // FFT band energies are not read by the model yet, so they are only computed on request
+    @Value("${prediction.features.spectral:false}")
+    private boolean spectralFeatures;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    // Cursor used for the first page of newest-first keyset queries
+    private static final LocalDateTime CURSOR_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final int MAX_PAGE_SIZE = 500;
 
-    public void triggerPredictionForAsset(String assetId) {
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** Fills the latest-prediction table for assets whose predictions were all stored before it existed. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillLatestPredictions() {
+        try {
+            if (latestPredictionRepository.countAssetsMissingLatest() > 0) {
+                latestPredictionRepository.backfillFromHistory();
+            }
+        } catch (Exception e) {
+            System.err.println("Could not backfill latest predictions: " + e.getMessage());
+        }
+    }
+
+    /** Predicts and stores the asset's risk; returns the stored prediction, or null for an unknown asset. */
+    public MaintenancePrediction triggerPredictionForAsset(String assetId) {
         Optional<InfrastructureAsset> assetOpt = assetRepository.findByAssetId(assetId);
         
         if (assetOpt.isEmpty()) {
-            return;
+            return null;
         }
 
         InfrastructureAsset asset = assetOpt.get();
         
         try {
-            // Get recent sensor data for the asset
-            List<com.influxdb.query.FluxRecord> sensorData = 
-                influxDBService.getAggregatedSensorData(assetId, "1h");
-
-            // Prepare data for ML model
-            Map<String, Object> predictionRequest = preparePredictionRequest(asset, sensorData);
-
-            // Call ML engine API
-            String prediction = callMLEngine(predictionRequest);
+            // Reduce recent raw readings to a fixed-size feature vector per sensor type
+            Map<String, double[]> sensorFeatures = extractSensorFeatures(
+                sensorDataStore.querySensorSeries(assetId, featureWindow));
 
-            // Parse prediction result and save
-            MaintenancePrediction maintenancePrediction = parsePredictionResult(asset, prediction);
+            MaintenancePrediction maintenancePrediction = predict(asset, sensorFeatures);
             
             if (maintenancePrediction != null) {
-                predictionRepository.save(maintenancePrediction);
+                savePrediction(maintenancePrediction);
                 
                 // Publish prediction event
                 eventPublisher.publishMaintenancePrediction(maintenancePrediction);
@@ -70,6 +108,7 @@ public class PredictionEngineService {
                 // Update asset maintenance priority based on prediction
                 updateAssetPriority(asset, maintenancePrediction);
             }
+            return maintenancePrediction;
 
         } catch (Exception e) {
             System.err.println("Error generating prediction for asset " + assetId + ": " + e.getMessage());
@@ -77,115 +116,75 @@ public class PredictionEngineService {
             // Generate fallback prediction based on simple rules
             MaintenancePrediction fallbackPrediction = generateFallbackPrediction(asset);
             if (fallbackPrediction != null) {
-                predictionRepository.save(fallbackPrediction);
+                savePrediction(fallbackPrediction);
             }
+            return fallbackPrediction;
         }
     }
 
-    private Map<String, Object> preparePredictionRequest(InfrastructureAsset asset, 
-                                                       List<com.influxdb.query.FluxRecord> sensorData) {
-        Map<String, Object> request = new HashMap<>();
-        request.put("asset_id", asset.getAssetId());
-        request.put("asset_type", asset.getType());
-        request.put("installation_date", asset.getInstallationDate());
-        request.put("last_maintenance", asset.getLastMaintenance());
-        request.put("sensor_data", sensorData);
-        
-        return request;
+    private MaintenancePrediction savePrediction(MaintenancePrediction prediction) {
+        // Joins the caller's transaction if there is one, so the asset lock is held until it commits
+        return transactionTemplate.execute(status -> {
+            MaintenancePrediction saved = predictionRepository.save(prediction);
+
+            // Keep the per-asset "latest" projection in step with the history table
+            latestPredictionRepository.lockAsset(saved.getAsset().getId());
+            latestPredictionRepository.mergePrediction(saved.getId());
+            return saved;
+        });
     }
 
-    private String callMLEngine(Map<String, Object> predictionRequest) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(predictionRequest, headers);
-        
-        return restTemplate.postForObject(
-            mlEngineUrl + "/predict", 
-            entity, 
-            String.class
-        );
+    private Map<String, double[]> extractSensorFeatures(Map<String, SensorSeries> sensorSeries) {
+        Map<String, double[]> features = new HashMap<>();
+        for (Map.Entry<String, SensorSeries> entry : sensorSeries.entrySet()) {
+            boolean spectral = spectralFeatures && "VIBRATION".equals(entry.getKey());
+            features.put(entry.getKey(), featureExtractor.extract(entry.getValue(), spectral));
+        }
+        return features;
     }
 
-    private MaintenancePrediction parsePredictionResult(InfrastructureAsset asset, String prediction) {
+    private MaintenancePrediction predict(InfrastructureAsset asset, Map<String, double[]> sensorFeatures)
+            throws Exception {
+        InferenceEngine engine = selectInferenceEngine();
+        InferenceCallEvent event = new InferenceCallEvent();
+        event.begin();
+        boolean succeeded = false;
         try {
-            // In a real implementation, you would parse the JSON response from ML engine
-            // For now, we'll create a mock prediction
-            return createMockPrediction(asset);
-        } catch (Exception e) {
-            System.err.println("Error parsing prediction result: " + e.getMessage());
-            return null;
+            MaintenancePrediction prediction = engine.predict(asset, sensorFeatures).get();
+            succeeded = true;
+            return prediction;
+        } finally {
+            if (event.shouldCommit()) {
+                event.engine = engine.getClass().getSimpleName();
+                event.assetId = asset.getAssetId();
+                event.payloadSize = sensorFeatures.values().stream().mapToLong(values -> values.length).sum();
+                event.succeeded = succeeded;
+                event.commit();
+            }
         }
     }
 
-    private MaintenancePrediction createMockPrediction(InfrastructureAsset asset) {
-        MaintenancePrediction prediction = new MaintenancePrediction();
-        prediction.setAsset(asset);
-        prediction.setPredictionDate(LocalDateTime.now());
-        
-        // Mock prediction logic based on asset age and type
-        LocalDateTime installationDate = asset.getInstallationDate();
-        if (installationDate != null) {
-            long monthsSinceInstallation = java.time.temporal.ChronoUnit.MONTHS.between(
-                installationDate, LocalDateTime.now());
-            
-            // Simple rule-based prediction
-            LocalDateTime predictedFailure;
-            MaintenancePrediction.RiskLevel riskLevel;
-            double confidence;
-            
-            if (monthsSinceInstallation > 60) { // 5 years
-                predictedFailure = LocalDateTime.now().plusMonths(6);
-                riskLevel = MaintenancePrediction.RiskLevel.HIGH;
-                confidence = 0.85;
-            } else if (monthsSinceInstallation > 36) { // 3 years
-                predictedFailure = LocalDateTime.now().plusMonths(12);
-                riskLevel = MaintenancePrediction.RiskLevel.MEDIUM;
-                confidence = 0.75;
-            } else {
-                predictedFailure = LocalDateTime.now().plusMonths(24);
-                riskLevel = MaintenancePrediction.RiskLevel.LOW;
-                confidence = 0.65;
+    private InferenceEngine selectInferenceEngine() {
+        for (InferenceEngine engine : inferenceEngines) {
+            if (engine.isEnabled()) {
+                return engine;
             }
-            
-            prediction.setPredictedFailureDate(predictedFailure);
-            prediction.setRiskLevel(riskLevel);
-            prediction.setConfidenceScore(confidence);
-            prediction.setRecommendedAction(generateRecommendedAction(riskLevel));
-            prediction.setModelVersion("1.0");
-            prediction.setPredictionAlgorithm("LSTM");
-            
-            return prediction;
         }
-        
-        return null;
+        throw new IllegalStateException("No inference engine enabled");
     }
 
     private MaintenancePrediction generateFallbackPrediction(InfrastructureAsset asset) {
-        return createMockPrediction(asset);
-    }
-
-    private String generateRecommendedAction(MaintenancePrediction.RiskLevel riskLevel) {
-        switch (riskLevel) {
-            case CRITICAL:
-                return "Immediate maintenance required. Schedule emergency inspection.";
-            case HIGH:
-                return "Schedule maintenance within 30 days. Increase monitoring frequency.";
-            case MEDIUM:
-                return "Schedule maintenance within 90 days. Continue regular monitoring.";
-            case LOW:
-                return "Continue regular maintenance schedule. Monitor for changes.";
-            default:
-                return "Continue normal operations.";
-        }
+        return Predictions.fromAssetAge(asset);
     }
 
     private void updateAssetPriority(InfrastructureAsset asset, MaintenancePrediction prediction) {
         Integer newPriority = mapRiskLevelToPriority(prediction.getRiskLevel());
         
-        if (!newPriority.equals(asset.getMaintenancePriority())) {
+        // Single conditional UPDATE rather than saving the entity loaded at the start of the
+        // prediction, which would overwrite any status change made while the model was running
+        if (!newPriority.equals(asset.getMaintenancePriority())
+                && assetRepository.updatePriorityIfChanged(asset.getId(), newPriority) > 0) {
             asset.setMaintenancePriority(newPriority);
-            assetRepository.save(asset);
         }
     }
 
@@ -211,4 +210,46 @@ public class PredictionEngineService {
     public List<MaintenancePrediction> getPredictionsInDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         return predictionRepository.findPredictionsInDateRange(startDate, endDate);
     }
-}
\ No newline at end of file
+
+    public Optional<LatestAssetPrediction> getLatestPrediction(String assetId) {
+        return assetRepository.findByAssetId(assetId)
+                .flatMap(asset -> latestPredictionRepository.findById(asset.getId()));
+    }
+
+    public List<LatestAssetPrediction> getCurrentPredictionsByRisk(MaintenancePrediction.RiskLevel riskLevel,
+                                                                   Long afterAssetRef, int size) {
+        return latestPredictionRepository.findByRiskLevelAfter(
+                riskLevel, afterAssetRef != null ? afterAssetRef : 0L, pageOf(size));
+    }
+
+    public List<MaintenancePrediction> getPredictionsForAsset(String assetId, LocalDateTime cursorDate,
+                                                              Long cursorId, int size) {
+        Optional<InfrastructureAsset> asset = assetRepository.findByAssetId(assetId);
+        return asset.map(a -> predictionRepository.findLatestPredictionsByAssetBefore(
+                a,
+                cursorDate != null ? cursorDate : CURSOR_END,
+                cursorId != null ? cursorId : Long.MAX_VALUE,
+                pageOf(size))).orElse(null);
+    }
+
+    public List<MaintenancePrediction> getHighRiskPredictions(LocalDateTime cursorDate, Long cursorId, int size) {
+        return predictionRepository.findByRiskLevelBefore(
+                MaintenancePrediction.RiskLevel.HIGH,
+                cursorDate != null ? cursorDate : CURSOR_END,
+                cursorId != null ? cursorId : Long.MAX_VALUE,
+                pageOf(size));
+    }
+
+    public List<MaintenancePrediction> getPredictionsInDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                                                 LocalDateTime cursorDate, Long cursorId, int size) {
+        return predictionRepository.findPredictionsInDateRangeAfter(
+                cursorDate != null ? cursorDate : startDate,
+                cursorId != null ? cursorId : -1L,
+                endDate,
+                pageOf(size));
+    }
+
+    private PageRequest pageOf(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+}
@@ -0,0 +1,386 @@
+package com.infrastructure.maintenance.service;
+
+import com.infrastructure.maintenance.model.InfrastructureAsset;
+import com.infrastructure.maintenance.model.MaintenancePrediction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Re-scores every asset on a cadence set by its current risk level and maintenance priority,
+ * so slowly degrading assets are not left with a stale prediction. Each asset's next run time
+ * is placed on a hashed timing wheel. Scheduling and rescheduling add to one slot, and an asset
+ * due beyond one lap is re-queued when its slot comes round. Run times are jittered, and newly
+ * loaded or overdue assets are spread over their interval, so the ML engine sees a steady rate
+ * capped at {@code prediction.schedule.max-per-second}. An anomaly moves the asset's next run
+ * forward instead of predicting on every anomalous reading, at most once per
+ * {@code prediction.schedule.anomaly-min-interval}. The asset list is re-read from the database
+ * every {@code prediction.schedule.refresh-interval-ms}; out-of-service assets are skipped.
+ */
+@Service
+public class PredictionScheduler {
+
+    private static final String ASSET_QUERY = "SELECT a.id, a.asset_id, a.maintenance_priority, a.status, "
+            + "l.risk_level, l.prediction_date FROM infrastructure_assets a "
+            + "LEFT JOIN latest_asset_predictions l ON l.asset_ref = a.id";
+
+    @Autowired
+    private PredictionEngineService predictionEngineService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${prediction.schedule.enabled:true}")
+    private boolean enabled;
+
+    @Value("${prediction.schedule.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${prediction.schedule.wheel-slots:3600}")
+    private int wheelSlots;
+
+    @Value("${prediction.schedule.interval.critical:15m}")
+    private String criticalInterval;
+
+    @Value("${prediction.schedule.interval.high:1h}")
+    private String highInterval;
+
+    @Value("${prediction.schedule.interval.medium:6h}")
+    private String mediumInterval;
+
+    @Value("${prediction.schedule.interval.low:24h}")
+    private String lowInterval;
+
+    // Share of the interval removed at maintenance priority 10, scaled linearly below that
+    @Value("${prediction.schedule.priority-speedup:0.5}")
+    private double prioritySpeedup;
+
+    // Each run time is moved by up to this share of the interval either way
+    @Value("${prediction.schedule.jitter:0.1}")
+    private double jitter;
+
+    @Value("${prediction.schedule.max-per-second:20}")
+    private double maxPerSecond;
+
+    @Value("${prediction.schedule.concurrency:4}")
+    private int concurrency;
+
+    @Value("${prediction.schedule.anomaly-delay:30s}")
+    private String anomalyDelay;
+
+    @Value("${prediction.schedule.anomaly-min-interval:5m}")
+    private String anomalyMinInterval;
+
+    private final Map<Long, ScheduledAsset> assets = new ConcurrentHashMap<>();
+    private final Queue<ScheduledAsset> ready = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder expedited = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    // Intervals in milliseconds per risk level ordinal; unknown risk uses MEDIUM
+    private final long[] intervals = new long[MaintenancePrediction.RiskLevel.values().length];
+    private long anomalyDelayMs;
+    private long anomalyMinIntervalMs;
+
+    private Queue<ScheduledAsset>[] wheel;
+    private volatile long wheelTick;
+    private double tokens;
+    private long lastRefill;
+    private ExecutorService workers;
+    private TransactionTemplate transactionTemplate;
+
+    private Counter cadenceRuns;
+    private Counter anomalyRuns;
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    void init() {
+        intervals[MaintenancePrediction.RiskLevel.CRITICAL.ordinal()] = FluxDurations.parse(criticalInterval).toMillis();
+        intervals[MaintenancePrediction.RiskLevel.HIGH.ordinal()] = FluxDurations.parse(highInterval).toMillis();
+        intervals[MaintenancePrediction.RiskLevel.MEDIUM.ordinal()] = FluxDurations.parse(mediumInterval).toMillis();
+        intervals[MaintenancePrediction.RiskLevel.LOW.ordinal()] = FluxDurations.parse(lowInterval).toMillis();
+        anomalyDelayMs = FluxDurations.parse(anomalyDelay).toMillis();
+        anomalyMinIntervalMs = FluxDurations.parse(anomalyMinInterval).toMillis();
+
+        wheel = new Queue[wheelSlots];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        wheelTick = System.currentTimeMillis() / tickMs;
+        lastRefill = System.currentTimeMillis();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "prediction-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("prediction.schedule.assets", assets, Map::size).register(meterRegistry);
+        Gauge.builder("prediction.schedule.ready", ready, Queue::size).register(meterRegistry);
+        Gauge.builder("prediction.schedule.in-flight", inFlight, AtomicInteger::get).register(meterRegistry);
+        cadenceRuns = Counter.builder("prediction.schedule.runs").tag("trigger", "cadence").register(meterRegistry);
+        anomalyRuns = Counter.builder("prediction.schedule.runs").tag("trigger", "anomaly").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Brings the asset's next prediction forward to {@code prediction.schedule.anomaly-delay}
+     * from now, or to {@code anomaly-min-interval} after its previous run if that is later.
+     * Anomalies while a run is already due, queued or in progress are coalesced into it.
+     */
+    public void expedite(InfrastructureAsset asset) {
+        long now = System.currentTimeMillis();
+        ScheduledAsset scheduled = assets.computeIfAbsent(asset.getId(), id -> {
+            // Not loaded yet: a new asset, or the first refresh has not run
+            ScheduledAsset created = new ScheduledAsset(id, asset.getAssetId());
+            created.priority = asset.getMaintenancePriority() != null ? asset.getMaintenancePriority() : 0;
+            created.dueAt = Long.MAX_VALUE;
+            return created;
+        });
+        synchronized (scheduled) {
+            long dueAt = Math.max(now + anomalyDelayMs, scheduled.lastRunAt + anomalyMinIntervalMs);
+            if (scheduled.running || dueAt >= scheduled.dueAt) {
+                coalesced.increment();
+                return;
+            }
+            scheduled.dueAt = dueAt;
+            scheduled.expedited = true;
+            schedule(scheduled);
+        }
+        expedited.increment();
+    }
+
+    /**
+     * Advances the wheel: assets that are due join the ready queue, assets due on a later lap
+     * are re-queued, and ready assets are handed to the workers within the rate and concurrency
+     * limits.
+     */
+    @Scheduled(fixedDelayString = "${prediction.schedule.tick-ms:1000}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long target = now / tickMs;
+        for (long t = wheelTick + 1; t <= target; t++) {
+            Queue<ScheduledAsset> slot = wheel[(int) (t % wheel.length)];
+            ScheduledAsset scheduled;
+            while ((scheduled = slot.poll()) != null) {
+                synchronized (scheduled) {
+                    // Stale entry: the asset was rescheduled, is already queued, or was removed
+                    if (scheduled.slotTick != t || scheduled.running || scheduled.removed) {
+                        continue;
+                    }
+                    if (scheduled.dueAt > now) {
+                        schedule(scheduled);
+                        continue;
+                    }
+                    scheduled.running = true;
+                }
+                ready.add(scheduled);
+            }
+            wheelTick = t;
+        }
+        dispatch(now);
+    }
+
+    /** Adds new assets, updates priorities and drops deleted or out-of-service assets. */
+    @Scheduled(fixedDelayString = "${prediction.schedule.refresh-interval-ms:600000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Set<Long> seen = new HashSet<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(ASSET_QUERY);
+            ps.setFetchSize(10_000);
+            return ps;
+        }, rs -> {
+            long id = rs.getLong(1);
+            if (InfrastructureAsset.AssetStatus.OUT_OF_SERVICE.name().equals(rs.getString(4))) {
+                return;
+            }
+            seen.add(id);
+            int priority = rs.getInt(3);
+            String risk = rs.getString(5);
+            Timestamp lastPrediction = rs.getTimestamp(6);
+            ScheduledAsset scheduled = assets.get(id);
+            if (scheduled == null) {
+                scheduled = new ScheduledAsset(id, rs.getString(2));
+                scheduled.priority = priority;
+                scheduled.risk = risk != null ? MaintenancePrediction.RiskLevel.valueOf(risk) : null;
+                long interval = interval(scheduled);
+                long dueAt = lastPrediction != null
+                        ? lastPrediction.toLocalDateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                                + jittered(interval)
+                        : now;
+                // Overdue and never-scored assets are spread over one interval rather than all run at once
+                scheduled.dueAt = dueAt > now ? dueAt : now + ThreadLocalRandom.current().nextLong(interval);
+                ScheduledAsset existing = assets.putIfAbsent(id, scheduled);
+                if (existing == null) {
+                    synchronized (scheduled) {
+                        schedule(scheduled);
+                    }
+                    return;
+                }
+                scheduled = existing;
+            }
+            synchronized (scheduled) {
+                scheduled.priority = priority;
+            }
+        });
+
+        assets.values().removeIf(scheduled -> {
+            if (seen.contains(scheduled.id)) {
+                return false;
+            }
+            synchronized (scheduled) {
+                scheduled.removed = true;
+            }
+            return true;
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("assets", assets.size());
+        stats.put("ready", ready.size());
+        stats.put("inFlight", inFlight.get());
+        stats.put("cadenceRuns", (long) cadenceRuns.count());
+        stats.put("anomalyRuns", (long) anomalyRuns.count());
+        stats.put("anomaliesExpedited", expedited.sum());
+        stats.put("anomaliesCoalesced", coalesced.sum());
+        return stats;
+    }
+
+    private void dispatch(long now) {
+        tokens = Math.min(Math.max(1, maxPerSecond), tokens + (now - lastRefill) * maxPerSecond / 1000.0);
+        lastRefill = now;
+        while (tokens >= 1 && inFlight.get() < concurrency) {
+            ScheduledAsset scheduled = ready.poll();
+            if (scheduled == null) {
+                return;
+            }
+            tokens--;
+            inFlight.incrementAndGet();
+            workers.execute(() -> run(scheduled));
+        }
+    }
+
+    private void run(ScheduledAsset scheduled) {
+        try {
+            // One transaction per run, as for an anomaly on the ingest path, so the asset stays managed
+            MaintenancePrediction prediction = transactionTemplate.execute(
+                    status -> predictionEngineService.triggerPredictionForAsset(scheduled.assetId));
+            synchronized (scheduled) {
+                (scheduled.expedited ? anomalyRuns : cadenceRuns).increment();
+                if (prediction != null) {
+                    scheduled.risk = prediction.getRiskLevel();
+                    Integer priority = prediction.getAsset().getMaintenancePriority();
+                    scheduled.priority = priority != null ? priority : scheduled.priority;
+                }
+                long now = System.currentTimeMillis();
+                scheduled.lastRunAt = now;
+                scheduled.dueAt = now + jittered(interval(scheduled));
+                scheduled.expedited = false;
+                scheduled.running = false;
+                if (!scheduled.removed) {
+                    schedule(scheduled);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Scheduled prediction failed for asset " + scheduled.assetId + ": " + e.getMessage());
+            synchronized (scheduled) {
+                scheduled.dueAt = System.currentTimeMillis() + jittered(interval(scheduled));
+                scheduled.expedited = false;
+                scheduled.running = false;
+                if (!scheduled.removed) {
+                    schedule(scheduled);
+                }
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    // Caller holds the asset's lock
+    private void schedule(ScheduledAsset scheduled) {
+        // Stay within one lap and off the slot tick() may be draining; an asset due later is
+        // re-queued when its slot comes round
+        long current = wheelTick;
+        long tick = Math.min(Math.max(scheduled.dueAt / tickMs, current + 2), current + wheel.length);
+        scheduled.slotTick = tick;
+        wheel[(int) (tick % wheel.length)].add(scheduled);
+    }
+
+    private long interval(ScheduledAsset scheduled) {
+        MaintenancePrediction.RiskLevel risk = scheduled.risk != null ? scheduled.risk : MaintenancePrediction.RiskLevel.MEDIUM;
+        double speedup = prioritySpeedup * Math.min(10, Math.max(0, scheduled.priority)) / 10.0;
+        return Math.max(tickMs, (long) (intervals[risk.ordinal()] * (1 - speedup)));
+    }
+
+    private long jittered(long interval) {
+        return (long) (interval * (1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1)));
+    }
+
+    /** Schedule state of one asset; fields are guarded by the object's lock. */
+    private static final class ScheduledAsset {
+        private final long id;
+        private final String assetId;
+        private int priority;
+        private MaintenancePrediction.RiskLevel risk;
+        private long dueAt;
+        private long lastRunAt = Long.MIN_VALUE / 2;
+        // Tick of the wheel slot holding the live entry; entries in other slots are stale
+        private long slotTick;
+        private boolean running;
+        private boolean expedited;
+        private boolean removed;
+
+        private ScheduledAsset(long id, String assetId) {
+            this.id = id;
+            this.assetId = assetId;
+        }
+    }
+}
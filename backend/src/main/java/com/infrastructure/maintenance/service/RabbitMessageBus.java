@@ -0,0 +1,94 @@
+package com.infrastructure.maintenance.service;
+
+import com.infrastructure.maintenance.profiling.MessagePublishEvent;
+import com.infrastructure.maintenance.tracing.Span;
+import com.infrastructure.maintenance.tracing.SpanContext;
+import com.infrastructure.maintenance.tracing.Tracer;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Publishes through RabbitTemplate: events are converted to JSON by RabbitMQConfig's converter,
+ * encoded bodies are sent unchanged with their content type. While tracing, each message
+ * carries its publish span in a {@code traceparent} header.
+ */
+@Service
+@ConditionalOnProperty(name = "messaging.backend", havingValue = "rabbitmq", matchIfMissing = true)
+public class RabbitMessageBus implements MessageBus {
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Override
+    public void publish(String exchange, String routingKey, Object event) {
+        MessagePublishEvent publishEvent = new MessagePublishEvent();
+        publishEvent.begin();
+        Span span = tracer.startSpan("amqp publish", Span.Kind.PRODUCER);
+        try {
+            rabbitTemplate.convertAndSend(exchange, routingKey, event, message -> {
+                publishEvent.payloadSize = message.getBody().length;
+                inject(span, message.getMessageProperties());
+                return message;
+            });
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            end(span, exchange, routingKey, publishEvent.payloadSize);
+        }
+        commit(publishEvent, exchange, routingKey);
+    }
+
+    @Override
+    public void publish(String exchange, String routingKey, byte[] body, String contentType) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(contentType);
+        properties.setContentLength(body.length);
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        MessagePublishEvent publishEvent = new MessagePublishEvent();
+        publishEvent.begin();
+        Span span = tracer.startSpan("amqp publish", Span.Kind.PRODUCER);
+        inject(span, properties);
+        try {
+            rabbitTemplate.send(exchange, routingKey, new Message(body, properties));
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            end(span, exchange, routingKey, body.length);
+        }
+        publishEvent.payloadSize = body.length;
+        commit(publishEvent, exchange, routingKey);
+    }
+
+    // Consumers continue the trace from the traceparent message header
+    private static void inject(Span span, MessageProperties properties) {
+        if (span.context() != null) {
+            properties.setHeader(SpanContext.TRACEPARENT, span.context().toTraceparent());
+        }
+    }
+
+    private static void end(Span span, String exchange, String routingKey, long bytes) {
+        span.tag("messaging.system", "rabbitmq")
+                .tag("messaging.destination", exchange)
+                .tag("messaging.routing_key", routingKey)
+                .tag("messaging.message.bytes", bytes);
+        span.end();
+    }
+
+    private static void commit(MessagePublishEvent event, String exchange, String routingKey) {
+        if (event.shouldCommit()) {
+            event.exchange = exchange;
+            event.routingKey = routingKey;
+            event.commit();
+        }
+    }
+}
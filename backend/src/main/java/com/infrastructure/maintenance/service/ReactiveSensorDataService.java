@@ -0,0 +1,116 @@
+package com.infrastructure.maintenance.service;
+
+import com.influxdb.client.domain.Query;
+import com.influxdb.client.reactive.InfluxDBClientReactive;
+import com.influxdb.query.FluxRecord;
+import com.infrastructure.maintenance.config.InfluxDBConfig;
+import com.infrastructure.maintenance.dto.AssetSummary;
+import com.infrastructure.maintenance.model.InfrastructureAsset;
+import com.infrastructure.maintenance.model.SensorData;
+import com.infrastructure.maintenance.repository.ReactiveAssetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reactive counterpart of {@link SensorDataService} for the reactive profile. Validation,
+ * quality scoring, anomaly rules and the write and publish are the same code as the servlet
+ * path, so readings go to the configured {@link SensorDataStore} and message bus through the
+ * same dependency guards. Those calls, validation (which may submit a data quality alert) and
+ * anomaly handling (which runs prediction) block, so they run on the bounded elastic
+ * scheduler; the asset is looked up over R2DBC. History streams from the reactive InfluxDB
+ * client, or is read from the embedded or in-memory store off the event loop.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveSensorDataService {
+
+    @Autowired
+    private ReactiveAssetRepository assetRepository;
+
+    @Autowired
+    private SensorDataService sensorDataService;
+
+    @Autowired
+    private SensorDataStore sensorDataStore;
+
+    // Only with storage.backend=influxdb
+    @Autowired(required = false)
+    private InfluxDBService influxDBService;
+
+    @Autowired
+    private InfluxDBClientReactive influxDBClientReactive;
+
+    @Autowired
+    private InfluxDBConfig influxDBConfig;
+
+    public Mono<AssetSummary> getAssetSummary(String assetId) {
+        return assetRepository.findSummaryByAssetId(assetId);
+    }
+
+    public Mono<SensorData> recordSensorData(String assetId, String sensorId, String sensorType,
+                                             Double value, String unit) {
+        return assetRepository.findSummaryByAssetId(assetId)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Asset not found: " + assetId)))
+                .flatMap(asset -> Mono.fromCallable(() -> {
+                    SensorData sensorData = new SensorData(sensorId, sensorType, value, unit, toAsset(asset));
+                    sensorData.setTimestamp(LocalDateTime.now(ZoneOffset.UTC));
+                    sensorDataService.validateSensorData(sensorData);
+                    sensorDataService.storeAndPublish(sensorData);
+                    return sensorData;
+                }).subscribeOn(Schedulers.boundedElastic()))
+                .flatMap(sensorData -> {
+                    String alertMessage = sensorDataService.detectAnomaly(sensorData);
+                    if (alertMessage == null) {
+                        return Mono.just(sensorData);
+                    }
+                    return Mono.fromRunnable(() -> sensorDataService.handleAnomaly(sensorData, alertMessage))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .thenReturn(sensorData);
+                });
+    }
+
+    /**
+     * Streams history records as InfluxDB returns them; nothing is collected in memory. The
+     * query is built eagerly so an invalid range fails here rather than mid-response. Without
+     * InfluxDB the store's records are read in one call on the bounded elastic scheduler.
+     */
+    public Flux<FluxRecord> getSensorDataHistory(String assetId, String sensorType, String timeRange) {
+        if (influxDBService == null) {
+            if (!FluxDurations.isDuration(timeRange)) {
+                try {
+                    Instant.parse(timeRange);
+                } catch (DateTimeParseException | NullPointerException e) {
+                    throw new IllegalArgumentException("Invalid range start: " + timeRange);
+                }
+            }
+            return Mono.fromCallable(() -> sensorDataStore.querySensorData(assetId, sensorType, timeRange))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMapIterable(records -> records);
+        }
+        FluxQueryBuilder.FluxQuery query = influxDBService.sensorHistoryQuery(assetId, sensorType, timeRange)
+                .build(influxDBService.isParameterizedQueries());
+        if (query.isParameterized()) {
+            return Flux.from(influxDBClientReactive.getQueryReactiveApi().query(
+                    new Query().query(query.getText()).params(query.getParams()), influxDBConfig.getOrg()));
+        }
+        return Flux.from(influxDBClientReactive.getQueryReactiveApi().query(query.getText(), influxDBConfig.getOrg()));
+    }
+
+    private static InfrastructureAsset toAsset(AssetSummary summary) {
+        InfrastructureAsset asset = new InfrastructureAsset(summary.getAssetId(), summary.getName(), summary.getType(),
+                summary.getLatitude(), summary.getLongitude());
+        asset.setId(summary.getId());
+        asset.setStatus(summary.getStatus());
+        asset.setMaintenancePriority(summary.getMaintenancePriority());
+        return asset;
+    }
+}
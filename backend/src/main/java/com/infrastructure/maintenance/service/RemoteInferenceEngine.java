@@ -0,0 +1,114 @@
+package com.infrastructure.maintenance.service;
+
+import com.infrastructure.maintenance.model.InfrastructureAsset;
+import com.infrastructure.maintenance.model.MaintenancePrediction;
+import com.infrastructure.maintenance.tracing.Tracer;
+import com.infrastructure.maintenance.tracing.TracingInterceptor;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores through the Flask ML engine: micro-batched via MLEngineBatchClient when
+ * {@code ml.engine.batch.enabled}, otherwise one /predict call per asset. Always enabled, so
+ * it is the last resort when no in-JVM engine is.
+ */
+@Service
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class RemoteInferenceEngine implements InferenceEngine {
+
+    @Autowired
+    private MLEngineBatchClient mlEngineBatchClient;
+
+    @Value("${ml.engine.url:http://localhost:5000}")
+    private String mlEngineUrl;
+
+    @Value("${ml.engine.batch.timeout-ms:10000}")
+    private long mlEngineBatchTimeoutMs;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private TracingInterceptor tracingInterceptor;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    @PostConstruct
+    public void init() {
+        if (tracer.isEnabled()) {
+            restTemplate.getInterceptors().add(tracingInterceptor);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<MaintenancePrediction> predict(InfrastructureAsset asset, Map<String, double[]> sensorFeatures) {
+        Map<String, Object> predictionRequest = preparePredictionRequest(asset, sensorFeatures);
+        if (mlEngineBatchClient.isEnabled()) {
+            // Micro-batched call to the ML engine's batch endpoint
+            return mlEngineBatchClient.predict(predictionRequest)
+                    .orTimeout(mlEngineBatchTimeoutMs, TimeUnit.MILLISECONDS)
+                    .thenApply(result -> Predictions.fromResult(asset, result));
+        }
+
+        // Call ML engine API
+        String prediction = callMLEngine(predictionRequest);
+
+        // Parse prediction result
+        return CompletableFuture.completedFuture(parsePredictionResult(asset, prediction));
+    }
+
+    private Map<String, Object> preparePredictionRequest(InfrastructureAsset asset, 
+                                                       Map<String, double[]> sensorFeatures) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("asset_id", asset.getAssetId());
+        request.put("asset_type", asset.getType());
+        request.put("installation_date", asset.getInstallationDate());
+        request.put("last_maintenance", asset.getLastMaintenance());
+        request.put("feature_names", SensorFeatureExtractor.FEATURE_NAMES);
+        request.put("features", sensorFeatures);
+        
+        return request;
+    }
+
+    private String callMLEngine(Map<String, Object> predictionRequest) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(predictionRequest, headers);
+        
+        return restTemplate.postForObject(
+            mlEngineUrl + "/predict", 
+            entity, 
+            String.class
+        );
+    }
+
+    private MaintenancePrediction parsePredictionResult(InfrastructureAsset asset, String prediction) {
+        try {
+            // In a real implementation, you would parse the JSON response from ML engine
+            // For now, we'll create a mock prediction
+            return Predictions.fromAssetAge(asset);
+        } catch (Exception e) {
+            System.err.println("Error parsing prediction result: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,14 +1,28 @@
 package com.infrastructure.maintenance.service;
 
+import com.infrastructure.maintenance.dto.BulkSensorData;
 import com.infrastructure.maintenance.model.SensorData;
 import com.infrastructure.maintenance.model.InfrastructureAsset;
+import com.infrastructure.maintenance.profiling.ReadingIngestEvent;
 import com.infrastructure.maintenance.repository.InfrastructureAssetRepository;
+import com.infrastructure.maintenance.storage.ReadingBlock;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.ByteBuffer;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -19,7 +33,10 @@ public class SensorDataService {
     private InfrastructureAssetRepository assetRepository;
 
     @Autowired
-    private InfluxDBService influxDBService;
+    private SensorDataStore sensorDataStore;
+
+    @Autowired
+    private DegradationService degradationService;
 
     @Autowired
     private EventPublisher eventPublisher;
@@ -27,8 +44,25 @@ public class SensorDataService {
     @Autowired
     private PredictionEngineService predictionEngineService;
 
+    @Autowired
+    private PredictionScheduler predictionScheduler;
+
+    @Autowired
+    private FleetRiskSweepService fleetRiskSweepService;
+
+    @Autowired
+    private AlertAggregator alertAggregator;
+
+    @Autowired
+    private DataQualityService dataQualityService;
+
+    @Value("${ingest.batch.max-readings:100000}")
+    private int maxBatchReadings;
+
     public SensorData recordSensorData(String assetId, String sensorId, String sensorType, 
                                      Double value, String unit) {
+        ReadingIngestEvent event = new ReadingIngestEvent();
+        event.begin();
         Optional<InfrastructureAsset> assetOpt = assetRepository.findByAssetId(assetId);
         
         if (assetOpt.isEmpty()) {
@@ -37,91 +71,208 @@ public class SensorDataService {
 
         InfrastructureAsset asset = assetOpt.get();
         SensorData sensorData = new SensorData(sensorId, sensorType, value, unit, asset);
-        sensorData.setTimestamp(LocalDateTime.now());
+        sensorData.setTimestamp(LocalDateTime.now(ZoneOffset.UTC));
 
         // Validate sensor data quality
         validateSensorData(sensorData);
 
-        // Store in InfluxDB for time-series analysis
-        influxDBService.writeSensorData(sensorData);
-
-        // Publish sensor data event
-        eventPublisher.publishSensorDataReceived(sensorData);
+        storeAndPublish(sensorData);
 
         // Check for anomalies and trigger prediction if needed
         checkForAnomalies(sensorData);
 
+        commit(event, "single", 1, 0);
         return sensorData;
     }
 
+    /**
+     * Stores a validated reading and publishes its event, each through its dependency guard.
+     * Throws RejectedExecutionException when a guard in {@code fail} mode refuses it.
+     */
+    public void storeAndPublish(SensorData sensorData) {
+        // Store in InfluxDB for time-series analysis
+        degradationService.write(sensorData);
+
+        // Publish sensor data event
+        eventPublisher.publishSensorDataReceived(sensorData);
+    }
+
     public void recordSensorDataBatch(List<SensorData> sensorDataList) {
-        // Validate all sensor data
-        for (SensorData sensorData : sensorDataList) {
-            validateSensorData(sensorData);
+        ReadingIngestEvent event = new ReadingIngestEvent();
+        event.begin();
+        writeBatch(sensorDataList);
+        commit(event, "batch", sensorDataList.size(), 0);
+    }
+
+    private void writeBatch(List<SensorData> sensorDataList) {
+        // Validate all sensor data in time order, so backfilled readings close their gap in
+        // sequence; they are stored and published in the order they came
+        List<SensorData> byTime = new ArrayList<>(sensorDataList);
+        byTime.sort(Comparator.comparing(SensorData::getTimestamp, Comparator.nullsLast(Comparator.naturalOrder())));
+        for (SensorData sensorData : byTime) {
+            validateSensorData(sensorData, true);
         }
 
         // Batch write to InfluxDB for better performance
-        influxDBService.writeSensorDataBatch(sensorDataList);
+        degradationService.write(sensorDataList);
 
-        // Publish events for each sensor data point
-        for (SensorData sensorData : sensorDataList) {
-            eventPublisher.publishSensorDataReceived(sensorData);
+        eventPublisher.publishSensorDataBatch(sensorDataList);
+
+        checkForAnomalies(sensorDataList);
+    }
+
+    private void checkBatchSize(int readings) {
+        if (readings > maxBatchReadings) {
+            throw new IllegalArgumentException("Batch of " + readings + " readings exceeds the limit of " + maxBatchReadings);
+        }
+    }
+
+    /**
+     * Converts JSON batch entries ({@code assetId}, {@code sensorId}, {@code sensorType},
+     * {@code value}, {@code unit} and an optional ISO-8601 UTC {@code timestamp}) to readings.
+     */
+    public List<SensorData> parseBatchRequest(List<Map<String, Object>> sensorRequests) {
+        checkBatchSize(sensorRequests.size());
+        Map<String, InfrastructureAsset> assets = new HashMap<>();
+        List<SensorData> sensorDataList = new ArrayList<>(sensorRequests.size());
+        for (Map<String, Object> request : sensorRequests) {
+            Object value = request.get("value");
+            SensorData sensorData = new SensorData((String) request.get("sensorId"), (String) request.get("sensorType"),
+                    value != null ? Double.valueOf(value.toString()) : null, (String) request.get("unit"),
+                    findAsset((String) request.get("assetId"), assets));
+            Object timestamp = request.get("timestamp");
+            if (timestamp != null) {
+                sensorData.setTimestamp(LocalDateTime.ofInstant(Instant.parse(timestamp.toString()), ZoneOffset.UTC));
+            }
+            sensorDataList.add(sensorData);
+        }
+        return sensorDataList;
+    }
+
+    /**
+     * Records a {@link ReadingBlock}. Each sequence is decoded straight from the request body;
+     * block timestamps are epoch milliseconds, stored as UTC like every other write. Returns
+     * the number of readings recorded.
+     */
+    public int recordSensorDataBlock(ByteBuffer block) {
+        ReadingIngestEvent event = new ReadingIngestEvent();
+        event.begin();
+        int bodyBytes = block.remaining();
+        ReadingBlock.Reader reader = ReadingBlock.read(block);
+        checkBatchSize(reader.getReadingCount());
+        Map<String, InfrastructureAsset> assets = new HashMap<>();
+        List<SensorData> sensorDataList = new ArrayList<>(reader.getReadingCount());
+        for (ReadingBlock.Sequence sequence : reader.getSequences()) {
+            InfrastructureAsset asset = findAsset(sequence.getAssetId(), assets);
+            long[] times = new long[sequence.getCount()];
+            double[] values = new double[sequence.getCount()];
+            sequence.decode(times, values, 0);
+            for (int i = 0; i < times.length; i++) {
+                SensorData sensorData = new SensorData(sequence.getSensorId(), sequence.getSensorType(),
+                        values[i], sequence.getUnit(), asset);
+                sensorData.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(times[i]), ZoneOffset.UTC));
+                sensorDataList.add(sensorData);
+            }
+        }
+        writeBatch(sensorDataList);
+        commit(event, "block", sensorDataList.size(), bodyBytes);
+        return sensorDataList.size();
+    }
+
+    private void commit(ReadingIngestEvent event, String path, int readings, int bodyBytes) {
+        if (event.shouldCommit()) {
+            event.path = path;
+            event.payloadSize = readings;
+            event.bodyBytes = bodyBytes;
+            event.commit();
         }
     }
 
-    private void validateSensorData(SensorData sensorData) {
+    private InfrastructureAsset findAsset(String assetId, Map<String, InfrastructureAsset> found) {
+        InfrastructureAsset asset = found.get(assetId);
+        if (asset == null) {
+            asset = assetRepository.findByAssetId(assetId)
+                    .orElseThrow(() -> new RuntimeException("Asset not found: " + assetId));
+            found.put(assetId, asset);
+        }
+        return asset;
+    }
+
+    /**
+     * Rejects readings without a value and sets the quality score. Shared with the reactive
+     * ingest path, so it must not touch the database; SUPPORTS keeps the proxy from opening a
+     * transaction when called outside one.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void validateSensorData(SensorData sensorData) {
+        validateSensorData(sensorData, false);
+    }
+
+    private void validateSensorData(SensorData sensorData, boolean batch) {
         // Basic validation
         if (sensorData.getValue() == null) {
             throw new IllegalArgumentException("Sensor value cannot be null");
         }
 
-        // Set quality score based on data validation
-        double qualityScore = calculateDataQuality(sensorData);
+        // Set quality score based on the configured rules for this asset and sensor type
+        DataQualityRuleSet.Assessment assessment = dataQualityService.assess(sensorData, batch);
+        double qualityScore = assessment.getScore();
         sensorData.setQualityScore(qualityScore);
 
         // Alert if data quality is poor
         if (qualityScore < 0.5) {
-            eventPublisher.publishAlert(
+            alertAggregator.submit(
                     sensorData.getAsset().getAssetId(),
                     "POOR_DATA_QUALITY",
-                    String.format("Poor data quality detected for sensor %s: %.2f", 
-                                sensorData.getSensorId(), qualityScore),
+                    sensorData.getSensorId(),
+                    String.format("Poor data quality detected for sensor %s: %.2f %s", 
+                                sensorData.getSensorId(), qualityScore, assessment.getFailed()),
                     "WARNING"
             );
         }
     }
 
-    private double calculateDataQuality(SensorData sensorData) {
-        double qualityScore = 1.0;
-
-        // Check for reasonable value ranges based on sensor type
-        switch (sensorData.getSensorType().toUpperCase()) {
-            case "TEMPERATURE":
-                if (sensorData.getValue() < -50 || sensorData.getValue() > 100) {
-                    qualityScore *= 0.3; // Unrealistic temperature
-                }
-                break;
-            case "VIBRATION":
-                if (sensorData.getValue() < 0 || sensorData.getValue() > 1000) {
-                    qualityScore *= 0.3; // Unrealistic vibration
-                }
-                break;
-            case "PRESSURE":
-                if (sensorData.getValue() < 0) {
-                    qualityScore *= 0.1; // Negative pressure is unusual
-                }
-                break;
-            case "HUMIDITY":
-                if (sensorData.getValue() < 0 || sensorData.getValue() > 100) {
-                    qualityScore *= 0.2; // Humidity should be 0-100%
-                }
-                break;
+    private void checkForAnomalies(SensorData sensorData) {
+        String alertMessage = detectAnomaly(sensorData);
+        if (alertMessage != null) {
+            handleAnomaly(sensorData, alertMessage);
         }
+    }
 
-        return Math.max(0.0, Math.min(1.0, qualityScore));
+    /**
+     * Batch counterpart of the single-reading check. Every anomalous reading is counted for the
+     * fleet sweep, but each sensor raises one alert and expedites one prediction per batch, for
+     * its latest anomalous reading.
+     */
+    private void checkForAnomalies(List<SensorData> sensorDataList) {
+        Map<String, SensorData> latest = new LinkedHashMap<>();
+        Map<String, String> alertMessages = new HashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (SensorData sensorData : sensorDataList) {
+            String alertMessage = detectAnomaly(sensorData);
+            if (alertMessage == null) {
+                continue;
+            }
+            String key = sensorData.getAsset().getAssetId() + '/' + sensorData.getSensorId() + '/' + sensorData.getSensorType();
+            counts.merge(key, 1, Integer::sum);
+            SensorData previous = latest.get(key);
+            if (previous == null || !sensorData.getTimestamp().isBefore(previous.getTimestamp())) {
+                latest.put(key, sensorData);
+                alertMessages.put(key, alertMessage);
+            }
+        }
+        for (Map.Entry<String, SensorData> entry : latest.entrySet()) {
+            handleAnomaly(entry.getValue(), alertMessages.get(entry.getKey()), counts.get(entry.getKey()));
+        }
     }
 
-    private void checkForAnomalies(SensorData sensorData) {
+    /** Threshold check for a reading; returns the alert message, or null if the reading is normal. */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String detectAnomaly(SensorData sensorData) {
+        if (sensorData.getSensorType() == null) {
+            return null;
+        }
+
         // Simple anomaly detection based on thresholds
         boolean isAnomalous = false;
         String alertMessage = "";
@@ -147,25 +298,47 @@ public class SensorDataService {
                 break;
         }
 
-        if (isAnomalous) {
-            // Publish alert
-            eventPublisher.publishAlert(
-                    sensorData.getAsset().getAssetId(),
-                    "ANOMALY_DETECTED",
-                    alertMessage,
-                    "WARNING"
-            );
+        return isAnomalous ? alertMessage : null;
+    }
+
+    /**
+     * Counts the anomaly, raises the alert and brings the asset's next prediction forward; with
+     * the prediction scheduler disabled, predicts right away, which blocks.
+     */
+    public void handleAnomaly(SensorData sensorData, String alertMessage) {
+        handleAnomaly(sensorData, alertMessage, 1);
+    }
 
-            // Trigger predictive analysis for this asset
+    private void handleAnomaly(SensorData sensorData, String alertMessage, int anomalies) {
+        fleetRiskSweepService.recordAnomalies(sensorData.getAsset().getId(), anomalies);
+
+        // Publish alert
+        alertAggregator.submit(
+                sensorData.getAsset().getAssetId(),
+                "ANOMALY_DETECTED",
+                sensorData.getSensorId(),
+                alertMessage,
+                "WARNING"
+        );
+
+        // Trigger predictive analysis for this asset; the scheduler coalesces repeated anomalies
+        if (predictionScheduler.isEnabled()) {
+            predictionScheduler.expedite(sensorData.getAsset());
+        } else {
             predictionEngineService.triggerPredictionForAsset(sensorData.getAsset().getAssetId());
         }
     }
 
     public List<com.influxdb.query.FluxRecord> getSensorDataHistory(String assetId, String sensorType, String timeRange) {
-        return influxDBService.querySensorData(assetId, sensorType, timeRange);
+        return sensorDataStore.querySensorData(assetId, sensorType, timeRange);
     }
 
     public List<com.influxdb.query.FluxRecord> getAggregatedSensorData(String assetId, String aggregationWindow) {
-        return influxDBService.getAggregatedSensorData(assetId, aggregationWindow);
+        return sensorDataStore.getAggregatedSensorData(assetId, aggregationWindow);
+    }
+
+    public BulkSensorData getBulkSensorData(Collection<String> assetIds, Collection<String> sensorTypes,
+                                            String timeRange, String aggregationWindow) {
+        return sensorDataStore.queryBulkSensorData(assetIds, sensorTypes, timeRange, aggregationWindow);
     }
-}
\ No newline at end of file
+}
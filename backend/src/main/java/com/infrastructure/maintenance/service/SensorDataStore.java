@@ -0,0 +1,47 @@
+package com.infrastructure.maintenance.service;
+
+import com.influxdb.query.FluxRecord;
+import com.infrastructure.maintenance.dto.BulkSensorData;
+import com.infrastructure.maintenance.dto.SensorSeries;
+import com.infrastructure.maintenance.model.SensorData;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Time-series storage for sensor readings. Selected with {@code storage.backend}: InfluxDB
+ * ({@code influxdb}, the default), the embedded single-node store ({@code embedded}) or the
+ * in-JVM benchmark store ({@code memory}). Records keep the InfluxDB column layout so callers
+ * and API responses do not depend on the backend.
+ */
+public interface SensorDataStore {
+
+    void writeSensorData(SensorData sensorData);
+
+    void writeSensorDataBatch(List<SensorData> sensorDataList);
+
+    /** Readings of one sensor type of an asset since {@code timeRange}, one table per sensor. */
+    List<FluxRecord> querySensorData(String assetId, String sensorType, String timeRange);
+
+    /** Per-sensor means over {@code aggregationWindow} windows for the last 24 hours. */
+    List<FluxRecord> getAggregatedSensorData(String assetId, String aggregationWindow);
+
+    /** Raw readings of one asset merged per upper-cased sensor type, ordered by time. */
+    Map<String, SensorSeries> querySensorSeries(String assetId, String timeRange);
+
+    /** Window means per (asset, sensor type), pivoted into one columnar block per asset. */
+    BulkSensorData queryBulkSensorData(Collection<String> assetIds, Collection<String> sensorTypes,
+                                       String timeRange, String aggregationWindow);
+
+    /**
+     * Streams readings between {@code start} and {@code stop} to {@code consumer}, one series at
+     * a time. A null {@code assetIds} reads every asset. Blocks until done, the consumer throws,
+     * or {@code cancelled} turns true.
+     */
+    void streamSensorReadings(String bucket, Collection<String> assetIds, Instant start, Instant stop,
+                              BooleanSupplier cancelled, Consumer<FluxRecord> consumer) throws InterruptedException;
+}
@@ -0,0 +1,346 @@
+package com.infrastructure.maintenance.service;
+
+import com.influxdb.query.FluxRecord;
+import com.infrastructure.maintenance.config.InfluxDBConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulk export of raw sensor history. The time range is read from InfluxDB in chunks, each
+ * chunk streamed record by record into a {@link SensorExportWriter}, so memory stays at one row
+ * group regardless of the range. Exports run as background jobs writing to
+ * {@code export.directory}, or directly into an HTTP response. Finished jobs and their files
+ * are removed {@code export.ttl} after they finish.
+ */
+@Service
+public class SensorExportService {
+
+    private static final int ASSET_GROUP_SIZE = 500;
+
+    @Autowired
+    private SensorDataStore sensorDataStore;
+
+    @Autowired
+    private InfluxDBConfig influxDBConfig;
+
+    @Value("${export.directory:exports}")
+    private String directory;
+
+    @Value("${export.row-group-size:65536}")
+    private int rowGroupSize;
+
+    @Value("${export.chunk:1d}")
+    private String chunk;
+
+    @Value("${export.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${export.ttl:24h}")
+    private String ttl;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newFixedThreadPool(maxConcurrent, runnable -> {
+            Thread thread = new Thread(runnable, "sensor-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> job.cancelled.set(true));
+        executor.shutdownNow();
+    }
+
+    /**
+     * Parses an export request: {@code start} is an RFC3339 timestamp or a relative duration
+     * such as "-30d", {@code stop} defaults to now, {@code assetIds} defaults to the whole
+     * fleet and {@code tier} (raw, 1m or 1h) to raw readings. Missing, malformed or wrongly
+     * typed fields throw IllegalArgumentException.
+     */
+    public ExportRequest parseRequest(Map<String, Object> body) {
+        Instant now = Instant.now();
+        String startValue = stringField(body, "start");
+        if (startValue == null) {
+            throw new IllegalArgumentException("start is required");
+        }
+        Instant start = parseInstant(startValue, now);
+        String stopValue = stringField(body, "stop");
+        Instant stop = stopValue != null ? parseInstant(stopValue, now) : now;
+        if (!start.isBefore(stop)) {
+            throw new IllegalArgumentException("start must be before stop");
+        }
+        String tierName = Objects.requireNonNullElse(stringField(body, "tier"), "raw");
+        String bucket = influxDBConfig.getTiers().stream()
+                .filter(tier -> tier.getName().equals(tierName))
+                .map(InfluxDBConfig.RetentionTier::getBucket)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown tier: " + tierName));
+        List<String> assetIds = new ArrayList<>();
+        Object assetIdsValue = body.get("assetIds");
+        if (assetIdsValue != null) {
+            if (!(assetIdsValue instanceof List)) {
+                throw new IllegalArgumentException("assetIds must be an array of strings");
+            }
+            for (Object assetId : (List<?>) assetIdsValue) {
+                if (!(assetId instanceof String)) {
+                    throw new IllegalArgumentException("assetIds must be an array of strings");
+                }
+                assetIds.add((String) assetId);
+            }
+        }
+        return new ExportRequest(bucket, assetIds.isEmpty() ? null : assetIds, start, stop);
+    }
+
+    public ExportJob startExport(ExportRequest request) throws IOException {
+        Path dir = Path.of(directory);
+        Files.createDirectories(dir);
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), request);
+        job.file = dir.resolve("sensor-export-" + job.id + SensorExportWriter.FILE_EXTENSION);
+        jobs.put(job.id, job);
+
+        executor.submit(() -> {
+            job.state = ExportState.RUNNING;
+            try (OutputStream out = Files.newOutputStream(job.file)) {
+                writeExport(request, out, job);
+                job.finish(job.cancelled.get() ? ExportState.CANCELLED : ExportState.COMPLETED);
+            } catch (Exception e) {
+                job.error = e.getMessage();
+                job.finish(ExportState.FAILED);
+            }
+            if (job.state != ExportState.COMPLETED) {
+                deleteQuietly(job.file);
+            }
+        });
+        return job;
+    }
+
+    public ExportJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Forgets finished jobs older than {@code export.ttl} and deletes their files, along with
+     * export files left over from earlier runs of the backend.
+     */
+    @Scheduled(fixedDelayString = "${export.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - FluxDurations.parse(ttl).toMillis();
+        jobs.values().removeIf(job -> {
+            boolean expired = job.finishedAt > 0 && job.finishedAt < cutoff;
+            if (expired) {
+                deleteQuietly(job.file);
+            }
+            return expired;
+        });
+
+        Path dir = Path.of(directory);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "sensor-export-*" + SensorExportWriter.FILE_EXTENSION)) {
+            for (Path file : files) {
+                boolean tracked = jobs.values().stream().anyMatch(job -> file.equals(job.file));
+                if (!tracked && Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not clean up export directory " + dir + ": " + e.getMessage());
+        }
+    }
+
+    /** Cancels a running job, or forgets a finished one and deletes its file. */
+    public ExportJob cancelOrDelete(String id) {
+        ExportJob job = jobs.get(id);
+        if (job == null) {
+            return null;
+        }
+        if (job.state == ExportState.QUEUED || job.state == ExportState.RUNNING) {
+            job.cancelled.set(true);
+        } else {
+            jobs.remove(id);
+            deleteQuietly(job.file);
+        }
+        return job;
+    }
+
+    /**
+     * Streams the export to {@code out}, one time chunk and up to 500 assets per query. Closes
+     * {@code out} when done.
+     */
+    public void writeExport(ExportRequest request, OutputStream out, ExportJob progress) throws IOException, InterruptedException {
+        Duration step = FluxDurations.parse(chunk);
+        List<List<String>> assetGroups = partition(request.assetIds);
+        long steps = (Duration.between(request.start, request.stop).toMillis() + step.toMillis() - 1) / step.toMillis();
+        progress.chunksTotal = steps * assetGroups.size();
+
+        try (SensorExportWriter writer = new SensorExportWriter(out, rowGroupSize)) {
+            for (Instant from = request.start; from.isBefore(request.stop) && !progress.cancelled.get(); from = from.plus(step)) {
+                Instant to = from.plus(step).isAfter(request.stop) ? request.stop : from.plus(step);
+                for (List<String> group : assetGroups) {
+                    sensorDataStore.streamSensorReadings(request.bucket, group, from, to, progress.cancelled::get,
+                            record -> append(writer, record));
+                    progress.chunksDone++;
+                    progress.rowsWritten = writer.getTotalRows();
+                }
+            }
+            progress.rowsWritten = writer.getTotalRows();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void append(SensorExportWriter writer, FluxRecord record) {
+        Object value = record.getValue();
+        if (!(value instanceof Number) || record.getTime() == null) {
+            return;
+        }
+        try {
+            writer.append(record.getTime().toEpochMilli(), ((Number) value).doubleValue(),
+                    (String) record.getValueByKey("asset_id"),
+                    (String) record.getValueByKey("sensor_type"),
+                    (String) record.getValueByKey("sensor_id"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<List<String>> partition(Collection<String> assetIds) {
+        List<List<String>> groups = new ArrayList<>();
+        if (assetIds == null) {
+            groups.add(null);
+            return groups;
+        }
+        List<String> ids = new ArrayList<>(assetIds);
+        for (int i = 0; i < ids.size(); i += ASSET_GROUP_SIZE) {
+            groups.add(ids.subList(i, Math.min(ids.size(), i + ASSET_GROUP_SIZE)));
+        }
+        return groups;
+    }
+
+    // Wrong JSON types are the client's mistake, like malformed values
+    private static String stringField(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException(name + " must be a string");
+        }
+        return (String) value;
+    }
+
+    private static Instant parseInstant(String value, Instant now) {
+        if (FluxDurations.isDuration(value)) {
+            Duration offset = FluxDurations.parse(value);
+            return value.startsWith("-") ? now.minus(offset) : now.plus(offset);
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time: " + value);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not delete export file " + file + ": " + e.getMessage());
+        }
+    }
+
+    public static class ExportRequest {
+        private final String bucket;
+        private final List<String> assetIds;
+        private final Instant start;
+        private final Instant stop;
+
+        public ExportRequest(String bucket, List<String> assetIds, Instant start, Instant stop) {
+            this.bucket = bucket;
+            this.assetIds = assetIds;
+            this.start = start;
+            this.stop = stop;
+        }
+
+        public String getBucket() { return bucket; }
+        public List<String> getAssetIds() { return assetIds; }
+        public Instant getStart() { return start; }
+        public Instant getStop() { return stop; }
+    }
+
+    public enum ExportState {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    public static class ExportJob {
+        private final String id;
+        private final ExportRequest request;
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+        private final long createdAt = System.currentTimeMillis();
+        private volatile ExportState state = ExportState.QUEUED;
+        private volatile Path file;
+        private volatile long chunksTotal;
+        private volatile long chunksDone;
+        private volatile long rowsWritten;
+        private volatile long finishedAt;
+        private volatile String error;
+
+        public ExportJob(String id, ExportRequest request) {
+            this.id = id;
+            this.request = request;
+        }
+
+        private void finish(ExportState finalState) {
+            finishedAt = System.currentTimeMillis();
+            state = finalState;
+        }
+
+        public String getId() { return id; }
+        public ExportRequest getRequest() { return request; }
+        public ExportState getState() { return state; }
+        public long getChunksTotal() { return chunksTotal; }
+        public long getChunksDone() { return chunksDone; }
+        public long getRowsWritten() { return rowsWritten; }
+        public String getError() { return error; }
+        public long getDurationMs() { return (finishedAt > 0 ? finishedAt : System.currentTimeMillis()) - createdAt; }
+
+        public Path file() { return file; }
+
+        public long getFileSizeBytes() {
+            try {
+                return file != null && Files.exists(file) ? Files.size(file) : 0;
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+    }
+}
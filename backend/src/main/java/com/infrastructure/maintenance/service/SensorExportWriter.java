@@ -0,0 +1,262 @@
+package com.infrastructure.maintenance.service;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes sensor readings as an Apache Arrow IPC stream, one record batch per row group, so
+ * only one row group is held in memory. Columns are {@code time} (timestamp[ms, UTC]),
+ * {@code value} (float64) and the dictionary encoded utf8 columns {@code asset_id},
+ * {@code sensor_type} and {@code sensor_id}; each row group is preceded by delta dictionary
+ * batches holding just the entries first seen in it. Any Arrow reader can load it, e.g.
+ * {@code pyarrow.ipc.open_stream(path).read_pandas()}.
+ * <p>
+ * The metadata follows the Arrow columnar format (metadata version 5) and is encoded with
+ * {@link FlatBufferEncoder}; bodies are little-endian and 8-byte aligned.
+ */
+public class SensorExportWriter implements Closeable {
+
+    public static final String CONTENT_TYPE = "application/vnd.apache.arrow.stream";
+    public static final String FILE_EXTENSION = ".arrows";
+
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final short METADATA_V5 = 4;
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_DICTIONARY_BATCH = 2;
+    private static final byte HEADER_RECORD_BATCH = 3;
+    private static final byte TYPE_FLOATING_POINT = 3;
+    private static final byte TYPE_UTF8 = 5;
+    private static final byte TYPE_TIMESTAMP = 10;
+    private static final short PRECISION_DOUBLE = 2;
+    private static final short TIME_UNIT_MILLISECOND = 1;
+
+    private static final String[] TAG_COLUMNS = {"asset_id", "sensor_type", "sensor_id"};
+
+    private final OutputStream out;
+    private final int rowGroupSize;
+    private final long[] times;
+    private final double[] values;
+    private final int[][] codes;
+    private final Dictionary[] dictionaries = {new Dictionary(), new Dictionary(), new Dictionary()};
+    private final ByteBuffer body;
+    private final ByteBuffer prefix = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+
+    private int rows;
+    private long totalRows;
+    private int rowGroups;
+
+    public SensorExportWriter(OutputStream output, int rowGroupSize) throws IOException {
+        this.out = new BufferedOutputStream(output, 1 << 16);
+        this.rowGroupSize = rowGroupSize;
+        this.times = new long[rowGroupSize];
+        this.values = new double[rowGroupSize];
+        this.codes = new int[TAG_COLUMNS.length][rowGroupSize];
+        this.body = ByteBuffer.allocate(rowGroupSize * (Long.BYTES + Double.BYTES + TAG_COLUMNS.length * Integer.BYTES)
+                + TAG_COLUMNS.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        writeMessage(schema());
+    }
+
+    public void append(long timeMillis, double value, String assetId, String sensorType, String sensorId) throws IOException {
+        times[rows] = timeMillis;
+        values[rows] = value;
+        codes[0][rows] = dictionaries[0].code(assetId);
+        codes[1][rows] = dictionaries[1].code(sensorType);
+        codes[2][rows] = dictionaries[2].code(sensorId);
+        if (++rows == rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    public void flushRowGroup() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        for (int column = 0; column < dictionaries.length; column++) {
+            dictionaries[column].writeDelta(column);
+        }
+
+        // time and value, then the index columns; nothing is null, so validity buffers are empty
+        int columns = 2 + TAG_COLUMNS.length;
+        long[] buffers = new long[columns * 2 * 2];
+        int buffer = 0;
+        body.clear();
+        buffer = addBuffer(buffers, buffer, 0);
+        body.asLongBuffer().put(times, 0, rows);
+        buffer = addBuffer(buffers, buffer, rows * Long.BYTES);
+        buffer = addBuffer(buffers, buffer, 0);
+        body.asDoubleBuffer().put(values, 0, rows);
+        buffer = addBuffer(buffers, buffer, rows * Double.BYTES);
+        for (int[] column : codes) {
+            buffer = addBuffer(buffers, buffer, 0);
+            body.asIntBuffer().put(column, 0, rows);
+            buffer = addBuffer(buffers, buffer, rows * Integer.BYTES);
+        }
+        long[] nodes = new long[columns * 2];
+        for (int column = 0; column < columns; column++) {
+            nodes[column * 2] = rows;
+        }
+        int bodyLength = body.position();
+        writeMessage(message(HEADER_RECORD_BATCH, recordBatch(rows, nodes, buffers), bodyLength));
+        out.write(body.array(), 0, bodyLength);
+
+        totalRows += rows;
+        rowGroups++;
+        rows = 0;
+        out.flush();
+    }
+
+    public long getTotalRows() {
+        return totalRows + rows;
+    }
+
+    public int getRowGroups() {
+        return rowGroups;
+    }
+
+    /** Writes the end-of-stream marker and closes the underlying stream. */
+    @Override
+    public void close() throws IOException {
+        flushRowGroup();
+        writePrefix(0);
+        out.close();
+    }
+
+    private FlatBufferEncoder.Table schema() {
+        FlatBufferEncoder.Table[] fields = new FlatBufferEncoder.Table[2 + TAG_COLUMNS.length];
+        fields[0] = field("time", TYPE_TIMESTAMP, new FlatBufferEncoder.Table()
+                .addShort(0, TIME_UNIT_MILLISECOND)
+                .addString(1, "UTC"));
+        fields[1] = field("value", TYPE_FLOATING_POINT, new FlatBufferEncoder.Table()
+                .addShort(0, PRECISION_DOUBLE));
+        for (int column = 0; column < TAG_COLUMNS.length; column++) {
+            fields[2 + column] = field(TAG_COLUMNS[column], TYPE_UTF8, new FlatBufferEncoder.Table())
+                    .addTable(4, new FlatBufferEncoder.Table()
+                            .addLong(0, column)
+                            .addTable(1, new FlatBufferEncoder.Table().addInt(0, 32).addBoolean(1, true))
+                            .addBoolean(2, false));
+        }
+        return message(HEADER_SCHEMA, new FlatBufferEncoder.Table()
+                .addShort(0, 0)
+                .addTables(1, fields), 0);
+    }
+
+    private static FlatBufferEncoder.Table field(String name, byte type, FlatBufferEncoder.Table typeTable) {
+        return new FlatBufferEncoder.Table()
+                .addString(0, name)
+                .addBoolean(1, false)
+                .addByte(2, type)
+                .addTable(3, typeTable)
+                .addTables(5);
+    }
+
+    private static FlatBufferEncoder.Table recordBatch(long length, long[] nodes, long[] buffers) {
+        return new FlatBufferEncoder.Table()
+                .addLong(0, length)
+                .addLongPairs(1, nodes)
+                .addLongPairs(2, buffers);
+    }
+
+    private static FlatBufferEncoder.Table message(byte headerType, FlatBufferEncoder.Table header, long bodyLength) {
+        return new FlatBufferEncoder.Table()
+                .addShort(0, METADATA_V5)
+                .addByte(1, headerType)
+                .addTable(2, header)
+                .addLong(3, bodyLength);
+    }
+
+    // Encapsulated message: continuation marker, metadata length, metadata padded to 8 bytes
+    private void writeMessage(FlatBufferEncoder.Table message) throws IOException {
+        byte[] metadata = FlatBufferEncoder.encode(message);
+        writePrefix(metadata.length);
+        out.write(metadata);
+    }
+
+    private void writePrefix(int metadataLength) throws IOException {
+        prefix.clear();
+        prefix.putInt(CONTINUATION).putInt(metadataLength);
+        out.write(prefix.array(), 0, 8);
+    }
+
+    // Records a body buffer written at the current position and moves past it, 8-byte aligned
+    private int addBuffer(long[] buffers, int index, int length) {
+        buffers[index * 2] = body.position();
+        buffers[index * 2 + 1] = length;
+        body.position(body.position() + length);
+        pad(body);
+        return index + 1;
+    }
+
+    private static void pad(ByteBuffer buffer) {
+        while (buffer.position() % 8 != 0) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> pending = new ArrayList<>();
+        private boolean written;
+
+        private int code(String value) {
+            String key = value != null ? value : "";
+            Integer code = codes.get(key);
+            if (code == null) {
+                code = codes.size();
+                codes.put(key, code);
+                pending.add(key);
+            }
+            return code;
+        }
+
+        // Dictionary batch with the entries added since the last one; later ones are deltas
+        private void writeDelta(int id) throws IOException {
+            if (pending.isEmpty()) {
+                return;
+            }
+            byte[][] entries = new byte[pending.size()][];
+            int dataLength = 0;
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = pending.get(i).getBytes(StandardCharsets.UTF_8);
+                dataLength += entries[i].length;
+            }
+            int offsetsLength = (entries.length + 1) * Integer.BYTES;
+            ByteBuffer data = ByteBuffer.allocate(align8(offsetsLength) + align8(dataLength)).order(ByteOrder.LITTLE_ENDIAN);
+            int offset = 0;
+            data.putInt(offset);
+            for (byte[] entry : entries) {
+                offset += entry.length;
+                data.putInt(offset);
+            }
+            pad(data);
+            int dataStart = data.position();
+            for (byte[] entry : entries) {
+                data.put(entry);
+            }
+            pad(data);
+
+            long[] nodes = {entries.length, 0};
+            long[] buffers = {0, 0, 0, offsetsLength, dataStart, dataLength};
+            FlatBufferEncoder.Table batch = new FlatBufferEncoder.Table()
+                    .addLong(0, id)
+                    .addTable(1, recordBatch(entries.length, nodes, buffers))
+                    .addBoolean(2, written);
+            writeMessage(message(HEADER_DICTIONARY_BATCH, batch, data.capacity()));
+            out.write(data.array());
+            pending.clear();
+            written = true;
+        }
+    }
+
+    private static int align8(int length) {
+        return (length + 7) / 8 * 8;
+    }
+}
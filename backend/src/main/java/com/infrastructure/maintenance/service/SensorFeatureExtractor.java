@@ -0,0 +1,141 @@
+package com.infrastructure.maintenance.service;
+
+import com.infrastructure.maintenance.dto.SensorSeries;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Reduces a window of raw readings to a fixed-size feature vector, so prediction requests
+ * carry tens of numbers per asset instead of every point. All loops run over primitive
+ * arrays without allocation or branching in the inner body, which lets the JIT vectorize them.
+ */
+@Component
+public class SensorFeatureExtractor {
+
+    public static final int BAND_COUNT = 4;
+    public static final int MEAN = 0;
+    public static final int SAMPLE_COUNT = 9;
+    public static final List<String> FEATURE_NAMES = List.of(
+            "mean", "variance", "rms", "peak_to_peak", "kurtosis",
+            "band_energy_0", "band_energy_1", "band_energy_2", "band_energy_3", "sample_count");
+
+    // Spectral features use at most this many of the most recent samples
+    private static final int MAX_FFT_SIZE = 4096;
+
+    /**
+     * Features in {@link #FEATURE_NAMES} order. FFT band energies, which split 0..Nyquist into
+     * {@link #BAND_COUNT} equal bands, are only computed when {@code spectral} is set and are
+     * zero otherwise.
+     */
+    public double[] extract(SensorSeries series, boolean spectral) {
+        double[] values = series.getValues();
+        int n = series.getLength();
+        double[] features = new double[FEATURE_NAMES.size()];
+        features[SAMPLE_COUNT] = n;
+        if (n == 0) {
+            return features;
+        }
+
+        double sum = 0.0;
+        double sumSquares = 0.0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double v = values[i];
+            sum += v;
+            sumSquares += v * v;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        double mean = sum / n;
+
+        // Central moments in a second pass for numerical stability
+        double m2 = 0.0;
+        double m4 = 0.0;
+        for (int i = 0; i < n; i++) {
+            double d = values[i] - mean;
+            double d2 = d * d;
+            m2 += d2;
+            m4 += d2 * d2;
+        }
+        m2 /= n;
+        m4 /= n;
+
+        features[MEAN] = mean;
+        features[1] = m2;
+        features[2] = Math.sqrt(sumSquares / n);
+        features[3] = max - min;
+        features[4] = m2 > 0.0 ? m4 / (m2 * m2) - 3.0 : 0.0; // excess kurtosis
+
+        if (spectral && n >= 2 * BAND_COUNT) {
+            bandEnergies(values, n, mean, features, 5);
+        }
+        return features;
+    }
+
+    private void bandEnergies(double[] values, int n, double mean, double[] out, int offset) {
+        int used = Math.min(n, MAX_FFT_SIZE);
+        int size = Integer.highestOneBit(used);
+        if (size < used) {
+            size <<= 1;
+        }
+        size = Math.min(size, MAX_FFT_SIZE);
+
+        // Most recent samples, mean-removed, zero-padded to a power of two
+        double[] re = new double[size];
+        double[] im = new double[size];
+        int start = n - Math.min(used, size);
+        for (int i = start; i < n; i++) {
+            re[i - start] = values[i] - mean;
+        }
+        fft(re, im);
+
+        int bins = size / 2;
+        for (int k = 1; k <= bins; k++) {
+            int band = Math.min(BAND_COUNT - 1, (k - 1) * BAND_COUNT / bins);
+            out[offset + band] += (re[k] * re[k] + im[k] * im[k]) / size;
+        }
+    }
+
+    /** In-place iterative radix-2 Cooley-Tukey FFT; the length must be a power of two. */
+    static void fft(double[] re, double[] im) {
+        int n = re.length;
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                double tr = re[i]; re[i] = re[j]; re[j] = tr;
+                double ti = im[i]; im[i] = im[j]; im[j] = ti;
+            }
+        }
+        for (int len = 2; len <= n; len <<= 1) {
+            double angle = -2 * Math.PI / len;
+            double wRe = Math.cos(angle);
+            double wIm = Math.sin(angle);
+            int half = len >> 1;
+            for (int i = 0; i < n; i += len) {
+                double curRe = 1.0;
+                double curIm = 0.0;
+                for (int j = 0; j < half; j++) {
+                    int a = i + j;
+                    int b = a + half;
+                    double uRe = re[a];
+                    double uIm = im[a];
+                    double vRe = re[b] * curRe - im[b] * curIm;
+                    double vIm = re[b] * curIm + im[b] * curRe;
+                    re[a] = uRe + vRe;
+                    im[a] = uIm + vIm;
+                    re[b] = uRe - vRe;
+                    im[b] = uIm - vIm;
+                    double nextRe = curRe * wRe - curIm * wIm;
+                    curIm = curRe * wIm + curIm * wRe;
+                    curRe = nextRe;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.infrastructure.maintenance.service;
+
+import com.influxdb.query.FluxRecord;
+import com.infrastructure.maintenance.dto.BulkSensorData;
+import com.infrastructure.maintenance.dto.SensorSeries;
+import com.infrastructure.maintenance.model.SensorData;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Base for the in-JVM stores. Answers every query from per-series range reads, with the
+ * InfluxDB record layout and aggregateWindow() semantics, so implementations only store and
+ * read points.
+ */
+abstract class SeriesSensorDataStore<S extends SeriesSensorDataStore.SeriesInfo> implements SensorDataStore {
+
+    private static final String MEASUREMENT = "sensor_readings";
+    private static final Comparator<SeriesInfo> SERIES_ORDER =
+            Comparator.comparing((SeriesInfo s) -> s.sensorType).thenComparing(s -> s.sensorId);
+
+    /** Series of one asset in any order; empty for an unknown asset. */
+    protected abstract Collection<S> seriesOf(String assetId);
+
+    /** Points of {@code series} in [from, to), ordered by time. */
+    protected abstract SensorSeries read(S series, long from, long to);
+
+    protected abstract Collection<String> assetIds();
+
+    @Override
+    public void writeSensorDataBatch(List<SensorData> sensorDataList) {
+        for (SensorData sensorData : sensorDataList) {
+            writeSensorData(sensorData);
+        }
+    }
+
+    @Override
+    public List<FluxRecord> querySensorData(String assetId, String sensorType, String timeRange) {
+        Instant stop = Instant.now();
+        Instant start = rangeStart(timeRange, stop);
+
+        List<FluxRecord> records = new ArrayList<>();
+        int table = 0;
+        for (S series : matchingSeries(assetId, s -> s.sensorType.equals(sensorType))) {
+            SensorSeries points = read(series, start.toEpochMilli(), stop.toEpochMilli());
+            for (int i = 0; i < points.getLength(); i++) {
+                records.add(record("_result", table, series, start, stop, points.getTimes()[i], points.getValues()[i]));
+            }
+            if (points.getLength() > 0) {
+                table++;
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public List<FluxRecord> getAggregatedSensorData(String assetId, String aggregationWindow) {
+        long every = windowMillis(aggregationWindow);
+        Instant stop = Instant.now();
+        Instant start = rangeStart("-24h", stop);
+
+        List<FluxRecord> records = new ArrayList<>();
+        int table = 0;
+        for (S series : matchingSeries(assetId, s -> true)) {
+            SensorSeries means = windowMeans(read(series, start.toEpochMilli(), stop.toEpochMilli()),
+                    every, stop.toEpochMilli());
+            for (int i = 0; i < means.getLength(); i++) {
+                records.add(record("mean", table, series, start, stop, means.getTimes()[i], means.getValues()[i]));
+            }
+            if (means.getLength() > 0) {
+                table++;
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public Map<String, SensorSeries> querySensorSeries(String assetId, String timeRange) {
+        Instant stop = Instant.now();
+        long from = rangeStart(timeRange, stop).toEpochMilli();
+
+        Map<String, List<SensorSeries>> slices = new HashMap<>();
+        for (S series : matchingSeries(assetId, s -> true)) {
+            SensorSeries points = read(series, from, stop.toEpochMilli());
+            if (points.getLength() > 0) {
+                slices.computeIfAbsent(series.sensorType, type -> new ArrayList<>()).add(points);
+            }
+        }
+
+        Map<String, SensorSeries> result = new HashMap<>();
+        for (Map.Entry<String, List<SensorSeries>> entry : slices.entrySet()) {
+            result.put(entry.getKey().toUpperCase(), merge(entry.getValue()));
+        }
+        return result;
+    }
+
+    @Override
+    public BulkSensorData queryBulkSensorData(Collection<String> assetIds, Collection<String> sensorTypes,
+                                              String timeRange, String aggregationWindow) {
+        long every = windowMillis(aggregationWindow);
+        Instant stop = Instant.now();
+        long from = rangeStart(timeRange, stop).toEpochMilli();
+        List<String> types = new ArrayList<>(new LinkedHashSet<>(sensorTypes));
+
+        List<BulkSensorData.AssetSeries> result = new ArrayList<>();
+        for (String assetId : new TreeSet<>(assetIds)) {
+            Map<String, SensorSeries> means = new HashMap<>();
+            TreeSet<Long> windows = new TreeSet<>();
+            for (String type : types) {
+                List<SensorSeries> slices = new ArrayList<>();
+                for (S series : matchingSeries(assetId, s -> s.sensorType.equals(type))) {
+                    slices.add(read(series, from, stop.toEpochMilli()));
+                }
+                SensorSeries typeMeans = windowMeans(merge(slices), every, stop.toEpochMilli());
+                if (typeMeans.getLength() > 0) {
+                    means.put(type, typeMeans);
+                    for (int i = 0; i < typeMeans.getLength(); i++) {
+                        windows.add(typeMeans.getTimes()[i]);
+                    }
+                }
+            }
+            if (windows.isEmpty()) {
+                continue;
+            }
+
+            long[] time = windows.stream().mapToLong(Long::longValue).toArray();
+            BulkSensorData.AssetSeries assetSeries = new BulkSensorData.AssetSeries(assetId, time);
+            for (String type : types) {
+                SensorSeries typeMeans = means.get(type);
+                if (typeMeans == null) {
+                    continue;
+                }
+                Double[] column = new Double[time.length];
+                for (int i = 0, row = 0; i < typeMeans.getLength(); i++) {
+                    while (time[row] != typeMeans.getTimes()[i]) {
+                        row++;
+                    }
+                    column[row] = typeMeans.getValues()[i];
+                }
+                assetSeries.getValues().put(type, column);
+            }
+            result.add(assetSeries);
+        }
+        return new BulkSensorData(timeRange, aggregationWindow, result);
+    }
+
+    @Override
+    public void streamSensorReadings(String bucket, Collection<String> assetIds, Instant start, Instant stop,
+                                     BooleanSupplier cancelled, Consumer<FluxRecord> consumer) throws InterruptedException {
+        Collection<String> ids = assetIds != null ? assetIds : new TreeSet<>(assetIds());
+        int table = 0;
+        for (String assetId : ids) {
+            for (S series : matchingSeries(assetId, s -> true)) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                SensorSeries points = read(series, start.toEpochMilli(), stop.toEpochMilli());
+                for (int i = 0; i < points.getLength(); i++) {
+                    if (cancelled.getAsBoolean()) {
+                        return;
+                    }
+                    FluxRecord record = new FluxRecord(table);
+                    Map<String, Object> values = record.getValues();
+                    values.put("result", "_result");
+                    values.put("table", table);
+                    values.put("_time", Instant.ofEpochMilli(points.getTimes()[i]));
+                    values.put("_value", points.getValues()[i]);
+                    values.put("asset_id", series.assetId);
+                    values.put("sensor_type", series.sensorType);
+                    values.put("sensor_id", series.sensorId);
+                    consumer.accept(record);
+                }
+                if (points.getLength() > 0) {
+                    table++;
+                }
+            }
+        }
+    }
+
+    private List<S> matchingSeries(String assetId, Predicate<S> filter) {
+        List<S> matching = new ArrayList<>();
+        for (S series : seriesOf(assetId)) {
+            if (filter.test(series)) {
+                matching.add(series);
+            }
+        }
+        matching.sort(SERIES_ORDER);
+        return matching;
+    }
+
+    private static Instant rangeStart(String timeRange, Instant now) {
+        if (FluxDurations.isDuration(timeRange)) {
+            return now.minus(FluxDurations.parse(timeRange));
+        }
+        try {
+            return Instant.parse(timeRange);
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid range start: " + timeRange);
+        }
+    }
+
+    private static long windowMillis(String aggregationWindow) {
+        long every = FluxDurations.parse(aggregationWindow).toMillis();
+        if (every <= 0) {
+            throw new IllegalArgumentException("Invalid aggregation window: " + aggregationWindow);
+        }
+        return every;
+    }
+
+    /**
+     * Means of time-ordered points per epoch-aligned window, stamped with the window's end
+     * clamped to {@code stop} like aggregateWindow(); empty windows are skipped.
+     */
+    private static SensorSeries windowMeans(SensorSeries points, long every, long stop) {
+        long[] times = new long[points.getLength()];
+        double[] means = new double[points.getLength()];
+        int windows = 0;
+        int i = 0;
+        while (i < points.getLength()) {
+            long windowStop = Math.floorDiv(points.getTimes()[i], every) * every + every;
+            double sum = 0;
+            int count = 0;
+            while (i < points.getLength() && points.getTimes()[i] < windowStop) {
+                sum += points.getValues()[i++];
+                count++;
+            }
+            times[windows] = Math.min(windowStop, stop);
+            means[windows++] = sum / count;
+        }
+        return new SensorSeries(times, means, windows);
+    }
+
+    /** Merges time-ordered series into one, ordered by time. */
+    private static SensorSeries merge(List<SensorSeries> parts) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        int total = 0;
+        for (SensorSeries part : parts) {
+            total += part.getLength();
+        }
+        long[] times = new long[total];
+        double[] values = new double[total];
+        int[] heads = new int[parts.size()];
+        for (int out = 0; out < total; out++) {
+            int next = -1;
+            for (int p = 0; p < parts.size(); p++) {
+                if (heads[p] < parts.get(p).getLength() && (next < 0
+                        || parts.get(p).getTimes()[heads[p]] < parts.get(next).getTimes()[heads[next]])) {
+                    next = p;
+                }
+            }
+            times[out] = parts.get(next).getTimes()[heads[next]];
+            values[out] = parts.get(next).getValues()[heads[next]++];
+        }
+        return new SensorSeries(times, values, total);
+    }
+
+    private static FluxRecord record(String result, int table, SeriesInfo series, Instant start, Instant stop,
+                                     long time, double value) {
+        FluxRecord record = new FluxRecord(table);
+        Map<String, Object> values = record.getValues();
+        values.put("result", result);
+        values.put("table", table);
+        values.put("_start", start);
+        values.put("_stop", stop);
+        values.put("_time", Instant.ofEpochMilli(time));
+        values.put("_value", value);
+        values.put("_field", "value");
+        values.put("_measurement", MEASUREMENT);
+        values.put("asset_id", series.assetId);
+        values.put("sensor_id", series.sensorId);
+        values.put("sensor_type", series.sensorType);
+        if (series.unit != null) {
+            values.put("unit", series.unit);
+        }
+        record.getRow().addAll(values.values());
+        return record;
+    }
+
+    protected static long epochMillis(SensorData sensorData) {
+        return sensorData.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /** The tags identifying one series. */
+    static class SeriesInfo {
+
+        final String assetId;
+        final String sensorType;
+        final String sensorId;
+        final String unit;
+
+        SeriesInfo(String assetId, String sensorType, String sensorId, String unit) {
+            this.assetId = assetId;
+            this.sensorType = sensorType;
+            this.sensorId = sensorId;
+            this.unit = unit;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.infrastructure.maintenance.storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a bit stream written by {@link BitOutput} straight from a buffer, heap or mapped,
+ * with absolute gets, so the buffer's position is untouched and it can be shared by readers.
+ */
+public final class BitInput {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private long bitPosition;
+
+    public BitInput(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public boolean readBit() {
+        int b = buffer.get(offset + (int) (bitPosition >>> 3));
+        boolean bit = (b & (0x80 >>> (bitPosition & 7))) != 0;
+        bitPosition++;
+        return bit;
+    }
+
+    /** Reads {@code bits} bits, 0 to 64, as an unsigned value. */
+    public long readBits(int bits) {
+        long value = 0;
+        while (bits > 0) {
+            int available = 8 - (int) (bitPosition & 7);
+            int n = Math.min(available, bits);
+            int b = buffer.get(offset + (int) (bitPosition >>> 3)) & 0xff;
+            value = (value << n) | ((b >>> (available - n)) & ((1 << n) - 1));
+            bitPosition += n;
+            bits -= n;
+        }
+        return value;
+    }
+
+    /** Bytes consumed so far, counting a partly read byte. */
+    public int getBytesRead() {
+        return (int) ((bitPosition + 7) >>> 3);
+    }
+}
@@ -0,0 +1,60 @@
+package com.infrastructure.maintenance.storage;
+
+import java.util.Arrays;
+
+/** Growable bit stream, written most significant bit first. */
+public final class BitOutput {
+
+    private byte[] bytes;
+    private long bitLength;
+
+    public BitOutput(int initialBytes) {
+        this.bytes = new byte[Math.max(8, initialBytes)];
+    }
+
+    public void writeBit(boolean bit) {
+        ensureCapacity(1);
+        if (bit) {
+            bytes[(int) (bitLength >>> 3)] |= (byte) (0x80 >>> (bitLength & 7));
+        }
+        bitLength++;
+    }
+
+    /** Writes the low {@code bits} bits of {@code value}, 0 to 64. */
+    public void writeBits(long value, int bits) {
+        ensureCapacity(bits);
+        while (bits > 0) {
+            int free = 8 - (int) (bitLength & 7);
+            int n = Math.min(free, bits);
+            int chunk = (int) (value >>> (bits - n)) & ((1 << n) - 1);
+            bytes[(int) (bitLength >>> 3)] |= (byte) (chunk << (free - n));
+            bitLength += n;
+            bits -= n;
+        }
+    }
+
+    public long getBitLength() {
+        return bitLength;
+    }
+
+    public int getByteLength() {
+        return (int) ((bitLength + 7) >>> 3);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, getByteLength());
+    }
+
+    /** Clears the stream for reuse, keeping its buffer. */
+    public void reset() {
+        Arrays.fill(bytes, 0, getByteLength(), (byte) 0);
+        bitLength = 0;
+    }
+
+    private void ensureCapacity(int bits) {
+        long needed = (bitLength + bits + 7) >>> 3;
+        if (needed > bytes.length) {
+            bytes = Arrays.copyOf(bytes, (int) Math.max(needed, bytes.length * 2L));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.infrastructure.maintenance.storage;
+
+/**
+ * Gorilla compression (Pelkonen et al., VLDB 2015) for time-ordered points. Timestamps are
+ * stored as delta-of-deltas in variable-width buckets, so a sensor reporting at a steady
+ * interval costs one bit per timestamp. Values are XORed with their predecessor and only the
+ * meaningful bits are written, reusing the previous leading/trailing-zero window when the new
+ * bits fit inside it; an unchanged reading costs one bit.
+ */
+public final class GorillaCodec {
+
+    // Delta-of-delta buckets: control prefix, value width
+    private static final int[] DOD_BITS = {7, 9, 12};
+
+    private GorillaCodec() {}
+
+    /** Appends {@code count} points starting at {@code offset}; timestamps must not decrease. */
+    public static void encode(long[] times, double[] values, int offset, int count, BitOutput out) {
+        if (count == 0) {
+            return;
+        }
+        long previousTime = times[offset];
+        long previousDelta = 0;
+        long previousBits = Double.doubleToRawLongBits(values[offset]);
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        out.writeBits(previousTime, 64);
+        out.writeBits(previousBits, 64);
+
+        for (int i = offset + 1; i < offset + count; i++) {
+            long delta = times[i] - previousTime;
+            writeDeltaOfDelta(delta - previousDelta, out);
+            previousTime = times[i];
+            previousDelta = delta;
+
+            long bits = Double.doubleToRawLongBits(values[i]);
+            long xor = bits ^ previousBits;
+            previousBits = bits;
+            if (xor == 0) {
+                out.writeBit(false);
+                continue;
+            }
+            out.writeBit(true);
+            int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                out.writeBit(false);
+                out.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int significant = 64 - leading - trailing;
+                out.writeBit(true);
+                out.writeBits(leading, 5);
+                out.writeBits(significant - 1, 6);
+                out.writeBits(xor >>> trailing, significant);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+    }
+
+    /** Decodes {@code count} points into the arrays starting at {@code offset}. */
+    public static void decode(BitInput in, int count, long[] times, double[] values, int offset) {
+        if (count == 0) {
+            return;
+        }
+        long time = in.readBits(64);
+        long delta = 0;
+        long bits = in.readBits(64);
+        int leading = 0;
+        int trailing = 0;
+        times[offset] = time;
+        values[offset] = Double.longBitsToDouble(bits);
+
+        for (int i = offset + 1; i < offset + count; i++) {
+            delta += readDeltaOfDelta(in);
+            time += delta;
+            times[i] = time;
+
+            if (in.readBit()) {
+                if (in.readBit()) {
+                    leading = (int) in.readBits(5);
+                    int significant = (int) in.readBits(6) + 1;
+                    trailing = 64 - leading - significant;
+                }
+                bits ^= in.readBits(64 - leading - trailing) << trailing;
+            }
+            values[i] = Double.longBitsToDouble(bits);
+        }
+    }
+
+    private static void writeDeltaOfDelta(long dod, BitOutput out) {
+        if (dod == 0) {
+            out.writeBit(false);
+            return;
+        }
+        for (int bucket = 0; bucket < DOD_BITS.length; bucket++) {
+            int width = DOD_BITS[bucket];
+            long bias = (1L << (width - 1)) - 1;
+            if (dod >= -bias && dod <= bias + 1) {
+                // Prefix of bucket + 1 one-bits and a terminating zero: 10, 110, 1110
+                out.writeBits((1L << (bucket + 2)) - 2, bucket + 2);
+                out.writeBits(dod + bias, width);
+                return;
+            }
+        }
+        out.writeBits(0b1111, 4);
+        out.writeBits(dod, 64);
+    }
+
+    private static long readDeltaOfDelta(BitInput in) {
+        int ones = 0;
+        while (ones < 4 && in.readBit()) {
+            ones++;
+        }
+        if (ones == 0) {
+            return 0;
+        }
+        if (ones == 4) {
+            return in.readBits(64);
+        }
+        int width = DOD_BITS[ones - 1];
+        return in.readBits(width) - ((1L << (width - 1)) - 1);
+    }
+}
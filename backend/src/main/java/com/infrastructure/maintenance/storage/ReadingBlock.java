@@ -0,0 +1,266 @@
+package com.infrastructure.maintenance.storage;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding for batches of sensor readings: a few bytes per reading, against
+ * well over a hundred as JSON. Readings are grouped into one sequence per (asset, sensor id, sensor
+ * type, unit); those strings are stored once in a dictionary and referenced by index, and each
+ * sequence's timestamps and values are Gorilla-coded (delta-of-delta timestamps, XORed
+ * values). Big-endian layout:
+ * <pre>
+ * "SRB1"
+ * u16 dictionary size, then per entry: u16 length, UTF-8 bytes
+ * u32 sequence count, then per sequence:
+ *   u16 asset, u16 sensor id, u16 sensor type, u16 unit (0xFFFF for none),
+ *   u32 reading count, u32 payload length, payload
+ * </pre>
+ * Timestamps are epoch milliseconds. A {@link Reader} indexes a block without decoding it, and
+ * each sequence decodes straight from the source buffer into primitive arrays.
+ */
+public final class ReadingBlock {
+
+    public static final String CONTENT_TYPE = "application/x-sensor-reading-block";
+
+    private static final int MAGIC = 0x53524231; // "SRB1"
+    private static final int NONE = 0xFFFF;
+
+    private ReadingBlock() {}
+
+    /** Collects readings and encodes them into one block, each sequence ordered by time. */
+    public static final class Writer {
+
+        private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+        // (asset, sensor id, sensor type, unit) indexes -> readings
+        private final Map<List<Integer>, SequenceBuffer> sequences = new LinkedHashMap<>();
+        private int readingCount;
+
+        public Writer add(String assetId, String sensorId, String sensorType, String unit, long time, double value) {
+            List<Integer> key = List.of(index(assetId), index(sensorId), index(sensorType),
+                    unit != null ? index(unit) : NONE);
+            sequences.computeIfAbsent(key, k -> new SequenceBuffer()).add(time, value);
+            readingCount++;
+            return this;
+        }
+
+        public int getReadingCount() {
+            return readingCount;
+        }
+
+        public byte[] toByteArray() {
+            List<byte[]> entries = new ArrayList<>(dictionary.size());
+            List<byte[]> payloads = new ArrayList<>(sequences.size());
+            int length = 4 + 2 + 4;
+            for (String entry : dictionary.keySet()) {
+                byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > NONE) {
+                    throw new IllegalArgumentException("Dictionary entry too long: " + entry.substring(0, 32) + "...");
+                }
+                entries.add(bytes);
+                length += 2 + bytes.length;
+            }
+            BitOutput out = new BitOutput(256);
+            for (SequenceBuffer sequence : sequences.values()) {
+                out.reset();
+                sequence.sort();
+                GorillaCodec.encode(sequence.times, sequence.values, 0, sequence.length, out);
+                byte[] payload = out.toByteArray();
+                payloads.add(payload);
+                length += 4 * 2 + 4 + 4 + payload.length;
+            }
+
+            ByteBuffer block = ByteBuffer.allocate(length);
+            block.putInt(MAGIC).putShort((short) entries.size());
+            for (byte[] entry : entries) {
+                block.putShort((short) entry.length).put(entry);
+            }
+            block.putInt(sequences.size());
+            int i = 0;
+            for (Map.Entry<List<Integer>, SequenceBuffer> sequence : sequences.entrySet()) {
+                for (int index : sequence.getKey()) {
+                    block.putShort((short) index);
+                }
+                byte[] payload = payloads.get(i++);
+                block.putInt(sequence.getValue().length).putInt(payload.length).put(payload);
+            }
+            return block.array();
+        }
+
+        private int index(String value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Asset id, sensor id and sensor type are required");
+            }
+            Integer index = dictionary.get(value);
+            if (index == null) {
+                if (dictionary.size() == NONE) {
+                    throw new IllegalArgumentException("More than " + NONE + " distinct ids in one block");
+                }
+                index = dictionary.size();
+                dictionary.put(value, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Validates the block's structure and indexes its sequences. The buffer is read with
+     * absolute gets from its current position, and must not change while sequences are decoded.
+     */
+    public static Reader read(ByteBuffer buffer) {
+        try {
+            ByteBuffer view = buffer.slice();
+            if (view.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a sensor reading block");
+            }
+            String[] dictionary = new String[view.getShort() & NONE];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] bytes = new byte[view.getShort() & NONE];
+                view.get(bytes);
+                dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int sequenceCount = view.getInt();
+            if (sequenceCount < 0 || sequenceCount > view.remaining() / 16) {
+                throw new IllegalArgumentException("Invalid sequence count: " + sequenceCount);
+            }
+            List<Sequence> sequences = new ArrayList<>(sequenceCount);
+            for (int i = 0; i < sequenceCount; i++) {
+                String assetId = entry(dictionary, view.getShort() & NONE, false);
+                String sensorId = entry(dictionary, view.getShort() & NONE, false);
+                String sensorType = entry(dictionary, view.getShort() & NONE, false);
+                String unit = entry(dictionary, view.getShort() & NONE, true);
+                int count = view.getInt();
+                int payloadLength = view.getInt();
+                // Every reading after the first takes at least two bits; the first takes 16 bytes
+                if (payloadLength < 0 || payloadLength > view.remaining()
+                        || count < 0 || (count > 0 && (payloadLength < 16 || count - 1 > (payloadLength - 16) * 4L))) {
+                    throw new IllegalArgumentException("Invalid sequence " + i);
+                }
+                sequences.add(new Sequence(view, view.position(), assetId, sensorId, sensorType, unit, count));
+                view.position(view.position() + payloadLength);
+            }
+            // A sequence count lower than the sequences written leaves bytes behind
+            if (view.hasRemaining()) {
+                throw new IllegalArgumentException(view.remaining() + " bytes after the last sequence");
+            }
+            return new Reader(sequences);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated sensor reading block", e);
+        }
+    }
+
+    private static String entry(String[] dictionary, int index, boolean optional) {
+        if (optional && index == NONE) {
+            return null;
+        }
+        if (index >= dictionary.length) {
+            throw new IllegalArgumentException("Dictionary index out of range: " + index);
+        }
+        return dictionary[index];
+    }
+
+    /** The sequences of a block, in the order they were written. */
+    public static final class Reader {
+
+        private final List<Sequence> sequences;
+
+        private Reader(List<Sequence> sequences) {
+            this.sequences = sequences;
+        }
+
+        public List<Sequence> getSequences() {
+            return sequences;
+        }
+
+        public int getReadingCount() {
+            int total = 0;
+            for (Sequence sequence : sequences) {
+                total += sequence.count;
+            }
+            return total;
+        }
+    }
+
+    /** Readings of one sensor; decoded on demand from the block's buffer. */
+    public static final class Sequence {
+
+        private final ByteBuffer buffer;
+        private final int payloadOffset;
+        private final String assetId;
+        private final String sensorId;
+        private final String sensorType;
+        private final String unit;
+        private final int count;
+
+        private Sequence(ByteBuffer buffer, int payloadOffset, String assetId, String sensorId,
+                         String sensorType, String unit, int count) {
+            this.buffer = buffer;
+            this.payloadOffset = payloadOffset;
+            this.assetId = assetId;
+            this.sensorId = sensorId;
+            this.sensorType = sensorType;
+            this.unit = unit;
+            this.count = count;
+        }
+
+        public String getAssetId() { return assetId; }
+        public String getSensorId() { return sensorId; }
+        public String getSensorType() { return sensorType; }
+        public String getUnit() { return unit; }
+        public int getCount() { return count; }
+
+        /** Decodes the readings into {@code times} and {@code values} from {@code offset}. */
+        public void decode(long[] times, double[] values, int offset) {
+            try {
+                GorillaCodec.decode(new BitInput(buffer, payloadOffset), count, times, values, offset);
+            } catch (IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Corrupt sequence for sensor " + sensorId, e);
+            }
+        }
+    }
+
+    private static final class SequenceBuffer {
+        private long[] times = new long[16];
+        private double[] values = new double[16];
+        private int length;
+        private boolean sorted = true;
+
+        void add(long time, double value) {
+            if (length == times.length) {
+                times = Arrays.copyOf(times, length * 2);
+                values = Arrays.copyOf(values, length * 2);
+            }
+            sorted &= length == 0 || time >= times[length - 1];
+            times[length] = time;
+            values[length++] = value;
+        }
+
+        void sort() {
+            if (sorted) {
+                return;
+            }
+            Integer[] order = new Integer[length];
+            for (int i = 0; i < length; i++) {
+                order[i] = i;
+            }
+            long[] unsortedTimes = times;
+            Arrays.sort(order, (a, b) -> Long.compare(unsortedTimes[a], unsortedTimes[b]));
+            long[] sortedTimes = new long[length];
+            double[] sortedValues = new double[length];
+            for (int i = 0; i < length; i++) {
+                sortedTimes[i] = times[order[i]];
+                sortedValues[i] = values[order[i]];
+            }
+            times = sortedTimes;
+            values = sortedValues;
+            sorted = true;
+        }
+    }
+}
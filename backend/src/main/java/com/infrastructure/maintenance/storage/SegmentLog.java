@@ -0,0 +1,303 @@
+package com.infrastructure.maintenance.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of series definitions and compressed chunks, spread over fixed-size
+ * memory-mapped segment files {@code segment-NNNNNNNN.tsl}. Chunk payloads stay in the mapped
+ * files and are decoded in place, so sealed data lives in the page cache rather than on the
+ * heap. A segment holds the definition of every series with a chunk in it, written ahead of
+ * the series' first chunk there, so whole segments can be deleted once all their chunks have
+ * expired. Only the referenced definitions are copied, so a growing series table never has to
+ * fit into one segment.
+ * <p>
+ * A record is a type byte followed by its body; the type byte is written last, so a record
+ * cut short by a crash reads as the end of the log. Series: {@code 1, int id, 4 x string}
+ * (short length, -1 for null, then UTF-8). Chunk: {@code 2, int seriesId, long minTime,
+ * long maxTime, int count, int length, payload}.
+ */
+public final class SegmentLog implements Closeable {
+
+    private static final byte SERIES = 1;
+    private static final byte CHUNK = 2;
+    private static final int CHUNK_HEADER = 1 + 4 + 8 + 8 + 4 + 4;
+
+    /** Receives the log's contents in write order while it is opened. */
+    public interface Visitor {
+        void series(int id, String assetId, String sensorType, String sensorId, String unit);
+
+        void chunk(Chunk chunk);
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final List<Segment> segments = new ArrayList<>();
+    // Encoded series records, re-written into each segment that gets a chunk of the series
+    private final Map<Integer, byte[]> seriesRecords = new LinkedHashMap<>();
+    private Segment current;
+
+    public SegmentLog(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /** Maps the existing segments, replaying them to {@code visitor}, and opens one for appends. */
+    public synchronized void open(Visitor visitor) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().matches("segment-\\d{8}\\.tsl")).sorted().toList();
+        }
+        for (Path file : files) {
+            Segment segment = map(file, Integer.parseInt(file.getFileName().toString().substring(8, 16)));
+            replay(segment, visitor);
+            segments.add(segment);
+        }
+        current = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (current == null) {
+            roll();
+        }
+    }
+
+    public synchronized void appendSeries(int id, String assetId, String sensorType, String sensorId, String unit) {
+        ByteBuffer record = ByteBuffer.allocate(1 + 4 + 4 * 2 + utf8Length(assetId, sensorType, sensorId, unit));
+        record.put(SERIES).putInt(id);
+        for (String value : new String[] {assetId, sensorType, sensorId, unit}) {
+            putString(record, value);
+        }
+        byte[] bytes = record.array();
+        if (bytes.length >= segmentBytes) {
+            throw new IllegalArgumentException("Series record of " + bytes.length + " bytes does not fit a segment");
+        }
+        seriesRecords.put(id, bytes);
+        if (!fits(bytes.length)) {
+            roll();
+        }
+        writeSeries(id, bytes);
+    }
+
+    public synchronized Chunk appendChunk(int seriesId, long minTime, long maxTime, int count, byte[] payload) {
+        int length = CHUNK_HEADER + payload.length;
+        byte[] series = seriesRecords.get(seriesId);
+        if (series == null) {
+            throw new IllegalArgumentException("Unknown series " + seriesId);
+        }
+        if (length + series.length >= segmentBytes) {
+            throw new IllegalArgumentException("Chunk of " + payload.length + " bytes does not fit a segment");
+        }
+        if (!fits(current.series.contains(seriesId) ? length : length + series.length)) {
+            roll();
+        }
+        if (!current.series.contains(seriesId)) {
+            writeSeries(seriesId, series);
+        }
+        int position = current.writePosition;
+        ByteBuffer buffer = current.buffer;
+        buffer.putInt(position + 1, seriesId)
+                .putLong(position + 5, minTime)
+                .putLong(position + 13, maxTime)
+                .putInt(position + 21, count)
+                .putInt(position + 25, payload.length)
+                .put(position + CHUNK_HEADER, payload)
+                .put(position, CHUNK);
+        current.writePosition += length;
+        current.maxTime = Math.max(current.maxTime, maxTime);
+        return new Chunk(current, position + CHUNK_HEADER, seriesId, minTime, maxTime, count);
+    }
+
+    /**
+     * Deletes every segment except the current one whose chunks all end before {@code cutoff}.
+     * Returns the deleted segments so their chunks can be dropped from indexes.
+     */
+    public synchronized List<Segment> deleteSegmentsBefore(long cutoff) throws IOException {
+        List<Segment> deleted = new ArrayList<>();
+        for (Segment segment : new ArrayList<>(segments)) {
+            if (segment != current && segment.maxTime < cutoff) {
+                segment.channel.close();
+                Files.deleteIfExists(segment.file);
+                segments.remove(segment);
+                deleted.add(segment);
+            }
+        }
+        return deleted;
+    }
+
+    public synchronized long getBytesWritten() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.writePosition;
+        }
+        return total;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /** Flushes the current segment's mapped pages to disk. */
+    public synchronized void force() {
+        current.buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+        segments.clear();
+    }
+
+    private void replay(Segment segment, Visitor visitor) {
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position < segmentBytes && buffer.get(position) != 0) {
+            byte type = buffer.get(position);
+            if (type == SERIES) {
+                ByteBuffer record = buffer.duplicate().position(position + 1);
+                int id = record.getInt();
+                String assetId = getString(record);
+                String sensorType = getString(record);
+                String sensorId = getString(record);
+                String unit = getString(record);
+                byte[] bytes = new byte[record.position() - position];
+                buffer.get(position, bytes);
+                segment.series.add(id);
+                if (seriesRecords.put(id, bytes) == null) {
+                    visitor.series(id, assetId, sensorType, sensorId, unit);
+                }
+                position = record.position();
+            } else if (type == CHUNK) {
+                long maxTime = buffer.getLong(position + 13);
+                Chunk chunk = new Chunk(segment, position + CHUNK_HEADER, buffer.getInt(position + 1),
+                        buffer.getLong(position + 5), maxTime, buffer.getInt(position + 21));
+                segment.maxTime = Math.max(segment.maxTime, maxTime);
+                visitor.chunk(chunk);
+                position += CHUNK_HEADER + buffer.getInt(position + 25);
+            } else {
+                throw new IllegalStateException("Corrupt record at " + position + " in " + segment.file);
+            }
+        }
+        segment.writePosition = position;
+    }
+
+    private void roll() {
+        int number = current == null ? 0 : current.number + 1;
+        try {
+            current = map(directory.resolve(String.format("segment-%08d.tsl", number)), number);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.add(current);
+    }
+
+    private Segment map(Path file, int number) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        return new Segment(file, number, channel, buffer);
+    }
+
+    private boolean fits(int length) {
+        return current.writePosition + length < segmentBytes;
+    }
+
+    private void writeSeries(int id, byte[] record) {
+        int position = current.writePosition;
+        current.buffer.put(position + 1, record, 1, record.length - 1).put(position, record[0]);
+        current.writePosition += record.length;
+        current.series.add(id);
+    }
+
+    private static int utf8Length(String... values) {
+        int total = 0;
+        for (String value : values) {
+            total += value != null ? value.getBytes(StandardCharsets.UTF_8).length : 0;
+        }
+        return total;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** One mapped segment file. */
+    public static final class Segment {
+        private final Path file;
+        private final int number;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        // Series whose definition has been written to this segment
+        private final Set<Integer> series = new HashSet<>();
+        private int writePosition;
+        private long maxTime = Long.MIN_VALUE;
+
+        private Segment(Path file, int number, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.number = number;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    /** A sealed chunk; its payload is read in place from the segment's mapping. */
+    public static final class Chunk {
+        private final Segment segment;
+        private final int payloadOffset;
+        private final int seriesId;
+        private final long minTime;
+        private final long maxTime;
+        private final int count;
+
+        private Chunk(Segment segment, int payloadOffset, int seriesId, long minTime, long maxTime, int count) {
+            this.segment = segment;
+            this.payloadOffset = payloadOffset;
+            this.seriesId = seriesId;
+            this.minTime = minTime;
+            this.maxTime = maxTime;
+            this.count = count;
+        }
+
+        public Segment getSegment() { return segment; }
+        public int getSeriesId() { return seriesId; }
+        public long getMinTime() { return minTime; }
+        public long getMaxTime() { return maxTime; }
+        public int getCount() { return count; }
+
+        /** Decodes the chunk's points into the arrays from index 0. */
+        public void decode(long[] times, double[] values) {
+            GorillaCodec.decode(new BitInput(segment.buffer, payloadOffset), count, times, values, 0);
+        }
+    }
+}
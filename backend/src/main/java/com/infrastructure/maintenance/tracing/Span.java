@@ -0,0 +1,85 @@
+package com.infrastructure.maintenance.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One timed operation of a trace, current on its thread from {@link Tracer#startSpan} until
+ * {@link #end}, which must run on the same thread. Spans of unsampled traces still carry ids so
+ * the decision propagates downstream, but record nothing and are not exported.
+ */
+public final class Span {
+
+    public enum Kind { SERVER, CLIENT, PRODUCER, CONSUMER, INTERNAL }
+
+    /** Returned while tracing is disabled: no context, nothing recorded. */
+    static final Span NOOP = new Span(null, null, null, null, Kind.INTERNAL, null);
+
+    private final Tracer tracer;
+    private final SpanContext context;
+    private final String parentId;
+    private final Kind kind;
+    private final Span previous;
+    private final long startMicros;
+    private final long startNanos;
+    private final Map<String, String> tags;
+    private String name;
+    private long durationMicros = -1;
+
+    Span(Tracer tracer, SpanContext context, String parentId, String name, Kind kind, Span previous) {
+        this.tracer = tracer;
+        this.context = context;
+        this.parentId = parentId;
+        this.name = name;
+        this.kind = kind;
+        this.previous = previous;
+        boolean recording = context != null && context.isSampled();
+        this.startMicros = recording ? System.currentTimeMillis() * 1000 : 0;
+        this.startNanos = recording ? System.nanoTime() : 0;
+        this.tags = recording ? new LinkedHashMap<>() : null;
+    }
+
+    /** The context to propagate; null while tracing is disabled. */
+    public SpanContext context() {
+        return context;
+    }
+
+    public boolean isRecording() {
+        return tags != null;
+    }
+
+    public Span name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public Span tag(String key, Object value) {
+        if (tags != null && value != null) {
+            tags.put(key, value.toString());
+        }
+        return this;
+    }
+
+    public Span error(Throwable error) {
+        if (tags != null) {
+            tags.put("error", error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName());
+        }
+        return this;
+    }
+
+    public void end() {
+        if (tracer == null || durationMicros >= 0) {
+            return;
+        }
+        durationMicros = isRecording() ? Math.max(1, (System.nanoTime() - startNanos) / 1000) : 0;
+        tracer.end(this);
+    }
+
+    Span previous() { return previous; }
+    String parentId() { return parentId; }
+    String name() { return name; }
+    Kind kind() { return kind; }
+    long startMicros() { return startMicros; }
+    long durationMicros() { return durationMicros; }
+    Map<String, String> tags() { return tags; }
+}
@@ -0,0 +1,95 @@
+package com.infrastructure.maintenance.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Identity of a span as carried across process boundaries in a W3C {@code traceparent}
+ * header: {@code 00-<32 hex trace id>-<16 hex span id>-<flags>}, where flag bit 0 marks the
+ * trace as sampled.
+ */
+public final class SpanContext {
+
+    public static final String TRACEPARENT = "traceparent";
+
+    private final String traceId;
+    private final String spanId;
+    private final boolean sampled;
+
+    SpanContext(String traceId, String spanId, boolean sampled) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.sampled = sampled;
+    }
+
+    public String getTraceId() { return traceId; }
+    public String getSpanId() { return spanId; }
+    public boolean isSampled() { return sampled; }
+
+    public String toTraceparent() {
+        return "00-" + traceId + '-' + spanId + (sampled ? "-01" : "-00");
+    }
+
+    /** Parses a {@code traceparent} header; null when it is missing or malformed. */
+    public static SpanContext fromTraceparent(String header) {
+        if (header == null) {
+            return null;
+        }
+        header = header.trim();
+        // Later versions may append fields after the flags
+        if (header.length() < 55 || (header.length() > 55 && header.charAt(55) != '-')
+                || header.charAt(2) != '-' || header.charAt(35) != '-' || header.charAt(52) != '-'
+                || header.startsWith("ff") || !isHex(header, 0, 2) || !isHex(header, 53, 55)) {
+            return null;
+        }
+        String traceId = header.substring(3, 35);
+        String spanId = header.substring(36, 52);
+        if (!isHex(traceId, 0, 32) || !isHex(spanId, 0, 16) || isZero(traceId) || isZero(spanId)) {
+            return null;
+        }
+        boolean sampled = (Character.digit(header.charAt(54), 16) & 1) != 0;
+        return new SpanContext(traceId, spanId, sampled);
+    }
+
+    static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high;
+        long low;
+        do {
+            high = random.nextLong();
+            low = random.nextLong();
+        } while (high == 0 && low == 0);
+        return hex(high) + hex(low);
+    }
+
+    static String newSpanId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return hex(id);
+    }
+
+    private static String hex(long value) {
+        String digits = Long.toHexString(value);
+        return "0".repeat(16 - digits.length()) + digits;
+    }
+
+    private static boolean isHex(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isZero(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
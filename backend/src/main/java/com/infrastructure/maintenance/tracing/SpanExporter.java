@@ -0,0 +1,216 @@
+package com.infrastructure.maintenance.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports finished spans in the Zipkin v2 JSON model from a background thread, so request
+ * threads only enqueue. {@code tracing.exporter=file} appends one span per line to
+ * {@code tracing.export.file}, rolled to a single {@code .1} backup at
+ * {@code tracing.export.max-file-mb}; {@code zipkin} posts batches to
+ * {@code tracing.export.zipkin-url}, which a Zipkin server or any collector accepting its v2
+ * API can receive. Spans that do not fit the bounded queue, or whose export fails, are dropped
+ * and counted.
+ */
+@Component
+public class SpanExporter {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tracing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${tracing.service-name:predictive-maintenance-backend}")
+    private String serviceName;
+
+    @Value("${tracing.exporter:file}")
+    private String exporterType;
+
+    @Value("${tracing.export.file:traces/spans.jsonl}")
+    private String file;
+
+    @Value("${tracing.export.max-file-mb:100}")
+    private long maxFileMb;
+
+    @Value("${tracing.export.zipkin-url:http://localhost:9411/api/v2/spans}")
+    private String zipkinUrl;
+
+    @Value("${tracing.export.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${tracing.export.batch-size:500}")
+    private int batchSize;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    private BlockingQueue<Span> queue;
+    private Thread worker;
+    private volatile boolean running;
+    private BufferedWriter writer;
+    private long fileBytes;
+    private Counter exported;
+    private Counter droppedQueueFull;
+    private Counter droppedExportFailed;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (!exporterType.equals("file") && !exporterType.equals("zipkin")) {
+            throw new IllegalStateException("tracing.exporter must be file or zipkin, not " + exporterType);
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        exported = Counter.builder("tracing.spans.exported").register(meterRegistry);
+        droppedQueueFull = Counter.builder("tracing.spans.dropped").tag("reason", "queue_full").register(meterRegistry);
+        droppedExportFailed = Counter.builder("tracing.spans.dropped").tag("reason", "export_failed")
+                .register(meterRegistry);
+        Gauge.builder("tracing.export.queue", queue, BlockingQueue::size).register(meterRegistry);
+
+        running = true;
+        worker = new Thread(this::exportLoop, "span-exporter");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (worker != null) {
+            running = false;
+            worker.join(5000);
+        }
+    }
+
+    void export(Span span) {
+        if (queue != null && !queue.offer(span)) {
+            droppedQueueFull.increment();
+        }
+    }
+
+    private void exportLoop() {
+        List<Span> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Span first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+                exported.increment(batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                droppedExportFailed.increment(batch.size());
+                System.err.println("Error exporting " + batch.size() + " spans: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+        closeWriter();
+    }
+
+    private void write(List<Span> batch) throws IOException {
+        List<Map<String, Object>> spans = new ArrayList<>(batch.size());
+        for (Span span : batch) {
+            spans.add(toZipkin(span));
+        }
+
+        if (exporterType.equals("zipkin")) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            restTemplate.postForEntity(zipkinUrl, new HttpEntity<>(objectMapper.writeValueAsString(spans), headers),
+                    Void.class);
+            return;
+        }
+
+        if (writer == null) {
+            openWriter();
+        }
+        for (Map<String, Object> span : spans) {
+            String line = objectMapper.writeValueAsString(span);
+            writer.write(line);
+            writer.newLine();
+            fileBytes += line.length() + 1;
+        }
+        writer.flush();
+        if (fileBytes > maxFileMb * 1024 * 1024) {
+            closeWriter();
+            Path path = Path.of(file);
+            Files.move(path, path.resolveSibling(path.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Map<String, Object> toZipkin(Span span) {
+        Map<String, Object> zipkin = new LinkedHashMap<>();
+        zipkin.put("traceId", span.context().getTraceId());
+        zipkin.put("id", span.context().getSpanId());
+        if (span.parentId() != null) {
+            zipkin.put("parentId", span.parentId());
+        }
+        zipkin.put("name", span.name());
+        if (span.kind() != Span.Kind.INTERNAL) {
+            zipkin.put("kind", span.kind().name());
+        }
+        zipkin.put("timestamp", span.startMicros());
+        zipkin.put("duration", span.durationMicros());
+        zipkin.put("localEndpoint", Map.of("serviceName", serviceName));
+        if (!span.tags().isEmpty()) {
+            zipkin.put("tags", span.tags());
+        }
+        return zipkin;
+    }
+
+    private void openWriter() throws IOException {
+        Path path = Path.of(file);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        fileBytes = Files.size(path);
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("Error closing span file: " + e.getMessage());
+            }
+            writer = null;
+        }
+    }
+}
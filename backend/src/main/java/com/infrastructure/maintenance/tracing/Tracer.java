@@ -0,0 +1,86 @@
+package com.infrastructure.maintenance.tracing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Starts spans and tracks the current one per thread. A span continues the trace of the
+ * thread's current span, or of a remote parent taken from a {@code traceparent} header, and
+ * follows its sampling decision; otherwise it starts a new trace, sampled with probability
+ * {@code tracing.sample-rate}. Sampled spans go to the SpanExporter when they end. Disabled
+ * unless {@code tracing.enabled}.
+ */
+@Component
+public class Tracer {
+
+    @Autowired
+    private SpanExporter exporter;
+
+    @Value("${tracing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${tracing.sample-rate:0.1}")
+    private double sampleRate;
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Span startSpan(String name, Span.Kind kind) {
+        return startSpan(name, kind, null);
+    }
+
+    /** Starts a span under {@code remoteParent}, or under the thread's current span when it is null. */
+    public Span startSpan(String name, Span.Kind kind, SpanContext remoteParent) {
+        if (!enabled) {
+            return Span.NOOP;
+        }
+        Span previous = current.get();
+        SpanContext parent = remoteParent != null ? remoteParent : previous != null ? previous.context() : null;
+        SpanContext context = parent != null
+                ? new SpanContext(parent.getTraceId(), SpanContext.newSpanId(), parent.isSampled())
+                : new SpanContext(SpanContext.newTraceId(), SpanContext.newSpanId(),
+                        ThreadLocalRandom.current().nextDouble() < sampleRate);
+        Span span = new Span(this, context, parent != null ? parent.getSpanId() : null, name, kind, previous);
+        current.set(span);
+        return span;
+    }
+
+    /** Runs {@code body} in a new span, tagging it with any exception it throws. */
+    public <T> T inSpan(String name, Span.Kind kind, Function<Span, T> body) {
+        Span span = startSpan(name, kind);
+        try {
+            return body.apply(span);
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /** The context of the thread's current span; null when there is none. */
+    public SpanContext currentContext() {
+        Span span = current.get();
+        return span != null ? span.context() : null;
+    }
+
+    void end(Span span) {
+        if (current.get() == span) {
+            if (span.previous() != null) {
+                current.set(span.previous());
+            } else {
+                current.remove();
+            }
+        }
+        if (span.isRecording()) {
+            exporter.export(span);
+        }
+    }
+}
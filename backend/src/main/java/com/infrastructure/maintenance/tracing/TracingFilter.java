@@ -0,0 +1,62 @@
+package com.infrastructure.maintenance.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens a server span per API request, ahead of security and admission control so their
+ * time is included. Continues the caller's trace from its {@code traceparent} header, and
+ * returns the request's own context in {@code traceresponse} so a slow response can be looked
+ * up. Spans are named after the matched route once the handler is known.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class TracingFilter extends OncePerRequestFilter {
+
+    private static final String TRACERESPONSE = "traceresponse";
+
+    @Autowired
+    private Tracer tracer;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !tracer.isEnabled()
+                || !request.getRequestURI().substring(request.getContextPath().length()).startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Span span = tracer.startSpan(request.getMethod() + " " + path, Span.Kind.SERVER,
+                SpanContext.fromTraceparent(request.getHeader(SpanContext.TRACEPARENT)));
+        span.tag("http.method", request.getMethod()).tag("http.path", path);
+        response.setHeader(TRACERESPONSE, span.context().toTraceparent());
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (route != null) {
+                span.name(request.getMethod() + " " + route);
+            }
+            span.tag("http.status_code", response.getStatus());
+            if (response.getStatus() >= 500) {
+                span.tag("error", "HTTP " + response.getStatus());
+            }
+            span.end();
+        }
+    }
+}
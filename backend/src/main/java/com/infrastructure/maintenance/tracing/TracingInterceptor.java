@@ -0,0 +1,42 @@
+package com.infrastructure.maintenance.tracing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * RestTemplate interceptor that wraps each call in a client span and passes the span's
+ * context downstream in a {@code traceparent} header. Add it only while tracing is enabled:
+ * any interceptor makes RestTemplate buffer request bodies.
+ */
+@Component
+public class TracingInterceptor implements ClientHttpRequestInterceptor {
+
+    @Autowired
+    private Tracer tracer;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        Span span = tracer.startSpan(request.getMethod() + " " + request.getURI().getPath(), Span.Kind.CLIENT);
+        span.tag("http.url", request.getURI()).tag("http.request.bytes", body.length);
+        if (span.context() != null) {
+            request.getHeaders().set(SpanContext.TRACEPARENT, span.context().toTraceparent());
+        }
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            span.tag("http.status_code", response.getStatusCode().value());
+            return response;
+        } catch (IOException | RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.infrastructure.maintenance.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DependencyGuardTest {
+
+    @Test
+    void closeDuringBackoffDeliversBufferedItemsOnce() throws Exception {
+        List<Integer> delivered = new ArrayList<>();
+        AtomicBoolean up = new AtomicBoolean(false);
+        AtomicInteger calls = new AtomicInteger();
+        DependencyGuard<Integer> guard = new DependencyGuard<>("test", DependencyGuard.Mode.BUFFER,
+                DependencyGuard.Overflow.FAIL, 100, 10, 4, 10_000, 1, 60_000,
+                items -> {
+                    calls.incrementAndGet();
+                    if (!up.get()) {
+                        throw new IllegalStateException("down");
+                    }
+                    synchronized (delivered) {
+                        delivered.addAll(items);
+                    }
+                },
+                new SimpleMeterRegistry());
+
+        // The inline call fails and buffers; the drainer then fails too and backs off for a minute
+        guard.submit(List.of(1, 2, 3));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (calls.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(calls.get() >= 2, "drainer never retried");
+        Thread.sleep(100);
+        assertEquals(3, guard.getOutboxSize());
+
+        up.set(true);
+        guard.close();
+
+        assertEquals(List.of(1, 2, 3), delivered);
+        assertEquals(0, guard.getOutboxSize());
+    }
+}
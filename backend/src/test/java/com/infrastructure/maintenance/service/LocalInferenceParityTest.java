@@ -0,0 +1,125 @@
+package com.infrastructure.maintenance.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infrastructure.maintenance.model.InfrastructureAsset;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Replays the fixed requests recorded by {@code ml-engine/export_model.py} through the in-JVM
+ * feature and scoring path, and compares each feature row and score with what the ML engine
+ * derived from the same request. Uses the export at {@code -Dparity.model=...}, or runs the
+ * exporter with {@code python3}; skipped when neither is available (the exporter needs the ML
+ * engine's requirements).
+ */
+class LocalInferenceParityTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static Path export;
+
+    @BeforeAll
+    static void exportModel() throws Exception {
+        String configured = System.getProperty("parity.model");
+        if (configured != null) {
+            export = Path.of(configured);
+            return;
+        }
+        Path output = Path.of("target", "parity", "forest_model.json").toAbsolutePath();
+        Files.createDirectories(output.getParent());
+        Files.deleteIfExists(output);
+        int exitCode = -1;
+        try {
+            Process exporter = new ProcessBuilder("python3", "export_model.py", output.toString())
+                    .directory(new File("../ml-engine"))
+                    .redirectErrorStream(true)
+                    .redirectOutput(Path.of("target", "parity", "export.log").toFile())
+                    .start();
+            if (exporter.waitFor(5, TimeUnit.MINUTES)) {
+                exitCode = exporter.exitValue();
+            } else {
+                exporter.destroyForcibly();
+            }
+        } catch (Exception e) {
+            // No python3 on the path
+        }
+        assumeTrue(exitCode == 0 && Files.exists(output),
+                "ML engine export not available, see target/parity/export.log");
+        export = output;
+    }
+
+    @Test
+    void forestScoresMatchScikitLearn() throws Exception {
+        // load() rejects the model if any exported sample scores differently
+        ForestModel.load(export, objectMapper, LocalInferenceService.MODEL_FEATURE_NAMES);
+    }
+
+    @Test
+    void requestsGiveTheSameFeaturesAndScoreAsTheMlEngine() throws Exception {
+        ForestModel model = ForestModel.load(export, objectMapper, LocalInferenceService.MODEL_FEATURE_NAMES);
+        JsonNode samples = objectMapper.readTree(export.toFile()).path("request_samples");
+        assertFalse(samples.isEmpty(), "export has no request samples");
+
+        for (JsonNode sample : samples) {
+            String assetId = sample.get("asset_id").asText();
+            assertEquals(SensorFeatureExtractor.FEATURE_NAMES, strings(sample.get("feature_names")),
+                    "feature names sent by the backend changed");
+
+            InfrastructureAsset asset = new InfrastructureAsset();
+            asset.setAssetId(assetId);
+            asset.setType(sample.get("asset_type").asText());
+            asset.setInstallationDate(dateTime(sample.get("installation_date")));
+            asset.setLastMaintenance(dateTime(sample.get("last_maintenance")));
+
+            Map<String, double[]> sensorFeatures = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> sensors = sample.get("features").fields();
+            while (sensors.hasNext()) {
+                Map.Entry<String, JsonNode> sensor = sensors.next();
+                sensorFeatures.put(sensor.getKey(), doubles(sensor.getValue()));
+            }
+
+            double[] features = LocalInferenceService.buildFeatures(asset, sensorFeatures,
+                    LocalDateTime.parse(sample.get("now").asText()));
+            assertArrayEquals(doubles(sample.get("expected_features")), features, TOLERANCE,
+                    "feature row for " + assetId);
+            assertEquals(sample.get("expected").asDouble(), model.score(features), TOLERANCE,
+                    "score for " + assetId);
+        }
+    }
+
+    private static LocalDateTime dateTime(JsonNode node) {
+        return node == null || node.isNull() ? null : LocalDateTime.parse(node.asText());
+    }
+
+    private static double[] doubles(JsonNode array) {
+        double[] values = new double[array.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = array.get(i).asDouble();
+        }
+        return values;
+    }
+
+    private static List<String> strings(JsonNode array) {
+        List<String> values = new ArrayList<>();
+        array.forEach(value -> values.add(value.asText()));
+        return values;
+    }
+}
@@ -0,0 +1,293 @@
+package com.infrastructure.maintenance.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Decodes what {@link SensorExportWriter} writes with a small FlatBuffers reader, following the
+ * Arrow IPC stream format: encapsulated messages, the schema, dictionary and record batch
+ * headers, 8-byte aligned bodies and the end-of-stream marker.
+ */
+class SensorExportWriterTest {
+
+    private static final byte SCHEMA = 1;
+    private static final byte DICTIONARY_BATCH = 2;
+    private static final byte RECORD_BATCH = 3;
+
+    @Test
+    void encodesTablesFrontToBack() {
+        // Root offset, vtable (8 bytes: size, table size, two field offsets), padding, then the
+        // table: its vtable offset, the short and the byte
+        byte[] expected = {
+                16, 0, 0, 0,
+                8, 0, 7, 0, 4, 0, 6, 0,
+                0, 0, 0, 0,
+                12, 0, 0, 0, 4, 0, 3, 0
+        };
+        byte[] actual = FlatBufferEncoder.encode(new FlatBufferEncoder.Table().addShort(0, 4).addByte(1, 3));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void encodesStringsAfterTheirTable() {
+        byte[] actual = FlatBufferEncoder.encode(new FlatBufferEncoder.Table().addString(0, "UTC"));
+        ByteBuffer buffer = ByteBuffer.wrap(actual).order(ByteOrder.LITTLE_ENDIAN);
+        int root = buffer.getInt(0);
+        assertEquals("UTC", string(buffer, root, 0));
+        assertEquals(0, actual.length % 8);
+    }
+
+    @Test
+    void writesSchemaDictionariesAndRecordBatches() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SensorExportWriter writer = new SensorExportWriter(out, 2)) {
+            writer.append(1000, 1.5, "A1", "TEMPERATURE", "T1");
+            writer.append(2000, 2.5, "A1", "VIBRATION", "V1");
+            writer.append(3000, -3.5, "Brücke", "TEMPERATURE", "T1");
+            assertEquals(3, writer.getTotalRows());
+        }
+        byte[] stream = out.toByteArray();
+        assertArrayEquals(new byte[]{-1, -1, -1, -1, 0, 0, 0, 0}, Arrays.copyOfRange(stream, stream.length - 8, stream.length));
+
+        List<Message> messages = readStream(stream);
+        byte[] types = new byte[messages.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = messages.get(i).headerType;
+        }
+        // Row group one needs all three dictionaries, row group two only the new asset
+        assertArrayEquals(new byte[]{SCHEMA, DICTIONARY_BATCH, DICTIONARY_BATCH, DICTIONARY_BATCH, RECORD_BATCH,
+                DICTIONARY_BATCH, RECORD_BATCH}, types);
+
+        checkSchema(messages.get(0));
+
+        List<List<String>> dictionaries = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        List<Object[]> rows = new ArrayList<>();
+        for (Message message : messages.subList(1, messages.size())) {
+            if (message.headerType == DICTIONARY_BATCH) {
+                int id = (int) message.metadata.getLong(field(message.metadata, message.header, 0));
+                boolean delta = fieldOffset(message.metadata, message.header, 2) != 0
+                        && message.metadata.get(field(message.metadata, message.header, 2)) != 0;
+                assertEquals(!dictionaries.get(id).isEmpty(), delta);
+                dictionaries.get(id).addAll(readDictionary(message));
+            } else {
+                rows.addAll(readRecordBatch(message, dictionaries));
+            }
+        }
+        assertEquals(List.of("A1", "Brücke"), dictionaries.get(0));
+        assertEquals(List.of("TEMPERATURE", "VIBRATION"), dictionaries.get(1));
+        assertEquals(List.of("T1", "V1"), dictionaries.get(2));
+
+        assertEquals(3, rows.size());
+        assertArrayEquals(new Object[]{1000L, 1.5, "A1", "TEMPERATURE", "T1"}, rows.get(0));
+        assertArrayEquals(new Object[]{2000L, 2.5, "A1", "VIBRATION", "V1"}, rows.get(1));
+        assertArrayEquals(new Object[]{3000L, -3.5, "Brücke", "TEMPERATURE", "T1"}, rows.get(2));
+    }
+
+    @Test
+    void emptyExportIsSchemaAndEndOfStream() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SensorExportWriter(out, 16).close();
+        List<Message> messages = readStream(out.toByteArray());
+        assertEquals(1, messages.size());
+        checkSchema(messages.get(0));
+    }
+
+    private static void checkSchema(Message message) {
+        assertEquals(SCHEMA, message.headerType);
+        assertEquals(0, message.body.remaining());
+        ByteBuffer meta = message.metadata;
+        int schema = message.header;
+        assertTrue(fieldOffset(meta, schema, 0) != 0, "endianness is written");
+        assertEquals(0, meta.getShort(field(meta, schema, 0)), "little-endian");
+
+        int fields = vector(meta, schema, 1);
+        assertEquals(5, meta.getInt(fields));
+        String[] names = {"time", "value", "asset_id", "sensor_type", "sensor_id"};
+        byte[] typeIds = {10, 3, 5, 5, 5};
+        for (int i = 0; i < names.length; i++) {
+            int slot = fields + 4 + 4 * i;
+            int field = slot + meta.getInt(slot);
+            assertEquals(names[i], string(meta, field, 0));
+            assertEquals(typeIds[i], meta.get(field(meta, field, 2)));
+            int type = table(meta, field, 3);
+            if (i == 0) {
+                assertEquals(1, meta.getShort(field(meta, type, 0)), "millisecond unit");
+                assertEquals("UTC", string(meta, type, 1));
+            } else if (i == 1) {
+                assertEquals(2, meta.getShort(field(meta, type, 0)), "double precision");
+            }
+            if (i >= 2) {
+                int dictionary = table(meta, field, 4);
+                assertEquals(i - 2, meta.getLong(field(meta, dictionary, 0)));
+                int indexType = table(meta, dictionary, 1);
+                assertEquals(32, meta.getInt(field(meta, indexType, 0)));
+                assertEquals(1, meta.get(field(meta, indexType, 1)));
+            } else {
+                assertEquals(0, fieldOffset(meta, field, 4));
+            }
+            assertEquals(0, meta.getInt(vector(meta, field, 5)), "no children");
+        }
+    }
+
+    private static List<String> readDictionary(Message message) {
+        ByteBuffer meta = message.metadata;
+        int batch = table(meta, message.header, 1);
+        long length = meta.getLong(field(meta, batch, 0));
+        long[][] buffers = structs(meta, batch, 2);
+        assertEquals(3, buffers.length);
+        checkAligned(buffers);
+        assertEquals(0, buffers[0][1], "no validity buffer");
+        assertEquals((length + 1) * 4, buffers[1][1]);
+
+        List<String> values = new ArrayList<>();
+        ByteBuffer body = message.body;
+        for (int i = 0; i < length; i++) {
+            int from = body.getInt((int) buffers[1][0] + 4 * i);
+            int to = body.getInt((int) buffers[1][0] + 4 * (i + 1));
+            byte[] bytes = new byte[to - from];
+            body.get((int) buffers[2][0] + from, bytes);
+            values.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        assertEquals(buffers[2][1], body.getInt((int) buffers[1][0] + 4 * (int) length));
+        return values;
+    }
+
+    private static List<Object[]> readRecordBatch(Message message, List<List<String>> dictionaries) {
+        ByteBuffer meta = message.metadata;
+        int batch = message.header;
+        int length = (int) meta.getLong(field(meta, batch, 0));
+        long[][] nodes = structs(meta, batch, 1);
+        assertEquals(5, nodes.length);
+        for (long[] node : nodes) {
+            assertEquals(length, node[0]);
+            assertEquals(0, node[1], "no nulls");
+        }
+        long[][] buffers = structs(meta, batch, 2);
+        assertEquals(10, buffers.length);
+        checkAligned(buffers);
+        for (int column = 0; column < 5; column++) {
+            assertEquals(0, buffers[column * 2][1], "no validity buffer");
+        }
+        assertEquals(length * 8L, buffers[1][1]);
+        assertEquals(length * 8L, buffers[3][1]);
+
+        ByteBuffer body = message.body;
+        List<Object[]> rows = new ArrayList<>();
+        for (int row = 0; row < length; row++) {
+            Object[] values = new Object[5];
+            values[0] = body.getLong((int) buffers[1][0] + 8 * row);
+            values[1] = body.getDouble((int) buffers[3][0] + 8 * row);
+            for (int column = 0; column < 3; column++) {
+                assertEquals(length * 4L, buffers[5 + column * 2][1]);
+                int index = body.getInt((int) buffers[5 + column * 2][0] + 4 * row);
+                values[2 + column] = dictionaries.get(column).get(index);
+            }
+            rows.add(values);
+        }
+        return rows;
+    }
+
+    private static void checkAligned(long[][] buffers) {
+        long end = 0;
+        for (long[] buffer : buffers) {
+            assertEquals(0, buffer[0] % 8, "buffer offsets are 8-byte aligned");
+            assertTrue(buffer[0] >= end, "buffers do not overlap");
+            end = buffer[0] + buffer[1];
+        }
+    }
+
+    private static final class Message {
+        private byte headerType;
+        private ByteBuffer metadata;
+        private int header;
+        private ByteBuffer body;
+    }
+
+    // Encapsulated messages up to the end-of-stream marker, which must end the stream
+    private static List<Message> readStream(byte[] stream) {
+        ByteBuffer buffer = ByteBuffer.wrap(stream).order(ByteOrder.LITTLE_ENDIAN);
+        List<Message> messages = new ArrayList<>();
+        while (true) {
+            assertEquals(0, buffer.position() % 8, "messages start 8-byte aligned");
+            assertEquals(0xFFFFFFFF, buffer.getInt(), "continuation marker");
+            int metadataLength = buffer.getInt();
+            if (metadataLength == 0) {
+                assertFalse(buffer.hasRemaining(), "nothing after the end-of-stream marker");
+                return messages;
+            }
+            assertEquals(0, metadataLength % 8, "metadata is padded to 8 bytes");
+            Message message = new Message();
+            message.metadata = slice(buffer, metadataLength);
+            ByteBuffer meta = message.metadata;
+            int root = meta.getInt(0);
+            assertEquals(4, meta.getShort(field(meta, root, 0)), "metadata version V5");
+            message.headerType = meta.get(field(meta, root, 1));
+            message.header = table(meta, root, 2);
+            long bodyLength = fieldOffset(meta, root, 3) != 0 ? meta.getLong(field(meta, root, 3)) : 0;
+            assertEquals(0, bodyLength % 8, "body is padded to 8 bytes");
+            message.body = slice(buffer, (int) bodyLength);
+            messages.add(message);
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int length) {
+        ByteBuffer slice = buffer.slice(buffer.position(), length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    // FlatBuffers lookups: a table starts with the signed offset back to its vtable
+
+    private static int fieldOffset(ByteBuffer buffer, int table, int id) {
+        int vtable = table - buffer.getInt(table);
+        int vtableSize = buffer.getShort(vtable);
+        return 4 + 2 * id < vtableSize ? buffer.getShort(vtable + 4 + 2 * id) : 0;
+    }
+
+    private static int field(ByteBuffer buffer, int table, int id) {
+        int offset = fieldOffset(buffer, table, id);
+        assertTrue(offset != 0, "field " + id + " is present");
+        return table + offset;
+    }
+
+    private static int table(ByteBuffer buffer, int table, int id) {
+        int slot = field(buffer, table, id);
+        return slot + buffer.getInt(slot);
+    }
+
+    private static int vector(ByteBuffer buffer, int table, int id) {
+        return table(buffer, table, id);
+    }
+
+    private static String string(ByteBuffer buffer, int table, int id) {
+        int start = table(buffer, table, id);
+        byte[] bytes = new byte[buffer.getInt(start)];
+        buffer.get(start + 4, bytes);
+        assertEquals(0, buffer.get(start + 4 + bytes.length), "strings are null terminated");
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Vector of structs of two longs, which must be 8-byte aligned
+    private static long[][] structs(ByteBuffer buffer, int table, int id) {
+        int start = vector(buffer, table, id);
+        assertEquals(0, (start + 4) % 8, "struct vectors are 8-byte aligned");
+        long[][] structs = new long[buffer.getInt(start)][2];
+        for (int i = 0; i < structs.length; i++) {
+            structs[i][0] = buffer.getLong(start + 4 + 16 * i);
+            structs[i][1] = buffer.getLong(start + 12 + 16 * i);
+        }
+        return structs;
+    }
+}
@@ -0,0 +1,63 @@
+package com.infrastructure.maintenance.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BitStreamTest {
+
+    @Test
+    void roundTripsFieldsOfEveryWidth() {
+        Random random = new Random(42);
+        int[] widths = new int[2000];
+        long[] values = new long[widths.length];
+        BitOutput out = new BitOutput(1);
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = random.nextInt(65);
+            values[i] = widths[i] == 64 ? random.nextLong() : random.nextLong() & ((1L << widths[i]) - 1);
+            if (widths[i] == 1 && random.nextBoolean()) {
+                out.writeBit(values[i] != 0);
+            } else {
+                out.writeBits(values[i], widths[i]);
+            }
+        }
+
+        // Read from an offset into a larger buffer, as chunks are read from a segment mapping
+        byte[] bytes = out.toByteArray();
+        assertEquals(out.getByteLength(), bytes.length);
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 3).put(3, bytes);
+        BitInput in = new BitInput(buffer, 3);
+        for (int i = 0; i < widths.length; i++) {
+            assertEquals(values[i], in.readBits(widths[i]), "field " + i + " of " + widths[i] + " bits");
+        }
+        assertEquals(bytes.length, in.getBytesRead());
+    }
+
+    @Test
+    void writesMostSignificantBitFirst() {
+        BitOutput out = new BitOutput(8);
+        out.writeBit(true);
+        out.writeBits(0b0101, 4);
+        out.writeBits(0x1ff, 9);
+        assertEquals(14, out.getBitLength());
+        assertArrayEquals(new byte[] {(byte) 0b1010_1111, (byte) 0b1111_1100}, out.toByteArray());
+
+        BitInput in = new BitInput(ByteBuffer.wrap(out.toByteArray()), 0);
+        assertEquals(true, in.readBit());
+        assertEquals(0b0101, in.readBits(4));
+        assertEquals(0x1ff, in.readBits(9));
+    }
+
+    @Test
+    void resetClearsWrittenBits() {
+        BitOutput out = new BitOutput(8);
+        out.writeBits(-1L, 64);
+        out.reset();
+        out.writeBits(0, 3);
+        assertArrayEquals(new byte[] {0}, out.toByteArray());
+    }
+}
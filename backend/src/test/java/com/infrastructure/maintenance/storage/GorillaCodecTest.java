@@ -0,0 +1,83 @@
+package com.infrastructure.maintenance.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GorillaCodecTest {
+
+    @Test
+    void roundTripsRegularReadings() {
+        int count = 1000;
+        long[] times = new long[count];
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = 1_700_000_000_000L + i * 60_000L;
+            values[i] = 20.0 + (i % 7) * 0.25;
+        }
+        BitOutput out = roundTrip(times, values, 0, count);
+        // A steady interval costs one bit per timestamp
+        assertTrue(out.getByteLength() < count * 4, "compressed to " + out.getByteLength() + " bytes");
+    }
+
+    @Test
+    void roundTripsEveryDeltaOfDeltaBucketAndSpecialValues() {
+        long[] deltas = {0, 1, 64, -63, 65, 256, -255, 257, 2048, -2047, 2049, 86_400_000L, 1L << 40};
+        double[] specials = {0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                Double.MIN_VALUE, Double.MAX_VALUE, 1.0, 1.0, -1.0};
+        int count = 200;
+        long[] times = new long[count];
+        double[] values = new double[count];
+        long previousDelta = 1000;
+        times[0] = 0;
+        for (int i = 1; i < count; i++) {
+            // Deltas stay non-negative; their differences walk through every bucket
+            long delta = Math.max(0, previousDelta + (i % 2 == 0 ? 1 : -1) * deltas[i % deltas.length]);
+            times[i] = times[i - 1] + delta;
+            previousDelta = delta;
+        }
+        for (int i = 0; i < count; i++) {
+            values[i] = specials[i % specials.length];
+        }
+        roundTrip(times, values, 0, count);
+    }
+
+    @Test
+    void roundTripsRandomValuesFromAnOffset() {
+        Random random = new Random(7);
+        int count = 500;
+        long[] times = new long[count + 10];
+        double[] values = new double[count + 10];
+        for (int i = 1; i < times.length; i++) {
+            times[i] = times[i - 1] + random.nextInt(5000);
+            values[i] = random.nextInt(3) == 0 ? values[i - 1] : random.nextGaussian() * 1e6;
+        }
+        roundTrip(times, values, 10, count);
+    }
+
+    @Test
+    void singlePointIsTwoWords() {
+        BitOutput out = roundTrip(new long[] {123}, new double[] {4.5}, 0, 1);
+        assertEquals(16, out.getByteLength());
+    }
+
+    private static BitOutput roundTrip(long[] times, double[] values, int offset, int count) {
+        BitOutput out = new BitOutput(16);
+        GorillaCodec.encode(times, values, offset, count, out);
+
+        long[] decodedTimes = new long[count];
+        double[] decodedValues = new double[count];
+        GorillaCodec.decode(new BitInput(ByteBuffer.wrap(out.toByteArray()), 0), count, decodedTimes, decodedValues, 0);
+        for (int i = 0; i < count; i++) {
+            assertEquals(times[offset + i], decodedTimes[i], "time " + i);
+            // Compare bit patterns so NaN and -0.0 count
+            assertEquals(Double.doubleToRawLongBits(values[offset + i]), Double.doubleToRawLongBits(decodedValues[i]),
+                    "value " + i);
+        }
+        return out;
+    }
+}
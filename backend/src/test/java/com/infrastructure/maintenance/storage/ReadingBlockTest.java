@@ -0,0 +1,153 @@
+package com.infrastructure.maintenance.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReadingBlockTest {
+
+    // Offsets in the block written by twoSensors(): magic, dictionary, then the sequence count
+    private static final int SEQUENCE_COUNT = 4 + 2 + (2 + 7) + (2 + 8) + (2 + 11) + (2 + 2) + (2 + 8) + (2 + 9);
+    private static final int FIRST_COUNT = SEQUENCE_COUNT + 4 + 8;
+    private static final int FIRST_LENGTH = FIRST_COUNT + 4;
+
+    @Test
+    void roundTripsSequencesInWriteOrder() {
+        byte[] block = twoSensors().toByteArray();
+        ReadingBlock.Reader reader = ReadingBlock.read(ByteBuffer.wrap(block));
+        assertEquals(5, reader.getReadingCount());
+
+        List<ReadingBlock.Sequence> sequences = reader.getSequences();
+        assertEquals(2, sequences.size());
+        ReadingBlock.Sequence temperature = sequences.get(0);
+        assertEquals("BRG_001", temperature.getAssetId());
+        assertEquals("TEMP_001", temperature.getSensorId());
+        assertEquals("TEMPERATURE", temperature.getSensorType());
+        assertEquals("°C", temperature.getUnit());
+        checkDecoded(temperature, new long[] {1000, 2000, 3000}, new double[] {20.5, 20.5, 21.25});
+
+        ReadingBlock.Sequence vibration = sequences.get(1);
+        assertEquals("VIBRATION", vibration.getSensorType());
+        assertNull(vibration.getUnit());
+        checkDecoded(vibration, new long[] {1500, 2500}, new double[] {0.5, -1.0});
+    }
+
+    @Test
+    void sortsEachSequenceByTime() {
+        byte[] block = new ReadingBlock.Writer()
+                .add("BRG_001", "TEMP_001", "TEMPERATURE", "°C", 3000, 3)
+                .add("BRG_001", "TEMP_001", "TEMPERATURE", "°C", 1000, 1)
+                .add("BRG_001", "TEMP_001", "TEMPERATURE", "°C", 2000, 2)
+                .toByteArray();
+        checkDecoded(ReadingBlock.read(ByteBuffer.wrap(block)).getSequences().get(0),
+                new long[] {1000, 2000, 3000}, new double[] {1, 2, 3});
+    }
+
+    @Test
+    void readsFromTheBufferPosition() {
+        byte[] block = twoSensors().toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(block.length + 5);
+        buffer.position(5);
+        buffer.put(block);
+        buffer.position(5);
+        assertEquals(5, ReadingBlock.read(buffer).getReadingCount());
+    }
+
+    @Test
+    void rejectsTruncatedBlocks() {
+        byte[] block = twoSensors().toByteArray();
+        // Every prefix is either cut inside a field or missing a sequence's payload
+        for (int length = 0; length < block.length; length++) {
+            byte[] truncated = Arrays.copyOf(block, length);
+            assertThrows(IllegalArgumentException.class, () -> ReadingBlock.read(ByteBuffer.wrap(truncated)),
+                    "block cut to " + length + " bytes");
+        }
+    }
+
+    @Test
+    void rejectsOtherFormats() {
+        byte[] block = twoSensors().toByteArray();
+        block[3] = '2';
+        assertThrows(IllegalArgumentException.class, () -> ReadingBlock.read(ByteBuffer.wrap(block)));
+    }
+
+    @Test
+    void rejectsOversizedCountsAndLengths() {
+        byte[] block = twoSensors().toByteArray();
+
+        byte[] sequences = block.clone();
+        ByteBuffer.wrap(sequences).putInt(SEQUENCE_COUNT, Integer.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class, () -> ReadingBlock.read(ByteBuffer.wrap(sequences)));
+
+        byte[] payload = block.clone();
+        ByteBuffer.wrap(payload).putInt(FIRST_LENGTH, block.length);
+        assertThrows(IllegalArgumentException.class, () -> ReadingBlock.read(ByteBuffer.wrap(payload)));
+
+        // More readings than the payload can hold at two bits each
+        byte[] readings = block.clone();
+        ByteBuffer.wrap(readings).putInt(FIRST_COUNT, 1_000_000);
+        assertThrows(IllegalArgumentException.class, () -> ReadingBlock.read(ByteBuffer.wrap(readings)));
+
+        byte[] negative = block.clone();
+        ByteBuffer.wrap(negative).putInt(FIRST_COUNT, -1);
+        assertThrows(IllegalArgumentException.class, () -> ReadingBlock.read(ByteBuffer.wrap(negative)));
+
+        ReadingBlock.Writer writer = new ReadingBlock.Writer().add("x".repeat(70_000), "TEMP_001", "TEMPERATURE", null, 0, 0);
+        assertThrows(IllegalArgumentException.class, writer::toByteArray);
+    }
+
+    @Test
+    void rejectsBadlyCountedBlocks() {
+        byte[] block = twoSensors().toByteArray();
+
+        // Fewer sequences than written leaves the second one behind
+        byte[] fewer = block.clone();
+        ByteBuffer.wrap(fewer).putInt(SEQUENCE_COUNT, 1);
+        assertThrows(IllegalArgumentException.class, () -> ReadingBlock.read(ByteBuffer.wrap(fewer)));
+
+        byte[] more = block.clone();
+        ByteBuffer.wrap(more).putInt(SEQUENCE_COUNT, 3);
+        assertThrows(IllegalArgumentException.class, () -> ReadingBlock.read(ByteBuffer.wrap(more)));
+
+        byte[] index = block.clone();
+        ByteBuffer.wrap(index).putShort(SEQUENCE_COUNT + 4, (short) 6);
+        assertThrows(IllegalArgumentException.class, () -> ReadingBlock.read(ByteBuffer.wrap(index)));
+
+        // A reading count the length check lets through still runs off the payload when decoded
+        byte[] readings = new ReadingBlock.Writer()
+                .add("BRG_001", "TEMP_001", "TEMPERATURE", null, 1000, 1.5)
+                .add("BRG_001", "TEMP_001", "TEMPERATURE", null, 2000, 1.5)
+                .toByteArray();
+        // The payload ends the block: 16 bytes for the first reading, 17 bits for the second
+        int payloadLength = 19;
+        ByteBuffer buffer = ByteBuffer.wrap(readings);
+        assertEquals(payloadLength, buffer.getInt(readings.length - payloadLength - 4));
+        buffer.putInt(readings.length - payloadLength - 8, 13);
+        ReadingBlock.Sequence sequence = ReadingBlock.read(ByteBuffer.wrap(readings)).getSequences().get(0);
+        assertThrows(IllegalArgumentException.class, () -> sequence.decode(new long[13], new double[13], 0));
+    }
+
+    private static ReadingBlock.Writer twoSensors() {
+        return new ReadingBlock.Writer()
+                .add("BRG_001", "TEMP_001", "TEMPERATURE", "°C", 1000, 20.5)
+                .add("BRG_001", "VIB_001", "VIBRATION", null, 1500, 0.5)
+                .add("BRG_001", "TEMP_001", "TEMPERATURE", "°C", 2000, 20.5)
+                .add("BRG_001", "VIB_001", "VIBRATION", null, 2500, -1.0)
+                .add("BRG_001", "TEMP_001", "TEMPERATURE", "°C", 3000, 21.25);
+    }
+
+    private static void checkDecoded(ReadingBlock.Sequence sequence, long[] times, double[] values) {
+        assertEquals(times.length, sequence.getCount());
+        long[] decodedTimes = new long[times.length + 1];
+        double[] decodedValues = new double[times.length + 1];
+        sequence.decode(decodedTimes, decodedValues, 1);
+        assertEquals(Arrays.toString(times), Arrays.toString(Arrays.copyOfRange(decodedTimes, 1, decodedTimes.length)));
+        assertEquals(Arrays.toString(values), Arrays.toString(Arrays.copyOfRange(decodedValues, 1, decodedValues.length)));
+    }
+}
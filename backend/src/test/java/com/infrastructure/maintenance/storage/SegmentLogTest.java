@@ -0,0 +1,161 @@
+package com.infrastructure.maintenance.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysSeriesAndChunksAfterRestart() throws Exception {
+        SegmentLog log = new SegmentLog(directory, 1 << 16);
+        log.open(new Recorder());
+        log.appendSeries(0, "BRG_001", "TEMPERATURE", "TEMP_001", "°C");
+        log.appendSeries(1, "BRG_001", "VIBRATION", "VIB_001", null);
+        appendChunk(log, 0, 1000, 20.5, 10);
+        appendChunk(log, 1, 2000, 3.25, 5);
+        appendChunk(log, 0, 20_000, 21.0, 10);
+        log.close();
+
+        Recorder replayed = new Recorder();
+        SegmentLog reopened = new SegmentLog(directory, 1 << 16);
+        reopened.open(replayed);
+        assertEquals(List.of("BRG_001/TEMPERATURE/TEMP_001/°C", "BRG_001/VIBRATION/VIB_001/null"),
+                new ArrayList<>(replayed.series.values()));
+        assertEquals(3, replayed.chunks.size());
+        checkChunk(replayed.chunks.get(0), 0, 1000, 20.5, 10);
+        checkChunk(replayed.chunks.get(1), 1, 2000, 3.25, 5);
+        checkChunk(replayed.chunks.get(2), 0, 20_000, 21.0, 10);
+
+        // Appends continue after the replayed records
+        appendChunk(reopened, 1, 30_000, 4.0, 3);
+        reopened.close();
+        Recorder again = new Recorder();
+        SegmentLog third = new SegmentLog(directory, 1 << 16);
+        third.open(again);
+        assertEquals(4, again.chunks.size());
+        checkChunk(again.chunks.get(3), 1, 30_000, 4.0, 3);
+        third.close();
+    }
+
+    @Test
+    void rollsWhenTheSeriesTableOutgrowsASegment() throws Exception {
+        int segmentBytes = 4096;
+        int seriesCount = 400;
+        SegmentLog log = new SegmentLog(directory, segmentBytes);
+        log.open(new Recorder());
+        for (int id = 0; id < seriesCount; id++) {
+            log.appendSeries(id, "ASSET_" + id, "TEMPERATURE", "TEMP_" + id, "°C");
+        }
+        // Far more series definitions than one segment holds
+        assertTrue(log.getBytesWritten() > segmentBytes);
+        for (int id = 0; id < seriesCount; id++) {
+            appendChunk(log, id, id * 1000L, id, 4);
+        }
+        log.close();
+
+        Recorder replayed = new Recorder();
+        SegmentLog reopened = new SegmentLog(directory, segmentBytes);
+        reopened.open(replayed);
+        assertEquals(seriesCount, replayed.series.size());
+        assertEquals(seriesCount, replayed.chunks.size());
+        for (int id = 0; id < seriesCount; id++) {
+            checkChunk(replayed.chunks.get(id), id, id * 1000L, id, 4);
+        }
+        reopened.close();
+    }
+
+    @Test
+    void segmentsCarryTheSeriesOfTheirChunks() throws Exception {
+        int segmentBytes = 1024;
+        SegmentLog log = new SegmentLog(directory, segmentBytes);
+        log.open(new Recorder());
+        log.appendSeries(0, "OLD", "TEMPERATURE", "TEMP_001", "°C");
+        log.appendSeries(1, "NEW", "TEMPERATURE", "TEMP_001", "°C");
+        for (int i = 0; i < 20; i++) {
+            appendChunk(log, 0, i * 100L, i, 8);
+        }
+        for (int i = 0; i < 20; i++) {
+            appendChunk(log, 1, 1_000_000 + i * 100L, i, 8);
+        }
+        // Both series were defined in the first segment, which only holds chunks of series 0
+        assertTrue(log.getSegmentCount() > 2);
+        assertFalse(log.deleteSegmentsBefore(999_000).isEmpty());
+        assertFalse(directory.resolve("segment-00000000.tsl").toFile().exists());
+        log.close();
+
+        // Series 1 is still defined although the segment that first defined it is gone
+        Recorder replayed = new Recorder();
+        SegmentLog reopened = new SegmentLog(directory, segmentBytes);
+        reopened.open(replayed);
+        assertEquals("NEW/TEMPERATURE/TEMP_001/°C", replayed.series.get(1));
+        assertTrue(replayed.chunks.stream().allMatch(chunk -> replayed.series.containsKey(chunk.getSeriesId())));
+        assertTrue(replayed.chunks.stream().anyMatch(chunk -> chunk.getSeriesId() == 1));
+        reopened.close();
+    }
+
+    @Test
+    void rejectsChunksLargerThanASegment() throws Exception {
+        SegmentLog log = new SegmentLog(directory, 1024);
+        log.open(new Recorder());
+        log.appendSeries(0, "BRG_001", "TEMPERATURE", "TEMP_001", "°C");
+        assertThrows(IllegalArgumentException.class, () -> log.appendChunk(0, 0, 0, 1, new byte[1024]));
+        assertThrows(IllegalArgumentException.class, () -> log.appendChunk(7, 0, 0, 1, new byte[8]));
+        log.close();
+    }
+
+    private static void appendChunk(SegmentLog log, int seriesId, long start, double value, int count) {
+        long[] times = new long[count];
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = start + i * 10L;
+            values[i] = value + i;
+        }
+        BitOutput out = new BitOutput(count * 4);
+        GorillaCodec.encode(times, values, 0, count, out);
+        log.appendChunk(seriesId, times[0], times[count - 1], count, out.toByteArray());
+    }
+
+    private static void checkChunk(SegmentLog.Chunk chunk, int seriesId, long start, double value, int count) {
+        assertEquals(seriesId, chunk.getSeriesId());
+        assertEquals(start, chunk.getMinTime());
+        assertEquals(start + (count - 1) * 10L, chunk.getMaxTime());
+        assertEquals(count, chunk.getCount());
+        long[] times = new long[count];
+        double[] values = new double[count];
+        chunk.decode(times, values);
+        for (int i = 0; i < count; i++) {
+            assertEquals(start + i * 10L, times[i]);
+            assertEquals(value + i, values[i]);
+        }
+    }
+
+    private static final class Recorder implements SegmentLog.Visitor {
+        private final Map<Integer, String> series = new LinkedHashMap<>();
+        private final List<SegmentLog.Chunk> chunks = new ArrayList<>();
+
+        @Override
+        public void series(int id, String assetId, String sensorType, String sensorId, String unit) {
+            assertNull(series.put(id, assetId + "/" + sensorType + "/" + sensorId + "/" + unit));
+        }
+
+        @Override
+        public void chunk(SegmentLog.Chunk chunk) {
+            chunks.add(chunk);
+        }
+    }
+}
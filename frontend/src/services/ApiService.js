@@ -25,6 +25,13 @@ export const SensorService = {
     });
   },
 
+  // Get several assets and sensor types in one columnar response
+  getBulkSensorData: (assetIds, sensorTypes, timeRange = '-24h', aggregationWindow = '5m') => {
+    return axios.post('/api/sensors/data/bulk-query', {
+      assetIds, sensorTypes, timeRange, aggregationWindow
+    });
+  },
+
   // Simulate sensor data
   simulateSensorData: (assetId) => {
     return axios.post(`/api/sensors/simulate/${assetId}`);
@@ -0,0 +1,110 @@
+package com.infrastructure.maintenance.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Publishes readings as sensor events to the sensor data exchange, the same body and headers
+ * the backend's EventPublisher sends, so gateways that bypass REST can be simulated. Each
+ * publish waits for the broker's confirm; that round trip is the measured latency. Channels
+ * are pooled, one per publishing thread.
+ */
+public class AmqpIngestClient implements AutoCloseable {
+
+    // Mirrors RabbitMQConfig in the backend
+    static final String SENSOR_DATA_EXCHANGE = "sensor-data-exchange";
+    static final String SENSOR_DATA_ROUTING_KEY = "sensor.data.received";
+    private static final String SENSOR_DATA_EVENT_TYPE = "com.infrastructure.maintenance.service.EventPublisher$SensorDataEvent";
+
+    private static final AMQP.BasicProperties PROPERTIES = new AMQP.BasicProperties.Builder()
+            .contentType("application/json")
+            .contentEncoding("UTF-8")
+            .deliveryMode(2)
+            .headers(Map.of("__TypeId__", SENSOR_DATA_EVENT_TYPE))
+            .build();
+
+    private final Connection connection;
+    private final BlockingQueue<Channel> channels;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper;
+    private final long confirmTimeoutMs;
+
+    public AmqpIngestClient(String host, int port, String username, String password, int channelCount,
+                            long confirmTimeoutMs, ObjectMapper objectMapper) throws Exception {
+        ConnectionFactory factory = new ConnectionFactory();
+        factory.setHost(host);
+        factory.setPort(port);
+        factory.setUsername(username);
+        factory.setPassword(password);
+        this.connection = factory.newConnection("loadtest");
+        this.channels = new ArrayBlockingQueue<>(channelCount);
+        try {
+            for (int i = 0; i < channelCount; i++) {
+                Channel channel = connection.createChannel();
+                channel.exchangeDeclare(SENSOR_DATA_EXCHANGE, "topic", true);
+                channel.confirmSelect();
+                channels.add(channel);
+            }
+        } catch (Exception e) {
+            connection.abort();
+            throw e;
+        }
+        this.executor = Executors.newFixedThreadPool(channelCount, runnable -> {
+            Thread thread = new Thread(runnable, "amqp-ingest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.objectMapper = objectMapper;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    public CompletableFuture<Void> publish(SyntheticFleet.Reading reading) {
+        return CompletableFuture.runAsync(() -> {
+            Channel channel = channels.poll();
+            try {
+                Map<String, Object> event = new LinkedHashMap<>();
+                event.put("sensorId", reading.getSensorId());
+                event.put("sensorType", reading.getSensorType());
+                event.put("value", reading.getValue());
+                event.put("timestamp", LocalDateTime.now().toString());
+                event.put("assetId", reading.getAssetId());
+                channel.basicPublish(SENSOR_DATA_EXCHANGE, SENSOR_DATA_ROUTING_KEY, PROPERTIES,
+                        objectMapper.writeValueAsBytes(event));
+                channel.waitForConfirmsOrDie(confirmTimeoutMs);
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getClass().getSimpleName() + ": " + e.getMessage(), e);
+            } finally {
+                channels.add(channel.isOpen() ? channel : reopen(channel));
+            }
+        }, executor);
+    }
+
+    // waitForConfirmsOrDie closes the channel on a nack or timeout
+    private Channel reopen(Channel closed) {
+        try {
+            Channel channel = connection.createChannel();
+            channel.confirmSelect();
+            return channel;
+        } catch (Exception e) {
+            return closed;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        executor.shutdownNow();
+        connection.close();
+    }
+}
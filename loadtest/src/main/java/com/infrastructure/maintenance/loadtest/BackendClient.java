@@ -0,0 +1,118 @@
+package com.infrastructure.maintenance.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * REST calls against the backend: login and fleet provisioning (blocking, before the run) and
+ * the measured ingest and query requests (asynchronous, so a slow backend cannot stall the
+ * pacing thread). Response bodies of measured requests are drained and discarded.
+ */
+public class BackendClient {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+
+    private String token;
+
+    public BackendClient(String baseUrl, Duration requestTimeout, ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl.replaceAll("/+$", "");
+        this.requestTimeout = requestTimeout;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public void login(String username, String password) throws Exception {
+        HttpResponse<String> response = httpClient.send(
+                jsonRequest("/api/auth/login", Map.of("username", username, "password", password)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with HTTP " + response.statusCode());
+        }
+        token = objectMapper.readTree(response.body()).path("token").asText();
+    }
+
+    /**
+     * Creates the fleet through the bulk import endpoint and waits for the job. Assets left
+     * over from an earlier run are rejected as duplicates, which is fine.
+     */
+    public JsonNode provision(SyntheticFleet fleet) throws Exception {
+        HttpRequest request = authorized("/api/infrastructure/assets/import")
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(fleet.toImportNdjson(objectMapper)))
+                .build();
+        JsonNode job = readJson(httpClient.send(request, HttpResponse.BodyHandlers.ofString()), 202);
+        String jobId = job.path("id").asText();
+        while (!"COMPLETED".equals(job.path("state").asText()) && !"FAILED".equals(job.path("state").asText())) {
+            Thread.sleep(200);
+            job = readJson(httpClient.send(authorized("/api/infrastructure/assets/import/" + jobId).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()), 200);
+        }
+        return job;
+    }
+
+    public CompletableFuture<Integer> recordSensorData(SyntheticFleet.Reading reading) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("assetId", reading.getAssetId());
+        body.put("sensorId", reading.getSensorId());
+        body.put("sensorType", reading.getSensorType());
+        body.put("value", reading.getValue());
+        body.put("unit", reading.getUnit());
+        return send(jsonRequest("/api/sensors/data", body));
+    }
+
+    public CompletableFuture<Integer> getSensorDataHistory(String assetId, String sensorType, String timeRange) {
+        return send(authorized("/api/sensors/data/" + encode(assetId) + "/history?sensorType=" + encode(sensorType)
+                + "&timeRange=" + encode(timeRange)).GET());
+    }
+
+    private CompletableFuture<Integer> send(HttpRequest.Builder request) {
+        return httpClient.sendAsync(request.timeout(requestTimeout).build(), HttpResponse.BodyHandlers.discarding())
+                .thenApply(HttpResponse::statusCode);
+    }
+
+    private HttpRequest.Builder jsonRequest(String path, Object body) {
+        try {
+            return authorized(path)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Could not serialize request body: " + e.getMessage(), e);
+        }
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private JsonNode readJson(HttpResponse<String> response, int expectedStatus) throws Exception {
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(response.request().uri().getPath() + " returned HTTP " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,255 @@
+package com.infrastructure.maintenance.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load: requests are scheduled at fixed intervals for the target rate whatever the
+ * backend's response time, picked by weight from the operation mix. A single pacing thread
+ * draws readings from the fleet and hands requests to asynchronous clients; in-flight
+ * requests are capped so a stalled backend cannot exhaust memory (when the cap is hit the
+ * pacer waits, and the wait counts towards latency). The warm-up is not recorded.
+ */
+public class LoadRunner {
+
+    public enum Operation {
+        REST_INGEST("rest", "rest-ingest"),
+        AMQP_INGEST("amqp", "amqp-ingest"),
+        QUERY("query", "query");
+
+        private final String key;
+        private final String label;
+
+        Operation(String key, String label) {
+            this.key = key;
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        static Operation fromKey(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation in --mix: " + key + " (expected rest, amqp or query)");
+        }
+    }
+
+    private final SyntheticFleet fleet;
+    private final BackendClient backendClient;
+    private final AmqpIngestClient amqpClient;
+    private final double rate;
+    private final int maxInFlight;
+    private final String queryRange;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final Random random;
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    public LoadRunner(SyntheticFleet fleet, BackendClient backendClient, AmqpIngestClient amqpClient,
+                      Map<Operation, Integer> mix, double rate, int maxInFlight, String queryRange, long seed) {
+        this.fleet = fleet;
+        this.backendClient = backendClient;
+        this.amqpClient = amqpClient;
+        this.rate = rate;
+        this.maxInFlight = maxInFlight;
+        this.queryRange = queryRange;
+        this.random = new Random(seed);
+
+        this.operations = mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += mix.get(operations[i]);
+            cumulativeWeights[i] = sum;
+            stats.put(operations[i], new OperationStats(operations[i]));
+        }
+    }
+
+    public Map<Operation, OperationStats> getStats() {
+        return stats;
+    }
+
+    public void run(Duration warmup, Duration duration, Duration reportInterval, PrintStream out) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        double intervalNanos = 1e9 / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        Thread reporter = new Thread(() -> report(measureFrom, reportInterval, out), "loadtest-reporter");
+        reporter.setDaemon(true);
+        reporter.start();
+
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquire();
+            dispatch(pickOperation(), intended, intended >= measureFrom, inFlight);
+        }
+
+        if (!inFlight.tryAcquire(maxInFlight, 30, TimeUnit.SECONDS)) {
+            out.println("Gave up waiting for " + (maxInFlight - inFlight.availablePermits()) + " in-flight requests");
+        }
+        reporter.interrupt();
+        reporter.join();
+        stats.values().forEach(OperationStats::takeInterval);
+    }
+
+    private Operation pickOperation() {
+        int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void dispatch(Operation operation, long intended, boolean measured, Semaphore inFlight) {
+        OperationStats operationStats = measured ? stats.get(operation) : null;
+        CompletableFuture<Integer> request;
+        try {
+            switch (operation) {
+                case REST_INGEST:
+                    request = backendClient.recordSensorData(fleet.nextReading());
+                    break;
+                case AMQP_INGEST:
+                    request = amqpClient.publish(fleet.nextReading()).thenApply(v -> 200);
+                    break;
+                default:
+                    SyntheticFleet.Sensor sensor = fleet.randomSensor();
+                    request = backendClient.getSensorDataHistory(sensor.getAsset().getAssetId(), sensor.getSensorType(), queryRange);
+                    break;
+            }
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        if (operationStats != null) {
+            operationStats.sent();
+        }
+
+        request.whenComplete((status, error) -> {
+            long completed = System.nanoTime();
+            inFlight.release();
+            if (operationStats == null) {
+                return;
+            }
+            if (error != null) {
+                operationStats.recordError(describe(error), intended, completed);
+            } else if (status == 429) {
+                operationStats.recordRejected();
+            } else if (status >= 200 && status < 300) {
+                operationStats.recordOk(intended, completed);
+            } else {
+                operationStats.recordError("HTTP " + status, intended, completed);
+            }
+        });
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException || cause instanceof java.net.http.HttpTimeoutException) {
+            return "timeout";
+        }
+        return cause.getClass().getSimpleName();
+    }
+
+    private void report(long measureFrom, Duration reportInterval, PrintStream out) {
+        long intervalNanos = reportInterval.toNanos();
+        long next = System.nanoTime() + intervalNanos;
+        try {
+            while (true) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                long now = System.nanoTime();
+                if (now < measureFrom) {
+                    out.printf("warm-up, %ds left, virtual clock %s%n",
+                            TimeUnit.NANOSECONDS.toSeconds(measureFrom - now), Duration.ofMillis(fleet.getVirtualTimeMs()));
+                } else {
+                    StringBuilder line = new StringBuilder(String.format("%4ds",
+                            TimeUnit.NANOSECONDS.toSeconds(now - measureFrom)));
+                    for (OperationStats operationStats : stats.values()) {
+                        Histogram interval = operationStats.takeInterval();
+                        line.append(String.format("  %s %6.0f/s p99 %8.2fms",
+                                operationStats.getOperation().getLabel(),
+                                interval.getTotalCount() * 1e9 / intervalNanos,
+                                interval.getValueAtPercentile(99) / 1000.0));
+                    }
+                    out.println(line);
+                }
+                next += intervalNanos;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void printSummary(Duration duration, PrintStream out) {
+        double seconds = duration.toMillis() / 1000.0;
+        out.println();
+        out.printf("%-12s %9s %9s %9s %9s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "sent", "ok", "rejected", "errors", "ok/s", "p50", "p90", "p99", "p99.9", "max");
+        for (OperationStats operationStats : stats.values()) {
+            Histogram total = operationStats.getTotal();
+            out.printf("%-12s %9d %9d %9d %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operationStats.getOperation().getLabel(),
+                    operationStats.getSent(), operationStats.getOk(), operationStats.getRejected(),
+                    operationStats.getErrorCount(), operationStats.getOk() / seconds,
+                    total.getValueAtPercentile(50) / 1000.0, total.getValueAtPercentile(90) / 1000.0,
+                    total.getValueAtPercentile(99) / 1000.0, total.getValueAtPercentile(99.9) / 1000.0,
+                    total.getMaxValue() / 1000.0);
+        }
+        out.println("(latencies in ms from scheduled send time; rejected = HTTP 429 from ingest admission control)");
+
+        for (OperationStats operationStats : stats.values()) {
+            if (operationStats.getErrorCount() > 0) {
+                out.println(operationStats.getOperation().getLabel() + " errors: " + operationStats.getErrors());
+            }
+        }
+        List<String> anomalies = new ArrayList<>();
+        for (SyntheticFleet.AnomalyKind kind : SyntheticFleet.AnomalyKind.values()) {
+            anomalies.add(kind + "=" + fleet.getInjected(kind));
+        }
+        out.println("Injected anomaly episodes: " + String.join(", ", anomalies)
+                + "; virtual clock reached " + Duration.ofMillis(fleet.getVirtualTimeMs()));
+    }
+
+    /** Full percentile distributions in HdrHistogram's .hgrm text format, one file per operation. */
+    public void writeHistograms(File directory) throws Exception {
+        directory.mkdirs();
+        for (OperationStats operationStats : stats.values()) {
+            File file = new File(directory, operationStats.getOperation().getLabel() + ".hgrm");
+            try (PrintStream out = new PrintStream(file, "UTF-8")) {
+                operationStats.getTotal().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+}
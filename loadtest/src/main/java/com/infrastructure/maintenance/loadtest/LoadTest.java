@@ -0,0 +1,152 @@
+package com.infrastructure.maintenance.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infrastructure.maintenance.loadtest.standin.StandIn;
+import com.infrastructure.maintenance.loadtest.standin.StubAmqpBroker;
+import com.infrastructure.maintenance.loadtest.standin.StubInfluxDB;
+import com.infrastructure.maintenance.loadtest.standin.StubMLEngine;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Entry point.
+ * <pre>
+ * java -jar predictive-maintenance-loadtest-1.0.0.jar stand-ins [--influx-port=8086 --ml-port=5000 --amqp-port=5672 ...]
+ * java -jar predictive-maintenance-loadtest-1.0.0.jar run [--rate=200 --duration=60s --assets=100 ...]
+ * </pre>
+ * {@code stand-ins} serves local replacements for InfluxDB, RabbitMQ and the ML engine until
+ * interrupted; start it before the backend. {@code run} provisions the synthetic fleet,
+ * drives the backend at the target rate and prints throughput and latency percentiles.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String command = args.length > 0 && !args[0].startsWith("--") ? args[0] : "run";
+        String[] rest = args.length > 0 && !args[0].startsWith("--") ? Arrays.copyOfRange(args, 1, args.length) : args;
+
+        LoadTestOptions options;
+        try {
+            options = new LoadTestOptions(rest);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+
+        try {
+            switch (command) {
+                case "run":
+                    run(options);
+                    break;
+                case "stand-ins":
+                    standIns(options);
+                    break;
+                default:
+                    printUsage();
+                    System.exit(2);
+            }
+        } catch (Exception e) {
+            Throwable cause = e;
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            System.err.println("Load test failed: " + e + (cause != e ? " caused by " + cause : ""));
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static void run(LoadTestOptions options) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<LoadRunner.Operation, Integer> mix = options.getMix();
+        SyntheticFleet fleet = new SyntheticFleet(options.getInt("assets"), options.getInt("sensors-per-asset"),
+                options.getDouble("anomaly-rate"), options.getInt("seed"));
+        System.out.printf("Fleet: %d assets, %d sensors; target %.0f req/s, mix %s%n",
+                fleet.getAssets().size(), fleet.getSensorCount(), options.getDouble("rate"), mix);
+
+        BackendClient backendClient = new BackendClient(options.getString("base-url"),
+                options.getDuration("request-timeout"), objectMapper);
+        backendClient.login(options.getString("username"), options.getString("password"));
+        if (options.getBoolean("provision")) {
+            JsonNode job = backendClient.provision(fleet);
+            System.out.printf("Provisioned fleet: %s, %d imported, %d rejected (existing assets are rejected as duplicates)%n",
+                    job.path("state").asText(), job.path("rowsImported").asLong(), job.path("rowsRejected").asLong());
+        }
+
+        AmqpIngestClient amqpClient = null;
+        if (mix.containsKey(LoadRunner.Operation.AMQP_INGEST)) {
+            amqpClient = new AmqpIngestClient(options.getString("amqp-host"), options.getInt("amqp-port"),
+                    options.getString("amqp-username"), options.getString("amqp-password"),
+                    options.getInt("amqp-channels"), options.getDuration("request-timeout").toMillis(), objectMapper);
+        }
+
+        try {
+            LoadRunner runner = new LoadRunner(fleet, backendClient, amqpClient, mix, options.getDouble("rate"),
+                    options.getInt("max-in-flight"), options.getString("query-range"), options.getInt("seed"));
+            Duration duration = options.getDuration("duration");
+            runner.run(options.getDuration("warmup"), duration, options.getDuration("report-interval"), System.out);
+            runner.printSummary(duration, System.out);
+            if (!options.getString("histogram-dir").isEmpty()) {
+                File directory = new File(options.getString("histogram-dir"));
+                runner.writeHistograms(directory);
+                System.out.println("Percentile distributions written to " + directory.getAbsolutePath());
+            }
+        } finally {
+            if (amqpClient != null) {
+                amqpClient.close();
+            }
+        }
+    }
+
+    private static void standIns(LoadTestOptions options) throws Exception {
+        ExecutorService httpThreads = Executors.newFixedThreadPool(options.getInt("stand-in-threads"));
+        List<StandIn> standIns = List.of(
+                new StubInfluxDB(options.getInt("influx-port"), options.getDuration("influx-latency").toMillis(),
+                        options.getInt("influx-query-rows"), httpThreads),
+                new StubMLEngine(options.getInt("ml-port"), options.getDuration("ml-latency").toMillis(),
+                        new ObjectMapper(), httpThreads),
+                new StubAmqpBroker(options.getInt("amqp-port")));
+        for (StandIn standIn : standIns) {
+            standIn.start();
+        }
+        System.out.println("Stand-ins listening: " + standIns.stream().map(StandIn::getName).toList());
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            standIns.forEach(StandIn::stop);
+            httpThreads.shutdownNow();
+            printCounters(standIns);
+            stopped.countDown();
+        }));
+        long reportMillis = options.getDuration("report-interval").toMillis();
+        while (stopped.getCount() > 0) {
+            Thread.sleep(reportMillis);
+            printCounters(standIns);
+        }
+    }
+
+    private static void printCounters(List<StandIn> standIns) {
+        StringBuilder line = new StringBuilder();
+        for (StandIn standIn : standIns) {
+            line.append(line.length() > 0 ? " | " : "").append(standIn.getName()).append(' ').append(standIn.getCounters());
+        }
+        System.out.println(line);
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: java -jar predictive-maintenance-loadtest.jar [run|stand-ins] [--name=value ...]");
+        System.err.println("Options (default):");
+        for (Map.Entry<String, String> option : LoadTestOptions.defaults()) {
+            System.err.printf("  --%s (%s)%n", option.getKey(), option.getValue());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.infrastructure.maintenance.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code --name=value} command line options with defaults. Durations take an {@code ms},
+ * {@code s}, {@code m} or {@code h} suffix (plain numbers are seconds).
+ */
+public class LoadTestOptions {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        // Target backend
+        DEFAULTS.put("base-url", "http://localhost:8080");
+        DEFAULTS.put("username", "admin");
+        DEFAULTS.put("password", "admin123");
+        DEFAULTS.put("request-timeout", "10s");
+        DEFAULTS.put("provision", "true");
+
+        // Fleet
+        DEFAULTS.put("assets", "100");
+        DEFAULTS.put("sensors-per-asset", "4");
+        DEFAULTS.put("anomaly-rate", "0.002");
+        DEFAULTS.put("seed", "42");
+
+        // Load shape
+        DEFAULTS.put("rate", "200");
+        DEFAULTS.put("duration", "60s");
+        DEFAULTS.put("warmup", "10s");
+        DEFAULTS.put("mix", "rest=80,amqp=15,query=5");
+        DEFAULTS.put("max-in-flight", "256");
+        DEFAULTS.put("query-range", "-1h");
+        DEFAULTS.put("report-interval", "5s");
+        DEFAULTS.put("histogram-dir", "");
+
+        // AMQP ingest
+        DEFAULTS.put("amqp-host", "localhost");
+        DEFAULTS.put("amqp-port", "5672");
+        DEFAULTS.put("amqp-username", "guest");
+        DEFAULTS.put("amqp-password", "guest");
+        DEFAULTS.put("amqp-channels", "4");
+
+        // Stand-ins
+        DEFAULTS.put("influx-port", "8086");
+        DEFAULTS.put("ml-port", "5000");
+        DEFAULTS.put("influx-latency", "0ms");
+        DEFAULTS.put("ml-latency", "0ms");
+        DEFAULTS.put("influx-query-rows", "100");
+        DEFAULTS.put("stand-in-threads", "32");
+    }
+
+    private final Map<String, String> values = new HashMap<>(DEFAULTS);
+
+    public LoadTestOptions(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (!DEFAULTS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name);
+            }
+            values.put(name, arg.substring(arg.indexOf('=') + 1));
+        }
+    }
+
+    public static Set<Map.Entry<String, String>> defaults() {
+        return DEFAULTS.entrySet();
+    }
+
+    public String getString(String name) {
+        return values.get(name);
+    }
+
+    public int getInt(String name) {
+        return Integer.parseInt(values.get(name));
+    }
+
+    public double getDouble(String name) {
+        return Double.parseDouble(values.get(name));
+    }
+
+    public boolean getBoolean(String name) {
+        return Boolean.parseBoolean(values.get(name));
+    }
+
+    public Duration getDuration(String name) {
+        String value = values.get(name).trim();
+        try {
+            if (value.endsWith("ms")) {
+                return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+            }
+            long amount = Long.parseLong(value.replaceAll("[smh]$", ""));
+            switch (value.charAt(value.length() - 1)) {
+                case 'm': return Duration.ofMinutes(amount);
+                case 'h': return Duration.ofHours(amount);
+                default: return Duration.ofSeconds(amount);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid duration for --" + name + ": " + value);
+        }
+    }
+
+    /** Relative operation weights, e.g. {@code rest=80,amqp=15,query=5}. */
+    public Map<LoadRunner.Operation, Integer> getMix() {
+        Map<LoadRunner.Operation, Integer> mix = new EnumMap<>(LoadRunner.Operation.class);
+        for (String part : values.get("mix").split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Invalid --mix entry: " + part);
+            }
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                mix.put(LoadRunner.Operation.fromKey(kv[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("--mix selects no operations");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,81 @@
+package com.infrastructure.maintenance.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome counts and latency for one operation type. Latency is measured from the time the
+ * request was scheduled to be sent, not when it actually went out, so stalls that delay
+ * later requests show up in the percentiles instead of being hidden (coordinated omission).
+ * Values are recorded in microseconds; a {@link Recorder} lets the reporter take interval
+ * snapshots while worker threads keep recording.
+ */
+public class OperationStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final LoadRunner.Operation operation;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public OperationStats(LoadRunner.Operation operation) {
+        this.operation = operation;
+    }
+
+    public void sent() {
+        sent.increment();
+    }
+
+    public void recordOk(long intendedNanos, long completedNanos) {
+        ok.increment();
+        record(intendedNanos, completedNanos);
+    }
+
+    /** Turned away by admission control (HTTP 429); counted but kept out of the latency percentiles. */
+    public void recordRejected() {
+        rejected.increment();
+    }
+
+    public void recordError(String reason, long intendedNanos, long completedNanos) {
+        errors.computeIfAbsent(reason, r -> new LongAdder()).increment();
+        record(intendedNanos, completedNanos);
+    }
+
+    private void record(long intendedNanos, long completedNanos) {
+        long micros = Math.max(1, (completedNanos - intendedNanos) / 1000);
+        recorder.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+    }
+
+    /** Latency recorded since the previous call; also folded into {@link #getTotal()}. */
+    public synchronized Histogram takeInterval() {
+        Histogram interval = recorder.getIntervalHistogram();
+        total.add(interval);
+        return interval;
+    }
+
+    public LoadRunner.Operation getOperation() { return operation; }
+    public synchronized Histogram getTotal() { return total.copy(); }
+    public long getSent() { return sent.sum(); }
+    public long getOk() { return ok.sum(); }
+    public long getRejected() { return rejected.sum(); }
+
+    public long getErrorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public Map<String, Long> getErrors() {
+        Map<String, Long> counts = new TreeMap<>();
+        errors.forEach((reason, count) -> counts.put(reason, count.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,253 @@
+package com.infrastructure.maintenance.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * A deterministic (seeded) fleet of assets, each carrying sensors of different types. Every
+ * sensor has its own reporting interval, baseline, slow drift, daily cycle and noise, and
+ * anomaly episodes are injected at a configurable per-reading rate.
+ * <p>
+ * Readings come out in the order their sensors fall due on a virtual clock, so the mix of
+ * sensor types matches real cadences (a vibration sensor reports sixty times for every
+ * temperature reading). How fast that clock runs is set by the request rate, not wall time.
+ * Not thread-safe: the load runner draws from its single pacing thread.
+ */
+public class SyntheticFleet {
+
+    static final String[] ASSET_TYPES = {"BRIDGE", "ROAD", "TUNNEL", "BUILDING", "PIPELINE"};
+
+    private static final long DAY_MS = 86_400_000L;
+
+    // Ranges and noise stay inside data-quality-rules.json so only injected anomalies fail checks
+    enum SensorProfile {
+        TEMPERATURE("TEMP", "°C", 60_000, 20.0, 8.0, 0.3, 0.5),
+        VIBRATION("VIB", "mm/s", 1_000, 12.0, 3.0, 1.5, 0.2),
+        PRESSURE("PRESS", "kPa", 10_000, 101.3, 0.8, 0.2, 0.05),
+        HUMIDITY("HUM", "%", 60_000, 55.0, 15.0, 2.0, 0.1),
+        STRAIN("STR", "με", 10_000, 120.0, 20.0, 4.0, 1.0);
+
+        final String code;
+        final String unit;
+        final long intervalMs;
+        final double baseline;
+        final double dailyAmplitude;
+        final double noise;
+        final double driftPerDay;
+
+        SensorProfile(String code, String unit, long intervalMs, double baseline,
+                      double dailyAmplitude, double noise, double driftPerDay) {
+            this.code = code;
+            this.unit = unit;
+            this.intervalMs = intervalMs;
+            this.baseline = baseline;
+            this.dailyAmplitude = dailyAmplitude;
+            this.noise = noise;
+            this.driftPerDay = driftPerDay;
+        }
+    }
+
+    public enum AnomalyKind {
+        /** One reading far outside the sensor's normal band. */
+        SPIKE(1),
+        /** The last value repeated, longer than the stuck-value rule tolerates. */
+        STUCK(40),
+        /** A degradation trend ramping away from the baseline. */
+        DRIFT(100);
+
+        final int readings;
+
+        AnomalyKind(int readings) {
+            this.readings = readings;
+        }
+    }
+
+    private final Random random;
+    private final double anomalyRate;
+    private final List<Asset> assets = new ArrayList<>();
+    private final PriorityQueue<Sensor> schedule =
+            new PriorityQueue<>((a, b) -> Long.compare(a.nextDueMs, b.nextDueMs));
+    private final long[] injected = new long[AnomalyKind.values().length];
+
+    public SyntheticFleet(int assetCount, int sensorsPerAsset, double anomalyRate, long seed) {
+        this.random = new Random(seed);
+        this.anomalyRate = anomalyRate;
+
+        SensorProfile[] profiles = SensorProfile.values();
+        for (int i = 0; i < assetCount; i++) {
+            String type = ASSET_TYPES[i % ASSET_TYPES.length];
+            Asset asset = new Asset(String.format("LT_%s_%05d", type.substring(0, 3), i + 1), type,
+                    39.8 + random.nextDouble() * 0.2, 116.3 + random.nextDouble() * 0.2);
+            for (int s = 0; s < sensorsPerAsset; s++) {
+                SensorProfile profile = profiles[s % profiles.length];
+                Sensor sensor = new Sensor(asset, String.format("%s_%03d", profile.code, s + 1), profile);
+                sensor.baseline = profile.baseline * (1 + 0.05 * random.nextGaussian());
+                sensor.phase = random.nextDouble() * 2 * Math.PI;
+                sensor.nextDueMs = (long) (random.nextDouble() * profile.intervalMs);
+                sensor.lastValue = sensor.baseline;
+                asset.sensors.add(sensor);
+                schedule.add(sensor);
+            }
+            assets.add(asset);
+        }
+    }
+
+    public List<Asset> getAssets() {
+        return assets;
+    }
+
+    public int getSensorCount() {
+        return schedule.size();
+    }
+
+    /** Next reading on the virtual clock. */
+    public Reading nextReading() {
+        Sensor sensor = schedule.poll();
+        long t = sensor.nextDueMs;
+        double value = sensor.valueAt(t);
+        sensor.nextDueMs = t + (long) (sensor.profile.intervalMs * (0.9 + 0.2 * random.nextDouble()));
+        schedule.add(sensor);
+        return new Reading(sensor.asset.assetId, sensor.sensorId, sensor.profile.name(), value, sensor.profile.unit);
+    }
+
+    /** A uniformly chosen sensor, for history queries. */
+    public Sensor randomSensor() {
+        Asset asset = assets.get(random.nextInt(assets.size()));
+        return asset.sensors.get(random.nextInt(asset.sensors.size()));
+    }
+
+    /** Virtual time covered so far, i.e. the earliest pending reading. */
+    public long getVirtualTimeMs() {
+        return schedule.isEmpty() ? 0 : schedule.peek().nextDueMs;
+    }
+
+    public long getInjected(AnomalyKind kind) {
+        return injected[kind.ordinal()];
+    }
+
+    /** Body for POST /api/infrastructure/assets/import with Content-Type application/x-ndjson. */
+    public String toImportNdjson(ObjectMapper objectMapper) throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (Asset asset : assets) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("assetId", asset.assetId);
+            row.put("name", "Load test " + asset.type.toLowerCase() + " " + asset.assetId.substring(7));
+            row.put("type", asset.type);
+            row.put("description", "Synthetic asset created by the load test");
+            row.put("latitude", asset.latitude);
+            row.put("longitude", asset.longitude);
+            row.put("status", "OPERATIONAL");
+            row.put("installationDate", "2015-01-01");
+            row.put("maintenancePriority", 1);
+            body.append(objectMapper.writeValueAsString(row)).append('\n');
+        }
+        return body.toString();
+    }
+
+    public static class Asset {
+
+        private final String assetId;
+        private final String type;
+        private final double latitude;
+        private final double longitude;
+        private final List<Sensor> sensors = new ArrayList<>();
+
+        Asset(String assetId, String type, double latitude, double longitude) {
+            this.assetId = assetId;
+            this.type = type;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        public String getAssetId() { return assetId; }
+        public String getType() { return type; }
+        public List<Sensor> getSensors() { return sensors; }
+    }
+
+    public class Sensor {
+
+        private final Asset asset;
+        private final String sensorId;
+        private final SensorProfile profile;
+
+        private double baseline;
+        private double phase;
+        private long nextDueMs;
+        private double lastValue;
+
+        private AnomalyKind anomaly;
+        private int anomalyStep;
+
+        Sensor(Asset asset, String sensorId, SensorProfile profile) {
+            this.asset = asset;
+            this.sensorId = sensorId;
+            this.profile = profile;
+        }
+
+        public Asset getAsset() { return asset; }
+        public String getSensorId() { return sensorId; }
+        public String getSensorType() { return profile.name(); }
+
+        private double valueAt(long t) {
+            double value = baseline
+                    + profile.driftPerDay * t / DAY_MS
+                    + profile.dailyAmplitude * Math.sin(2 * Math.PI * t / DAY_MS + phase)
+                    + profile.noise * random.nextGaussian();
+
+            if (anomaly == null && random.nextDouble() < anomalyRate) {
+                anomaly = AnomalyKind.values()[random.nextInt(AnomalyKind.values().length)];
+                anomalyStep = 0;
+                injected[anomaly.ordinal()]++;
+            }
+            if (anomaly != null) {
+                double band = profile.dailyAmplitude + profile.noise;
+                switch (anomaly) {
+                    case SPIKE:
+                        value += (random.nextBoolean() ? 10 : -10) * band;
+                        break;
+                    case STUCK:
+                        value = lastValue;
+                        break;
+                    case DRIFT:
+                        value += 5 * band * (anomalyStep + 1) / AnomalyKind.DRIFT.readings;
+                        break;
+                }
+                if (++anomalyStep >= anomaly.readings) {
+                    anomaly = null;
+                }
+            }
+
+            lastValue = value;
+            return value;
+        }
+    }
+
+    public static class Reading {
+
+        private final String assetId;
+        private final String sensorId;
+        private final String sensorType;
+        private final double value;
+        private final String unit;
+
+        Reading(String assetId, String sensorId, String sensorType, double value, String unit) {
+            this.assetId = assetId;
+            this.sensorId = sensorId;
+            this.sensorType = sensorType;
+            this.value = value;
+            this.unit = unit;
+        }
+
+        public String getAssetId() { return assetId; }
+        public String getSensorId() { return sensorId; }
+        public String getSensorType() { return sensorType; }
+        public double getValue() { return value; }
+        public String getUnit() { return unit; }
+    }
+}
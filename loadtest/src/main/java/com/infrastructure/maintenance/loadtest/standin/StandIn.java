@@ -0,0 +1,43 @@
+package com.infrastructure.maintenance.loadtest.standin;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A local replacement for one of the backend's external services, started by
+ * {@code LoadTest stand-ins} before the backend so that runs measure the backend alone.
+ */
+public interface StandIn {
+
+    void start() throws IOException;
+
+    void stop();
+
+    String getName();
+
+    /** One-line summary of the traffic received so far. */
+    String getCounters();
+
+    static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,564 @@
+package com.infrastructure.maintenance.loadtest.standin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A sink-only AMQP 0-9-1 broker with just enough of the protocol for RabbitTemplate,
+ * RabbitAdmin, reactor-rabbitmq and the load test's publisher: connection and channel
+ * lifecycle, exchange/queue declare, bind and delete, consumers, transactions and publisher
+ * confirms. Every declare succeeds, published messages are counted and dropped (each one
+ * acked when the channel is in confirm mode), and consumers never receive anything.
+ * One thread per connection, which is plenty for a handful of connections.
+ */
+public class StubAmqpBroker implements StandIn {
+
+    private static final byte[] PROTOCOL_HEADER = {'A', 'M', 'Q', 'P', 0, 0, 9, 1};
+
+    private static final int FRAME_METHOD = 1;
+    private static final int FRAME_HEADER = 2;
+    private static final int FRAME_BODY = 3;
+    private static final int FRAME_HEARTBEAT = 8;
+    private static final int FRAME_END = 0xCE;
+    private static final int FRAME_MAX = 131072;
+    private static final int CHANNEL_MAX = 2047;
+    private static final int HEARTBEAT_SECONDS = 60;
+
+    // (class id << 16) | method id
+    private static final int CONNECTION_START = 10 << 16 | 10;
+    private static final int CONNECTION_START_OK = 10 << 16 | 11;
+    private static final int CONNECTION_TUNE = 10 << 16 | 30;
+    private static final int CONNECTION_TUNE_OK = 10 << 16 | 31;
+    private static final int CONNECTION_OPEN = 10 << 16 | 40;
+    private static final int CONNECTION_OPEN_OK = 10 << 16 | 41;
+    private static final int CONNECTION_CLOSE = 10 << 16 | 50;
+    private static final int CONNECTION_CLOSE_OK = 10 << 16 | 51;
+    private static final int CHANNEL_OPEN = 20 << 16 | 10;
+    private static final int CHANNEL_OPEN_OK = 20 << 16 | 11;
+    private static final int CHANNEL_FLOW = 20 << 16 | 20;
+    private static final int CHANNEL_FLOW_OK = 20 << 16 | 21;
+    private static final int CHANNEL_CLOSE = 20 << 16 | 40;
+    private static final int CHANNEL_CLOSE_OK = 20 << 16 | 41;
+    private static final int EXCHANGE_DECLARE = 40 << 16 | 10;
+    private static final int EXCHANGE_DECLARE_OK = 40 << 16 | 11;
+    private static final int EXCHANGE_DELETE = 40 << 16 | 20;
+    private static final int EXCHANGE_DELETE_OK = 40 << 16 | 21;
+    private static final int EXCHANGE_BIND = 40 << 16 | 30;
+    private static final int EXCHANGE_BIND_OK = 40 << 16 | 31;
+    private static final int EXCHANGE_UNBIND = 40 << 16 | 40;
+    private static final int EXCHANGE_UNBIND_OK = 40 << 16 | 51;
+    private static final int QUEUE_DECLARE = 50 << 16 | 10;
+    private static final int QUEUE_DECLARE_OK = 50 << 16 | 11;
+    private static final int QUEUE_BIND = 50 << 16 | 20;
+    private static final int QUEUE_BIND_OK = 50 << 16 | 21;
+    private static final int QUEUE_PURGE = 50 << 16 | 30;
+    private static final int QUEUE_PURGE_OK = 50 << 16 | 31;
+    private static final int QUEUE_DELETE = 50 << 16 | 40;
+    private static final int QUEUE_DELETE_OK = 50 << 16 | 41;
+    private static final int QUEUE_UNBIND = 50 << 16 | 50;
+    private static final int QUEUE_UNBIND_OK = 50 << 16 | 51;
+    private static final int BASIC_QOS = 60 << 16 | 10;
+    private static final int BASIC_QOS_OK = 60 << 16 | 11;
+    private static final int BASIC_CONSUME = 60 << 16 | 20;
+    private static final int BASIC_CONSUME_OK = 60 << 16 | 21;
+    private static final int BASIC_CANCEL = 60 << 16 | 30;
+    private static final int BASIC_CANCEL_OK = 60 << 16 | 31;
+    private static final int BASIC_PUBLISH = 60 << 16 | 40;
+    private static final int BASIC_GET = 60 << 16 | 70;
+    private static final int BASIC_GET_EMPTY = 60 << 16 | 72;
+    private static final int BASIC_ACK = 60 << 16 | 80;
+    private static final int BASIC_RECOVER_ASYNC = 60 << 16 | 100;
+    private static final int BASIC_RECOVER = 60 << 16 | 110;
+    private static final int BASIC_RECOVER_OK = 60 << 16 | 111;
+    private static final int BASIC_REJECT = 60 << 16 | 90;
+    private static final int BASIC_NACK = 60 << 16 | 120;
+    private static final int CONFIRM_SELECT = 85 << 16 | 10;
+    private static final int CONFIRM_SELECT_OK = 85 << 16 | 11;
+    private static final int TX_SELECT = 90 << 16 | 10;
+    private static final int TX_SELECT_OK = 90 << 16 | 11;
+    private static final int TX_COMMIT = 90 << 16 | 20;
+    private static final int TX_COMMIT_OK = 90 << 16 | 21;
+    private static final int TX_ROLLBACK = 90 << 16 | 30;
+    private static final int TX_ROLLBACK_OK = 90 << 16 | 31;
+
+    private static final int NOT_IMPLEMENTED = 540;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connectionThreads = Executors.newCachedThreadPool(daemon("amqp-stand-in"));
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(daemon("amqp-heartbeat"));
+    private final Set<BrokerConnection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generatedNames = new AtomicLong();
+    private final LongAdder connectionsAccepted = new LongAdder();
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder messageBytes = new LongAdder();
+
+    private volatile boolean running;
+
+    public StubAmqpBroker(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 128);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        connectionThreads.execute(this::accept);
+        heartbeats.scheduleAtFixedRate(() -> connections.forEach(BrokerConnection::sendHeartbeat),
+                HEARTBEAT_SECONDS / 4, HEARTBEAT_SECONDS / 4, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        connections.forEach(BrokerConnection::close);
+        heartbeats.shutdownNow();
+        connectionThreads.shutdownNow();
+    }
+
+    @Override
+    public String getName() {
+        return "amqp:" + serverSocket.getLocalPort();
+    }
+
+    @Override
+    public String getCounters() {
+        return String.format("connections=%d open=%d messages=%d bytes=%d",
+                connectionsAccepted.sum(), connections.size(), messages.sum(), messageBytes.sum());
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                BrokerConnection connection = new BrokerConnection(socket);
+                connections.add(connection);
+                connectionsAccepted.increment();
+                connectionThreads.execute(connection);
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("AMQP stand-in accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** Per-channel state; only touched by the connection's reader thread. */
+    private static final class ChannelState {
+        boolean confirms;
+        long deliveryTag;
+        boolean awaitingHeader;
+        long bodyRemaining;
+        long bodySize;
+    }
+
+    @FunctionalInterface
+    private interface Arguments {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private final class BrokerConnection implements Runnable {
+
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private final Map<Integer, ChannelState> channels = new HashMap<>();
+        private boolean closing;
+
+        BrokerConnection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+        }
+
+        @Override
+        public void run() {
+            try {
+                byte[] header = new byte[PROTOCOL_HEADER.length];
+                in.readFully(header);
+                if (!Arrays.equals(header, PROTOCOL_HEADER)) {
+                    synchronized (out) {
+                        out.write(PROTOCOL_HEADER);
+                        out.flush();
+                    }
+                    return;
+                }
+                sendMethod(0, CONNECTION_START, a -> {
+                    a.writeByte(0);
+                    a.writeByte(9);
+                    writeTable(a, serverProperties());
+                    writeLongString(a, "PLAIN AMQPLAIN");
+                    writeLongString(a, "en_US");
+                });
+
+                while (!closing) {
+                    int type = in.readUnsignedByte();
+                    int channel = in.readUnsignedShort();
+                    int size = in.readInt();
+                    byte[] payload = new byte[size];
+                    in.readFully(payload);
+                    if (in.readUnsignedByte() != FRAME_END) {
+                        throw new IOException("Malformed frame");
+                    }
+                    switch (type) {
+                        case FRAME_METHOD:
+                            onMethod(channel, ByteBuffer.wrap(payload));
+                            break;
+                        case FRAME_HEADER:
+                            onContentHeader(channel, ByteBuffer.wrap(payload));
+                            break;
+                        case FRAME_BODY:
+                            onContentBody(channel, size);
+                            break;
+                        case FRAME_HEARTBEAT:
+                        default:
+                            break;
+                    }
+                }
+            } catch (EOFException | SocketException e) {
+                // client went away
+            } catch (IOException e) {
+                System.err.println("AMQP stand-in connection failed: " + e.getMessage());
+            } finally {
+                close();
+            }
+        }
+
+        private void onMethod(int channel, ByteBuffer args) throws IOException {
+            int method = (args.getShort() & 0xffff) << 16 | (args.getShort() & 0xffff);
+            ChannelState state = channels.get(channel);
+            switch (method) {
+                case CONNECTION_START_OK:
+                    sendMethod(0, CONNECTION_TUNE, a -> {
+                        a.writeShort(CHANNEL_MAX);
+                        a.writeInt(FRAME_MAX);
+                        a.writeShort(HEARTBEAT_SECONDS);
+                    });
+                    break;
+                case CONNECTION_TUNE_OK:
+                    break;
+                case CONNECTION_OPEN:
+                    sendMethod(0, CONNECTION_OPEN_OK, a -> writeShortString(a, ""));
+                    break;
+                case CONNECTION_CLOSE:
+                    sendMethod(0, CONNECTION_CLOSE_OK, a -> { });
+                    closing = true;
+                    break;
+                case CONNECTION_CLOSE_OK:
+                    closing = true;
+                    break;
+
+                case CHANNEL_OPEN:
+                    channels.put(channel, new ChannelState());
+                    sendMethod(channel, CHANNEL_OPEN_OK, a -> a.writeInt(0));
+                    break;
+                case CHANNEL_FLOW: {
+                    boolean active = (args.get() & 1) != 0;
+                    sendMethod(channel, CHANNEL_FLOW_OK, a -> a.writeByte(active ? 1 : 0));
+                    break;
+                }
+                case CHANNEL_CLOSE:
+                    channels.remove(channel);
+                    sendMethod(channel, CHANNEL_CLOSE_OK, a -> { });
+                    break;
+                case CHANNEL_CLOSE_OK:
+                    channels.remove(channel);
+                    break;
+
+                case EXCHANGE_DECLARE:
+                    args.getShort();
+                    skipShortStrings(args, 2);
+                    replyUnlessNoWait(channel, args.get(), 1 << 4, EXCHANGE_DECLARE_OK);
+                    break;
+                case EXCHANGE_DELETE:
+                    args.getShort();
+                    skipShortStrings(args, 1);
+                    replyUnlessNoWait(channel, args.get(), 1 << 1, EXCHANGE_DELETE_OK);
+                    break;
+                case EXCHANGE_BIND:
+                    args.getShort();
+                    skipShortStrings(args, 3);
+                    replyUnlessNoWait(channel, args.get(), 1, EXCHANGE_BIND_OK);
+                    break;
+                case EXCHANGE_UNBIND:
+                    args.getShort();
+                    skipShortStrings(args, 3);
+                    replyUnlessNoWait(channel, args.get(), 1, EXCHANGE_UNBIND_OK);
+                    break;
+
+                case QUEUE_DECLARE: {
+                    args.getShort();
+                    String requested = readShortString(args);
+                    String queue = requested.isEmpty() ? "amq.gen-" + generatedNames.incrementAndGet() : requested;
+                    if ((args.get() & 1 << 4) == 0) {
+                        sendMethod(channel, QUEUE_DECLARE_OK, a -> {
+                            writeShortString(a, queue);
+                            a.writeInt(0);
+                            a.writeInt(0);
+                        });
+                    }
+                    break;
+                }
+                case QUEUE_BIND:
+                    args.getShort();
+                    skipShortStrings(args, 3);
+                    replyUnlessNoWait(channel, args.get(), 1, QUEUE_BIND_OK);
+                    break;
+                case QUEUE_UNBIND:
+                    sendMethod(channel, QUEUE_UNBIND_OK, a -> { });
+                    break;
+                case QUEUE_PURGE:
+                    args.getShort();
+                    skipShortStrings(args, 1);
+                    if ((args.get() & 1) == 0) {
+                        sendMethod(channel, QUEUE_PURGE_OK, a -> a.writeInt(0));
+                    }
+                    break;
+                case QUEUE_DELETE:
+                    args.getShort();
+                    skipShortStrings(args, 1);
+                    if ((args.get() & 1 << 2) == 0) {
+                        sendMethod(channel, QUEUE_DELETE_OK, a -> a.writeInt(0));
+                    }
+                    break;
+
+                case BASIC_QOS:
+                    sendMethod(channel, BASIC_QOS_OK, a -> { });
+                    break;
+                case BASIC_CONSUME: {
+                    args.getShort();
+                    skipShortStrings(args, 1);
+                    String requested = readShortString(args);
+                    String tag = requested.isEmpty() ? "amq.ctag-" + generatedNames.incrementAndGet() : requested;
+                    if ((args.get() & 1 << 3) == 0) {
+                        sendMethod(channel, BASIC_CONSUME_OK, a -> writeShortString(a, tag));
+                    }
+                    break;
+                }
+                case BASIC_CANCEL: {
+                    String tag = readShortString(args);
+                    if ((args.get() & 1) == 0) {
+                        sendMethod(channel, BASIC_CANCEL_OK, a -> writeShortString(a, tag));
+                    }
+                    break;
+                }
+                case BASIC_PUBLISH:
+                    if (state != null) {
+                        state.awaitingHeader = true;
+                    }
+                    break;
+                case BASIC_GET:
+                    sendMethod(channel, BASIC_GET_EMPTY, a -> writeShortString(a, ""));
+                    break;
+                case BASIC_RECOVER:
+                    sendMethod(channel, BASIC_RECOVER_OK, a -> { });
+                    break;
+                case BASIC_ACK:
+                case BASIC_REJECT:
+                case BASIC_NACK:
+                case BASIC_RECOVER_ASYNC:
+                    break;
+
+                case CONFIRM_SELECT:
+                    if (state != null) {
+                        state.confirms = true;
+                    }
+                    replyUnlessNoWait(channel, args.get(), 1, CONFIRM_SELECT_OK);
+                    break;
+                case TX_SELECT:
+                    sendMethod(channel, TX_SELECT_OK, a -> { });
+                    break;
+                case TX_COMMIT:
+                    sendMethod(channel, TX_COMMIT_OK, a -> { });
+                    break;
+                case TX_ROLLBACK:
+                    sendMethod(channel, TX_ROLLBACK_OK, a -> { });
+                    break;
+
+                default:
+                    sendMethod(0, CONNECTION_CLOSE, a -> {
+                        a.writeShort(NOT_IMPLEMENTED);
+                        writeShortString(a, "NOT_IMPLEMENTED - stand-in does not support method " + (method >>> 16) + "." + (method & 0xffff));
+                        a.writeShort(method >>> 16);
+                        a.writeShort(method & 0xffff);
+                    });
+                    closing = true;
+                    break;
+            }
+        }
+
+        private void onContentHeader(int channel, ByteBuffer header) throws IOException {
+            ChannelState state = channels.get(channel);
+            if (state == null || !state.awaitingHeader) {
+                return;
+            }
+            state.awaitingHeader = false;
+            state.bodySize = header.getLong(4);
+            state.bodyRemaining = state.bodySize;
+            if (state.bodyRemaining == 0) {
+                published(channel, state);
+            }
+        }
+
+        private void onContentBody(int channel, int size) throws IOException {
+            ChannelState state = channels.get(channel);
+            if (state == null || state.bodyRemaining <= 0) {
+                return;
+            }
+            state.bodyRemaining -= size;
+            if (state.bodyRemaining <= 0) {
+                published(channel, state);
+            }
+        }
+
+        private void published(int channel, ChannelState state) throws IOException {
+            messages.increment();
+            messageBytes.add(state.bodySize);
+            if (state.confirms) {
+                long tag = ++state.deliveryTag;
+                sendMethod(channel, BASIC_ACK, a -> {
+                    a.writeLong(tag);
+                    a.writeByte(0);
+                });
+            }
+        }
+
+        private void replyUnlessNoWait(int channel, byte bits, int noWaitBit, int reply) throws IOException {
+            if ((bits & noWaitBit) == 0) {
+                sendMethod(channel, reply, a -> { });
+            }
+        }
+
+        private void sendMethod(int channel, int method, Arguments arguments) throws IOException {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+            DataOutputStream a = new DataOutputStream(payload);
+            a.writeShort(method >>> 16);
+            a.writeShort(method & 0xffff);
+            arguments.write(a);
+            synchronized (out) {
+                out.writeByte(FRAME_METHOD);
+                out.writeShort(channel);
+                out.writeInt(payload.size());
+                payload.writeTo(out);
+                out.writeByte(FRAME_END);
+                out.flush();
+            }
+        }
+
+        void sendHeartbeat() {
+            try {
+                synchronized (out) {
+                    out.writeByte(FRAME_HEARTBEAT);
+                    out.writeShort(0);
+                    out.writeInt(0);
+                    out.writeByte(FRAME_END);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            connections.remove(this);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static Map<String, Object> serverProperties() {
+        Map<String, Object> capabilities = new LinkedHashMap<>();
+        capabilities.put("publisher_confirms", true);
+        capabilities.put("basic.nack", true);
+        capabilities.put("exchange_exchange_bindings", true);
+        capabilities.put("consumer_cancel_notify", true);
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("product", "predictive-maintenance-loadtest stand-in");
+        properties.put("version", "0.9.1");
+        properties.put("capabilities", capabilities);
+        return properties;
+    }
+
+    private static String readShortString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.get() & 0xff];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipShortStrings(ByteBuffer buffer, int count) {
+        for (int i = 0; i < count; i++) {
+            int length = buffer.get() & 0xff;
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private static void writeShortString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(Math.min(bytes.length, 255));
+        out.write(bytes, 0, Math.min(bytes.length, 255));
+    }
+
+    private static void writeLongString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeTable(DataOutputStream out, Map<String, Object> table) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream fields = new DataOutputStream(buffer);
+        for (Map.Entry<String, Object> entry : table.entrySet()) {
+            writeShortString(fields, entry.getKey());
+            Object value = entry.getValue();
+            if (value instanceof Boolean) {
+                fields.writeByte('t');
+                fields.writeByte((Boolean) value ? 1 : 0);
+            } else if (value instanceof Map) {
+                fields.writeByte('F');
+                writeTable(fields, (Map<String, Object>) value);
+            } else {
+                fields.writeByte('S');
+                writeLongString(fields, String.valueOf(value));
+            }
+        }
+        out.writeInt(buffer.size());
+        buffer.writeTo(out);
+    }
+}
@@ -0,0 +1,109 @@
+package com.infrastructure.maintenance.loadtest.standin;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.infrastructure.maintenance.loadtest.standin.StandIn.respond;
+
+/**
+ * Enough of the InfluxDB 2 HTTP API for the backend's hot paths: {@code /api/v2/write} accepts
+ * and counts line protocol, {@code /api/v2/query} answers every Flux query with the same
+ * annotated CSV table of {@code queryRows} readings. Organization and bucket management are
+ * answered 404, so the backend skips retention tier provisioning and reads the raw bucket.
+ * An optional fixed latency models a remote server.
+ */
+public class StubInfluxDB implements StandIn {
+
+    private static final String CSV_HEADER =
+            "#datatype,string,long,dateTime:RFC3339,dateTime:RFC3339,dateTime:RFC3339,double,string,string,string,string,string\r\n" +
+            "#group,false,false,true,true,false,false,true,true,true,true,true\r\n" +
+            "#default,_result,,,,,,,,,,\r\n" +
+            ",result,table,_start,_stop,_time,_value,_field,_measurement,asset_id,sensor_type,sensor_id\r\n";
+
+    private final HttpServer server;
+    private final long latencyMs;
+    private final int queryRows;
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder points = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+
+    public StubInfluxDB(int port, long latencyMs, int queryRows, ExecutorService executor) throws IOException {
+        this.latencyMs = latencyMs;
+        this.queryRows = queryRows;
+        this.server = HttpServer.create(new InetSocketAddress(port), 512);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    @Override
+    public void start() {
+        server.start();
+    }
+
+    @Override
+    public void stop() {
+        server.stop(0);
+    }
+
+    @Override
+    public String getName() {
+        return "influxdb:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public String getCounters() {
+        return String.format("writes=%d points=%d queries=%d", writes.sum(), points.sum(), queries.sum());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            StandIn.sleep(latencyMs);
+
+            if (path.equals("/ping") || path.equals("/health")) {
+                respond(exchange, 200, "application/json", "{\"name\":\"influxdb\",\"status\":\"pass\"}");
+            } else if (path.equals("/api/v2/write")) {
+                writes.increment();
+                points.add(countLines(body));
+                exchange.sendResponseHeaders(204, -1);
+            } else if (path.equals("/api/v2/query")) {
+                queries.increment();
+                respond(exchange, 200, "text/csv; charset=utf-8", queryResult());
+            } else {
+                respond(exchange, 404, "application/json", "{\"code\":\"not found\",\"message\":\"not supported by stand-in\"}");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String queryResult() {
+        StringBuilder csv = new StringBuilder(CSV_HEADER.length() + queryRows * 160).append(CSV_HEADER);
+        Instant stop = Instant.now();
+        Instant start = stop.minusSeconds(queryRows * 10L);
+        for (int i = 0; i < queryRows; i++) {
+            csv.append(",,0,").append(start).append(',').append(stop).append(',')
+                    .append(start.plusSeconds(i * 10L)).append(',')
+                    .append(20 + (i % 10) * 0.1)
+                    .append(",value,sensor_readings,LT_STUB,TEMPERATURE,TEMP_001\r\n");
+        }
+        return csv.append("\r\n").toString();
+    }
+
+    private static long countLines(byte[] body) {
+        long lines = 0;
+        for (byte b : body) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+        return body.length > 0 && body[body.length - 1] != '\n' ? lines + 1 : lines;
+    }
+}
@@ -0,0 +1,133 @@
+package com.infrastructure.maintenance.loadtest.standin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.infrastructure.maintenance.loadtest.standin.StandIn.respond;
+
+/**
+ * Stands in for the Flask ML engine's {@code /health}, {@code /predict} and
+ * {@code /predict/batch}. Each asset gets a fixed failure probability derived from its id,
+ * mapped to a risk level with the same thresholds as the engine, so results are repeatable
+ * from run to run. An optional fixed latency per call models inference time.
+ */
+public class StubMLEngine implements StandIn {
+
+    private final HttpServer server;
+    private final ObjectMapper objectMapper;
+    private final long latencyMs;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder predictions = new LongAdder();
+
+    public StubMLEngine(int port, long latencyMs, ObjectMapper objectMapper, ExecutorService executor) throws IOException {
+        this.latencyMs = latencyMs;
+        this.objectMapper = objectMapper;
+        this.server = HttpServer.create(new InetSocketAddress(port), 512);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    @Override
+    public void start() {
+        server.start();
+    }
+
+    @Override
+    public void stop() {
+        server.stop(0);
+    }
+
+    @Override
+    public String getName() {
+        return "ml-engine:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public String getCounters() {
+        return String.format("calls=%d predictions=%d", calls.sum(), predictions.sum());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = exchange.getRequestBody().readAllBytes();
+
+            if (path.equals("/health")) {
+                respond(exchange, 200, "application/json", "{\"status\":\"healthy\",\"model_loaded\":true}");
+                return;
+            }
+
+            StandIn.sleep(latencyMs);
+            if (path.equals("/predict")) {
+                calls.increment();
+                respond(exchange, 200, "application/json",
+                        objectMapper.writeValueAsString(predict(objectMapper.readTree(body))));
+            } else if (path.equals("/predict/batch")) {
+                calls.increment();
+                List<Map<String, Object>> results = new ArrayList<>();
+                for (JsonNode request : objectMapper.readTree(body).path("requests")) {
+                    results.add(predict(request));
+                }
+                respond(exchange, 200, "application/json",
+                        objectMapper.writeValueAsString(Map.of("predictions", results)));
+            } else {
+                respond(exchange, 404, "application/json", "{\"error\":\"Not found\"}");
+            }
+        } catch (Exception e) {
+            respond(exchange, 500, "application/json", "{\"error\":\"Prediction failed\"}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Map<String, Object> predict(JsonNode request) {
+        predictions.increment();
+        String assetId = request.path("asset_id").asText();
+        double probability = (assetId.hashCode() & 0x7fffffff) % 1000 / 1000.0;
+
+        String riskLevel;
+        int daysToFailure;
+        double confidence;
+        if (probability > 0.8) {
+            riskLevel = "CRITICAL";
+            daysToFailure = 30;
+            confidence = 0.9;
+        } else if (probability > 0.6) {
+            riskLevel = "HIGH";
+            daysToFailure = 90;
+            confidence = 0.8;
+        } else if (probability > 0.4) {
+            riskLevel = "MEDIUM";
+            daysToFailure = 180;
+            confidence = 0.7;
+        } else {
+            riskLevel = "LOW";
+            daysToFailure = 365;
+            confidence = 0.6;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("asset_id", assetId);
+        result.put("failure_probability", probability);
+        result.put("risk_level", riskLevel);
+        result.put("confidence_score", confidence);
+        result.put("predicted_failure_date",
+                LocalDateTime.now().plusDays(daysToFailure).truncatedTo(ChronoUnit.SECONDS).toString());
+        result.put("model_version", "stand-in");
+        result.put("algorithm", "Stand-in");
+        return result;
+    }
+}
@@ -29,6 +29,37 @@ def health_check():
         'timestamp': datetime.now().isoformat()
     })
 
+def _predict_one(data):
+    """
+    Run preprocessing and prediction for a single asset request
+    """
+    # Extract asset information
+    asset_id = data.get('asset_id')
+    asset_type = data.get('asset_type')
+    installation_date = data.get('installation_date')
+    last_maintenance = data.get('last_maintenance')
+    sensor_data = data.get('sensor_data', [])
+    
+    # The backend sends per-sensor feature vectors instead of raw readings
+    if data.get('features'):
+        sensor_data = data_preprocessor.features_to_records(
+            data.get('features'), data.get('feature_names', [])
+        )
+    
+    logger.info(f"Prediction request for asset: {asset_id}")
+    
+    # Preprocess sensor data
+    processed_data = data_preprocessor.preprocess_sensor_data(sensor_data)
+    
+    # Generate prediction using LSTM model
+    return lstm_predictor.predict(
+        asset_id=asset_id,
+        asset_type=asset_type,
+        sensor_data=processed_data,
+        installation_date=installation_date,
+        last_maintenance=last_maintenance
+    )
+
 @app.route('/predict', methods=['POST'])
 def predict_maintenance():
     """
@@ -37,26 +68,7 @@ def predict_maintenance():
     try:
         data = request.get_json()
         
-        # Extract asset information
-        asset_id = data.get('asset_id')
-        asset_type = data.get('asset_type')
-        installation_date = data.get('installation_date')
-        last_maintenance = data.get('last_maintenance')
-        sensor_data = data.get('sensor_data', [])
-        
-        logger.info(f"Prediction request for asset: {asset_id}")
-        
-        # Preprocess sensor data
-        processed_data = data_preprocessor.preprocess_sensor_data(sensor_data)
-        
-        # Generate prediction using LSTM model
-        prediction_result = lstm_predictor.predict(
-            asset_id=asset_id,
-            asset_type=asset_type,
-            sensor_data=processed_data,
-            installation_date=installation_date,
-            last_maintenance=last_maintenance
-        )
+        prediction_result = _predict_one(data)
         
         return jsonify(prediction_result)
         
@@ -67,6 +79,40 @@ def predict_maintenance():
             'message': str(e)
         }), 500
 
+@app.route('/predict/batch', methods=['POST'])
+def predict_maintenance_batch():
+    """
+    Batch prediction endpoint used by the backend's micro-batcher.
+    Results are returned in request order; a failed item carries an error entry
+    instead of failing the whole batch.
+    """
+    try:
+        data = request.get_json()
+        requests_list = data.get('requests', [])
+        
+        logger.info(f"Batch prediction request for {len(requests_list)} assets")
+        
+        predictions = []
+        for item in requests_list:
+            try:
+                predictions.append(_predict_one(item))
+            except Exception as e:
+                logger.error(f"Error predicting asset {item.get('asset_id')}: {str(e)}")
+                predictions.append({
+                    'asset_id': item.get('asset_id'),
+                    'error': 'Prediction failed',
+                    'message': str(e)
+                })
+        
+        return jsonify({'predictions': predictions})
+        
+    except Exception as e:
+        logger.error(f"Error in batch prediction: {str(e)}")
+        return jsonify({
+            'error': 'Batch prediction failed',
+            'message': str(e)
+        }), 500
+
 @app.route('/train', methods=['POST'])
 def train_model():
     """
@@ -0,0 +1,104 @@
+"""
+Export the backup Random Forest model for the backend's in-JVM inference mode
+(ml.engine.mode=local).
+
+Usage: python export_model.py [output_path]
+
+The export also carries fixed prediction requests, shaped like the backend's
+RemoteInferenceEngine requests, with the feature row and score this engine derives from
+each. The backend's LocalInferenceParityTest replays them through its own feature and
+scoring path.
+"""
+import sys
+import logging
+from datetime import datetime
+import numpy as np
+from sklearn.utils.validation import check_is_fitted
+from sklearn.exceptions import NotFittedError
+from models.lstm_predictor import LSTMPredictor
+from utils.data_preprocessor import DataPreprocessor
+
+logging.basicConfig(level=logging.INFO)
+logger = logging.getLogger(__name__)
+
+# Clock used for asset ages, so the expected rows do not change from day to day
+PARITY_NOW = datetime(2024, 6, 1, 12, 0, 0)
+
+# SensorFeatureExtractor.FEATURE_NAMES
+BACKEND_FEATURE_NAMES = [
+    'mean', 'variance', 'rms', 'peak_to_peak', 'kurtosis',
+    'band_energy_0', 'band_energy_1', 'band_energy_2', 'band_energy_3', 'sample_count'
+]
+
+
+def sensor(mean, sample_count=60):
+    return [mean, 1.5, abs(mean), 4.0, 0.1, 0.0, 0.0, 0.0, 0.0, sample_count]
+
+
+PARITY_REQUESTS = [
+    # Every sensor reporting, within range
+    {'asset_id': 'PARITY_1', 'asset_type': 'BRIDGE',
+     'installation_date': '2015-03-15T00:00:00', 'last_maintenance': '2023-06-15T00:00:00',
+     'features': {'TEMPERATURE': sensor(21.5), 'VIBRATION': sensor(14.2), 'PRESSURE': sensor(101.1),
+                  'HUMIDITY': sensor(63.0), 'STRAIN': sensor(72.4)}},
+    # Some sensors only; the others take their defaults
+    {'asset_id': 'PARITY_2', 'asset_type': 'TUNNEL',
+     'installation_date': '2010-12-01T00:00:00', 'last_maintenance': None,
+     'features': {'VIBRATION': sensor(35.0), 'STRAIN': sensor(140.0)}},
+    # Means outside the valid ranges are clamped
+    {'asset_id': 'PARITY_3', 'asset_type': 'ROAD',
+     'installation_date': '2018-08-20T00:00:00', 'last_maintenance': '2023-08-01T00:00:00',
+     'features': {'TEMPERATURE': sensor(130.0), 'VIBRATION': sensor(-4.0), 'HUMIDITY': sensor(120.0)}},
+    # Sensors without samples in the window: the no-data baseline
+    {'asset_id': 'PARITY_4', 'asset_type': 'BUILDING',
+     'installation_date': '2012-05-10T00:00:00', 'last_maintenance': '2023-07-20T00:00:00',
+     'features': {'TEMPERATURE': sensor(25.0, 0)}},
+    # No features and no dates: baseline for an asset assumed a year old
+    {'asset_id': 'PARITY_5', 'asset_type': 'BRIDGE',
+     'installation_date': None, 'last_maintenance': None,
+     'features': {}},
+    # Unknown asset and sensor types
+    {'asset_id': 'PARITY_6', 'asset_type': 'PIPELINE',
+     'installation_date': '2020-01-01T00:00:00', 'last_maintenance': '2024-05-31T18:00:00',
+     'features': {'NOISE': sensor(80.0), 'PRESSURE': sensor(99.0)}},
+]
+
+
+def replay_requests(predictor):
+    """
+    Runs each parity request through the same steps as app._predict_one and records the
+    feature row and backup-model score the prediction is based on
+    """
+    preprocessor = DataPreprocessor()
+    samples = []
+    for request in PARITY_REQUESTS:
+        sensor_data = []
+        if request['features']:
+            sensor_data = preprocessor.features_to_records(request['features'], BACKEND_FEATURE_NAMES)
+        processed = preprocessor.preprocess_sensor_data(sensor_data)
+        rows = predictor._prepare_features(processed, request['asset_type'], request['installation_date'],
+                                           request['last_maintenance'], now=PARITY_NOW)
+        samples.append(dict(request,
+                            now=PARITY_NOW.isoformat(),
+                            feature_names=BACKEND_FEATURE_NAMES,
+                            expected_features=rows[-1].tolist(),
+                            expected=float(predictor._fallback_prediction(rows))))
+    return samples
+
+
+if __name__ == '__main__':
+    output_path = sys.argv[1] if len(sys.argv) > 1 else 'saved_models/forest_model.json'
+
+    predictor = LSTMPredictor()
+    predictor.load_model()
+
+    try:
+        check_is_fitted(predictor.backup_model)
+    except NotFittedError:
+        # Same placeholder fit as LSTMPredictor.train() when no trained model is saved
+        logger.warning("No trained backup model found, fitting placeholder model")
+        X_train = np.random.rand(100, len(predictor.feature_names))
+        y_train = np.random.rand(100)
+        predictor.backup_model.fit(X_train, y_train)
+
+    predictor.export_forest(output_path, request_samples=replay_requests(predictor))
@@ -7,6 +7,7 @@ from sklearn.preprocessing import MinMaxScaler
 from sklearn.ensemble import RandomForestRegressor
 from sklearn.metrics import mean_squared_error, mean_absolute_error, r2_score
 import joblib
+import json
 import os
 from datetime import datetime, timedelta
 import logging
@@ -110,28 +111,31 @@ class LSTMPredictor:
                 asset_id, asset_type, installation_date, last_maintenance
             )
     
-    def _prepare_features(self, sensor_data, asset_type, installation_date, last_maintenance):
+    def _prepare_features(self, sensor_data, asset_type, installation_date, last_maintenance, now=None):
         """
-        Prepare feature matrix from sensor data and asset information
+        Prepare feature matrix from sensor data and asset information.
+        The backend's in-JVM scorer (LocalInferenceService.buildFeatures) mirrors the last row.
         """
+        now = now or datetime.now()
+        
         # Calculate asset age and maintenance information
-        install_date = datetime.fromisoformat(installation_date) if installation_date else datetime.now() - timedelta(days=365)
+        install_date = datetime.fromisoformat(installation_date) if installation_date else now - timedelta(days=365)
         maint_date = datetime.fromisoformat(last_maintenance) if last_maintenance else install_date
         
-        asset_age_months = (datetime.now() - install_date).days / 30
-        months_since_maintenance = (datetime.now() - maint_date).days / 30
+        asset_age_months = (now - install_date).days / 30
+        months_since_maintenance = (now - maint_date).days / 30
         
         # Encode asset type
         asset_type_map = {'BRIDGE': 1, 'ROAD': 2, 'BUILDING': 3, 'TUNNEL': 4}
         asset_type_encoded = asset_type_map.get(asset_type, 0)
         
-        # Extract sensor readings (mock data if no real sensor data)
+        # Extract sensor readings (baseline data if no real sensor data)
         if not sensor_data:
-            # Generate mock data based on asset type and age
-            sensor_data = self._generate_mock_sensor_data(asset_type, asset_age_months)
+            # Generate baseline data based on asset type and age
+            sensor_data = self._generate_mock_sensor_data(asset_type, asset_age_months, now)
         
         features = []
-        for record in sensor_data[:24]:  # Last 24 hours
+        for record in sensor_data[-24:]:  # Last 24 hours
             feature_row = [
                 record.get('temperature', 20.0),
                 record.get('vibration', 10.0),
@@ -146,9 +150,10 @@ class LSTMPredictor:
         
         return np.array(features)
     
-    def _generate_mock_sensor_data(self, asset_type, asset_age_months):
+    def _generate_mock_sensor_data(self, asset_type, asset_age_months, now):
         """
-        Generate mock sensor data for prediction
+        Generate baseline sensor data for prediction when the asset has no readings.
+        Deterministic, so an asset without data always scores the same.
         """
         data = []
         base_values = {
@@ -165,12 +170,12 @@ class LSTMPredictor:
         
         for i in range(24):
             data.append({
-                'temperature': base['temp'] + np.random.normal(0, 3) + aging_factor * 5,
-                'vibration': base['vib'] + np.random.normal(0, 2) + aging_factor * 10,
-                'pressure': 101.3 + np.random.normal(0, 1),
-                'humidity': 60 + np.random.normal(0, 10),
-                'strain': base['strain'] + np.random.normal(0, 5) + aging_factor * 20,
-                'timestamp': (datetime.now() - timedelta(hours=23-i)).isoformat()
+                'temperature': base['temp'] + aging_factor * 5,
+                'vibration': base['vib'] + aging_factor * 10,
+                'pressure': 101.3,
+                'humidity': 60.0,
+                'strain': base['strain'] + aging_factor * 20,
+                'timestamp': (now - timedelta(hours=23-i)).isoformat()
             })
         
         return data
@@ -334,6 +339,55 @@ class LSTMPredictor:
         except Exception as e:
             logger.error(f"Error loading models: {str(e)}")
     
+    def export_forest(self, path, parity_sample_count=50, request_samples=None):
+        """
+        Export the Random Forest backup model as flat per-tree arrays for the backend's
+        in-JVM scorer, together with parity samples scored by scikit-learn and, optionally,
+        whole requests with the feature row and score this engine derived from them
+        """
+        trees = []
+        for estimator in self.backup_model.estimators_:
+            tree = estimator.tree_
+            trees.append({
+                'children_left': tree.children_left.tolist(),
+                'children_right': tree.children_right.tolist(),
+                'feature': tree.feature.tolist(),
+                'threshold': tree.threshold.tolist(),
+                'value': tree.value[:, 0, 0].tolist()
+            })
+
+        # Inputs spread over realistic sensor ranges and asset ages
+        rng = np.random.default_rng(42)
+        samples = np.column_stack([
+            rng.uniform(-20, 60, parity_sample_count),   # temperature
+            rng.uniform(0, 80, parity_sample_count),     # vibration
+            rng.uniform(95, 110, parity_sample_count),   # pressure
+            rng.uniform(20, 100, parity_sample_count),   # humidity
+            rng.uniform(0, 150, parity_sample_count),    # strain
+            rng.uniform(0, 240, parity_sample_count),    # asset_age_months
+            rng.uniform(0, 60, parity_sample_count),     # months_since_maintenance
+            rng.integers(0, 5, parity_sample_count)      # asset_type_encoded
+        ])
+        expected = np.clip(self.backup_model.predict(samples), 0.0, 1.0)
+
+        export = {
+            'model_version': self.model_version,
+            'model_type': 'RandomForestRegressor',
+            'feature_names': self.feature_names,
+            'trees': trees,
+            'parity_samples': [
+                {'features': row.tolist(), 'expected': float(score)}
+                for row, score in zip(samples, expected)
+            ]
+        }
+        if request_samples is not None:
+            export['request_samples'] = request_samples
+
+        os.makedirs(os.path.dirname(path) or '.', exist_ok=True)
+        with open(path, 'w') as f:
+            json.dump(export, f)
+        logger.info(f"Exported {len(trees)} trees to {path}")
+
     def get_model_version(self):
         return self.model_version
     
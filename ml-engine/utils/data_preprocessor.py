@@ -39,6 +39,27 @@ class DataPreprocessor:
         
         return processed_data
     
+    def features_to_records(self, features, feature_names):
+        """
+        Convert backend feature vectors ({sensor_type: [values in feature_names order]})
+        into a single sensor record using each sensor's windowed mean. The remaining
+        features (variance, RMS, kurtosis, band energies, ...) are kept under
+        '<sensor>_<feature>' keys for models that use them. Returns no records when no
+        sensor has samples, so the predictor takes its no-data path.
+        """
+        record = {'timestamp': datetime.now().isoformat()}
+        sensors = 0
+        for sensor_type, vector in features.items():
+            named = dict(zip(feature_names, vector))
+            if not named.get('sample_count'):
+                continue
+            key = sensor_type.lower()
+            record[key] = named.get('mean')
+            for name, value in named.items():
+                record[f'{key}_{name}'] = value
+            sensors += 1
+        return [record] if sensors else []
+    
     def _validate_sensor_value(self, value, sensor_type):
         """
         Validate and clean sensor values